@@ -0,0 +1,109 @@
+package com.seckill.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 对比JMH结果(-rf json)与保存的基线，变差超过阈值且超出误差范围时以退出码1结束
+ * 用法: BaselineCheck <结果json> <基线json> [--threshold=0.10] [--update]
+ * --update 把本次结果保存为新基线（只在基线机器上、确认结果可信后执行）
+ */
+public class BaselineCheck {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("用法: BaselineCheck <结果json> <基线json> [--threshold=0.10] [--update]");
+            System.exit(2);
+        }
+        File resultFile = new File(args[0]);
+        File baselineFile = new File(args[1]);
+        double threshold = 0.10;
+        boolean update = false;
+        for (int i = 2; i < args.length; i++) {
+            if (args[i].startsWith("--threshold=")) {
+                threshold = Double.parseDouble(args[i].substring("--threshold=".length()));
+            } else if (args[i].equals("--update")) {
+                update = true;
+            }
+        }
+
+        if (update) {
+            Files.copy(resultFile.toPath(), baselineFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            System.out.println("基线已更新: " + baselineFile);
+            return;
+        }
+        if (!baselineFile.exists()) {
+            System.out.println("基线不存在: " + baselineFile + "，用 --update 保存本次结果作为基线");
+            return;
+        }
+
+        ObjectMapper mapper = new ObjectMapper();
+        Map<String, JsonNode> baseline = index(mapper.readTree(baselineFile));
+        Map<String, JsonNode> current = index(mapper.readTree(resultFile));
+
+        int regressions = 0;
+        System.out.printf("%-70s %14s %14s %9s%n", "benchmark", "baseline", "current", "change");
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode base = baseline.get(entry.getKey());
+            JsonNode metric = entry.getValue().path("primaryMetric");
+            String unit = metric.path("scoreUnit").asText();
+            double score = metric.path("score").asDouble();
+            if (base == null) {
+                System.out.printf("%-70s %14s %14.3f %9s  (新增, %s)%n", entry.getKey(), "-", score, "-", unit);
+                continue;
+            }
+            JsonNode baseMetric = base.path("primaryMetric");
+            double baseScore = baseMetric.path("score").asDouble();
+            double change = baseScore == 0 ? 0 : (score - baseScore) / baseScore;
+            // 吞吐模式越大越好，其余（平均时间、采样时间）越小越好
+            boolean higherIsBetter = "thrpt".equals(entry.getValue().path("mode").asText());
+            double worse = higherIsBetter ? baseScore - score : score - baseScore;
+            double noise = errorOf(baseMetric) + errorOf(metric);
+            boolean regressed = worse > threshold * baseScore && worse > noise;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%-70s %14.3f %14.3f %+8.1f%%  %s%s%n", entry.getKey(), baseScore, score,
+                    change * 100, unit, regressed ? "  <-- 回退" : "");
+        }
+        for (String key : baseline.keySet()) {
+            if (!current.containsKey(key)) {
+                System.out.printf("%-70s 本次未运行%n", key);
+            }
+        }
+
+        if (regressions > 0) {
+            System.out.printf("%d 项基准变差超过 %.0f%%%n", regressions, threshold * 100);
+            System.exit(1);
+        }
+        System.out.println("没有超过阈值的回退");
+    }
+
+    /**
+     * 以 benchmark名 + 参数 + 模式 作为对比键
+     */
+    private static Map<String, JsonNode> index(JsonNode results) {
+        Map<String, JsonNode> map = new LinkedHashMap<>();
+        for (JsonNode result : results) {
+            StringBuilder key = new StringBuilder(result.path("benchmark").asText()
+                    .replace("com.seckill.benchmark.", ""));
+            result.path("params").fields().forEachRemaining(p ->
+                    key.append(' ').append(p.getKey()).append('=').append(p.getValue().asText()));
+            key.append(" [").append(result.path("mode").asText()).append(']');
+            map.put(key.toString(), result);
+        }
+        return map;
+    }
+
+    private static double errorOf(JsonNode metric) {
+        double error = metric.path("scoreError").asDouble(0);
+        return Double.isNaN(error) ? 0 : error;
+    }
+}
@@ -0,0 +1,81 @@
+package com.seckill.benchmark;
+
+import com.seckill.util.HBaseUtil;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellComparator;
+import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 不连HBase的HBaseUtil：写入只记录最后一批Put，读取返回预先放入的Result
+ * 夹具行由mapper自己的insert生成，保证编码格式与线上写入一致
+ */
+public class FixtureHBaseUtil extends HBaseUtil {
+
+    private final Map<String, Result> rows = new HashMap<>();
+
+    private final Map<String, List<Put>> lastPutsByTable = new HashMap<>();
+
+    private List<Put> lastPuts = List.of();
+
+    @Override
+    public void putBatch(String tableName, List<Put> puts) {
+        lastPuts = puts;
+        lastPutsByTable.put(tableName, puts);
+    }
+
+    @Override
+    public Result get(String tableName, String rowKey) {
+        return row(tableName, Bytes.toBytes(rowKey));
+    }
+
+    @Override
+    public Result get(String tableName, Get get) {
+        return row(tableName, get.getRow());
+    }
+
+    @Override
+    public Result[] get(String tableName, List<Get> gets) {
+        Result[] results = new Result[gets.size()];
+        for (int i = 0; i < gets.size(); i++) {
+            results[i] = row(tableName, gets.get(i).getRow());
+        }
+        return results;
+    }
+
+    private Result row(String tableName, byte[] row) {
+        Result result = rows.get(tableName + "/" + Bytes.toStringBinary(row));
+        return result != null ? result : Result.EMPTY_RESULT;
+    }
+
+    /**
+     * 最近一次写入的Put（不区分表）
+     */
+    public List<Put> lastPuts() {
+        return lastPuts;
+    }
+
+    /**
+     * 把该表最近一次写入的Put转成读出来的Result并保存，之后按表名+行键get
+     */
+    public Result storeLastPut(String tableName) {
+        List<Put> puts = lastPutsByTable.getOrDefault(tableName, List.of());
+        if (puts.size() != 1) {
+            throw new IllegalStateException("期望一次写入一行，实际: " + puts.size());
+        }
+        Put put = puts.get(0);
+        List<Cell> cells = new ArrayList<>();
+        put.getFamilyCellMap().values().forEach(cells::addAll);
+        cells.sort(CellComparator.getInstance());
+        Result result = Result.create(cells);
+        rows.put(tableName + "/" + Bytes.toStringBinary(put.getRow()), result);
+        return result;
+    }
+}
@@ -0,0 +1,113 @@
+package com.seckill.benchmark;
+
+import com.seckill.entity.Product;
+import com.seckill.entity.SeckillActivity;
+import com.seckill.entity.SeckillOrder;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 基准测试夹具：字段取值贴近线上数据（中文名称、JSON规格、多图、雪花订单ID）
+ */
+public final class Fixtures {
+
+    public static final long PRODUCT_ID = 10001L;
+    public static final long ACTIVITY_ID = 20001L;
+    public static final long USER_ID = 3000017L;
+    /** 雪花算法生成的订单ID，超过JS安全整数范围 */
+    public static final long ORDER_ID = 369861745872732209L;
+
+    private static final LocalDateTime CREATE_TIME = LocalDateTime.of(2024, 11, 11, 0, 0, 0);
+
+    private Fixtures() {
+    }
+
+    public static Product product() {
+        Product product = new Product();
+        product.setId(PRODUCT_ID);
+        product.setProductName("Apple iPhone 15 Pro Max 256GB 原色钛金属 5G手机");
+        product.setProductDesc("A17 Pro芯片，钛金属设计，4800万像素主摄，支持USB 3传输速度，"
+                + "超视网膜XDR显示屏，全天候显示，灵动岛，Action按钮，支持卫星SOS紧急联络。");
+        product.setPrice(new BigDecimal("9999.00"));
+        product.setCost(new BigDecimal("7350.50"));
+        product.setStock(5000);
+        product.setCategoryId(12L);
+        product.setBrand("Apple");
+        product.setImages("https://img.example.com/p/10001/main.jpg,https://img.example.com/p/10001/side.jpg,"
+                + "https://img.example.com/p/10001/back.jpg");
+        product.setSpec("{\"颜色\":\"原色钛金属\",\"存储\":\"256GB\",\"网络\":\"5G\",\"屏幕\":\"6.7英寸\"}");
+        product.setTags("新品,热卖,官方正品");
+        product.setWarehouseStock("{\"WH-BJ-01\":1200,\"WH-SH-02\":2300,\"WH-GZ-03\":1500}");
+        product.setSafeStock(200);
+        product.setLockStock(35);
+        product.setViewCount(1283746L);
+        product.setSaleCount(58231L);
+        product.setCollectCount(9932L);
+        product.setStatus(1);
+        product.setCreateTime(CREATE_TIME);
+        product.setUpdateTime(CREATE_TIME.plusDays(3).plusHours(7));
+        product.setDeleted(0);
+        return product;
+    }
+
+    public static SeckillActivity activity() {
+        SeckillActivity activity = new SeckillActivity();
+        activity.setId(ACTIVITY_ID);
+        activity.setActivityName("双十一零点秒杀 iPhone 15 Pro Max 限量抢购");
+        activity.setProductId(PRODUCT_ID);
+        activity.setSeckillPrice(new BigDecimal("6999.00"));
+        activity.setSeckillStock(1000);
+        activity.setSoldCount(382);
+        activity.setStockBuckets(8);
+        activity.setStartTime(CREATE_TIME);
+        activity.setEndTime(CREATE_TIME.plusHours(2));
+        activity.setStatus(1);
+        activity.setCreateTime(CREATE_TIME.minusDays(7));
+        activity.setUpdateTime(CREATE_TIME.minusDays(1));
+        activity.setDeleted(0);
+        return activity;
+    }
+
+    public static SeckillOrder order() {
+        SeckillOrder order = new SeckillOrder();
+        order.setId(ORDER_ID);
+        order.setOrderNo(String.format("SK%019d", ORDER_ID));
+        order.setUserId(USER_ID);
+        order.setActivityId(ACTIVITY_ID);
+        order.setProductId(PRODUCT_ID);
+        order.setProductName("Apple iPhone 15 Pro Max 256GB 原色钛金属 5G手机");
+        order.setSeckillPrice(new BigDecimal("6999.00"));
+        order.setQuantity(1);
+        order.setTotalAmount(new BigDecimal("6999.00"));
+        order.setDiscountAmount(new BigDecimal("3000.00"));
+        order.setActualAmount(new BigDecimal("6999.00"));
+        order.setStatus(1);
+        order.setPayMethod("ALIPAY");
+        order.setCreateTime(CREATE_TIME.plusSeconds(3));
+        order.setPayTime(CREATE_TIME.plusMinutes(2));
+        order.setReceiver("张三");
+        order.setPhone("13800138000");
+        order.setAddress("北京市海淀区中关村大街1号院3号楼1201");
+        order.setPostcode("100080");
+        order.setOrderItems("[{\"product_id\":\"10001\",\"name\":\"Apple iPhone 15 Pro Max\",\"price\":6999,"
+                + "\"quantity\":1,\"amount\":6999}]");
+        order.setDeleted(0);
+        return order;
+    }
+
+    /**
+     * 给@Autowired/@Value字段赋值，基准测试不启动Spring容器
+     */
+    public static <T> T inject(T target, String fieldName, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), fieldName);
+        if (field == null) {
+            throw new IllegalArgumentException(target.getClass().getSimpleName() + " 没有字段 " + fieldName);
+        }
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+        return target;
+    }
+}
@@ -0,0 +1,59 @@
+package com.seckill.benchmark;
+
+import com.seckill.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWT签发与解析
+ * authInterceptor 按AuthInterceptor的实际调用（getUserId、getUsername、getRole各解析一次）计时
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    private JwtUtil jwtUtil;
+    private String token;
+
+    @Setup
+    public void setup() {
+        jwtUtil = new JwtUtil();
+        // 与application.yml的jwt配置相同
+        Fixtures.inject(jwtUtil, "secret", "seckill2023secretkeyforjwtsecurity256bitsminimumrequirement");
+        Fixtures.inject(jwtUtil, "expiration", 86400000L);
+        token = jwtUtil.generateToken(Fixtures.USER_ID, "loadsim_17", 0);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(Fixtures.USER_ID, "loadsim_17", 0);
+    }
+
+    @Benchmark
+    public Claims parseToken() {
+        return jwtUtil.parseToken(token);
+    }
+
+    @Benchmark
+    public void authInterceptor(Blackhole bh) {
+        bh.consume(jwtUtil.getUserId(token));
+        bh.consume(jwtUtil.getUsername(token));
+        bh.consume(jwtUtil.getRole(token));
+    }
+}
@@ -0,0 +1,121 @@
+package com.seckill.benchmark;
+
+import com.seckill.entity.Product;
+import com.seckill.entity.SeckillOrder;
+import com.seckill.mapper.impl.ProductMapperImpl;
+import com.seckill.mapper.impl.SeckillOrderMapperImpl;
+import com.seckill.util.HBaseCodec;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HBase mapper每行开销：Result转实体（selectById）、实体转Put（insert）
+ * 以及拆开的单项成本：列族/列名转字节、时间解码
+ * binary=false为旧的字符串单元格格式，对比二进制编码前后的转换开销
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+
+    @Param({"true", "false"})
+    private boolean binary;
+
+    private FixtureHBaseUtil hBaseUtil;
+    private ProductMapperImpl productMapper;
+    private SeckillOrderMapperImpl orderMapper;
+    private Product product;
+    private SeckillOrder order;
+    private byte[] createTimeCell;
+
+    @Setup
+    public void setup() {
+        hBaseUtil = Fixtures.inject(new FixtureHBaseUtil(), "codecWriteBinary", binary);
+        productMapper = Fixtures.inject(new ProductMapperImpl(), "hBaseUtil", hBaseUtil);
+        orderMapper = Fixtures.inject(new SeckillOrderMapperImpl(), "hBaseUtil", hBaseUtil);
+
+        product = Fixtures.product();
+        order = Fixtures.order();
+        // 用mapper自己的写入路径生成读取夹具，编码变化时夹具跟着变
+        productMapper.insert(product);
+        hBaseUtil.storeLastPut("product_info");
+        orderMapper.insert(order);
+        hBaseUtil.storeLastPut("order_history");
+        hBaseUtil.storeLastPut("order_index");
+        createTimeCell = hBaseUtil.encodeTime(product.getCreateTime());
+
+        if (productMapper.selectById(Fixtures.PRODUCT_ID) == null || orderMapper.selectById(Fixtures.ORDER_ID) == null) {
+            throw new IllegalStateException("夹具行转换失败，检查mapper编码");
+        }
+    }
+
+    @Benchmark
+    public Product productConvert() {
+        return productMapper.selectById(Fixtures.PRODUCT_ID);
+    }
+
+    @Benchmark
+    public SeckillOrder orderConvert() {
+        return orderMapper.selectById(Fixtures.ORDER_ID);
+    }
+
+    @Benchmark
+    public List<?> productInsertPut() {
+        productMapper.insert(product);
+        return hBaseUtil.lastPuts();
+    }
+
+    @Benchmark
+    public List<?> orderInsertPut() {
+        orderMapper.insert(order);
+        return hBaseUtil.lastPuts();
+    }
+
+    /**
+     * getValueFromResult每列都重新编码列族和列名
+     */
+    @Benchmark
+    public byte[][] columnNameToBytes() {
+        return new byte[][]{Bytes.toBytes("cf_base"), Bytes.toBytes("create_time")};
+    }
+
+    /**
+     * 每行两次（create_time、update_time）
+     */
+    @Benchmark
+    public LocalDateTime decodeDateTime() {
+        return HBaseCodec.decodeTime(createTimeCell);
+    }
+
+    /**
+     * 单行Put的单元格值总字节数，binary两种取值对比行大小（结果看返回值，不看耗时）
+     */
+    @Benchmark
+    public long productPutValueBytes() {
+        productMapper.insert(product);
+        long bytes = 0;
+        for (var cells : hBaseUtil.lastPuts().get(0).getFamilyCellMap().values()) {
+            for (var cell : cells) {
+                bytes += cell.getValueLength();
+            }
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,77 @@
+package com.seckill.benchmark;
+
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.seckill.config.HBaseConnectionProvider;
+import com.seckill.config.HBaseTableInitializer;
+import com.seckill.entity.Product;
+import com.seckill.hbase.InMemoryHBase;
+import com.seckill.mapper.impl.ProductMapperImpl;
+import com.seckill.util.HBaseUtil;
+import org.apache.hadoop.hbase.HBaseConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * mapper随数据量的变化：在进程内HBase上灌入不同行数的商品
+ * 点查应与行数无关，分页查询目前是全表扫描后内存分页，耗时随行数线性增长
+ * latencyUs 模拟每次RPC的网络耗时，0时只剩客户端转换和扫描本身的开销
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapperScalingBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    private int rows;
+
+    @Param({"0", "500"})
+    private long latencyUs;
+
+    private ProductMapperImpl productMapper;
+
+    @Setup
+    public void setup() throws Exception {
+        InMemoryHBase hbase = new InMemoryHBase(HBaseConfiguration.create(), 0, 0);
+        HBaseConnectionProvider provider = hbase;
+        Fixtures.inject(new HBaseTableInitializer(), "connectionProvider", provider).run();
+
+        HBaseUtil hBaseUtil = Fixtures.inject(new HBaseUtil(), "connectionProvider", provider);
+        Fixtures.inject(hBaseUtil, "codecWriteBinary", true);
+        productMapper = Fixtures.inject(new ProductMapperImpl(), "hBaseUtil", hBaseUtil);
+        for (int i = 1; i <= rows; i++) {
+            Product product = Fixtures.product();
+            product.setId((long) i);
+            product.setProductName(product.getProductName() + " #" + i);
+            product.setCreateTime(product.getCreateTime().plusSeconds(i));
+            productMapper.insert(product);
+        }
+
+        // 灌数据不计延迟，灌完再打开
+        hbase.setLatency(latencyUs, 0);
+    }
+
+    @Benchmark
+    public Product selectById() {
+        return productMapper.selectById((long) (rows / 2));
+    }
+
+    @Benchmark
+    public IPage<Product> selectProductPage() {
+        return productMapper.selectProductPage(new Page<>(1, 20), null);
+    }
+}
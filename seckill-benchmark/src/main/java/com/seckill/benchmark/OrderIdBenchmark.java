@@ -0,0 +1,56 @@
+package com.seckill.benchmark;
+
+import com.seckill.util.SnowflakeIdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 订单ID与订单号生成；nextOrderIdContended 模拟秒杀时多线程争用同一个CAS
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class OrderIdBenchmark {
+
+    private SnowflakeIdGenerator idGenerator;
+
+    @Setup
+    public void setup() {
+        idGenerator = Fixtures.inject(new SnowflakeIdGenerator(), "nodeId", 1L);
+    }
+
+    @Benchmark
+    public long nextOrderId() {
+        return idGenerator.nextOrderId(Fixtures.USER_ID);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public long nextOrderIdContended() {
+        return idGenerator.nextOrderId(Fixtures.USER_ID);
+    }
+
+    @Benchmark
+    public String orderNo() {
+        return idGenerator.orderNo(Fixtures.ORDER_ID);
+    }
+
+    @Benchmark
+    public String nextOrderIdAndNo() {
+        return idGenerator.orderNo(idGenerator.nextOrderId(Fixtures.USER_ID));
+    }
+}
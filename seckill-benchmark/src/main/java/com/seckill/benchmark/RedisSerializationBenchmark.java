@@ -0,0 +1,97 @@
+package com.seckill.benchmark;
+
+import com.seckill.config.RedisConfig;
+import com.seckill.entity.Product;
+import com.seckill.entity.SeckillActivity;
+import com.seckill.vo.OrderStatusVO;
+import com.seckill.vo.ProductVO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.BeanUtils;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RedisTemplate值序列化：直接取RedisConfig配置出的GenericJackson2JsonRedisSerializer（带默认类型信息）
+ * 值类型取线上实际写入的：活动快照、商品详情缓存、订单状态
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class RedisSerializationBenchmark {
+
+    private RedisSerializer<Object> serializer;
+    private SeckillActivity activity;
+    private ProductVO productVO;
+    private OrderStatusVO orderStatus;
+    private byte[] activityBytes;
+    private byte[] productVOBytes;
+    private byte[] orderStatusBytes;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        // 连接工厂不启动，只用来通过RedisTemplate的参数校验
+        RedisTemplate<String, Object> template = new RedisConfig().redisTemplate(new LettuceConnectionFactory());
+        serializer = (RedisSerializer<Object>) template.getValueSerializer();
+
+        activity = Fixtures.activity();
+        Product product = Fixtures.product();
+        productVO = new ProductVO();
+        BeanUtils.copyProperties(product, productVO);
+        productVO.setCategoryName("手机通讯");
+        productVO.setStatusDesc("上架");
+        orderStatus = new OrderStatusVO();
+        orderStatus.setOrderId(Fixtures.ORDER_ID);
+        orderStatus.setStatus(0);
+        orderStatus.setStatusDesc("待支付");
+
+        activityBytes = serializer.serialize(activity);
+        productVOBytes = serializer.serialize(productVO);
+        orderStatusBytes = serializer.serialize(orderStatus);
+    }
+
+    @Benchmark
+    public byte[] activitySerialize() {
+        return serializer.serialize(activity);
+    }
+
+    @Benchmark
+    public Object activityDeserialize() {
+        return serializer.deserialize(activityBytes);
+    }
+
+    @Benchmark
+    public byte[] productVOSerialize() {
+        return serializer.serialize(productVO);
+    }
+
+    @Benchmark
+    public Object productVODeserialize() {
+        return serializer.deserialize(productVOBytes);
+    }
+
+    @Benchmark
+    public byte[] orderStatusSerialize() {
+        return serializer.serialize(orderStatus);
+    }
+
+    @Benchmark
+    public Object orderStatusDeserialize() {
+        return serializer.deserialize(orderStatusBytes);
+    }
+}
@@ -0,0 +1,81 @@
+package com.seckill.benchmark;
+
+import com.seckill.entity.Product;
+import com.seckill.entity.SeckillActivity;
+import com.seckill.entity.SeckillOrder;
+import com.seckill.vo.ProductVO;
+import com.seckill.vo.SeckillActivityVO;
+import com.seckill.vo.SeckillOrderVO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.BeanUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 实体转VO：服务层统一用BeanUtils.copyProperties，逐个VO反射拷贝
+ * productManual 为手写setter的参照值
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Benchmark)
+public class VoMappingBenchmark {
+
+    private Product product;
+    private SeckillActivity activity;
+    private SeckillOrder order;
+
+    @Setup
+    public void setup() {
+        product = Fixtures.product();
+        activity = Fixtures.activity();
+        order = Fixtures.order();
+    }
+
+    @Benchmark
+    public ProductVO productCopyProperties() {
+        ProductVO vo = new ProductVO();
+        BeanUtils.copyProperties(product, vo);
+        return vo;
+    }
+
+    @Benchmark
+    public ProductVO productManual() {
+        ProductVO vo = new ProductVO();
+        vo.setId(product.getId());
+        vo.setProductName(product.getProductName());
+        vo.setProductDesc(product.getProductDesc());
+        vo.setPrice(product.getPrice());
+        vo.setStock(product.getStock());
+        vo.setCategoryId(product.getCategoryId());
+        vo.setImgUrl(product.getImgUrl());
+        vo.setStatus(product.getStatus());
+        vo.setCreateTime(product.getCreateTime());
+        return vo;
+    }
+
+    @Benchmark
+    public SeckillActivityVO activityCopyProperties() {
+        SeckillActivityVO vo = new SeckillActivityVO();
+        BeanUtils.copyProperties(activity, vo);
+        return vo;
+    }
+
+    @Benchmark
+    public SeckillOrderVO orderCopyProperties() {
+        SeckillOrderVO vo = new SeckillOrderVO();
+        BeanUtils.copyProperties(order, vo);
+        return vo;
+    }
+}
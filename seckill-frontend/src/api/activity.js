@@ -12,3 +12,7 @@ export const updateActivityStatus = (id, status) =>
   request.put(`/api/seckill/activity/status/${id}`, null, { params: { status } });
 
 export const fetchActiveActivities = () => request.get('/api/seckill/activity/active');
+
+export const preheatActivity = (id) => request.post(`/api/seckill/activity/preheat/${id}`);
+
+export const fetchActivityReadiness = () => request.get('/api/seckill/activity/readiness');
@@ -4,6 +4,8 @@ export const createSeckillOrder = (data) => request.post('/api/seckill/order/cre
 
 export const fetchUserOrders = (params) => request.get('/api/seckill/order/user/list', { params });
 
+export const fetchOrderStatus = (orderId) => request.get(`/api/seckill/order/status/${orderId}`);
+
 export const fetchOrderDetail = (orderId) => request.get(`/api/seckill/order/detail/${orderId}`);
 
 export const cancelOrder = (orderId) => request.post(`/api/seckill/order/cancel/${orderId}`);
@@ -0,0 +1,153 @@
+package com.seckill.loadsim;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+
+/**
+ * 被测系统HTTP接口封装，每次调用都记录到Metrics
+ */
+public class ApiClient {
+
+    private final String baseUrl;
+    private final Duration requestTimeout;
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Metrics metrics;
+
+    public ApiClient(SimConfig config, Executor executor, Metrics metrics) {
+        this.baseUrl = config.baseUrl().endsWith("/")
+                ? config.baseUrl().substring(0, config.baseUrl().length() - 1) : config.baseUrl();
+        this.requestTimeout = Duration.ofMillis(config.requestTimeoutMs());
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(config.requestTimeoutMs()))
+                .executor(executor)
+                .build();
+        this.metrics = metrics;
+    }
+
+    private ApiClient(ApiClient source, Metrics metrics) {
+        this.baseUrl = source.baseUrl;
+        this.requestTimeout = source.requestTimeout;
+        this.httpClient = source.httpClient;
+        this.metrics = metrics;
+    }
+
+    /**
+     * 共用HTTP连接，统计记录到另一个Metrics（按阶段分别统计时使用）
+     */
+    public ApiClient withMetrics(Metrics metrics) {
+        return new ApiClient(this, metrics);
+    }
+
+    public Metrics metrics() {
+        return metrics;
+    }
+
+    // ===== 用户 =====
+
+    public ApiResponse register(String username, String password) {
+        ObjectNode body = objectMapper.createObjectNode().put("username", username).put("password", password);
+        return post("user/register", "/api/user/register", body, null);
+    }
+
+    public ApiResponse login(String username, String password) {
+        ObjectNode body = objectMapper.createObjectNode().put("username", username).put("password", password);
+        return post("user/login", "/api/user/login", body, null);
+    }
+
+    // ===== 秒杀订单 =====
+
+    public ApiResponse createOrder(String token, long activityId, long productId, int quantity) {
+        ObjectNode body = objectMapper.createObjectNode()
+                .put("activityId", activityId)
+                .put("productId", productId)
+                .put("quantity", quantity);
+        return post("order/create", "/api/seckill/order/create", body, token);
+    }
+
+    public ApiResponse orderStatus(String token, String orderId) {
+        return get("order/status", "/api/seckill/order/status/" + orderId, token);
+    }
+
+    public ApiResponse pay(String token, String orderId) {
+        return post("order/pay", "/api/seckill/order/pay/" + orderId, null, token);
+    }
+
+    public ApiResponse cancel(String token, String orderId) {
+        return post("order/cancel", "/api/seckill/order/cancel/" + orderId, null, token);
+    }
+
+    // ===== 浏览 =====
+
+    public ApiResponse activityDetail(String token, long activityId) {
+        return get("activity/detail", "/api/seckill/activity/" + activityId, token);
+    }
+
+    public ApiResponse activeActivities(String token) {
+        return get("activity/active", "/api/seckill/activity/active", token);
+    }
+
+    public ApiResponse productDetail(String token, long productId) {
+        return get("product/detail", "/api/product/" + productId, token);
+    }
+
+    public ApiResponse productList(String token, int pageNum, int pageSize) {
+        return get("product/list", "/api/product/list?pageNum=" + pageNum + "&pageSize=" + pageSize, token);
+    }
+
+    private ApiResponse get(String endpoint, String path, String token) {
+        return send(endpoint, request(path, token).GET().build());
+    }
+
+    private ApiResponse post(String endpoint, String path, JsonNode body, String token) {
+        HttpRequest.BodyPublisher publisher = body == null
+                ? HttpRequest.BodyPublishers.noBody()
+                : HttpRequest.BodyPublishers.ofString(body.toString());
+        return send(endpoint, request(path, token)
+                .header("Content-Type", "application/json")
+                .POST(publisher)
+                .build());
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(requestTimeout);
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    private ApiResponse send(String endpoint, HttpRequest request) {
+        long start = System.nanoTime();
+        ApiResponse response;
+        try {
+            HttpResponse<String> http = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            long latency = System.nanoTime() - start;
+            if (http.statusCode() != 200) {
+                response = new ApiResponse(endpoint, http.statusCode(), "HTTP " + http.statusCode(), null, latency);
+            } else {
+                JsonNode result = objectMapper.readTree(http.body());
+                int code = result.path("code").asInt(-1);
+                String msg = result.path("msg").asText("");
+                response = new ApiResponse(endpoint, code, code == ApiResponse.SUCCESS ? null : msg,
+                        result.get("data"), latency);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            response = new ApiResponse(endpoint, -1, "interrupted", null, System.nanoTime() - start);
+        } catch (Exception e) {
+            response = new ApiResponse(endpoint, -1, e.getClass().getSimpleName(), null, System.nanoTime() - start);
+        }
+        metrics.record(response);
+        return response;
+    }
+}
@@ -0,0 +1,22 @@
+package com.seckill.loadsim;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * 一次接口调用的结果
+ * 后端业务失败时HTTP状态仍为200，以Result.code区分；网络异常、超时记为code=-1
+ *
+ * @param endpoint 接口名（统计分组用，不含路径参数）
+ * @param code Result.code，或HTTP状态码（非200时），或-1（请求异常）
+ * @param reason 失败原因（Result.msg或异常信息）
+ * @param data Result.data
+ * @param latencyNanos 请求耗时
+ */
+public record ApiResponse(String endpoint, int code, String reason, JsonNode data, long latencyNanos) {
+
+    public static final int SUCCESS = 200;
+
+    public boolean ok() {
+        return code == SUCCESS;
+    }
+}
@@ -0,0 +1,127 @@
+package com.seckill.loadsim;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 容量场景：闭环压测，逐级提高并发，找出p99仍满足目标的最大并发
+ * 请求为读多写少的浏览接口（经过HBase和Redis），用于对比服务端平台线程池与虚拟线程两种模式
+ */
+public class CapacityScenario {
+
+    private final SimConfig config;
+    private final ApiClient baseClient;
+    private final ExecutorService executor;
+
+    public CapacityScenario(SimConfig config, ApiClient baseClient, ExecutorService executor) {
+        this.config = config;
+        this.baseClient = baseClient;
+        this.executor = executor;
+    }
+
+    public Report run() throws InterruptedException {
+        List<UserPool.SimUser> users = UserPool.prepare(baseClient, config, executor);
+        if (users.isEmpty()) {
+            throw new IllegalStateException("没有可用的用户，检查 --base-url 和注册/登录接口");
+        }
+        long activityId = config.activityId();
+        long productId = config.productId();
+        double target = config.p99TargetMs();
+
+        Report report = new Report();
+        List<Map<String, Object>> levels = new ArrayList<>();
+        Integer best = null;
+        double bestThroughput = 0;
+
+        System.out.println();
+        System.out.printf("== 容量测试（p99目标 %.0fms）==%n", target);
+        System.out.printf("%12s %10s %10s %10s %10s %10s%n", "concurrency", "req/s", "p50", "p99", "max", "errors");
+        for (int concurrency : config.levels()) {
+            Metrics metrics = new Metrics();
+            ApiClient client = baseClient.withMetrics(metrics);
+            LevelResult result = runLevel(client, metrics, users, concurrency, activityId, productId);
+            boolean pass = result.p99() <= target && result.errors() == 0;
+            System.out.printf("%12d %10.1f %10.1f %10.1f %10.1f %10d %s%n", concurrency, result.throughput(),
+                    result.p50(), result.p99(), result.max(), result.errors(), pass ? "" : "<-- 未达标");
+
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("concurrency", concurrency);
+            row.put("throughput", Report.round(result.throughput()));
+            row.put("p50Ms", Report.round(result.p50()));
+            row.put("p99Ms", Report.round(result.p99()));
+            row.put("maxMs", Report.round(result.max()));
+            row.put("errors", result.errors());
+            row.put("pass", pass);
+            levels.add(row);
+            if (pass) {
+                best = concurrency;
+                bestThroughput = result.throughput();
+            }
+        }
+        System.out.println(best == null
+                ? "没有并发级别满足p99目标"
+                : String.format("满足p99目标的最大并发: %d, 吞吐: %.1f req/s", best, bestThroughput));
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("p99TargetMs", target);
+        summary.put("maxConcurrency", best);
+        summary.put("throughputAtMax", Report.round(bestThroughput));
+        summary.put("levels", levels);
+        report.put("capacity", summary);
+        return report;
+    }
+
+    private LevelResult runLevel(ApiClient client, Metrics metrics, List<UserPool.SimUser> users, int concurrency,
+                                 long activityId, long productId) throws InterruptedException {
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency, r -> {
+            Thread t = new Thread(r, "loadsim-capacity");
+            t.setDaemon(true);
+            return t;
+        });
+        long start = System.currentTimeMillis();
+        for (int w = 0; w < concurrency; w++) {
+            int worker = w;
+            workers.execute(() -> {
+                String token = users.get(worker % users.size()).token();
+                long n = worker;
+                while (running.get()) {
+                    switch ((int) (n++ % 3)) {
+                        case 0 -> client.activityDetail(token, activityId);
+                        case 1 -> client.productDetail(token, productId);
+                        default -> client.activeActivities(token);
+                    }
+                }
+            });
+        }
+        Thread.sleep(config.levelDurationMs());
+        running.set(false);
+        workers.shutdown();
+        workers.awaitTermination(config.requestTimeoutMs() * 2, TimeUnit.MILLISECONDS);
+        long duration = System.currentTimeMillis() - start;
+
+        long errors = 0;
+        double p50 = 0;
+        double p99 = 0;
+        double max = 0;
+        long count = 0;
+        for (Metrics.EndpointStats stats : metrics.endpoints().values()) {
+            count += stats.latency().count();
+            errors += stats.failed();
+            // 取各接口中最差的分位数，避免慢接口被快接口平均掉
+            p50 = Math.max(p50, stats.latency().percentileMillis(50));
+            p99 = Math.max(p99, stats.latency().percentileMillis(99));
+            max = Math.max(max, stats.latency().maxMillis());
+        }
+        return new LevelResult(count * 1000.0 / duration, p50, p99, max, errors);
+    }
+
+    private record LevelResult(double throughput, double p50, double p99, double max, long errors) {
+    }
+}
@@ -0,0 +1,83 @@
+package com.seckill.loadsim;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 延迟直方图（对数-线性分桶，微秒精度，相对误差约1.6%）
+ * 每个2的幂区间再均分为64个桶，记录O(1)且无锁，可被多个压测线程同时写入
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    /** 最大记录值 2^40 微秒（约12天），超出的按最大值记录 */
+    private static final int MAX_EXPONENT = 40;
+    private static final long MAX_VALUE = (1L << MAX_EXPONENT) - 1;
+
+    private final AtomicLongArray counts =
+            new AtomicLongArray(SUB_BUCKET_COUNT * (MAX_EXPONENT - SUB_BUCKET_BITS + 2));
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong totalMicros = new AtomicLong();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    public void recordNanos(long nanos) {
+        long micros = Math.min(Math.max(TimeUnit.NANOSECONDS.toMicros(nanos), 0), MAX_VALUE);
+        counts.incrementAndGet(indexOf(micros));
+        totalCount.incrementAndGet();
+        totalMicros.addAndGet(micros);
+        maxMicros.accumulateAndGet(micros, Math::max);
+    }
+
+    public long count() {
+        return totalCount.get();
+    }
+
+    public double meanMillis() {
+        long count = totalCount.get();
+        return count == 0 ? 0 : totalMicros.get() / 1000.0 / count;
+    }
+
+    public double maxMillis() {
+        return maxMicros.get() / 1000.0;
+    }
+
+    /**
+     * 百分位延迟（毫秒），取所在桶的上界
+     * @param percentile 0-100
+     */
+    public double percentileMillis(double percentile) {
+        long count = totalCount.get();
+        if (count == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(count * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return Math.min(upperBoundOf(i), maxMicros.get()) / 1000.0;
+            }
+        }
+        return maxMillis();
+    }
+
+    private static int indexOf(long micros) {
+        if (micros < SUB_BUCKET_COUNT) {
+            return (int) micros;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(micros) - SUB_BUCKET_BITS;
+        long mantissa = micros >> shift;
+        return SUB_BUCKET_COUNT + shift * SUB_BUCKET_COUNT + (int) (mantissa - SUB_BUCKET_COUNT);
+    }
+
+    private static long upperBoundOf(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_COUNT;
+        long mantissa = SUB_BUCKET_COUNT + (index - SUB_BUCKET_COUNT) % SUB_BUCKET_COUNT;
+        return ((mantissa + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,50 @@
+package com.seckill.loadsim;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 秒杀压测模拟器入口
+ * 通过HTTP压测运行中的后端，不依赖后端代码；参数见 {@link SimConfig#usage()}
+ */
+public class LoadSimulator {
+
+    public static void main(String[] args) throws Exception {
+        SimConfig config;
+        try {
+            config = SimConfig.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(SimConfig.usage());
+            System.exit(2);
+            return;
+        }
+        if (config.has("help")) {
+            System.out.println(SimConfig.usage());
+            return;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(config.concurrency(), r -> {
+            Thread t = new Thread(r, "loadsim-worker");
+            t.setDaemon(true);
+            return t;
+        });
+        ExecutorService httpExecutor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "loadsim-http");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            ApiClient client = new ApiClient(config, httpExecutor, new Metrics());
+            Report report = switch (config.mode()) {
+                case "seckill" -> new SeckillScenario(config, client, executor).run();
+                case "capacity" -> new CapacityScenario(config, client, executor).run();
+                default -> throw new IllegalArgumentException("未知的压测场景: " + config.mode());
+            };
+            report.write(config.report());
+        } finally {
+            executor.shutdownNow();
+            httpExecutor.shutdownNow();
+        }
+    }
+}
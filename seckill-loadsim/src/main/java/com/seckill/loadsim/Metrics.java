@@ -0,0 +1,70 @@
+package com.seckill.loadsim;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按接口统计请求数、成功/失败数、延迟分布，以及失败原因分布
+ */
+public class Metrics {
+
+    private final Map<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> rejects = new ConcurrentHashMap<>();
+
+    public void record(ApiResponse response) {
+        EndpointStats stats = endpoints.computeIfAbsent(response.endpoint(), k -> new EndpointStats());
+        stats.latency.recordNanos(response.latencyNanos());
+        if (response.ok()) {
+            stats.ok.increment();
+        } else {
+            stats.failed.increment();
+            rejects.computeIfAbsent(response.endpoint() + " | " + response.reason(), k -> new LongAdder()).increment();
+        }
+    }
+
+    /**
+     * 按接口排序的统计结果
+     */
+    public Map<String, EndpointStats> endpoints() {
+        return new TreeMap<>(endpoints);
+    }
+
+    /**
+     * 失败原因分布，key为"接口 | 原因"
+     */
+    public Map<String, Long> rejects() {
+        Map<String, Long> result = new TreeMap<>();
+        rejects.forEach((reason, count) -> result.put(reason, count.sum()));
+        return result;
+    }
+
+    public long rejectCount(String endpoint, String reasonKeyword) {
+        long total = 0;
+        for (Map.Entry<String, LongAdder> entry : rejects.entrySet()) {
+            if (entry.getKey().startsWith(endpoint + " | ") && entry.getKey().contains(reasonKeyword)) {
+                total += entry.getValue().sum();
+            }
+        }
+        return total;
+    }
+
+    public static class EndpointStats {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder ok = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+
+        public LatencyHistogram latency() {
+            return latency;
+        }
+
+        public long ok() {
+            return ok.sum();
+        }
+
+        public long failed() {
+            return failed.sum();
+        }
+    }
+}
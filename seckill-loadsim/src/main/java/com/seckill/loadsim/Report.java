@@ -0,0 +1,77 @@
+package com.seckill.loadsim;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 压测报告：控制台表格输出，可选写出JSON文件便于对比多次压测结果
+ */
+public class Report {
+
+    private final Map<String, Object> sections = new LinkedHashMap<>();
+
+    public void put(String section, Object value) {
+        sections.put(section, value);
+    }
+
+    /**
+     * 打印各接口吞吐、延迟分布，并记录到报告
+     * @param durationMs 统计时段长度，用于计算吞吐
+     */
+    public void printEndpoints(String title, Metrics metrics, long durationMs) {
+        System.out.println();
+        System.out.println("== " + title + " (" + durationMs + "ms) ==");
+        System.out.printf("%-18s %8s %8s %9s %8s %8s %8s %8s %8s %8s%n",
+                "endpoint", "ok", "failed", "req/s", "mean", "p50", "p90", "p99", "p99.9", "max");
+        Map<String, Object> rows = new LinkedHashMap<>();
+        metrics.endpoints().forEach((endpoint, stats) -> {
+            LatencyHistogram h = stats.latency();
+            double throughput = durationMs <= 0 ? 0 : h.count() * 1000.0 / durationMs;
+            System.out.printf("%-18s %8d %8d %9.1f %8.1f %8.1f %8.1f %8.1f %8.1f %8.1f%n",
+                    endpoint, stats.ok(), stats.failed(), throughput, h.meanMillis(),
+                    h.percentileMillis(50), h.percentileMillis(90), h.percentileMillis(99),
+                    h.percentileMillis(99.9), h.maxMillis());
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("ok", stats.ok());
+            row.put("failed", stats.failed());
+            row.put("throughput", round(throughput));
+            row.put("meanMs", round(h.meanMillis()));
+            row.put("p50Ms", round(h.percentileMillis(50)));
+            row.put("p90Ms", round(h.percentileMillis(90)));
+            row.put("p99Ms", round(h.percentileMillis(99)));
+            row.put("p999Ms", round(h.percentileMillis(99.9)));
+            row.put("maxMs", round(h.maxMillis()));
+            rows.put(endpoint, row);
+        });
+        System.out.println("(延迟单位: ms)");
+        sections.put(title, rows);
+    }
+
+    public void printRejects(Metrics metrics) {
+        Map<String, Long> rejects = metrics.rejects();
+        System.out.println();
+        System.out.println("== 失败原因 ==");
+        if (rejects.isEmpty()) {
+            System.out.println("无");
+        }
+        rejects.forEach((reason, count) -> System.out.printf("%8d  %s%n", count, reason));
+        sections.put("rejects", rejects);
+    }
+
+    public void write(String path) throws IOException {
+        if (path == null || path.isBlank()) {
+            return;
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(new File(path), sections);
+        System.out.println("报告已写入: " + path);
+    }
+
+    static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
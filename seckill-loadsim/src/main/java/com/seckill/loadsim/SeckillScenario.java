@@ -0,0 +1,310 @@
+package com.seckill.loadsim;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 秒杀场景：
+ * 1. 合成用户注册登录；
+ * 2. 用户均分到若干波次，每波在同一时刻并发下单，期间保持固定速率的浏览流量；
+ * 3. 轮询异步下单结果，按比例支付、取消；
+ * 4. 对比活动库存前后变化，检查超卖/少卖
+ */
+public class SeckillScenario {
+
+    private static final int STATUS_QUEUING = -1;
+    private static final int STATUS_FAILED = -2;
+    private static final int STATUS_UNPAID = 0;
+    private static final long STATUS_POLL_INTERVAL_MS = 200;
+    private static final String SOLD_OUT_KEYWORD = "售罄";
+
+    private final SimConfig config;
+    private final ApiClient client;
+    private final Metrics metrics;
+    private final ExecutorService executor;
+    private final Report report = new Report();
+
+    public SeckillScenario(SimConfig config, ApiClient client, ExecutorService executor) {
+        this.config = config;
+        this.client = client;
+        this.metrics = client.metrics();
+        this.executor = executor;
+    }
+
+    public Report run() throws InterruptedException {
+        long activityId = config.activityId();
+        long productId = config.productId();
+
+        System.out.println("准备用户: " + config.users());
+        List<UserPool.SimUser> users = UserPool.prepare(client, config, executor);
+        if (users.isEmpty()) {
+            throw new IllegalStateException("没有可用的用户，检查 --base-url 和注册/登录接口");
+        }
+        String observerToken = users.get(0).token();
+        System.out.println("登录成功用户: " + users.size());
+
+        ActivitySnapshot before = snapshot(observerToken, activityId);
+        System.out.println("压测前活动库存: " + before);
+
+        // 下单阶段
+        ScheduledExecutorService browse = startBrowse(users, activityId, productId);
+        long burstStart = System.currentTimeMillis();
+        List<PlacedOrder> placed = Collections.synchronizedList(new ArrayList<>());
+        int bursts = Math.max(config.bursts(), 1);
+        int perBurst = (users.size() + bursts - 1) / bursts;
+        for (int b = 0; b < bursts; b++) {
+            List<UserPool.SimUser> slice = users.subList(Math.min(b * perBurst, users.size()),
+                    Math.min((b + 1) * perBurst, users.size()));
+            fireBurst(slice, activityId, productId, placed);
+            if (b < bursts - 1) {
+                Thread.sleep(config.burstIntervalMs());
+            }
+        }
+        browse.shutdownNow();
+        long burstDuration = System.currentTimeMillis() - burstStart;
+
+        // 异步下单结果
+        List<PlacedOrder> succeeded = resolve(placed);
+        ActivitySnapshot afterBursts = snapshot(observerToken, activityId);
+
+        // 支付/取消阶段
+        List<PlacedOrder> shuffled = new ArrayList<>(succeeded);
+        Collections.shuffle(shuffled, new Random(42));
+        int payCount = (int) (shuffled.size() * config.payRatio());
+        int cancelCount = Math.min((int) (shuffled.size() * config.cancelRatio()), shuffled.size() - payCount);
+        AtomicLong paid = new AtomicLong();
+        AtomicLong cancelled = new AtomicLong();
+        List<CompletableFuture<Void>> followUps = new ArrayList<>();
+        for (int i = 0; i < payCount + cancelCount; i++) {
+            PlacedOrder order = shuffled.get(i);
+            boolean pay = i < payCount;
+            followUps.add(CompletableFuture.runAsync(() -> {
+                ApiResponse response = pay ? client.pay(order.token(), order.orderId())
+                        : client.cancel(order.token(), order.orderId());
+                if (response.ok()) {
+                    (pay ? paid : cancelled).incrementAndGet();
+                }
+            }, executor));
+        }
+        followUps.forEach(CompletableFuture::join);
+        Thread.sleep(config.settleMs());
+        ActivitySnapshot after = snapshot(observerToken, activityId);
+
+        report.put("config", configSummary());
+        report.printEndpoints("下单阶段(含浏览)", metrics, burstDuration);
+        report.printRejects(metrics);
+        report.put("stockCheck", stockCheck(before, afterBursts, after, placed.size(), succeeded.size(),
+                paid.get(), cancelled.get()));
+        return report;
+    }
+
+    private void fireBurst(List<UserPool.SimUser> slice, long activityId, long productId, List<PlacedOrder> placed) {
+        CountDownLatch gate = new CountDownLatch(1);
+        List<CompletableFuture<Void>> futures = new ArrayList<>(slice.size());
+        for (UserPool.SimUser user : slice) {
+            futures.add(CompletableFuture.runAsync(() -> {
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                ApiResponse response = client.createOrder(user.token(), activityId, productId, config.quantity());
+                if (response.ok() && response.data() != null) {
+                    placed.add(new PlacedOrder(user.token(), response.data().asText()));
+                }
+            }, executor));
+        }
+        // 所有请求就位后同时放行，模拟开抢瞬间
+        gate.countDown();
+        futures.forEach(CompletableFuture::join);
+    }
+
+    /**
+     * 轮询异步下单结果，返回落库成功（未支付）的订单
+     */
+    private List<PlacedOrder> resolve(List<PlacedOrder> placed) {
+        List<CompletableFuture<PlacedOrder>> futures = new ArrayList<>(placed.size());
+        for (PlacedOrder order : placed) {
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                long deadline = System.currentTimeMillis() + config.statusTimeoutMs();
+                while (System.currentTimeMillis() < deadline) {
+                    ApiResponse response = client.orderStatus(order.token(), order.orderId());
+                    int status = response.ok() && response.data() != null
+                            ? response.data().path("status").asInt(STATUS_QUEUING) : STATUS_QUEUING;
+                    if (status == STATUS_UNPAID) {
+                        return order;
+                    }
+                    if (status == STATUS_FAILED) {
+                        return null;
+                    }
+                    try {
+                        Thread.sleep(STATUS_POLL_INTERVAL_MS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return null;
+                    }
+                }
+                return null;
+            }, executor));
+        }
+        List<PlacedOrder> succeeded = new ArrayList<>();
+        for (CompletableFuture<PlacedOrder> future : futures) {
+            PlacedOrder order = future.join();
+            if (order != null) {
+                succeeded.add(order);
+            }
+        }
+        return succeeded;
+    }
+
+    /**
+     * 固定速率浏览流量：活动详情、商品详情、进行中活动列表、商品列表轮流请求
+     */
+    private ScheduledExecutorService startBrowse(List<UserPool.SimUser> users, long activityId, long productId) {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "loadsim-browse");
+            t.setDaemon(true);
+            return t;
+        });
+        if (config.browseRps() <= 0) {
+            return scheduler;
+        }
+        AtomicLong counter = new AtomicLong();
+        long periodMicros = Math.max(1_000_000L / config.browseRps(), 1);
+        scheduler.scheduleAtFixedRate(() -> {
+            long n = counter.getAndIncrement();
+            String token = users.get((int) (n % users.size())).token();
+            executor.execute(() -> {
+                switch ((int) (n % 4)) {
+                    case 0 -> client.activityDetail(token, activityId);
+                    case 1 -> client.productDetail(token, productId);
+                    case 2 -> client.activeActivities(token);
+                    default -> client.productList(token, 1, 10);
+                }
+            });
+        }, 0, periodMicros, TimeUnit.MICROSECONDS);
+        return scheduler;
+    }
+
+    private Map<String, Object> stockCheck(ActivitySnapshot before, ActivitySnapshot afterBursts, ActivitySnapshot after,
+                                           int accepted, int succeeded, long paid, long cancelled) {
+        int quantity = config.quantity();
+        Integer available = before.available();
+        long held = (succeeded - cancelled) * (long) quantity;
+        long soldOutRejects = metrics.rejectCount("order/create", SOLD_OUT_KEYWORD);
+
+        Map<String, Object> check = new LinkedHashMap<>();
+        check.put("before", before.toMap());
+        check.put("afterBursts", afterBursts.toMap());
+        check.put("after", after.toMap());
+        check.put("accepted", accepted);
+        check.put("succeeded", succeeded);
+        check.put("paid", paid);
+        check.put("cancelled", cancelled);
+        check.put("soldOutRejects", soldOutRejects);
+
+        System.out.println();
+        System.out.println("== 库存检查 ==");
+        System.out.printf("活动总库存(seckill_stock): %s, 压测前可售: %s%n", before.seckillStock(), available);
+        System.out.printf("下单受理: %d, 落库成功: %d, 支付: %d, 取消: %d, 占用库存: %d%n",
+                accepted, succeeded, paid, cancelled, held);
+
+        // 超卖：下单阶段结束时成功占用的库存（取消发生在之后）超过压测前可售数量
+        long oversell = available == null ? 0 : Math.max(succeeded * (long) quantity - available, 0);
+        check.put("oversell", oversell);
+        System.out.printf("超卖: %d %s%n", oversell, oversell > 0 ? "<-- 异常" : "");
+
+        // 少卖：有用户被告知售罄，但下单结束时仍有剩余库存
+        Integer leftover = afterBursts.remainingStock();
+        long undersell = soldOutRejects > 0 && leftover != null ? Math.max(leftover, 0) : 0;
+        check.put("undersell", undersell);
+        System.out.printf("少卖: %d %s%n", undersell, undersell > 0 ? "<-- 异常（售罄拒绝后仍有剩余库存）" : "");
+
+        // 剩余库存应等于压测前可售数量减去仍占用的数量（同时有其他流量时会有偏差）
+        if (available != null && after.remainingStock() != null) {
+            long expected = available - held;
+            long diff = after.remainingStock() - expected;
+            check.put("expectedRemaining", expected);
+            check.put("remainingDiff", diff);
+            System.out.printf("剩余库存: %d, 应为: %d, 偏差: %d%n", after.remainingStock(), expected, diff);
+        }
+        // 已售计数应增加支付的数量
+        if (before.soldCount() != null && after.soldCount() != null) {
+            long soldDelta = after.soldCount() - before.soldCount();
+            check.put("soldCountDiff", soldDelta - paid * quantity);
+            System.out.printf("已售计数增加: %d, 应为: %d%n", soldDelta, paid * quantity);
+        }
+        return check;
+    }
+
+    private ActivitySnapshot snapshot(String token, long activityId) {
+        ApiResponse response = client.activityDetail(token, activityId);
+        if (!response.ok() || response.data() == null) {
+            throw new IllegalStateException("查询活动失败: " + response.reason());
+        }
+        JsonNode data = response.data();
+        return new ActivitySnapshot(intOrNull(data, "seckillStock"), intOrNull(data, "remainingStock"),
+                intOrNull(data, "soldCount"));
+    }
+
+    private Map<String, Object> configSummary() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("baseUrl", config.baseUrl());
+        summary.put("users", config.users());
+        summary.put("bursts", config.bursts());
+        summary.put("concurrency", config.concurrency());
+        summary.put("browseRps", config.browseRps());
+        summary.put("activityId", config.activityId());
+        summary.put("quantity", config.quantity());
+        return summary;
+    }
+
+    private static Integer intOrNull(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asInt();
+    }
+
+    private record PlacedOrder(String token, String orderId) {
+    }
+
+    /**
+     * 活动库存状态：总库存、Redis剩余库存、已售计数
+     */
+    private record ActivitySnapshot(Integer seckillStock, Integer remainingStock, Integer soldCount) {
+
+        /**
+         * 压测前可售数量：优先取Redis剩余库存，未加载时按总库存减已售估算
+         */
+        Integer available() {
+            if (remainingStock != null) {
+                return remainingStock;
+            }
+            if (seckillStock == null) {
+                return null;
+            }
+            return seckillStock - (soldCount == null ? 0 : soldCount);
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("seckillStock", seckillStock);
+            map.put("remainingStock", remainingStock);
+            map.put("soldCount", soldCount);
+            return map;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.seckill.loadsim;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 压测参数，命令行格式 --name=value
+ */
+public class SimConfig {
+
+    private final Map<String, String> args;
+
+    private SimConfig(Map<String, String> args) {
+        this.args = args;
+    }
+
+    public static SimConfig parse(String[] argv) {
+        Map<String, String> args = new HashMap<>();
+        for (String arg : argv) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("参数格式应为 --name=value: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                args.put(arg.substring(2), "true");
+            } else {
+                args.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+        return new SimConfig(args);
+    }
+
+    public static String usage() {
+        return String.join("\n",
+                "用法: LoadSimulator [--name=value ...]",
+                "  通用",
+                "    --mode=seckill|capacity        压测场景，默认seckill",
+                "    --base-url=http://localhost:8080",
+                "    --concurrency=200              seckill场景的HTTP并发线程数",
+                "    --request-timeout-ms=5000",
+                "    --users=1000                   模拟用户数（自动注册并登录）",
+                "    --user-prefix=loadsim_  --password=Loadsim@123",
+                "    --report=                      额外输出JSON报告的文件路径",
+                "  seckill 场景",
+                "    --activity-id=  --product-id=  必填",
+                "    --quantity=1                   每单购买数量",
+                "    --bursts=5  --burst-interval-ms=1000   用户均分到各波次，每波同时发起下单",
+                "    --pay-ratio=0.5  --cancel-ratio=0.2    下单成功后支付/取消的比例，其余保持未支付",
+                "    --browse-rps=200               下单期间的浏览流量（活动详情、商品详情、活动列表、商品列表）",
+                "    --status-timeout-ms=30000      轮询异步下单结果的超时时间",
+                "    --settle-ms=3000               支付/取消后等待库存、计数落定的时间",
+                "  capacity 场景（固定p99下的最大并发，用于对比平台线程/虚拟线程）",
+                "    --product-id=  --activity-id=  浏览的商品/活动",
+                "    --levels=16,32,64,128,256,512  依次压测的并发数",
+                "    --level-duration-ms=10000      每个并发级别的持续时间",
+                "    --p99-target-ms=200            p99延迟目标");
+    }
+
+    public boolean has(String name) {
+        return args.containsKey(name);
+    }
+
+    public String mode() {
+        return str("mode", "seckill");
+    }
+
+    public String baseUrl() {
+        return str("base-url", "http://localhost:8080");
+    }
+
+    public int concurrency() {
+        return integer("concurrency", 200);
+    }
+
+    public long requestTimeoutMs() {
+        return lng("request-timeout-ms", 5000);
+    }
+
+    public int users() {
+        return integer("users", 1000);
+    }
+
+    public String userPrefix() {
+        return str("user-prefix", "loadsim_");
+    }
+
+    public String password() {
+        return str("password", "Loadsim@123");
+    }
+
+    public String report() {
+        return str("report", null);
+    }
+
+    public long activityId() {
+        return required("activity-id");
+    }
+
+    public long productId() {
+        return required("product-id");
+    }
+
+    public int quantity() {
+        return integer("quantity", 1);
+    }
+
+    public int bursts() {
+        return integer("bursts", 5);
+    }
+
+    public long burstIntervalMs() {
+        return lng("burst-interval-ms", 1000);
+    }
+
+    public double payRatio() {
+        return dbl("pay-ratio", 0.5);
+    }
+
+    public double cancelRatio() {
+        return dbl("cancel-ratio", 0.2);
+    }
+
+    public int browseRps() {
+        return integer("browse-rps", 200);
+    }
+
+    public long statusTimeoutMs() {
+        return lng("status-timeout-ms", 30000);
+    }
+
+    public long settleMs() {
+        return lng("settle-ms", 3000);
+    }
+
+    public List<Integer> levels() {
+        List<Integer> levels = new ArrayList<>();
+        for (String level : str("levels", "16,32,64,128,256,512").split(",")) {
+            levels.add(Integer.parseInt(level.trim()));
+        }
+        return levels;
+    }
+
+    public long levelDurationMs() {
+        return lng("level-duration-ms", 10000);
+    }
+
+    public double p99TargetMs() {
+        return dbl("p99-target-ms", 200);
+    }
+
+    private String str(String name, String defaultValue) {
+        return args.getOrDefault(name, defaultValue);
+    }
+
+    private int integer(String name, int defaultValue) {
+        return args.containsKey(name) ? Integer.parseInt(args.get(name)) : defaultValue;
+    }
+
+    private long lng(String name, long defaultValue) {
+        return args.containsKey(name) ? Long.parseLong(args.get(name)) : defaultValue;
+    }
+
+    private double dbl(String name, double defaultValue) {
+        return args.containsKey(name) ? Double.parseDouble(args.get(name)) : defaultValue;
+    }
+
+    private long required(String name) {
+        if (!args.containsKey(name)) {
+            throw new IllegalArgumentException("缺少参数 --" + name);
+        }
+        return Long.parseLong(args.get(name));
+    }
+}
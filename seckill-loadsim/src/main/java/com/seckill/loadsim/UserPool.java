@@ -0,0 +1,47 @@
+package com.seckill.loadsim;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * 合成用户：注册（已存在时忽略）并登录，得到token
+ */
+public class UserPool {
+
+    private UserPool() {
+    }
+
+    public static List<SimUser> prepare(ApiClient client, SimConfig config, ExecutorService executor) {
+        List<CompletableFuture<SimUser>> futures = new ArrayList<>(config.users());
+        for (int i = 0; i < config.users(); i++) {
+            String username = config.userPrefix() + i;
+            futures.add(CompletableFuture.supplyAsync(() -> login(client, username, config.password()), executor));
+        }
+        List<SimUser> users = new ArrayList<>(futures.size());
+        for (CompletableFuture<SimUser> future : futures) {
+            SimUser user = future.join();
+            if (user != null) {
+                users.add(user);
+            }
+        }
+        return Collections.unmodifiableList(users);
+    }
+
+    private static SimUser login(ApiClient client, String username, String password) {
+        ApiResponse response = client.login(username, password);
+        if (!response.ok()) {
+            client.register(username, password);
+            response = client.login(username, password);
+        }
+        if (!response.ok() || response.data() == null) {
+            return null;
+        }
+        return new SimUser(username, response.data().path("token").asText());
+    }
+
+    public record SimUser(String username, String token) {
+    }
+}
@@ -0,0 +1,21 @@
+package com.seckill.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 实体字段对应的HBase列，由HBaseEntityMapper读取
+ * 字段类型决定单元格编码：String按UTF-8，Long/Integer/BigDecimal/LocalDateTime按HBaseCodec
+ */
+@Target({ElementType.FIELD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface HBaseColumn {
+//    列族
+    String family();
+
+//    列名
+    String qualifier();
+
+//    HBase原子计数列（8字节long，只能通过Increment写入）：读取时映射，写入实体时跳过
+    boolean counter() default false;
+}
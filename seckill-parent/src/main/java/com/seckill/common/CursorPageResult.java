@@ -0,0 +1,25 @@
+package com.seckill.common;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 游标分页结果：nextCursor为下一页的游标，为空表示没有下一页
+ * 每页只按游标定位后读取pageSize行，翻到第几页耗时都一样，因此不提供总数
+ */
+@Data
+public class CursorPageResult<T> {
+    private List<T> records;
+    private String nextCursor;
+    private Integer pageSize;
+
+    public CursorPageResult() {
+    }
+
+    public CursorPageResult(List<T> records, String nextCursor, Integer pageSize) {
+        this.records = records;
+        this.nextCursor = nextCursor;
+        this.pageSize = pageSize;
+    }
+}
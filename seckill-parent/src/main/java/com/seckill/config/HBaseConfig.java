@@ -2,8 +2,16 @@ package com.seckill.config;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hbase.HBaseConfiguration;
+import org.apache.hadoop.hbase.client.AsyncConnection;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.ConnectionFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Profile;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ExecutionException;
 
 /**
  * HBase配置类
@@ -55,5 +63,30 @@ public class HBaseConfig {
         
         return conf;
     }
-}
 
+    /**
+     * 连接HBase集群（hbase-memory profile下由InMemoryHBaseConfig提供进程内实现）
+     */
+    @Bean
+    @Profile("!" + InMemoryHBaseConfig.PROFILE)
+    public HBaseConnectionProvider hbaseConnectionProvider(Configuration hbaseConfiguration) {
+        return new HBaseConnectionProvider() {
+            @Override
+            public Connection createConnection() throws IOException {
+                return ConnectionFactory.createConnection(hbaseConfiguration);
+            }
+
+            @Override
+            public AsyncConnection createAsyncConnection() throws IOException {
+                try {
+                    return ConnectionFactory.createAsyncConnection(hbaseConfiguration).get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("创建HBase异步连接被中断");
+                } catch (ExecutionException e) {
+                    throw new IOException("创建HBase异步连接失败", e.getCause());
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,19 @@
+package com.seckill.config;
+
+import org.apache.hadoop.hbase.client.AsyncConnection;
+import org.apache.hadoop.hbase.client.Connection;
+
+import java.io.IOException;
+
+/**
+ * 创建HBase连接；默认连HBase集群，hbase-memory profile下换成进程内HBase
+ */
+public interface HBaseConnectionProvider {
+
+    Connection createConnection() throws IOException;
+
+    /**
+     * 创建异步连接（HBaseUtil的CompletableFuture接口使用）
+     */
+    AsyncConnection createAsyncConnection() throws IOException;
+}
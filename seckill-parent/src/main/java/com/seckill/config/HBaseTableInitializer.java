@@ -1,24 +1,26 @@
 package com.seckill.config;
 
+import com.seckill.util.OrderRowKey;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.hadoop.hbase.*;
 import org.apache.hadoop.hbase.client.Admin;
 import org.apache.hadoop.hbase.client.Connection;
-import org.apache.hadoop.hbase.client.ConnectionFactory;
-import org.apache.hadoop.hbase.client.TableDescriptorBuilder;
-import org.apache.hadoop.hbase.client.ColumnFamilyDescriptor;
-import org.apache.hadoop.hbase.client.ColumnFamilyDescriptorBuilder;
-import org.apache.hadoop.hbase.util.Bytes;
+import org.apache.hadoop.hbase.client.TableDescriptor;
+import org.apache.hadoop.hbase.io.compress.Compression;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 
+import java.io.IOException;
 import java.util.Arrays;
+import java.util.List;
 
 /**
  * HBase表初始化类
- * 在项目启动时自动创建所需的HBase表
+ * 在项目启动时按HBaseTableProfile自动创建所需的HBase表，已有表对齐到配置的结构
  */
 @Slf4j
 @Component
@@ -26,7 +28,15 @@ import java.util.Arrays;
 public class HBaseTableInitializer implements CommandLineRunner {
 
     @Autowired
-    private org.apache.hadoop.conf.Configuration hbaseConfiguration;
+    private HBaseConnectionProvider connectionProvider;
+
+    /** 建表和调整表结构时列族使用的压缩算法（snappy、zstd、lz4、gz、none） */
+    @Value("${seckill.hbase-schema.compression:snappy}")
+    private String compressionName;
+
+    /** 启动时把已有表的列族属性对齐到配置，并补齐缺失的列族 */
+    @Value("${seckill.hbase-schema.alter-existing:true}")
+    private boolean alterExisting;
 
     /**
      * 项目启动时执行
@@ -39,7 +49,7 @@ public class HBaseTableInitializer implements CommandLineRunner {
         
         try {
             // 创建连接
-            connection = ConnectionFactory.createConnection(hbaseConfiguration);
+            connection = connectionProvider.createConnection();
             admin = connection.getAdmin();
             
             // 测试连接
@@ -48,26 +58,10 @@ public class HBaseTableInitializer implements CommandLineRunner {
                 return;
             }
             
-            // 创建商品信息表
-            createProductInfoTable(admin);
-            
-            // 创建订单历史表
-            createOrderHistoryTable(admin);
-            
-            // 创建用户档案表
-            createUserProfileTable(admin);
-            
-            // 创建销售数据表
-            createSalesDataTable(admin);
-            
-            // 创建购物车表
-            createCartDataTable(admin);
-
-            // 创建秒杀活动表
-            createSeckillActivityTable(admin);
-            
-            // 创建ID生成器表
-            createIdGeneratorTable(admin);
+            Compression.Algorithm compression = resolveCompression();
+            for (HBaseTableProfile profile : profiles()) {
+                createOrAlterTable(admin, profile, compression);
+            }
             
             log.info("=== HBase表初始化完成 ===");
             
@@ -108,104 +102,122 @@ public class HBaseTableInitializer implements CommandLineRunner {
     }
 
     /**
-     * 创建商品信息表 (product_info)
-     * 列族: cf_base, cf_detail, cf_stock, cf_stat
-     */
-    private void createProductInfoTable(Admin admin) throws Exception {
-        String tableName = "product_info";
-        String[] columnFamilies = {"cf_base", "cf_detail", "cf_stock", "cf_stat"};
-        createTable(admin, tableName, columnFamilies);
-    }
-
-    /**
-     * 创建订单历史表 (order_history)
-     * 列族: cf_base, cf_address, cf_items, cf_logistics
+     * 各表的物理结构
      */
-    private void createOrderHistoryTable(Admin admin) throws Exception {
-        String tableName = "order_history";
-        String[] columnFamilies = {"cf_base", "cf_address", "cf_items", "cf_logistics"};
-        createTable(admin, tableName, columnFamilies);
+    private static List<HBaseTableProfile> profiles() {
+        // order_history行键首字节是盐值（0 ~ SALT_BUCKETS-1），每个盐值桶一个Region；旧行键（订单ID字符串，首字符'0'~'9'）单独一个Region
+        byte[][] orderSplits = new byte[OrderRowKey.SALT_BUCKETS][];
+        for (int salt = 1; salt < OrderRowKey.SALT_BUCKETS; salt++) {
+            orderSplits[salt - 1] = new byte[]{(byte) salt};
+        }
+        orderSplits[OrderRowKey.SALT_BUCKETS - 1] = OrderRowKey.LEGACY_START;
+
+        // 其余表的行键是递增的ID或日期前缀，预分区分不散写入，交给Region自动分裂
+        return List.of(
+                // 商品信息表，列族: cf_base, cf_detail, cf_stock, cf_stat
+                HBaseTableProfile.of("product_info", "cf_base", "cf_detail", "cf_stock", "cf_stat"),
+                // 订单历史表，行键见OrderRowKey，列族: cf_base, cf_address, cf_items, cf_logistics
+                HBaseTableProfile.of("order_history", "cf_base", "cf_address", "cf_items", "cf_logistics")
+                        .splitKeys(orderSplits),
+                // 订单ID指针表，行键是订单ID，cf_base:row_key 存订单在order_history中的行键
+                HBaseTableProfile.of("order_index", "cf_base"),
+                // 用户档案表，列族: cf_base, cf_account, cf_address, cf_behavior
+                HBaseTableProfile.of("user_profile", "cf_base", "cf_account", "cf_address", "cf_behavior"),
+                // 销售数据表，列族: cf_daily, cf_hourly, cf_region
+                HBaseTableProfile.of("sales_data", "cf_daily", "cf_hourly", "cf_region"),
+                // 购物车表，cf_base存元数据，cf_items存商品项
+                HBaseTableProfile.of("cart_data", "cf_base", "cf_items"),
+                // 秒杀活动表，数据量小且每次秒杀都会读取
+                HBaseTableProfile.of("seckill_activity", "cf_base").inMemory(),
+                // ID生成器表，只有几个计数器行
+                HBaseTableProfile.of("id_generator", "cf_id").inMemory().uncompressed(),
+                // 活动参与用户索引表，列族: cf_user
+                HBaseTableProfile.of("activity_participant", "cf_user"),
+                // 库存对账快照表，列族: cf_snap
+                HBaseTableProfile.of("stock_snapshot", "cf_snap"));
     }
 
-    /**
-     * 创建用户档案表 (user_profile)
-     * 列族: cf_base, cf_account, cf_address, cf_behavior
-     */
-    private void createUserProfileTable(Admin admin) throws Exception {
-        String tableName = "user_profile";
-        String[] columnFamilies = {"cf_base", "cf_account", "cf_address", "cf_behavior"};
-        createTable(admin, tableName, columnFamilies);
+    private Compression.Algorithm resolveCompression() {
+        if (!StringUtils.hasText(compressionName)) {
+            return Compression.Algorithm.NONE;
+        }
+        try {
+            return Compression.getCompressionAlgorithmByName(compressionName.trim().toLowerCase());
+        } catch (IllegalArgumentException e) {
+            log.warn("不支持的压缩算法 {}，建表时不压缩", compressionName);
+            return Compression.Algorithm.NONE;
+        }
     }
 
     /**
-     * 创建销售数据表 (sales_data)
-     * 列族: cf_daily, cf_hourly, cf_region
+     * 表不存在时按配置建表；已存在时（开启alter-existing）补齐缺失的列族，并把列族属性对齐到配置
+     * RegionServer没有安装对应的压缩库时HBase会拒绝建表/改表，此时退回不压缩
      */
-    private void createSalesDataTable(Admin admin) throws Exception {
-        String tableName = "sales_data";
-        String[] columnFamilies = {"cf_daily", "cf_hourly", "cf_region"};
-        createTable(admin, tableName, columnFamilies);
-    }
+    private void createOrAlterTable(Admin admin, HBaseTableProfile profile, Compression.Algorithm compression)
+            throws Exception {
+        TableName tbName = TableName.valueOf(profile.getTableName());
+        boolean tryCompression = compression != Compression.Algorithm.NONE && profile.isCompressed();
 
-    /**
-     * 创建购物车表 (cart_data)
-     * 列族: cf_items
-     */
-    private void createCartDataTable(Admin admin) throws Exception {
-        String tableName = "cart_data";
-        String[] columnFamilies = {"cf_items"};
-        createTable(admin, tableName, columnFamilies);
-    }
+        // 检查表是否存在
+        if (admin.tableExists(tbName)) {
+            if (!alterExisting) {
+                log.info("表 {} 已存在，跳过创建", profile.getTableName());
+                return;
+            }
+            alterTable(admin, profile, compression, tryCompression);
+            return;
+        }
 
-    /**
-     * 创建秒杀活动表 (t_seckill_activity)
-     * 列族: cf_base
-     */
-    private void createSeckillActivityTable(Admin admin) throws Exception {
-        String tableName = "seckill_activity";
-        String[] columnFamilies = {"cf_base"};
-        createTable(admin, tableName, columnFamilies);
+        try {
+            createTable(admin, profile, compression);
+        } catch (IOException e) {
+            if (!tryCompression) {
+                throw e;
+            }
+            log.warn("表 {} 使用压缩算法 {} 创建失败，改为不压缩: {}", profile.getTableName(), compression, e.getMessage());
+            createTable(admin, profile, Compression.Algorithm.NONE);
+        }
     }
 
-    /**
-     * 创建ID生成器表 (id_generator)
-     * 列族: cf_id
-     */
-    private void createIdGeneratorTable(Admin admin) throws Exception {
-        String tableName = "id_generator";
-        String[] columnFamilies = {"cf_id"};
-        createTable(admin, tableName, columnFamilies);
+    private void createTable(Admin admin, HBaseTableProfile profile, Compression.Algorithm compression)
+            throws IOException {
+        TableDescriptor descriptor = profile.tableDescriptor(compression);
+        if (profile.getSplitKeys() != null) {
+            admin.createTable(descriptor, profile.getSplitKeys());
+        } else {
+            admin.createTable(descriptor);
+        }
+        log.info("表 {} 创建成功！列族: {}, 预分区数: {}, 压缩: {}", profile.getTableName(),
+                Arrays.toString(profile.getColumnFamilies()),
+                profile.getSplitKeys() != null ? profile.getSplitKeys().length + 1 : 1,
+                profile.isCompressed() ? compression : Compression.Algorithm.NONE);
     }
 
     /**
-     * 创建表的通用方法
+     * 预分区只在建表时生效，已有表的Region由HBase按大小自动分裂
      */
-    private void createTable(Admin admin, String tableName, String[] columnFamilies) throws Exception {
-        TableName tbName = TableName.valueOf(tableName);
-        
-        // 检查表是否存在
-        if (admin.tableExists(tbName)) {
-            log.info("表 {} 已存在，跳过创建", tableName);
+    private void alterTable(Admin admin, HBaseTableProfile profile, Compression.Algorithm compression,
+                            boolean tryCompression) throws IOException {
+        TableName tbName = TableName.valueOf(profile.getTableName());
+        TableDescriptor existing = admin.getDescriptor(tbName);
+        TableDescriptor altered = profile.alteredDescriptor(existing, compression);
+        if (altered == null) {
+            log.info("表 {} 已存在，结构与配置一致", profile.getTableName());
             return;
         }
-        
-        // 创建表描述器
-        TableDescriptorBuilder tableBuilder = TableDescriptorBuilder.newBuilder(tbName);
-        
-        // 添加列族
-        for (String columnFamily : columnFamilies) {
-            ColumnFamilyDescriptor cfDesc = ColumnFamilyDescriptorBuilder
-                    .newBuilder(Bytes.toBytes(columnFamily))
-                    .setMaxVersions(3) // 保留3个版本
-                    .setMinVersions(1)
-                    .setTimeToLive(2147483647) // 长期保留（约68年）
-                    .build();
-            tableBuilder.setColumnFamily(cfDesc);
+        try {
+            admin.modifyTable(altered);
+        } catch (IOException e) {
+            if (!tryCompression) {
+                throw e;
+            }
+            log.warn("表 {} 使用压缩算法 {} 调整失败，保留原压缩设置: {}", profile.getTableName(), compression, e.getMessage());
+            altered = profile.alteredDescriptor(existing, null);
+            if (altered == null) {
+                return;
+            }
+            admin.modifyTable(altered);
         }
-        
-        // 创建表
-        admin.createTable(tableBuilder.build());
-        log.info("表 {} 创建成功！列族: {}", tableName, Arrays.toString(columnFamilies));
+        log.info("表 {} 结构已按配置调整，列族: {}", profile.getTableName(), Arrays.toString(profile.getColumnFamilies()));
     }
 }
-
@@ -0,0 +1,133 @@
+package com.seckill.config;
+
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.ColumnFamilyDescriptor;
+import org.apache.hadoop.hbase.client.ColumnFamilyDescriptorBuilder;
+import org.apache.hadoop.hbase.client.TableDescriptor;
+import org.apache.hadoop.hbase.client.TableDescriptorBuilder;
+import org.apache.hadoop.hbase.io.compress.Compression;
+import org.apache.hadoop.hbase.io.encoding.DataBlockEncoding;
+import org.apache.hadoop.hbase.regionserver.BloomType;
+import org.apache.hadoop.hbase.util.Bytes;
+
+/**
+ * 一张HBase表的物理结构：列族、预分区点、版本数、压缩、数据块编码、布隆过滤器、内存标记
+ * 默认每个单元格只保留1个版本（没有读取历史版本的业务，updateById整行重写时不再多存两份）、
+ * FAST_DIFF编码（同一行各列的行键和列族前缀相同，编码后体积明显减小）、ROW布隆过滤器（按行键点查跳过无关的HFile）
+ */
+class HBaseTableProfile {
+
+    private final String tableName;
+    private final String[] columnFamilies;
+    private int maxVersions = 1;
+    private boolean inMemory;
+    private boolean compressed = true;
+    private byte[][] splitKeys;
+
+    private HBaseTableProfile(String tableName, String[] columnFamilies) {
+        this.tableName = tableName;
+        this.columnFamilies = columnFamilies;
+    }
+
+    static HBaseTableProfile of(String tableName, String... columnFamilies) {
+        return new HBaseTableProfile(tableName, columnFamilies);
+    }
+
+    HBaseTableProfile maxVersions(int maxVersions) {
+        this.maxVersions = maxVersions;
+        return this;
+    }
+
+    /**
+     * 小而热的表：数据块在BlockCache中优先保留
+     */
+    HBaseTableProfile inMemory() {
+        this.inMemory = true;
+        return this;
+    }
+
+    /**
+     * 数据量很小、以计数器为主的表不压缩，省去解压开销
+     */
+    HBaseTableProfile uncompressed() {
+        this.compressed = false;
+        return this;
+    }
+
+    /**
+     * 建表时的预分区点，只在新建表时生效
+     */
+    HBaseTableProfile splitKeys(byte[]... splitKeys) {
+        this.splitKeys = splitKeys;
+        return this;
+    }
+
+    String getTableName() {
+        return tableName;
+    }
+
+    String[] getColumnFamilies() {
+        return columnFamilies;
+    }
+
+    byte[][] getSplitKeys() {
+        return splitKeys;
+    }
+
+    boolean isCompressed() {
+        return compressed;
+    }
+
+    /**
+     * 新建表的描述
+     * @param compression 压缩算法，表标记为不压缩时忽略
+     */
+    TableDescriptor tableDescriptor(Compression.Algorithm compression) {
+        TableDescriptorBuilder builder = TableDescriptorBuilder.newBuilder(TableName.valueOf(tableName));
+        for (String family : columnFamilies) {
+            builder.setColumnFamily(apply(ColumnFamilyDescriptorBuilder.newBuilder(Bytes.toBytes(family)), compression));
+        }
+        return builder.build();
+    }
+
+    /**
+     * 已有表按本配置调整后的描述：补上缺失的列族，已有列族的其他属性保留
+     * @param compression 压缩算法，为null时已有列族保持原压缩算法、新增列族不压缩
+     * @return 与已有表一致时返回null
+     */
+    TableDescriptor alteredDescriptor(TableDescriptor existing, Compression.Algorithm compression) {
+        TableDescriptorBuilder builder = TableDescriptorBuilder.newBuilder(existing);
+        boolean changed = false;
+        for (String family : columnFamilies) {
+            ColumnFamilyDescriptor current = existing.getColumnFamily(Bytes.toBytes(family));
+            ColumnFamilyDescriptor target;
+            if (current == null) {
+                target = apply(ColumnFamilyDescriptorBuilder.newBuilder(Bytes.toBytes(family)),
+                        compression != null ? compression : Compression.Algorithm.NONE);
+                builder.setColumnFamily(target);
+                changed = true;
+                continue;
+            }
+            target = apply(ColumnFamilyDescriptorBuilder.newBuilder(current),
+                    compression != null ? compression : current.getCompressionType());
+            if (ColumnFamilyDescriptor.COMPARATOR.compare(current, target) != 0) {
+                builder.modifyColumnFamily(target);
+                changed = true;
+            }
+        }
+        return changed ? builder.build() : null;
+    }
+
+    private ColumnFamilyDescriptor apply(ColumnFamilyDescriptorBuilder builder, Compression.Algorithm compression) {
+        return builder
+                .setMaxVersions(maxVersions)
+                .setMinVersions(0)
+                .setTimeToLive(HConstants.FOREVER) // 长期保留
+                .setCompressionType(compressed ? compression : Compression.Algorithm.NONE)
+                .setDataBlockEncoding(DataBlockEncoding.FAST_DIFF)
+                .setBloomFilterType(BloomType.ROW)
+                .setInMemory(inMemory)
+                .build();
+    }
+}
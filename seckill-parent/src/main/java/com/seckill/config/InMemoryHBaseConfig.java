@@ -0,0 +1,32 @@
+package com.seckill.config;
+
+import com.seckill.hbase.InMemoryHBase;
+import org.apache.hadoop.conf.Configuration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * 进程内HBase配置：启动时加 --spring.profiles.active=hbase-memory，不需要ZooKeeper和HBase集群
+ * 表仍由HBaseTableInitializer在启动时创建
+ */
+@org.springframework.context.annotation.Configuration
+@Profile(InMemoryHBaseConfig.PROFILE)
+public class InMemoryHBaseConfig {
+
+    public static final String PROFILE = "hbase-memory";
+
+    @Value("${seckill.hbase-memory.latency-us:0}")
+    private long latencyMicros;
+
+    @Value("${seckill.hbase-memory.jitter-us:0}")
+    private long jitterMicros;
+
+    /**
+     * InMemoryHBase本身就是HBaseConnectionProvider，替代HBaseConfig中连接集群的实现
+     */
+    @Bean
+    public InMemoryHBase inMemoryHBase(Configuration hbaseConfiguration) {
+        return new InMemoryHBase(hbaseConfiguration, latencyMicros, jitterMicros);
+    }
+}
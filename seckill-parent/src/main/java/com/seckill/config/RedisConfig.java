@@ -9,11 +9,16 @@ import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule; // 关键依赖
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import java.util.List;
+
 @Configuration
 public class RedisConfig {
 
@@ -52,4 +57,81 @@ public class RedisConfig {
         template.afterPropertiesSet();
         return template;
     }
-}
\ No newline at end of file
+
+    /**
+     * 秒杀预扣库存脚本：库存校验、按数量扣减、用户参与校验、补偿信息记录一次完成
+     */
+    @Bean
+    public DefaultRedisScript<Long> seckillReserveScript() {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setLocation(new ClassPathResource("lua/seckill_reserve.lua"));
+        script.setResultType(Long.class);
+        return script;
+    }
+
+    /**
+     * 秒杀释放库存脚本：取消订单或下单失败时回补库存，返回回补数量和借调来源分桶
+     */
+    @Bean
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public DefaultRedisScript<List<Long>> seckillReleaseScript() {
+        DefaultRedisScript<List<Long>> script = new DefaultRedisScript<>();
+        script.setLocation(new ClassPathResource("lua/seckill_release.lua"));
+        script.setResultType((Class) List.class);
+        return script;
+    }
+
+    /**
+     * 分桶库存借调脚本：用户所属分桶售罄时从兄弟分桶借调库存，数量为负数时归还
+     */
+    @Bean
+    public DefaultRedisScript<Long> seckillStockTakeScript() {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setLocation(new ClassPathResource("lua/seckill_stock_take.lua"));
+        script.setResultType(Long.class);
+        return script;
+    }
+
+    /**
+     * 分桶借调来源记录脚本：从兄弟分桶扣减库存后记录来源分桶
+     */
+    @Bean
+    public DefaultRedisScript<Long> seckillBorrowSourceScript() {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setLocation(new ClassPathResource("lua/seckill_borrow_source.lua"));
+        script.setResultType(Long.class);
+        return script;
+    }
+
+    /**
+     * 订单ID节点号租约脚本：申请或续期节点号并记录高水位
+     */
+    @Bean
+    public DefaultRedisScript<Long> snowflakeNodeLeaseScript() {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setLocation(new ClassPathResource("lua/snowflake_node_lease.lua"));
+        script.setResultType(Long.class);
+        return script;
+    }
+
+    /**
+     * 订单ID节点号释放脚本：正常停机时归还节点号
+     */
+    @Bean
+    public DefaultRedisScript<Long> snowflakeNodeReleaseScript() {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setLocation(new ClassPathResource("lua/snowflake_node_release.lua"));
+        script.setResultType(Long.class);
+        return script;
+    }
+
+    /**
+     * Redis发布订阅监听容器（秒杀售罄标记跨节点广播）
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
+}
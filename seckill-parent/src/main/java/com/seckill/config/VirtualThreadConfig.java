@@ -0,0 +1,66 @@
+package com.seckill.config;
+
+import com.seckill.util.VirtualThreads;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnJava;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.system.JavaVersion;
+import org.springframework.boot.task.TaskSchedulerCustomizer;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+
+/**
+ * 虚拟线程配置（seckill.virtual-threads.enabled=true 且运行在Java 21及以上时生效）
+ * Tomcat请求处理、@Scheduled定时任务、@Async异步任务改为在虚拟线程上执行，
+ * 阻塞在HBase RPC、Redis调用上的请求不再占用平台线程，并发不再受Tomcat线程池大小限制。
+ * 此时并发上限转移到下游连接池（Redisson连接池、HBase客户端），需要按压测结果调整
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "seckill.virtual-threads", name = "enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @PostConstruct
+    public void init() {
+        if (VirtualThreads.isSupported()) {
+            log.info("已启用虚拟线程：Tomcat请求、定时任务、异步任务");
+        } else {
+            log.warn("已配置 seckill.virtual-threads.enabled，但当前Java版本 {} 不支持虚拟线程，继续使用平台线程池",
+                    Runtime.version());
+        }
+    }
+
+    /**
+     * Tomcat请求处理使用虚拟线程，每个请求一个线程
+     */
+    @Bean
+    @ConditionalOnJava(JavaVersion.TWENTY_ONE)
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(VirtualThreads.newExecutor("tomcat-vt-"));
+    }
+
+    /**
+     * @Scheduled任务的调度线程改为虚拟线程
+     */
+    @Bean
+    @ConditionalOnJava(JavaVersion.TWENTY_ONE)
+    public TaskSchedulerCustomizer virtualThreadTaskSchedulerCustomizer() {
+        return scheduler -> scheduler.setThreadFactory(VirtualThreads.threadFactory("scheduling-vt-"));
+    }
+
+    /**
+     * 替换默认的applicationTaskExecutor，@Async任务每个任务一个虚拟线程
+     */
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+    @ConditionalOnJava(JavaVersion.TWENTY_ONE)
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(VirtualThreads.newExecutor("async-vt-"));
+    }
+}
@@ -0,0 +1,133 @@
+package com.seckill.controller;
+
+import com.seckill.common.Result;
+import com.seckill.service.HBaseCodecMigrationService;
+import com.seckill.service.OrderRowKeyMigrationService;
+import com.seckill.util.HBaseUtil;
+import com.seckill.util.JwtUtil;
+import com.seckill.vo.HBaseCodecMigrationReportVO;
+import com.seckill.vo.HBaseWriteStatsVO;
+import com.seckill.vo.OrderRowKeyMigrationReportVO;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.util.List;
+
+/**
+ * 运维管理控制器：HBase写入统计、单元格编码迁移、订单行键迁移，仅管理员可用
+ */
+@Tag(name = "运维管理", description = "HBase写入统计与数据迁移接口")
+@Slf4j
+@RestController
+@RequestMapping("/api/admin/ops")
+public class AdminOpsController {
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private HBaseUtil hBaseUtil;
+
+    @Autowired
+    private HBaseCodecMigrationService codecMigrationService;
+
+    @Autowired
+    private OrderRowKeyMigrationService rowKeyMigrationService;
+
+    @Operation(summary = "查询HBase异步写入统计", description = "各表写缓冲的刷写次数、耗时、失败数")
+    @GetMapping("/write-stats")
+    public Result<List<HBaseWriteStatsVO>> getWriteStats(HttpServletRequest request) {
+        // 检查权限 - 只有管理员可以查看
+        String token = request.getHeader("Authorization");
+        if (token != null && token.startsWith("Bearer ")) {
+            token = token.substring(7);
+            Integer role = jwtUtil.getRole(token);
+            if (!Integer.valueOf(1).equals(role)) { // 1-管理员
+                return Result.error(403, "无权限操作");
+            }
+        } else {
+            return Result.error(401, "请先登录");
+        }
+
+        return Result.success(hBaseUtil.getWriteStats());
+    }
+
+    @Operation(summary = "启动HBase单元格编码迁移", description = "后台把数值、金额、时间列的旧字符串单元格重写为二进制格式")
+    @PostMapping("/codec-migration")
+    public Result<Boolean> startCodecMigration(HttpServletRequest request) {
+        // 检查权限 - 只有管理员可以操作
+        String token = request.getHeader("Authorization");
+        if (token != null && token.startsWith("Bearer ")) {
+            token = token.substring(7);
+            Integer role = jwtUtil.getRole(token);
+            if (!Integer.valueOf(1).equals(role)) { // 1-管理员
+                return Result.error(403, "无权限操作");
+            }
+        } else {
+            return Result.error(401, "请先登录");
+        }
+
+        return Result.success(codecMigrationService.migrateAsync());
+    }
+
+    @Operation(summary = "查询HBase单元格编码迁移进度")
+    @GetMapping("/codec-migration/report")
+    public Result<HBaseCodecMigrationReportVO> getCodecMigrationReport(HttpServletRequest request) {
+        // 检查权限 - 只有管理员可以查看
+        String token = request.getHeader("Authorization");
+        if (token != null && token.startsWith("Bearer ")) {
+            token = token.substring(7);
+            Integer role = jwtUtil.getRole(token);
+            if (!Integer.valueOf(1).equals(role)) { // 1-管理员
+                return Result.error(403, "无权限操作");
+            }
+        } else {
+            return Result.error(401, "请先登录");
+        }
+
+        return Result.success(codecMigrationService.getLastReport());
+    }
+
+    @Operation(summary = "启动订单行键迁移", description = "后台把订单ID行键的旧订单搬到 盐值+用户ID+反转时间戳+订单ID 行键")
+    @PostMapping("/rowkey-migration")
+    public Result<Boolean> startRowKeyMigration(HttpServletRequest request) {
+        // 检查权限 - 只有管理员可以操作
+        String token = request.getHeader("Authorization");
+        if (token != null && token.startsWith("Bearer ")) {
+            token = token.substring(7);
+            Integer role = jwtUtil.getRole(token);
+            if (!Integer.valueOf(1).equals(role)) { // 1-管理员
+                return Result.error(403, "无权限操作");
+            }
+        } else {
+            return Result.error(401, "请先登录");
+        }
+
+        return Result.success(rowKeyMigrationService.migrateAsync());
+    }
+
+    @Operation(summary = "查询订单行键迁移进度")
+    @GetMapping("/rowkey-migration/report")
+    public Result<OrderRowKeyMigrationReportVO> getRowKeyMigrationReport(HttpServletRequest request) {
+        // 检查权限 - 只有管理员可以查看
+        String token = request.getHeader("Authorization");
+        if (token != null && token.startsWith("Bearer ")) {
+            token = token.substring(7);
+            Integer role = jwtUtil.getRole(token);
+            if (!Integer.valueOf(1).equals(role)) { // 1-管理员
+                return Result.error(403, "无权限操作");
+            }
+        } else {
+            return Result.error(401, "请先登录");
+        }
+
+        return Result.success(rowKeyMigrationService.getLastReport());
+    }
+}
@@ -1,6 +1,7 @@
 package com.seckill.controller;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.seckill.common.CursorPageResult;
 import com.seckill.common.PageQuery;
 import com.seckill.common.Result;
 import com.seckill.dto.ProductCategoryDTO;
@@ -68,6 +69,17 @@ public class ProductController {
         return Result.success(result);
     }
 
+    /**
+     * 游标分页查询商品：首次不传cursor，之后传上一页返回的nextCursor，nextCursor为空表示没有下一页
+     */
+    @GetMapping("/list/cursor")
+    public Result<CursorPageResult<ProductVO>> getProductListByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") Integer pageSize,
+            @RequestParam(required = false) String productName) {
+        return Result.success(productService.getProductListByCursor(cursor, pageSize, productName));
+    }
+
     @PostMapping("/category")
     public Result<?> saveCategory(@RequestBody ProductCategoryDTO categoryDTO, HttpServletRequest request) {
         checkAdminPermission(request);
@@ -3,14 +3,20 @@ package com.seckill.controller;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.seckill.annotation.RateLimit;
 import com.seckill.common.LimitType;
+import com.seckill.common.CursorPageResult;
 import com.seckill.common.PageQuery;
 import com.seckill.common.PageResult;
 import com.seckill.common.Result;
 import com.seckill.dto.SeckillActivityDTO;
+import com.seckill.entity.StockSnapshot;
 import com.seckill.service.SeckillActivityService;
+import com.seckill.service.SeckillPreheatService;
+import com.seckill.service.StockReconcileService;
 import com.seckill.util.JwtUtil;
+import com.seckill.vo.ActivityReadinessVO;
 import com.seckill.vo.ActivityStatusVo;
 import com.seckill.vo.SeckillActivityVO;
+import com.seckill.vo.StockReconcileReportVO;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -33,6 +39,12 @@ public class SeckillActivityController {
     @Autowired
     private SeckillActivityService activityService;
     
+    @Autowired
+    private SeckillPreheatService preheatService;
+    
+    @Autowired
+    private StockReconcileService stockReconcileService;
+    
     @Autowired
     private JwtUtil jwtUtil;
     
@@ -93,6 +105,15 @@ public class SeckillActivityController {
         
         return Result.success(pageResult);
     }
+
+    @GetMapping("/list/cursor")
+    @Operation(summary = "游标分页查询秒杀活动", description = "首次不传cursor，之后传上一页返回的nextCursor，nextCursor为空表示没有下一页")
+    public Result<CursorPageResult<SeckillActivityVO>> getActivityListByCursor(
+            @Parameter(description = "上一页返回的游标") @RequestParam(required = false) String cursor,
+            @Parameter(description = "页大小") @RequestParam(defaultValue = "10") Integer pageSize,
+            @Parameter(description = "活动状态") @RequestParam(required = false) Integer status) {
+        return Result.success(activityService.getActivityListByCursor(cursor, pageSize, status));
+    }
     
     @GetMapping("/{id}")
     @Operation(summary = "根据ID查询秒杀活动详情")
@@ -128,4 +149,78 @@ public class SeckillActivityController {
         List<SeckillActivityVO> activities = activityService.getActiveActivities();
         return Result.success(activities);
     }
-}
\ No newline at end of file
+    
+    @PostMapping("/preheat/{id}")
+    @Operation(summary = "手动预热秒杀活动（库存、活动快照、商品详情）")
+    public Result<ActivityReadinessVO> preheatActivity(@Parameter(description = "活动ID") @PathVariable Long id,
+                                                       HttpServletRequest request) {
+        // 检查权限 - 只有管理员可以预热活动
+        String token = request.getHeader("Authorization");
+        if (token != null && token.startsWith("Bearer ")) {
+            token = token.substring(7);
+            Integer role = jwtUtil.getRole(token);
+            if (!Integer.valueOf(1).equals(role)) { // 1-管理员
+                return Result.error(403, "无权限操作");
+            }
+        } else {
+            return Result.error(401, "请先登录");
+        }
+        
+        return Result.success(preheatService.preheat(id));
+    }
+    
+    @GetMapping("/readiness")
+    @Operation(summary = "查询秒杀活动预热就绪情况")
+    public Result<List<ActivityReadinessVO>> getReadiness(HttpServletRequest request) {
+        // 检查权限 - 只有管理员可以查看
+        String token = request.getHeader("Authorization");
+        if (token != null && token.startsWith("Bearer ")) {
+            token = token.substring(7);
+            Integer role = jwtUtil.getRole(token);
+            if (!Integer.valueOf(1).equals(role)) { // 1-管理员
+                return Result.error(403, "无权限操作");
+            }
+        } else {
+            return Result.error(401, "请先登录");
+        }
+        
+        return Result.success(preheatService.getReadinessList());
+    }
+    
+    @PostMapping("/reconcile/{id}")
+    @Operation(summary = "手动对账秒杀活动库存（Redis与订单记录）")
+    public Result<StockSnapshot> reconcileStock(@Parameter(description = "活动ID") @PathVariable Long id,
+                                                HttpServletRequest request) {
+        // 检查权限 - 只有管理员可以对账
+        String token = request.getHeader("Authorization");
+        if (token != null && token.startsWith("Bearer ")) {
+            token = token.substring(7);
+            Integer role = jwtUtil.getRole(token);
+            if (!Integer.valueOf(1).equals(role)) { // 1-管理员
+                return Result.error(403, "无权限操作");
+            }
+        } else {
+            return Result.error(401, "请先登录");
+        }
+        
+        return Result.success(stockReconcileService.reconcile(id));
+    }
+    
+    @GetMapping("/reconcile/report")
+    @Operation(summary = "查询最近一次库存对账结果")
+    public Result<StockReconcileReportVO> getReconcileReport(HttpServletRequest request) {
+        // 检查权限 - 只有管理员可以查看
+        String token = request.getHeader("Authorization");
+        if (token != null && token.startsWith("Bearer ")) {
+            token = token.substring(7);
+            Integer role = jwtUtil.getRole(token);
+            if (!Integer.valueOf(1).equals(role)) { // 1-管理员
+                return Result.error(403, "无权限操作");
+            }
+        } else {
+            return Result.error(401, "请先登录");
+        }
+        
+        return Result.success(stockReconcileService.getLastReport());
+    }
+}
@@ -1,6 +1,7 @@
 package com.seckill.controller;
 
 import com.seckill.annotation.RateLimit;
+import com.seckill.common.CursorPageResult;
 import com.seckill.common.LimitType;
 import com.seckill.common.PageQuery;
 import com.seckill.common.PageResult;
@@ -9,6 +10,7 @@ import com.seckill.dto.CartItemAddDTO;
 import com.seckill.dto.SeckillOrderDTO;
 import com.seckill.service.SeckillOrderService;
 import com.seckill.util.JwtUtil;
+import com.seckill.vo.OrderStatusVO;
 import com.seckill.vo.SeckillOrderVO;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -37,7 +39,7 @@ public class SeckillOrderController {
     @Autowired
     private JwtUtil jwtUtil;
     
-    @Operation(summary = "秒杀下单", description = "用户参与秒杀活动下单，使用Redisson分布式锁保证并发安全")
+    @Operation(summary = "秒杀下单", description = "用户参与秒杀活动下单，使用Redis Lua脚本原子预扣库存")
     @PostMapping("/create")
         @RateLimit(
             limitType = LimitType.USER_ACTIVITY,
@@ -45,7 +47,7 @@ public class SeckillOrderController {
             period = 60,
             message = "请求过于频繁，请1分钟后再试"
     )
-    public Result<Long> createOrder(@RequestBody @Valid SeckillOrderDTO orderDTO, 
+    public Result<String> createOrder(@RequestBody @Valid SeckillOrderDTO orderDTO, 
                                     HttpServletRequest request) {
         // 从token中获取用户ID
         String token = request.getHeader("Authorization");
@@ -63,7 +65,8 @@ public class SeckillOrderController {
         try {
             Long orderId = orderService.createSeckillOrder(orderDTO);
             log.info("用户 {} 秒杀下单成功，订单ID: {}", userId, orderId);
-            return Result.success(orderId);
+            // 订单ID超过JS安全整数范围，以字符串返回
+            return Result.success(String.valueOf(orderId));
         } catch (Exception e) {
             log.error("秒杀下单失败", e);
             return Result.error(e.getMessage());
@@ -141,6 +144,29 @@ public class SeckillOrderController {
         }
     }
     
+    @Operation(summary = "查询订单状态", description = "异步下单后轮询订单处理状态：-1排队中 -2下单失败 0未支付 1已支付 2已取消")
+    @GetMapping("/status/{orderId}")
+    public Result<OrderStatusVO> getOrderStatus(@PathVariable @Parameter(description = "订单ID") Long orderId,
+                                                HttpServletRequest request) {
+        // 验证用户token，只能查询自己的订单
+        String token = request.getHeader("Authorization");
+        if (token != null && token.startsWith("Bearer ")) {
+            token = token.substring(7);
+        }
+
+        if (!jwtUtil.validateToken(token)) {
+            return Result.error("token已失效");
+        }
+
+        Long userId = jwtUtil.getUserId(token);
+        try {
+            return Result.success(orderService.getOrderStatus(orderId, userId));
+        } catch (Exception e) {
+            log.error("查询订单状态失败", e);
+            return Result.error(e.getMessage());
+        }
+    }
+    
     @Operation(summary = "查询用户订单", description = "查询当前用户的订单列表")
     @GetMapping("/user/list")
     public Result<List<SeckillOrderVO>> getUserOrders(@RequestParam(required = false) Integer status,
@@ -164,6 +190,32 @@ public class SeckillOrderController {
             return Result.error(e.getMessage());
         }
     }
+
+    @Operation(summary = "游标分页查询用户订单", description = "按下单时间倒序，首次不传cursor，之后传上一页返回的nextCursor")
+    @GetMapping("/user/list/cursor")
+    public Result<CursorPageResult<SeckillOrderVO>> getUserOrdersByCursor(
+            @Parameter(description = "上一页返回的游标") @RequestParam(required = false) String cursor,
+            @Parameter(description = "每页大小") @RequestParam(defaultValue = "10") Integer pageSize,
+            @Parameter(description = "订单状态") @RequestParam(required = false) Integer status,
+            HttpServletRequest request) {
+        // 验证用户token
+        String token = request.getHeader("Authorization");
+        if (token != null && token.startsWith("Bearer ")) {
+            token = token.substring(7);
+        }
+
+        if (!jwtUtil.validateToken(token)) {
+            return Result.error("token已失效");
+        }
+
+        Long userId = jwtUtil.getUserId(token);
+        try {
+            return Result.success(orderService.getUserOrdersByCursor(userId, cursor, pageSize, status));
+        } catch (Exception e) {
+            log.error("游标分页查询用户订单失败", e);
+            return Result.error(e.getMessage());
+        }
+    }
     
     @Operation(summary = "分页查询订单列表", description = "管理员分页查询订单列表")
     @GetMapping("/list")
@@ -181,4 +233,18 @@ public class SeckillOrderController {
             return Result.error(e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    @Operation(summary = "游标分页查询订单列表", description = "首次不传cursor，之后传上一页返回的nextCursor，nextCursor为空表示没有下一页")
+    @GetMapping("/list/cursor")
+    public Result<CursorPageResult<SeckillOrderVO>> getOrderListByCursor(
+            @Parameter(description = "上一页返回的游标") @RequestParam(required = false) String cursor,
+            @Parameter(description = "每页大小") @RequestParam(defaultValue = "10") Integer pageSize,
+            @Parameter(description = "订单状态") @RequestParam(required = false) Integer status) {
+        try {
+            return Result.success(orderService.getOrderListByCursor(cursor, pageSize, status));
+        } catch (Exception e) {
+            log.error("游标分页查询订单列表失败", e);
+            return Result.error(e.getMessage());
+        }
+    }
+}
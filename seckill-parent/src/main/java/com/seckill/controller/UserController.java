@@ -1,6 +1,7 @@
 package com.seckill.controller;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.seckill.common.CursorPageResult;
 import com.seckill.common.PageQuery;
 import com.seckill.common.Result;
 import com.seckill.dto.UserLoginDTO;
@@ -75,6 +76,30 @@ public class UserController {
         return Result.success(result);
     }
 
+    /**
+     * 游标分页查询用户列表：首次不传cursor，之后传上一页返回的nextCursor，nextCursor为空表示没有下一页
+     */
+    @GetMapping("/list/cursor")
+    public Result<CursorPageResult<UserVO>> getUserListByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") Integer pageSize,
+            @RequestParam(required = false) String username,
+            HttpServletRequest request) {
+
+        // 检查权限
+        String token = getTokenFromRequest(request);
+        if (!jwtUtil.validateToken(token)) {
+            return Result.unauthorized("未登录");
+        }
+
+        Integer role = jwtUtil.getRole(token);
+        if (!role.equals(UserRoleEnum.ADMIN.getCode())) {
+            return Result.forbidden("无权限访问");
+        }
+
+        return Result.success(userService.getUserListByCursor(cursor, pageSize, username));
+    }
+
     @PutMapping("/status/{id}")
     public Result<?> updateUserStatus(
             @PathVariable Long id,
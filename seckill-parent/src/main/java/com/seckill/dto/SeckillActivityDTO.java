@@ -24,6 +24,8 @@ public class SeckillActivityDTO {
     @NotNull(message = "秒杀库存不能为空")
     private Integer seckillStock;
     
+    private Integer stockBuckets;
+    
     @NotNull(message = "开始时间不能为空")
     private LocalDateTime startTime;
     
@@ -1,6 +1,7 @@
 package com.seckill.entity;
 
 import com.baomidou.mybatisplus.annotation.*;
+import com.seckill.annotation.HBaseColumn;
 import lombok.Data;
 
 import java.time.LocalDateTime;
@@ -32,9 +33,10 @@ public class CartData {
     private String cartItems;
     
     /**
-     * 最后更新时间 (对应HBase cf_items:update_time)
+     * 最后更新时间 (对应HBase cf_base:update_time)
      */
     @TableField(fill = FieldFill.INSERT_UPDATE)
+    @HBaseColumn(family = "cf_base", qualifier = "update_time")
     private LocalDateTime updateTime;
     
     /**
@@ -47,6 +49,7 @@ public class CartData {
      * 是否删除：0-未删除，1-已删除
      */
     @TableLogic
+    @HBaseColumn(family = "cf_base", qualifier = "deleted")
     private Integer deleted;
 }
 
@@ -1,6 +1,7 @@
 package com.seckill.entity;
 
 import com.baomidou.mybatisplus.annotation.*;
+import com.seckill.annotation.HBaseColumn;
 import lombok.Data;
 
 import java.math.BigDecimal;
@@ -20,42 +21,50 @@ public class Product {
     /**
      * 商品名称 (对应HBase cf_base:name)
      */
+    @HBaseColumn(family = "cf_base", qualifier = "name")
     private String productName;
     
     /**
      * 商品描述 (对应HBase cf_detail:description)
      */
+    @HBaseColumn(family = "cf_detail", qualifier = "description")
     private String productDesc;
     
     /**
      * 价格 (对应HBase cf_base:price)
      */
+    @HBaseColumn(family = "cf_base", qualifier = "price")
     private BigDecimal price;
     
     /**
      * 成本价 (对应HBase cf_base:cost)
      */
+    @HBaseColumn(family = "cf_base", qualifier = "cost")
     private BigDecimal cost;
     
     /**
      * 总库存 (对应HBase cf_stock:total_stock)
      */
+    @HBaseColumn(family = "cf_stock", qualifier = "total_stock")
     private Integer stock;
     
     /**
      * 品类编号 (对应HBase cf_base:category)
      */
+    @HBaseColumn(family = "cf_base", qualifier = "category")
     private Long categoryId;
     
     /**
      * 品牌 (对应HBase cf_base:brand)
      */
+    @HBaseColumn(family = "cf_base", qualifier = "brand")
     private String brand;
     
     /**
      * 图片URL JSON数组 (对应HBase cf_detail:images)
      * 格式: ["url1", "url2", ...]
      */
+    @HBaseColumn(family = "cf_detail", qualifier = "images")
     private String images;
     
     /**
@@ -66,64 +75,76 @@ public class Product {
     /**
      * 规格参数 JSON格式 (对应HBase cf_detail:spec)
      */
+    @HBaseColumn(family = "cf_detail", qualifier = "spec")
     private String spec;
     
     /**
      * 标签 逗号分隔 (对应HBase cf_detail:tags)
      */
+    @HBaseColumn(family = "cf_detail", qualifier = "tags")
     private String tags;
     
     /**
      * 各仓库库存 JSON格式 (对应HBase cf_stock:warehouse_stock)
      * 格式: {"warehouse_id1":数量, "warehouse_id2":数量}
      */
+    @HBaseColumn(family = "cf_stock", qualifier = "warehouse_stock")
     private String warehouseStock;
     
     /**
      * 安全库存 (对应HBase cf_stock:safe_stock)
      */
+    @HBaseColumn(family = "cf_stock", qualifier = "safe_stock")
     private Integer safeStock;
     
     /**
      * 锁定库存 (对应HBase cf_stock:lock_stock)
      */
+    @HBaseColumn(family = "cf_stock", qualifier = "lock_stock")
     private Integer lockStock;
     
     /**
      * 浏览数 (对应HBase cf_stat:view_count)
      */
+    @HBaseColumn(family = "cf_stat", qualifier = "view_count")
     private Long viewCount;
     
     /**
-     * 销量 (对应HBase cf_stat:sale_count)
+     * 销量 (对应HBase cf_stat:sale_count，读取时加上cf_stat:sale_counter计数列)
      */
+    @HBaseColumn(family = "cf_stat", qualifier = "sale_count")
     private Long saleCount;
     
     /**
      * 收藏数 (对应HBase cf_stat:collect_count)
      */
+    @HBaseColumn(family = "cf_stat", qualifier = "collect_count")
     private Long collectCount;
     
     /**
      * 状态 1-上架 0-下架 (对应HBase cf_base:status)
      */
+    @HBaseColumn(family = "cf_base", qualifier = "status")
     private Integer status;
     
     /**
      * 创建时间 (对应HBase cf_base:create_time)
      */
     @TableField(fill = FieldFill.INSERT)
+    @HBaseColumn(family = "cf_base", qualifier = "create_time")
     private LocalDateTime createTime;
     
     /**
      * 更新时间 (对应HBase cf_stat:update_time)
      */
     @TableField(fill = FieldFill.INSERT_UPDATE)
+    @HBaseColumn(family = "cf_stat", qualifier = "update_time")
     private LocalDateTime updateTime;
     
     /**
      * 是否删除：0-未删除，1-已删除
      */
     @TableLogic
+    @HBaseColumn(family = "cf_base", qualifier = "deleted")
     private Integer deleted;
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.seckill.entity;
 
 import com.baomidou.mybatisplus.annotation.*;
+import com.seckill.annotation.HBaseColumn;
 import lombok.Data;
 
 import java.math.BigDecimal;
@@ -13,26 +14,45 @@ public class SeckillActivity {
     @TableId(type = IdType.AUTO)
     private Long id;
     
+    @HBaseColumn(family = "cf_base", qualifier = "activity_name")
     private String activityName;
     
+    @HBaseColumn(family = "cf_base", qualifier = "product_id")
     private Long productId;
     
+    @HBaseColumn(family = "cf_base", qualifier = "seckill_price")
     private BigDecimal seckillPrice;
     
+    @HBaseColumn(family = "cf_base", qualifier = "seckill_stock")
     private Integer seckillStock;
     
+    @HBaseColumn(family = "cf_base", qualifier = "sold_count", counter = true)
+    private Integer soldCount; // 已支付售出数量，HBase计数列，只读
+    
+    @HBaseColumn(family = "cf_base", qualifier = "legacy_sold")
+    private Integer legacySold; // 计数列上线前支付时已从seckillStock扣减、回填时加回的数量；为空表示旧活动尚未回填
+    
+    @HBaseColumn(family = "cf_base", qualifier = "stock_buckets")
+    private Integer stockBuckets; // 秒杀库存分桶数，热点活动拆分到多个Redis key，为空或1表示不分桶
+    
+    @HBaseColumn(family = "cf_base", qualifier = "start_time")
     private LocalDateTime startTime;
     
+    @HBaseColumn(family = "cf_base", qualifier = "end_time")
     private LocalDateTime endTime;
     
+    @HBaseColumn(family = "cf_base", qualifier = "status")
     private Integer status; // 0-未开始 1-进行中 2-已结束
     
     @TableField(fill = FieldFill.INSERT)
+    @HBaseColumn(family = "cf_base", qualifier = "create_time")
     private LocalDateTime createTime;
     
     @TableField(fill = FieldFill.INSERT_UPDATE)
+    @HBaseColumn(family = "cf_base", qualifier = "update_time")
     private LocalDateTime updateTime;
     
     @TableLogic
+    @HBaseColumn(family = "cf_base", qualifier = "deleted")
     private Integer deleted;
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.seckill.entity;
 
 import com.baomidou.mybatisplus.annotation.*;
+import com.seckill.annotation.HBaseColumn;
 import lombok.Data;
 
 import java.math.BigDecimal;
@@ -20,97 +21,116 @@ public class SeckillOrder {
     /**
      * 订单号
      */
+    @HBaseColumn(family = "cf_base", qualifier = "order_no")
     private String orderNo;
     
     /**
      * 用户ID
      */
+    @HBaseColumn(family = "cf_base", qualifier = "user_id")
     private Long userId;
     
     /**
      * 活动ID
      */
+    @HBaseColumn(family = "cf_base", qualifier = "activity_id")
     private Long activityId;
     
     /**
      * 商品ID
      */
+    @HBaseColumn(family = "cf_base", qualifier = "product_id")
     private Long productId;
     
     /**
      * 商品名称
      */
+    @HBaseColumn(family = "cf_base", qualifier = "product_name")
     private String productName;
     
     /**
      * 秒杀价格
      */
+    @HBaseColumn(family = "cf_base", qualifier = "seckill_price")
     private BigDecimal seckillPrice;
     
     /**
      * 购买数量
      */
+    @HBaseColumn(family = "cf_base", qualifier = "quantity")
     private Integer quantity;
     
     /**
      * 订单总金额 (对应HBase cf_base:total_amount)
      */
+    @HBaseColumn(family = "cf_base", qualifier = "total_amount")
     private BigDecimal totalAmount;
     
     /**
      * 优惠金额 (对应HBase cf_base:discount_amount)
      */
+    @HBaseColumn(family = "cf_base", qualifier = "discount_amount")
     private BigDecimal discountAmount;
     
     /**
      * 实付金额 (对应HBase cf_base:actual_amount)
      */
+    @HBaseColumn(family = "cf_base", qualifier = "actual_amount")
     private BigDecimal actualAmount;
     
     /**
      * 订单状态 (对应HBase cf_base:status)
      * 1-待付款, 2-待发货, 3-已发货, 4-已完成, 5-已取消
      */
+    @HBaseColumn(family = "cf_base", qualifier = "status")
     private Integer status;
     
     /**
      * 支付方式 (对应HBase cf_base:pay_method)
      */
+    @HBaseColumn(family = "cf_base", qualifier = "pay_method")
     private String payMethod;
     
     /**
      * 支付时间 (对应HBase cf_base:pay_time)
      */
+    @HBaseColumn(family = "cf_base", qualifier = "pay_time")
     private LocalDateTime payTime;
     
     /**
      * 发货时间 (对应HBase cf_base:deliver_time)
      */
+    @HBaseColumn(family = "cf_base", qualifier = "deliver_time")
     private LocalDateTime deliverTime;
     
     /**
      * 完成时间 (对应HBase cf_base:complete_time)
      */
+    @HBaseColumn(family = "cf_base", qualifier = "complete_time")
     private LocalDateTime completeTime;
     
     /**
      * 收货人 (对应HBase cf_address:receiver)
      */
+    @HBaseColumn(family = "cf_address", qualifier = "receiver")
     private String receiver;
     
     /**
      * 联系电话 (对应HBase cf_address:phone)
      */
+    @HBaseColumn(family = "cf_address", qualifier = "phone")
     private String phone;
     
     /**
      * 详细地址 (对应HBase cf_address:address)
      */
+    @HBaseColumn(family = "cf_address", qualifier = "address")
     private String address;
     
     /**
      * 邮编 (对应HBase cf_address:postcode)
      */
+    @HBaseColumn(family = "cf_address", qualifier = "postcode")
     private String postcode;
     
     /**
@@ -118,27 +138,32 @@ public class SeckillOrder {
      * 格式: [{"product_id":"1001_20190001","name":"商品名","price":100,"quantity":2,"amount":200}, ...]
      * 支持多商品订单
      */
+    @HBaseColumn(family = "cf_items", qualifier = "order_items")
     private String orderItems;
     
     /**
      * 快递公司 (对应HBase cf_logistics:express_company)
      */
+    @HBaseColumn(family = "cf_logistics", qualifier = "express_company")
     private String expressCompany;
     
     /**
      * 快递单号 (对应HBase cf_logistics:express_no)
      */
+    @HBaseColumn(family = "cf_logistics", qualifier = "express_no")
     private String expressNo;
     
     /**
      * 物流轨迹 JSON数组 (对应HBase cf_logistics:logistics_info)
      */
+    @HBaseColumn(family = "cf_logistics", qualifier = "logistics_info")
     private String logisticsInfo;
     
     /**
      * 创建时间 (对应HBase cf_base:create_time)
      */
     @TableField(fill = FieldFill.INSERT)
+    @HBaseColumn(family = "cf_base", qualifier = "create_time")
     private LocalDateTime createTime;
     
     /**
@@ -151,5 +176,6 @@ public class SeckillOrder {
      * 是否删除：0-未删除，1-已删除
      */
     @TableLogic
+    @HBaseColumn(family = "cf_base", qualifier = "deleted")
     private Integer deleted;
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+package com.seckill.entity;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 秒杀库存对账快照（HBase表 stock_snapshot，每个活动一行）
+ */
+@Data
+public class StockSnapshot {
+
+    private Long activityId;
+
+    private Integer redisStock; // 快照时Redis中的剩余库存（各分桶之和），未加载时为空
+
+    private Integer expectedStock; // 根据订单记录计算的应有剩余库存
+
+    private Integer unpaidQuantity; // 未支付订单占用的数量
+
+    private Integer paidQuantity; // 参与索引中已支付订单的数量
+
+    private Integer soldCount; // 活动已售计数列
+
+    private Integer divergence; // redisStock - expectedStock
+
+    private Boolean repaired; // 本次是否修复了Redis库存
+
+    private LocalDateTime snapshotTime;
+}
@@ -1,6 +1,7 @@
 package com.seckill.entity;
 
 import com.baomidou.mybatisplus.annotation.*;
+import com.seckill.annotation.HBaseColumn;
 import lombok.Data;
 
 import java.math.BigDecimal;
@@ -21,21 +22,25 @@ public class User {
     /**
      * 用户名 (对应HBase cf_base:username)
      */
+    @HBaseColumn(family = "cf_base", qualifier = "username")
     private String username;
     
     /**
      * 密码
      */
+    @HBaseColumn(family = "cf_base", qualifier = "password")
     private String password;
     
     /**
      * 昵称 (对应HBase cf_base:nickname)
      */
+    @HBaseColumn(family = "cf_base", qualifier = "nickname")
     private String nickname;
     
     /**
      * 手机号 (对应HBase cf_base:phone)
      */
+    @HBaseColumn(family = "cf_base", qualifier = "phone")
     private String phone;
     
     /**
@@ -56,26 +61,31 @@ public class User {
     /**
      * 角色 1-管理员 2-普通用户
      */
+    @HBaseColumn(family = "cf_account", qualifier = "role")
     private Integer role;
     
     /**
      * 状态 1-正常 0-禁用 (对应HBase cf_base:status)
      */
+    @HBaseColumn(family = "cf_base", qualifier = "status")
     private Integer status;
     
     /**
      * 会员等级 (对应HBase cf_account:level)
      */
+    @HBaseColumn(family = "cf_account", qualifier = "level")
     private Integer level;
     
     /**
      * 积分 (对应HBase cf_account:points)
      */
+    @HBaseColumn(family = "cf_account", qualifier = "points")
     private Long points;
     
     /**
      * 余额 (对应HBase cf_account:balance)
      */
+    @HBaseColumn(family = "cf_account", qualifier = "balance")
     private BigDecimal balance;
     
     /**
@@ -84,8 +94,9 @@ public class User {
     private Long growthValue;
     
     /**
-     * 最后登录时间 (对应HBase cf_behavior:last_login)
+     * 最后登录时间 (对应HBase cf_account:last_login)
      */
+    @HBaseColumn(family = "cf_account", qualifier = "last_login")
     private LocalDateTime lastLogin;
     
     /**
@@ -94,8 +105,9 @@ public class User {
     private String lastLoginIp;
     
     /**
-     * 登录次数 (对应HBase cf_behavior:login_count)
+     * 登录次数 (对应HBase cf_account:login_count)
      */
+    @HBaseColumn(family = "cf_account", qualifier = "login_count")
     private Long loginCount;
     
     /**
@@ -107,6 +119,7 @@ public class User {
      * 注册时间 (对应HBase cf_base:register_time)
      */
     @TableField(fill = FieldFill.INSERT)
+    @HBaseColumn(family = "cf_base", qualifier = "create_time")
     private LocalDateTime createTime;
     
     /**
@@ -119,5 +132,6 @@ public class User {
      * 是否删除：0-未删除，1-已删除
      */
     @TableLogic
+    @HBaseColumn(family = "cf_base", qualifier = "deleted")
     private Integer deleted;
 }
\ No newline at end of file
@@ -1,6 +1,8 @@
 package com.seckill.enums;
 
 public enum PayStatusEnum {
+    QUEUING(-1, "排队中"),
+    FAILED(-2, "下单失败"),
     UNPAID(0, "未支付"),
     PAID(1, "已支付"),
     CANCELLED(2, "已取消");
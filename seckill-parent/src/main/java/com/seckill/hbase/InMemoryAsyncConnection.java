@@ -0,0 +1,151 @@
+package com.seckill.hbase;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.ServerName;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.AdvancedScanResultConsumer;
+import org.apache.hadoop.hbase.client.AsyncAdminBuilder;
+import org.apache.hadoop.hbase.client.AsyncBufferedMutatorBuilder;
+import org.apache.hadoop.hbase.client.AsyncConnection;
+import org.apache.hadoop.hbase.client.AsyncTable;
+import org.apache.hadoop.hbase.client.AsyncTableBuilder;
+import org.apache.hadoop.hbase.client.AsyncTableRegionLocator;
+import org.apache.hadoop.hbase.client.Hbck;
+import org.apache.hadoop.hbase.client.ScanResultConsumer;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 进程内HBase的AsyncConnection
+ * 只支持带回调线程池的表（getTable(tableName, pool)），操作在该线程池上执行；
+ * Admin、BufferedMutator等仍使用同步Connection
+ */
+class InMemoryAsyncConnection implements AsyncConnection {
+
+    private final InMemoryHBase hbase;
+
+    private volatile boolean closed;
+
+    InMemoryAsyncConnection(InMemoryHBase hbase) {
+        this.hbase = hbase;
+    }
+
+    @Override
+    public Configuration getConfiguration() {
+        return hbase.getConfiguration();
+    }
+
+    @Override
+    public AsyncTableRegionLocator getRegionLocator(TableName tableName) {
+        throw new UnsupportedOperationException("进程内HBase没有Region");
+    }
+
+    @Override
+    public void clearRegionLocationCache() {
+    }
+
+    @Override
+    public AsyncTableBuilder<AdvancedScanResultConsumer> getTableBuilder(TableName tableName) {
+        throw new UnsupportedOperationException("进程内HBase的异步表需要指定回调线程池");
+    }
+
+    @Override
+    public AsyncTableBuilder<ScanResultConsumer> getTableBuilder(TableName tableName, ExecutorService pool) {
+        return new AsyncTableBuilder<>() {
+            @Override
+            public AsyncTableBuilder<ScanResultConsumer> setOperationTimeout(long timeout, TimeUnit unit) {
+                return this;
+            }
+
+            @Override
+            public AsyncTableBuilder<ScanResultConsumer> setScanTimeout(long timeout, TimeUnit unit) {
+                return this;
+            }
+
+            @Override
+            public AsyncTableBuilder<ScanResultConsumer> setRpcTimeout(long timeout, TimeUnit unit) {
+                return this;
+            }
+
+            @Override
+            public AsyncTableBuilder<ScanResultConsumer> setReadRpcTimeout(long timeout, TimeUnit unit) {
+                return this;
+            }
+
+            @Override
+            public AsyncTableBuilder<ScanResultConsumer> setWriteRpcTimeout(long timeout, TimeUnit unit) {
+                return this;
+            }
+
+            @Override
+            public AsyncTableBuilder<ScanResultConsumer> setRetryPause(long pause, TimeUnit unit) {
+                return this;
+            }
+
+            @Override
+            public AsyncTableBuilder<ScanResultConsumer> setRetryPauseForServerOverloaded(long pause, TimeUnit unit) {
+                return this;
+            }
+
+            @Override
+            public AsyncTableBuilder<ScanResultConsumer> setMaxAttempts(int maxAttempts) {
+                return this;
+            }
+
+            @Override
+            public AsyncTableBuilder<ScanResultConsumer> setStartLogErrorsCnt(int startLogErrorsCnt) {
+                return this;
+            }
+
+            @Override
+            public AsyncTable<ScanResultConsumer> build() {
+                return new InMemoryAsyncTable(new InMemoryTable(hbase, tableName), pool);
+            }
+        };
+    }
+
+    @Override
+    public AsyncAdminBuilder getAdminBuilder() {
+        throw new UnsupportedOperationException("进程内HBase请使用同步Connection的Admin");
+    }
+
+    @Override
+    public AsyncAdminBuilder getAdminBuilder(ExecutorService pool) {
+        throw new UnsupportedOperationException("进程内HBase请使用同步Connection的Admin");
+    }
+
+    @Override
+    public AsyncBufferedMutatorBuilder getBufferedMutatorBuilder(TableName tableName) {
+        throw new UnsupportedOperationException("进程内HBase请使用同步Connection的BufferedMutator");
+    }
+
+    @Override
+    public AsyncBufferedMutatorBuilder getBufferedMutatorBuilder(TableName tableName, ExecutorService pool) {
+        throw new UnsupportedOperationException("进程内HBase请使用同步Connection的BufferedMutator");
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public CompletableFuture<Hbck> getHbck() {
+        throw new UnsupportedOperationException("进程内HBase不支持Hbck");
+    }
+
+    @Override
+    public Hbck getHbck(ServerName masterServer) {
+        throw new UnsupportedOperationException("进程内HBase不支持Hbck");
+    }
+
+    /**
+     * 关闭连接不影响数据
+     */
+    @Override
+    public void close() {
+        closed = true;
+    }
+}
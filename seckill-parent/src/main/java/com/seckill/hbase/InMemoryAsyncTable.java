@@ -0,0 +1,339 @@
+package com.seckill.hbase;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.CompareOperator;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Append;
+import org.apache.hadoop.hbase.client.AsyncTable;
+import org.apache.hadoop.hbase.client.AsyncTableRegionLocator;
+import org.apache.hadoop.hbase.client.CheckAndMutate;
+import org.apache.hadoop.hbase.client.CheckAndMutateResult;
+import org.apache.hadoop.hbase.client.Delete;
+import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.Increment;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.Row;
+import org.apache.hadoop.hbase.client.RowMutations;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.client.ScanResultConsumer;
+import org.apache.hadoop.hbase.client.ServiceCaller;
+import org.apache.hadoop.hbase.client.Table;
+import org.apache.hadoop.hbase.client.TableDescriptor;
+import org.apache.hadoop.hbase.filter.Filter;
+import org.apache.hadoop.hbase.io.TimeRange;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 进程内HBase的AsyncTable：每个操作在回调线程池上执行对应的同步操作（包括附加的RPC延迟），
+ * 批量操作仍是一次RPC，与集群客户端一样按请求逐个返回Future
+ */
+class InMemoryAsyncTable implements AsyncTable<ScanResultConsumer> {
+
+    private final InMemoryTable table;
+
+    private final ExecutorService pool;
+
+    InMemoryAsyncTable(InMemoryTable table, ExecutorService pool) {
+        this.table = table;
+        this.pool = pool;
+    }
+
+    @FunctionalInterface
+    private interface IOCall<T> {
+        T call() throws IOException;
+    }
+
+    private <T> CompletableFuture<T> async(IOCall<T> call) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return call.call();
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, pool);
+    }
+
+    /**
+     * 批量操作一次执行，结果拆分到每个请求各自的Future；批量失败时所有Future都以该异常完成
+     */
+    private <T> List<CompletableFuture<T>> split(int size, CompletableFuture<List<T>> all) {
+        List<CompletableFuture<T>> futures = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int index = i;
+            futures.add(all.thenApply(results -> results.get(index)));
+        }
+        return futures;
+    }
+
+    @Override
+    public TableName getName() {
+        return table.getName();
+    }
+
+    @Override
+    public Configuration getConfiguration() {
+        return table.getConfiguration();
+    }
+
+    @Override
+    public CompletableFuture<TableDescriptor> getDescriptor() {
+        return async(table::getDescriptor);
+    }
+
+    @Override
+    public AsyncTableRegionLocator getRegionLocator() {
+        throw new UnsupportedOperationException("进程内HBase没有Region");
+    }
+
+    @Override
+    public long getRpcTimeout(TimeUnit unit) {
+        return 0;
+    }
+
+    @Override
+    public long getReadRpcTimeout(TimeUnit unit) {
+        return 0;
+    }
+
+    @Override
+    public long getWriteRpcTimeout(TimeUnit unit) {
+        return 0;
+    }
+
+    @Override
+    public long getOperationTimeout(TimeUnit unit) {
+        return 0;
+    }
+
+    @Override
+    public long getScanTimeout(TimeUnit unit) {
+        return 0;
+    }
+
+    @Override
+    public CompletableFuture<Result> get(Get get) {
+        return async(() -> table.get(get));
+    }
+
+    @Override
+    public CompletableFuture<Void> put(Put put) {
+        return async(() -> {
+            table.put(put);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(Delete delete) {
+        return async(() -> {
+            table.delete(delete);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Result> append(Append append) {
+        return async(() -> table.append(append));
+    }
+
+    @Override
+    public CompletableFuture<Result> increment(Increment increment) {
+        return async(() -> table.increment(increment));
+    }
+
+    @Override
+    public CheckAndMutateBuilder checkAndMutate(byte[] row, byte[] family) {
+        Table.CheckAndMutateBuilder builder = table.checkAndMutate(row, family);
+        return new CheckAndMutateBuilder() {
+            @Override
+            public CheckAndMutateBuilder qualifier(byte[] qualifier) {
+                builder.qualifier(qualifier);
+                return this;
+            }
+
+            @Override
+            public CheckAndMutateBuilder timeRange(TimeRange timeRange) {
+                builder.timeRange(timeRange);
+                return this;
+            }
+
+            @Override
+            public CheckAndMutateBuilder ifNotExists() {
+                builder.ifNotExists();
+                return this;
+            }
+
+            @Override
+            public CheckAndMutateBuilder ifMatches(CompareOperator op, byte[] value) {
+                builder.ifMatches(op, value);
+                return this;
+            }
+
+            @Override
+            public CompletableFuture<Boolean> thenPut(Put put) {
+                return async(() -> builder.thenPut(put));
+            }
+
+            @Override
+            public CompletableFuture<Boolean> thenDelete(Delete delete) {
+                return async(() -> builder.thenDelete(delete));
+            }
+
+            @Override
+            public CompletableFuture<Boolean> thenMutate(RowMutations mutations) {
+                return async(() -> builder.thenMutate(mutations));
+            }
+        };
+    }
+
+    @Override
+    public CheckAndMutateWithFilterBuilder checkAndMutate(byte[] row, Filter filter) {
+        Table.CheckAndMutateWithFilterBuilder builder = table.checkAndMutate(row, filter);
+        return new CheckAndMutateWithFilterBuilder() {
+            @Override
+            public CheckAndMutateWithFilterBuilder timeRange(TimeRange timeRange) {
+                builder.timeRange(timeRange);
+                return this;
+            }
+
+            @Override
+            public CompletableFuture<Boolean> thenPut(Put put) {
+                return async(() -> builder.thenPut(put));
+            }
+
+            @Override
+            public CompletableFuture<Boolean> thenDelete(Delete delete) {
+                return async(() -> builder.thenDelete(delete));
+            }
+
+            @Override
+            public CompletableFuture<Boolean> thenMutate(RowMutations mutations) {
+                return async(() -> builder.thenMutate(mutations));
+            }
+        };
+    }
+
+    @Override
+    public CompletableFuture<CheckAndMutateResult> checkAndMutate(CheckAndMutate checkAndMutate) {
+        return async(() -> table.checkAndMutate(checkAndMutate));
+    }
+
+    @Override
+    public List<CompletableFuture<CheckAndMutateResult>> checkAndMutate(List<CheckAndMutate> checkAndMutates) {
+        return split(checkAndMutates.size(), async(() -> table.checkAndMutate(checkAndMutates)));
+    }
+
+    @Override
+    public CompletableFuture<Result> mutateRow(RowMutations mutations) {
+        return async(() -> table.mutateRow(mutations));
+    }
+
+    /**
+     * 在回调线程池上逐行推给consumer，onNext返回false时停止
+     */
+    @Override
+    public void scan(Scan scan, ScanResultConsumer consumer) {
+        pool.execute(() -> {
+            try (ResultScanner scanner = table.getScanner(scan)) {
+                for (Result result = scanner.next(); result != null; result = scanner.next()) {
+                    if (!consumer.onNext(result)) {
+                        break;
+                    }
+                }
+            } catch (Throwable e) {
+                consumer.onError(e);
+                return;
+            }
+            consumer.onComplete();
+        });
+    }
+
+    @Override
+    public ResultScanner getScanner(Scan scan) {
+        try {
+            return table.getScanner(scan);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<List<Result>> scanAll(Scan scan) {
+        return async(() -> {
+            List<Result> results = new ArrayList<>();
+            try (ResultScanner scanner = table.getScanner(scan)) {
+                for (Result result = scanner.next(); result != null; result = scanner.next()) {
+                    results.add(result);
+                }
+            }
+            return results;
+        });
+    }
+
+    @Override
+    public List<CompletableFuture<Result>> get(List<Get> gets) {
+        return split(gets.size(), async(() -> List.of(table.get(gets))));
+    }
+
+    @Override
+    public List<CompletableFuture<Void>> put(List<Put> puts) {
+        return batch(puts);
+    }
+
+    @Override
+    public List<CompletableFuture<Void>> delete(List<Delete> deletes) {
+        return batch(deletes);
+    }
+
+    /**
+     * 一次RPC执行整批，每个操作按各自的结果完成，单个失败不影响其他操作
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> List<CompletableFuture<T>> batch(List<? extends Row> actions) {
+        Object[] results = new Object[actions.size()];
+        CompletableFuture<Object[]> all = CompletableFuture.supplyAsync(() -> {
+            try {
+                table.batch(actions, results);
+            } catch (IOException e) {
+                // 失败的操作已经按下标写入results
+            }
+            return results;
+        }, pool);
+        List<CompletableFuture<T>> futures = new ArrayList<>(actions.size());
+        for (int i = 0; i < actions.size(); i++) {
+            int index = i;
+            futures.add(all.thenApply(r -> {
+                if (r[index] instanceof Throwable e) {
+                    throw new CompletionException(e);
+                }
+                // 与集群客户端一致：Put、Delete完成值为null，其余操作返回Result
+                return (T) (actions.get(index) instanceof Put || actions.get(index) instanceof Delete ? null : r[index]);
+            }));
+        }
+        return futures;
+    }
+
+    @Override
+    public <S, R> CompletableFuture<R> coprocessorService(Function<com.google.protobuf.RpcChannel, S> stubMaker,
+                                                         ServiceCaller<S, R> callable, byte[] row) {
+        throw new UnsupportedOperationException("进程内HBase不支持协处理器");
+    }
+
+    @Override
+    public <S, R> CoprocessorServiceBuilder<S, R> coprocessorService(
+            Function<com.google.protobuf.RpcChannel, S> stubMaker, ServiceCaller<S, R> callable,
+            CoprocessorCallback<R> callback) {
+        throw new UnsupportedOperationException("进程内HBase不支持协处理器");
+    }
+}
@@ -0,0 +1,112 @@
+package com.seckill.hbase;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.BufferedMutator;
+import org.apache.hadoop.hbase.client.BufferedMutatorParams;
+import org.apache.hadoop.hbase.client.Mutation;
+import org.apache.hadoop.hbase.client.RetriesExhaustedWithDetailsException;
+import org.apache.hadoop.hbase.client.Table;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 进程内HBase的BufferedMutator：缓冲的数据量达到writeBufferSize或显式flush时一次批量写入
+ * 写入失败时有ExceptionListener就交给它处理，否则抛出
+ */
+class InMemoryBufferedMutator implements BufferedMutator {
+
+    /** 与客户端hbase.client.write.buffer默认值一致 */
+    private static final long DEFAULT_WRITE_BUFFER_SIZE = 2 * 1024 * 1024;
+
+    private final Table table;
+
+    private final ExceptionListener listener;
+
+    private final long writeBufferSize;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private List<Mutation> buffer = new ArrayList<>();
+
+    private long bufferedSize;
+
+    InMemoryBufferedMutator(Table table, BufferedMutatorParams params) {
+        this.table = table;
+        this.listener = params.getListener();
+        this.writeBufferSize = params.getWriteBufferSize() > 0 ? params.getWriteBufferSize() : DEFAULT_WRITE_BUFFER_SIZE;
+    }
+
+    @Override
+    public TableName getName() {
+        return table.getName();
+    }
+
+    @Override
+    public Configuration getConfiguration() {
+        return table.getConfiguration();
+    }
+
+    @Override
+    public void mutate(Mutation mutation) throws IOException {
+        mutate(List.of(mutation));
+    }
+
+    @Override
+    public void mutate(List<? extends Mutation> mutations) throws IOException {
+        boolean full;
+        lock.lock();
+        try {
+            for (Mutation mutation : mutations) {
+                buffer.add(mutation);
+                bufferedSize += mutation.heapSize();
+            }
+            full = bufferedSize >= writeBufferSize;
+        } finally {
+            lock.unlock();
+        }
+        if (full) {
+            flush();
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        List<Mutation> pending;
+        lock.lock();
+        try {
+            if (buffer.isEmpty()) {
+                return;
+            }
+            pending = buffer;
+            buffer = new ArrayList<>();
+            bufferedSize = 0;
+        } finally {
+            lock.unlock();
+        }
+        try {
+            table.batch(pending, null);
+        } catch (RetriesExhaustedWithDetailsException e) {
+            if (listener == null) {
+                throw e;
+            }
+            listener.onException(e, this);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new java.io.InterruptedIOException("批量写入被中断");
+        }
+    }
+
+    @Override
+    public long getWriteBufferSize() {
+        return writeBufferSize;
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+}
@@ -0,0 +1,174 @@
+package com.seckill.hbase;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Admin;
+import org.apache.hadoop.hbase.client.BufferedMutator;
+import org.apache.hadoop.hbase.client.BufferedMutatorParams;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.RegionLocator;
+import org.apache.hadoop.hbase.client.Table;
+import org.apache.hadoop.hbase.client.TableBuilder;
+import org.apache.hadoop.hbase.client.TableDescriptor;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * 进程内HBase的Connection；关闭连接不影响数据，同一个InMemoryHBase上的连接看到同一份数据
+ */
+class InMemoryConnection implements Connection {
+
+    private final InMemoryHBase hbase;
+
+    private volatile boolean closed;
+
+    InMemoryConnection(InMemoryHBase hbase) {
+        this.hbase = hbase;
+    }
+
+    @Override
+    public Configuration getConfiguration() {
+        return hbase.getConfiguration();
+    }
+
+    @Override
+    public Table getTable(TableName tableName) {
+        return new InMemoryTable(hbase, tableName);
+    }
+
+    @Override
+    public Table getTable(TableName tableName, ExecutorService pool) {
+        return getTable(tableName);
+    }
+
+    @Override
+    public TableBuilder getTableBuilder(TableName tableName, ExecutorService pool) {
+        return new TableBuilder() {
+            @Override
+            public TableBuilder setOperationTimeout(int timeout) {
+                return this;
+            }
+
+            @Override
+            public TableBuilder setRpcTimeout(int timeout) {
+                return this;
+            }
+
+            @Override
+            public TableBuilder setReadRpcTimeout(int timeout) {
+                return this;
+            }
+
+            @Override
+            public TableBuilder setWriteRpcTimeout(int timeout) {
+                return this;
+            }
+
+            @Override
+            public Table build() {
+                return getTable(tableName);
+            }
+        };
+    }
+
+    @Override
+    public BufferedMutator getBufferedMutator(TableName tableName) {
+        return getBufferedMutator(new BufferedMutatorParams(tableName));
+    }
+
+    @Override
+    public BufferedMutator getBufferedMutator(BufferedMutatorParams params) {
+        return new InMemoryBufferedMutator(getTable(params.getTableName()), params);
+    }
+
+    @Override
+    public RegionLocator getRegionLocator(TableName tableName) {
+        throw new UnsupportedOperationException("进程内HBase没有Region");
+    }
+
+    @Override
+    public void clearRegionLocationCache() {
+    }
+
+    /**
+     * Admin接口方法很多，这里只实现建表初始化和维护工具用到的部分，其余调用抛UnsupportedOperationException
+     */
+    @Override
+    public Admin getAdmin() {
+        return (Admin) Proxy.newProxyInstance(Admin.class.getClassLoader(), new Class<?>[]{Admin.class},
+                (proxy, method, args) -> admin(proxy, method.getName(), args));
+    }
+
+    private Object admin(Object proxy, String method, Object[] args) throws IOException {
+        switch (method) {
+            case "tableExists":
+                return hbase.tableExists((TableName) args[0]);
+            case "listTableNames":
+                return hbase.listTableNames().toArray(new TableName[0]);
+            case "createTable":
+                hbase.createTable((TableDescriptor) args[0]);
+                return null;
+            case "getDescriptor":
+                return hbase.table((TableName) args[0]).getDescriptor();
+            case "modifyTable":
+                TableDescriptor descriptor = (TableDescriptor) args[0];
+                hbase.table(descriptor.getTableName()).setDescriptor(descriptor);
+                return null;
+            case "isTableEnabled":
+            case "isTableAvailable":
+                return hbase.tableExists((TableName) args[0]);
+            case "isTableDisabled":
+                return false;
+            case "enableTable":
+            case "disableTable":
+                hbase.table((TableName) args[0]);
+                return null;
+            case "deleteTable":
+                hbase.deleteTable((TableName) args[0]);
+                return null;
+            case "truncateTable":
+                hbase.table((TableName) args[0]).truncate();
+                return null;
+            case "getConnection":
+                return this;
+            case "getConfiguration":
+                return getConfiguration();
+            case "close":
+                return null;
+            case "isAborted":
+                return false;
+            case "abort":
+                return null;
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "equals":
+                return proxy == args[0];
+            case "toString":
+                return "InMemoryAdmin";
+            default:
+                throw new UnsupportedOperationException("进程内HBase不支持Admin." + method);
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public void abort(String why, Throwable e) {
+        closed = true;
+    }
+
+    @Override
+    public boolean isAborted() {
+        return false;
+    }
+}
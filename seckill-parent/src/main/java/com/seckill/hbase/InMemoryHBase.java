@@ -0,0 +1,119 @@
+package com.seckill.hbase;
+
+import com.seckill.config.HBaseConnectionProvider;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.TableExistsException;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.TableNotFoundException;
+import org.apache.hadoop.hbase.client.AsyncConnection;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.TableDescriptor;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 进程内HBase：本地开发、压测和基准测试时代替HBase集群（spring.profiles.active=hbase-memory）
+ * 每次"RPC"（单次get/put、一次批量操作、扫描器每取一批）可附加人为延迟，模拟网络和RegionServer耗时
+ * 数据只在内存中，进程退出即丢失
+ */
+@Slf4j
+public class InMemoryHBase implements HBaseConnectionProvider {
+
+    private final Configuration configuration;
+
+    private final ConcurrentMap<TableName, InMemoryTableStore> tables = new ConcurrentHashMap<>();
+
+    private volatile long latencyNanos;
+
+    private volatile long jitterNanos;
+
+    /**
+     * @param latencyMicros 每次RPC固定延迟（微秒），0表示不延迟
+     * @param jitterMicros  在固定延迟上叠加的随机抖动上限（微秒）
+     */
+    public InMemoryHBase(Configuration configuration, long latencyMicros, long jitterMicros) {
+        this.configuration = configuration;
+        setLatency(latencyMicros, jitterMicros);
+        log.info("使用进程内HBase，RPC延迟 {}us，抖动 {}us", latencyMicros, jitterMicros);
+    }
+
+    /**
+     * 调整RPC延迟，例如灌完数据后再打开延迟
+     */
+    public void setLatency(long latencyMicros, long jitterMicros) {
+        this.latencyNanos = Math.max(latencyMicros, 0) * 1000;
+        this.jitterNanos = Math.max(jitterMicros, 0) * 1000;
+    }
+
+    @Override
+    public Connection createConnection() {
+        return new InMemoryConnection(this);
+    }
+
+    @Override
+    public AsyncConnection createAsyncConnection() {
+        return new InMemoryAsyncConnection(this);
+    }
+
+    public Configuration getConfiguration() {
+        return configuration;
+    }
+
+    /**
+     * 表中当前行数（观察数据规模用）
+     */
+    public int rowCount(TableName tableName) throws TableNotFoundException {
+        return table(tableName).rowCount();
+    }
+
+    InMemoryTableStore table(TableName tableName) throws TableNotFoundException {
+        InMemoryTableStore table = tables.get(tableName);
+        if (table == null) {
+            throw new TableNotFoundException(tableName);
+        }
+        return table;
+    }
+
+    void createTable(TableDescriptor descriptor) throws TableExistsException {
+        if (tables.putIfAbsent(descriptor.getTableName(), new InMemoryTableStore(descriptor)) != null) {
+            throw new TableExistsException(descriptor.getTableName());
+        }
+    }
+
+    boolean tableExists(TableName tableName) {
+        return tables.containsKey(tableName);
+    }
+
+    List<TableName> listTableNames() {
+        return tables.keySet().stream().sorted().toList();
+    }
+
+    void deleteTable(TableName tableName) throws TableNotFoundException {
+        if (tables.remove(tableName) == null) {
+            throw new TableNotFoundException(tableName);
+        }
+    }
+
+    /**
+     * 模拟一次RPC耗时；parkNanos不占用虚拟线程的载体线程
+     */
+    void rpc() {
+        long latency = latencyNanos;
+        long jitter = jitterNanos;
+        if (latency == 0 && jitter == 0) {
+            return;
+        }
+        long nanos = latency + (jitter > 0 ? ThreadLocalRandom.current().nextLong(jitter + 1) : 0);
+        long deadline = System.nanoTime() + nanos;
+        long remaining = nanos;
+        while (remaining > 0) {
+            LockSupport.parkNanos(remaining);
+            remaining = deadline - System.nanoTime();
+        }
+    }
+}
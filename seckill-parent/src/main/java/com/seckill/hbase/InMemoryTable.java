@@ -0,0 +1,390 @@
+package com.seckill.hbase;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.CompareOperator;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Append;
+import org.apache.hadoop.hbase.client.CheckAndMutate;
+import org.apache.hadoop.hbase.client.CheckAndMutateResult;
+import org.apache.hadoop.hbase.client.Delete;
+import org.apache.hadoop.hbase.client.Durability;
+import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.Increment;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.RegionLocator;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.RetriesExhaustedWithDetailsException;
+import org.apache.hadoop.hbase.client.Row;
+import org.apache.hadoop.hbase.client.RowMutations;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.client.Table;
+import org.apache.hadoop.hbase.client.TableDescriptor;
+import org.apache.hadoop.hbase.client.metrics.ScanMetrics;
+import org.apache.hadoop.hbase.filter.Filter;
+import org.apache.hadoop.hbase.io.TimeRange;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * 进程内HBase的Table，单次操作和一次批量操作各计一次RPC延迟
+ */
+class InMemoryTable implements Table {
+
+    /** 未设置caching时扫描器每批返回的行数 */
+    private static final int DEFAULT_SCANNER_CACHING = 100;
+
+    private final InMemoryHBase hbase;
+
+    private final TableName tableName;
+
+    InMemoryTable(InMemoryHBase hbase, TableName tableName) {
+        this.hbase = hbase;
+        this.tableName = tableName;
+    }
+
+    private InMemoryTableStore store() throws IOException {
+        InMemoryTableStore store = hbase.table(tableName);
+        hbase.rpc();
+        return store;
+    }
+
+    @Override
+    public TableName getName() {
+        return tableName;
+    }
+
+    @Override
+    public Configuration getConfiguration() {
+        return hbase.getConfiguration();
+    }
+
+    @Override
+    public TableDescriptor getDescriptor() throws IOException {
+        return hbase.table(tableName).getDescriptor();
+    }
+
+    @Override
+    public RegionLocator getRegionLocator() {
+        throw new UnsupportedOperationException("进程内HBase没有Region");
+    }
+
+    // ===== 读 =====
+
+    @Override
+    public boolean exists(Get get) throws IOException {
+        return !store().get(get).isEmpty();
+    }
+
+    @Override
+    public boolean[] exists(List<Get> gets) throws IOException {
+        InMemoryTableStore store = store();
+        boolean[] exists = new boolean[gets.size()];
+        for (int i = 0; i < gets.size(); i++) {
+            exists[i] = !store.get(gets.get(i)).isEmpty();
+        }
+        return exists;
+    }
+
+    @Override
+    public Result get(Get get) throws IOException {
+        return store().get(get);
+    }
+
+    @Override
+    public Result[] get(List<Get> gets) throws IOException {
+        InMemoryTableStore store = store();
+        Result[] results = new Result[gets.size()];
+        for (int i = 0; i < gets.size(); i++) {
+            results[i] = store.get(gets.get(i));
+        }
+        return results;
+    }
+
+    @Override
+    public ResultScanner getScanner(Scan scan) throws IOException {
+        return new InMemoryScanner(hbase.table(tableName).scan(scan),
+                scan.getCaching() > 0 ? scan.getCaching() : DEFAULT_SCANNER_CACHING);
+    }
+
+    @Override
+    public ResultScanner getScanner(byte[] family) throws IOException {
+        return getScanner(new Scan().addFamily(family));
+    }
+
+    @Override
+    public ResultScanner getScanner(byte[] family, byte[] qualifier) throws IOException {
+        return getScanner(new Scan().addColumn(family, qualifier));
+    }
+
+    // ===== 写 =====
+
+    @Override
+    public void put(Put put) throws IOException {
+        store().put(put);
+    }
+
+    @Override
+    public void put(List<Put> puts) throws IOException {
+        batchOrThrow(puts);
+    }
+
+    @Override
+    public void delete(Delete delete) throws IOException {
+        store().delete(delete);
+    }
+
+    @Override
+    public void delete(List<Delete> deletes) throws IOException {
+        batchOrThrow(deletes);
+    }
+
+    @Override
+    public Result increment(Increment increment) throws IOException {
+        return store().increment(increment);
+    }
+
+    @Override
+    public long incrementColumnValue(byte[] row, byte[] family, byte[] qualifier, long amount) throws IOException {
+        Result result = increment(new Increment(row).addColumn(family, qualifier, amount));
+        return Bytes.toLong(result.getValue(family, qualifier));
+    }
+
+    @Override
+    public long incrementColumnValue(byte[] row, byte[] family, byte[] qualifier, long amount,
+                                     Durability durability) throws IOException {
+        return incrementColumnValue(row, family, qualifier, amount);
+    }
+
+    @Override
+    public Result append(Append append) throws IOException {
+        return store().append(append);
+    }
+
+    @Override
+    public Result mutateRow(RowMutations mutations) throws IOException {
+        return store().mutateRow(mutations);
+    }
+
+    @Override
+    public CheckAndMutateResult checkAndMutate(CheckAndMutate checkAndMutate) throws IOException {
+        return store().checkAndMutate(checkAndMutate);
+    }
+
+    @Override
+    public List<CheckAndMutateResult> checkAndMutate(List<CheckAndMutate> checkAndMutates) throws IOException {
+        InMemoryTableStore store = store();
+        List<CheckAndMutateResult> results = new ArrayList<>(checkAndMutates.size());
+        for (CheckAndMutate checkAndMutate : checkAndMutates) {
+            results.add(store.checkAndMutate(checkAndMutate));
+        }
+        return results;
+    }
+
+    @Override
+    public CheckAndMutateBuilder checkAndMutate(byte[] row, byte[] family) {
+        return new CheckAndMutateBuilder() {
+            private byte[] qualifier;
+            private TimeRange timeRange;
+            private CompareOperator op;
+            private byte[] value;
+
+            @Override
+            public CheckAndMutateBuilder qualifier(byte[] qualifier) {
+                this.qualifier = qualifier;
+                return this;
+            }
+
+            @Override
+            public CheckAndMutateBuilder timeRange(TimeRange timeRange) {
+                this.timeRange = timeRange;
+                return this;
+            }
+
+            @Override
+            public CheckAndMutateBuilder ifNotExists() {
+                this.op = CompareOperator.EQUAL;
+                this.value = null;
+                return this;
+            }
+
+            @Override
+            public CheckAndMutateBuilder ifMatches(CompareOperator op, byte[] value) {
+                this.op = op;
+                this.value = value;
+                return this;
+            }
+
+            @Override
+            public boolean thenPut(Put put) throws IOException {
+                return checkAndMutate(condition().build(put)).isSuccess();
+            }
+
+            @Override
+            public boolean thenDelete(Delete delete) throws IOException {
+                return checkAndMutate(condition().build(delete)).isSuccess();
+            }
+
+            @Override
+            public boolean thenMutate(RowMutations mutations) throws IOException {
+                return checkAndMutate(condition().build(mutations)).isSuccess();
+            }
+
+            private CheckAndMutate.Builder condition() {
+                CheckAndMutate.Builder builder = CheckAndMutate.newBuilder(row).timeRange(timeRange);
+                return value == null ? builder.ifNotExists(family, qualifier)
+                        : builder.ifMatches(family, qualifier, op, value);
+            }
+        };
+    }
+
+    @Override
+    public CheckAndMutateWithFilterBuilder checkAndMutate(byte[] row, Filter filter) {
+        return new CheckAndMutateWithFilterBuilder() {
+            private TimeRange timeRange;
+
+            @Override
+            public CheckAndMutateWithFilterBuilder timeRange(TimeRange timeRange) {
+                this.timeRange = timeRange;
+                return this;
+            }
+
+            @Override
+            public boolean thenPut(Put put) throws IOException {
+                return checkAndMutate(condition().build(put)).isSuccess();
+            }
+
+            @Override
+            public boolean thenDelete(Delete delete) throws IOException {
+                return checkAndMutate(condition().build(delete)).isSuccess();
+            }
+
+            @Override
+            public boolean thenMutate(RowMutations mutations) throws IOException {
+                return checkAndMutate(condition().build(mutations)).isSuccess();
+            }
+
+            private CheckAndMutate.Builder condition() {
+                return CheckAndMutate.newBuilder(row).ifMatches(filter).timeRange(timeRange);
+            }
+        };
+    }
+
+    /**
+     * 批量操作：一次RPC，逐个执行，results按下标放Result或异常；有失败时与客户端一样抛RetriesExhaustedWithDetailsException
+     */
+    @Override
+    public void batch(List<? extends Row> actions, Object[] results) throws IOException {
+        InMemoryTableStore store = store();
+        List<Throwable> errors = new ArrayList<>();
+        List<Row> failed = new ArrayList<>();
+        for (int i = 0; i < actions.size(); i++) {
+            Row action = actions.get(i);
+            Object result;
+            try {
+                result = execute(store, action);
+            } catch (IOException | RuntimeException e) {
+                result = e;
+                errors.add(e);
+                failed.add(action);
+            }
+            if (results != null) {
+                results[i] = result;
+            }
+        }
+        if (!errors.isEmpty()) {
+            List<String> hosts = new ArrayList<>();
+            errors.forEach(e -> hosts.add("in-memory"));
+            throw new RetriesExhaustedWithDetailsException(errors, failed, hosts);
+        }
+    }
+
+    private void batchOrThrow(List<? extends Row> actions) throws IOException {
+        if (actions.isEmpty()) {
+            return;
+        }
+        batch(actions, null);
+    }
+
+    private Object execute(InMemoryTableStore store, Row action) throws IOException {
+        if (action instanceof Get get) {
+            return store.get(get);
+        } else if (action instanceof Put put) {
+            store.put(put);
+            return Result.EMPTY_RESULT;
+        } else if (action instanceof Delete delete) {
+            store.delete(delete);
+            return Result.EMPTY_RESULT;
+        } else if (action instanceof Increment increment) {
+            return store.increment(increment);
+        } else if (action instanceof Append append) {
+            return store.append(append);
+        } else if (action instanceof RowMutations mutations) {
+            return store.mutateRow(mutations);
+        } else if (action instanceof CheckAndMutate checkAndMutate) {
+            return store.checkAndMutate(checkAndMutate);
+        }
+        throw new UnsupportedOperationException("进程内HBase不支持批量操作: " + action.getClass().getSimpleName());
+    }
+
+    @Override
+    public void close() {
+    }
+
+    /**
+     * 扫描器：第一次next和之后每取caching行计一次RPC延迟
+     */
+    private final class InMemoryScanner implements ResultScanner {
+
+        private final Iterator<Result> rows;
+        private final int caching;
+        private int fetchedInBatch;
+        private boolean closed;
+
+        InMemoryScanner(Iterator<Result> rows, int caching) {
+            this.rows = rows;
+            this.caching = caching;
+            this.fetchedInBatch = caching;
+        }
+
+        @Override
+        public Result next() throws IOException {
+            if (closed) {
+                return null;
+            }
+            if (fetchedInBatch >= caching) {
+                hbase.rpc();
+                fetchedInBatch = 0;
+            }
+            try {
+                if (!rows.hasNext()) {
+                    return null;
+                }
+                fetchedInBatch++;
+                return rows.next();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        @Override
+        public boolean renewLease() {
+            return !closed;
+        }
+
+        @Override
+        public ScanMetrics getScanMetrics() {
+            return null;
+        }
+    }
+}
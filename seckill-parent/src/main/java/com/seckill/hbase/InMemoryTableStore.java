@@ -0,0 +1,642 @@
+package com.seckill.hbase;
+
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.CompareOperator;
+import org.apache.hadoop.hbase.DoNotRetryIOException;
+import org.apache.hadoop.hbase.HConstants;
+import org.apache.hadoop.hbase.KeyValue;
+import org.apache.hadoop.hbase.client.Append;
+import org.apache.hadoop.hbase.client.CheckAndMutate;
+import org.apache.hadoop.hbase.client.CheckAndMutateResult;
+import org.apache.hadoop.hbase.client.ColumnFamilyDescriptor;
+import org.apache.hadoop.hbase.client.Delete;
+import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.Increment;
+import org.apache.hadoop.hbase.client.Mutation;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.Row;
+import org.apache.hadoop.hbase.client.RowMutations;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.client.TableDescriptor;
+import org.apache.hadoop.hbase.filter.Filter;
+import org.apache.hadoop.hbase.io.TimeRange;
+import org.apache.hadoop.hbase.regionserver.NoSuchColumnFamilyException;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 一张内存表的数据：行键有序，每个单元格保留多个版本
+ * 行数据发布后不再修改，写入时复制整行、修改后替换，读和扫描不加锁也能看到完整的行
+ * 写入按行键哈希分段加锁，保证单行原子性（checkAndMutate、increment、RowMutations）
+ *
+ * 与真实HBase的差异：删除只删除已有版本，不保留删除标记（之后写入更早时间戳的数据仍然可见）；不处理TTL
+ */
+class InMemoryTableStore {
+
+    private static final int LOCK_STRIPES = 64;
+
+    private volatile TableDescriptor descriptor;
+
+    /** 行键 -> 行数据（列族 -> 列 -> 时间戳倒序 -> 值） */
+    private final ConcurrentSkipListMap<byte[], RowData> rows = new ConcurrentSkipListMap<>(Bytes.BYTES_COMPARATOR);
+
+    private final ReentrantLock[] rowLocks = new ReentrantLock[LOCK_STRIPES];
+
+    InMemoryTableStore(TableDescriptor descriptor) {
+        this.descriptor = descriptor;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            rowLocks[i] = new ReentrantLock();
+        }
+    }
+
+    TableDescriptor getDescriptor() {
+        return descriptor;
+    }
+
+    /**
+     * 修改表结构（增加列族、调整版本数等），已有数据不变，之后的写入按新的版本数裁剪
+     */
+    void setDescriptor(TableDescriptor descriptor) {
+        this.descriptor = descriptor;
+    }
+
+    int rowCount() {
+        return rows.size();
+    }
+
+    void truncate() {
+        rows.clear();
+    }
+
+    // ===== 读 =====
+
+    Result get(Get get) throws IOException {
+        RowData row = rows.get(get.getRow());
+        if (row == null) {
+            return get.isCheckExistenceOnly() ? Result.create(null, false) : Result.EMPTY_RESULT;
+        }
+        List<Cell> cells = row.select(get.getRow(), get.getFamilyMap(), get.getMaxVersions(), get.getTimeRange());
+        cells = applyFilter(get.getFilter(), cells);
+        if (get.isCheckExistenceOnly()) {
+            return Result.create(null, cells != null && !cells.isEmpty());
+        }
+        return cells == null || cells.isEmpty() ? Result.EMPTY_RESULT : Result.create(cells);
+    }
+
+    /**
+     * 按Scan的起止行、方向、列、版本、时间范围、过滤器和limit惰性遍历
+     */
+    Iterator<Result> scan(Scan scan) {
+        ConcurrentNavigableMap<byte[], RowData> range = rowRange(scan);
+        Iterator<Map.Entry<byte[], RowData>> entries = range.entrySet().iterator();
+        Filter filter = scan.getFilter();
+        int limit = scan.getLimit();
+        return new Iterator<>() {
+            private Result next;
+            private int returned;
+
+            @Override
+            public boolean hasNext() {
+                if (next != null) {
+                    return true;
+                }
+                if (limit > 0 && returned >= limit) {
+                    return false;
+                }
+                while (entries.hasNext()) {
+                    if (filter != null && filterAllRemaining(filter)) {
+                        return false;
+                    }
+                    Map.Entry<byte[], RowData> entry = entries.next();
+                    List<Cell> cells = entry.getValue().select(entry.getKey(), scan.getFamilyMap(),
+                            scan.getMaxVersions(), scan.getTimeRange());
+                    cells = applyFilterUnchecked(filter, cells);
+                    if (cells != null && !cells.isEmpty()) {
+                        next = Result.create(cells);
+                        return true;
+                    }
+                }
+                return false;
+            }
+
+            @Override
+            public Result next() {
+                if (!hasNext()) {
+                    throw new java.util.NoSuchElementException();
+                }
+                Result result = next;
+                next = null;
+                returned++;
+                return result;
+            }
+        };
+    }
+
+    private ConcurrentNavigableMap<byte[], RowData> rowRange(Scan scan) {
+        byte[] start = scan.getStartRow();
+        byte[] stop = scan.getStopRow();
+        boolean hasStart = start != null && start.length > 0;
+        boolean hasStop = stop != null && stop.length > 0;
+        if (scan.isReversed()) {
+            // 反向扫描：startRow是较大的行键
+            ConcurrentNavigableMap<byte[], RowData> map = rows.descendingMap();
+            if (hasStart && hasStop) {
+                return map.subMap(start, scan.includeStartRow(), stop, scan.includeStopRow());
+            } else if (hasStart) {
+                return map.tailMap(start, scan.includeStartRow());
+            } else if (hasStop) {
+                return map.headMap(stop, scan.includeStopRow());
+            }
+            return map;
+        }
+        if (hasStart && hasStop) {
+            if (Bytes.compareTo(start, stop) > 0) {
+                return new ConcurrentSkipListMap<>(Bytes.BYTES_COMPARATOR);
+            }
+            return rows.subMap(start, scan.includeStartRow(), stop, scan.includeStopRow());
+        } else if (hasStart) {
+            return rows.tailMap(start, scan.includeStartRow());
+        } else if (hasStop) {
+            return rows.headMap(stop, scan.includeStopRow());
+        }
+        return rows;
+    }
+
+    // ===== 写 =====
+
+    void put(Put put) throws IOException {
+        lock(put.getRow());
+        try {
+            RowData row = copyOf(put.getRow());
+            applyPut(row, put);
+            publish(put.getRow(), row);
+        } finally {
+            unlock(put.getRow());
+        }
+    }
+
+    void delete(Delete delete) throws IOException {
+        lock(delete.getRow());
+        try {
+            RowData row = copyOf(delete.getRow());
+            applyDelete(row, delete);
+            publish(delete.getRow(), row);
+        } finally {
+            unlock(delete.getRow());
+        }
+    }
+
+    Result increment(Increment increment) throws IOException {
+        lock(increment.getRow());
+        try {
+            RowData row = copyOf(increment.getRow());
+            Result result = applyIncrement(row, increment);
+            publish(increment.getRow(), row);
+            return increment.isReturnResults() ? result : Result.EMPTY_RESULT;
+        } finally {
+            unlock(increment.getRow());
+        }
+    }
+
+    Result append(Append append) throws IOException {
+        lock(append.getRow());
+        try {
+            RowData row = copyOf(append.getRow());
+            Result result = applyAppend(row, append);
+            publish(append.getRow(), row);
+            return append.isReturnResults() ? result : Result.EMPTY_RESULT;
+        } finally {
+            unlock(append.getRow());
+        }
+    }
+
+    Result mutateRow(RowMutations mutations) throws IOException {
+        lock(mutations.getRow());
+        try {
+            RowData row = copyOf(mutations.getRow());
+            applyRowMutations(row, mutations);
+            publish(mutations.getRow(), row);
+            return Result.EMPTY_RESULT;
+        } finally {
+            unlock(mutations.getRow());
+        }
+    }
+
+    /**
+     * 检查并修改：条件判断和修改在同一把行锁内完成
+     */
+    CheckAndMutateResult checkAndMutate(CheckAndMutate checkAndMutate) throws IOException {
+        byte[] rowKey = checkAndMutate.getRow();
+        lock(rowKey);
+        try {
+            RowData current = rows.get(rowKey);
+            if (!matches(rowKey, current, checkAndMutate)) {
+                return new CheckAndMutateResult(false, null);
+            }
+            RowData row = copyOf(rowKey);
+            Row action = checkAndMutate.getAction();
+            Result result = null;
+            if (action instanceof Put put) {
+                applyPut(row, put);
+            } else if (action instanceof Delete delete) {
+                applyDelete(row, delete);
+            } else if (action instanceof Increment increment) {
+                result = applyIncrement(row, increment);
+            } else if (action instanceof Append append) {
+                result = applyAppend(row, append);
+            } else if (action instanceof RowMutations mutations) {
+                applyRowMutations(row, mutations);
+            } else {
+                throw new DoNotRetryIOException("不支持的checkAndMutate操作: " + action.getClass().getSimpleName());
+            }
+            publish(rowKey, row);
+            return new CheckAndMutateResult(true, result);
+        } finally {
+            unlock(rowKey);
+        }
+    }
+
+    private boolean matches(byte[] rowKey, RowData row, CheckAndMutate check) throws IOException {
+        TimeRange timeRange = check.getTimeRange() != null ? check.getTimeRange() : TimeRange.allTime();
+        if (check.hasFilter()) {
+            if (row == null) {
+                return false;
+            }
+            List<Cell> cells = applyFilter(check.getFilter(), row.select(rowKey, Collections.emptyMap(), 1, timeRange));
+            return cells != null && !cells.isEmpty();
+        }
+        byte[] actual = row == null ? null : row.latest(check.getFamily(), check.getQualifier(), timeRange);
+        byte[] expected = check.getValue();
+        CompareOperator op = check.getCompareOp();
+        boolean expectMissing = expected == null || expected.length == 0;
+        if (expectMissing) {
+            boolean missing = actual == null || actual.length == 0;
+            return op == CompareOperator.EQUAL ? missing : op == CompareOperator.NOT_EQUAL && !missing;
+        }
+        if (actual == null) {
+            return false;
+        }
+        // 与RegionServer一致：比较的是 期望值 compareTo 当前值，LESS表示期望值小于当前值
+        int compare = Bytes.compareTo(expected, actual);
+        return switch (op) {
+            case LESS -> compare < 0;
+            case LESS_OR_EQUAL -> compare <= 0;
+            case EQUAL -> compare == 0;
+            case NOT_EQUAL -> compare != 0;
+            case GREATER_OR_EQUAL -> compare >= 0;
+            case GREATER -> compare > 0;
+            case NO_OP -> false;
+        };
+    }
+
+    private void applyPut(RowData row, Put put) throws IOException {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<byte[], List<Cell>> family : put.getFamilyCellMap().entrySet()) {
+            int maxVersions = maxVersions(family.getKey());
+            for (Cell cell : family.getValue()) {
+                long ts = cell.getTimestamp() == HConstants.LATEST_TIMESTAMP ? now : cell.getTimestamp();
+                row.put(family.getKey(), CellUtil.cloneQualifier(cell), ts, CellUtil.cloneValue(cell), maxVersions);
+            }
+        }
+    }
+
+    private void applyDelete(RowData row, Delete delete) {
+        long ts = delete.getTimestamp();
+        if (delete.getFamilyCellMap().isEmpty()) {
+            row.deleteRow(ts);
+            return;
+        }
+        for (Map.Entry<byte[], List<Cell>> family : delete.getFamilyCellMap().entrySet()) {
+            for (Cell cell : family.getValue()) {
+                switch (cell.getType()) {
+                    case DeleteFamily -> row.deleteFamily(family.getKey(), cell.getTimestamp());
+                    case DeleteFamilyVersion -> row.deleteFamilyVersion(family.getKey(), cell.getTimestamp());
+                    case DeleteColumn -> row.deleteColumn(family.getKey(), CellUtil.cloneQualifier(cell), cell.getTimestamp());
+                    case Delete -> row.deleteVersion(family.getKey(), CellUtil.cloneQualifier(cell), cell.getTimestamp());
+                    default -> {
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 计数列必须是8字节long，与RegionServer一样对非long值报错
+     */
+    private Result applyIncrement(RowData row, Increment increment) throws IOException {
+        long now = System.currentTimeMillis();
+        List<Cell> results = new ArrayList<>();
+        for (Map.Entry<byte[], List<Cell>> family : increment.getFamilyCellMap().entrySet()) {
+            int maxVersions = maxVersions(family.getKey());
+            for (Cell cell : family.getValue()) {
+                byte[] qualifier = CellUtil.cloneQualifier(cell);
+                byte[] current = row.latest(family.getKey(), qualifier, TimeRange.allTime());
+                if (current != null && current.length != Bytes.SIZEOF_LONG) {
+                    throw new DoNotRetryIOException("Field is not a long, it's " + current.length + " bytes wide");
+                }
+                long amount = Bytes.toLong(CellUtil.cloneValue(cell));
+                byte[] value = Bytes.toBytes((current == null ? 0 : Bytes.toLong(current)) + amount);
+                row.put(family.getKey(), qualifier, now, value, maxVersions);
+                results.add(new KeyValue(increment.getRow(), family.getKey(), qualifier, now, value));
+            }
+        }
+        return Result.create(results);
+    }
+
+    private Result applyAppend(RowData row, Append append) throws IOException {
+        long now = System.currentTimeMillis();
+        List<Cell> results = new ArrayList<>();
+        for (Map.Entry<byte[], List<Cell>> family : append.getFamilyCellMap().entrySet()) {
+            int maxVersions = maxVersions(family.getKey());
+            for (Cell cell : family.getValue()) {
+                byte[] qualifier = CellUtil.cloneQualifier(cell);
+                byte[] current = row.latest(family.getKey(), qualifier, TimeRange.allTime());
+                byte[] value = current == null ? CellUtil.cloneValue(cell) : Bytes.add(current, CellUtil.cloneValue(cell));
+                row.put(family.getKey(), qualifier, now, value, maxVersions);
+                results.add(new KeyValue(append.getRow(), family.getKey(), qualifier, now, value));
+            }
+        }
+        return Result.create(results);
+    }
+
+    private void applyRowMutations(RowData row, RowMutations mutations) throws IOException {
+        for (Mutation mutation : mutations.getMutations()) {
+            if (mutation instanceof Put put) {
+                applyPut(row, put);
+            } else if (mutation instanceof Delete delete) {
+                applyDelete(row, delete);
+            } else if (mutation instanceof Increment increment) {
+                applyIncrement(row, increment);
+            } else if (mutation instanceof Append append) {
+                applyAppend(row, append);
+            }
+        }
+    }
+
+    private int maxVersions(byte[] family) throws NoSuchColumnFamilyException {
+        ColumnFamilyDescriptor cf = descriptor.getColumnFamily(family);
+        if (cf == null) {
+            throw new NoSuchColumnFamilyException("列族 " + Bytes.toString(family) + " 不存在于表 "
+                    + descriptor.getTableName().getNameAsString());
+        }
+        return cf.getMaxVersions();
+    }
+
+    private RowData copyOf(byte[] rowKey) {
+        RowData current = rows.get(rowKey);
+        return current == null ? new RowData() : current.copy();
+    }
+
+    private void publish(byte[] rowKey, RowData row) {
+        if (row.isEmpty()) {
+            rows.remove(rowKey);
+        } else {
+            rows.put(rowKey, row);
+        }
+    }
+
+    private void lock(byte[] rowKey) {
+        rowLocks[(Bytes.hashCode(rowKey) & Integer.MAX_VALUE) % LOCK_STRIPES].lock();
+    }
+
+    private void unlock(byte[] rowKey) {
+        rowLocks[(Bytes.hashCode(rowKey) & Integer.MAX_VALUE) % LOCK_STRIPES].unlock();
+    }
+
+    // ===== 过滤器 =====
+
+    /**
+     * 按RegionServer的调用顺序执行过滤器：reset -> filterRowKey -> 逐个filterCell/transformCell -> filterRowCells -> filterRow
+     * 返回null表示整行被过滤
+     */
+    private static List<Cell> applyFilter(Filter filter, List<Cell> cells) throws IOException {
+        if (filter == null || cells.isEmpty()) {
+            return cells;
+        }
+        filter.reset();
+        if (filter.filterAllRemaining() || filter.filterRowKey(cells.get(0))) {
+            return null;
+        }
+        List<Cell> kept = new ArrayList<>(cells.size());
+        byte[] skipFamily = null;
+        byte[] skipQualifier = null;
+        for (Cell cell : cells) {
+            if (skipQualifier != null && CellUtil.matchingColumn(cell, skipFamily, skipQualifier)) {
+                continue;
+            }
+            skipQualifier = null;
+            Filter.ReturnCode code = filter.filterCell(cell);
+            switch (code) {
+                case INCLUDE -> kept.add(filter.transformCell(cell));
+                case INCLUDE_AND_NEXT_COL -> {
+                    kept.add(filter.transformCell(cell));
+                    skipFamily = CellUtil.cloneFamily(cell);
+                    skipQualifier = CellUtil.cloneQualifier(cell);
+                }
+                case NEXT_COL -> {
+                    skipFamily = CellUtil.cloneFamily(cell);
+                    skipQualifier = CellUtil.cloneQualifier(cell);
+                }
+                case INCLUDE_AND_SEEK_NEXT_ROW -> {
+                    kept.add(filter.transformCell(cell));
+                    return finishRow(filter, kept);
+                }
+                case NEXT_ROW -> {
+                    return finishRow(filter, kept);
+                }
+                // SEEK_NEXT_USING_HINT只是定位优化，逐个单元格判断时按跳过处理
+                default -> {
+                }
+            }
+        }
+        return finishRow(filter, kept);
+    }
+
+    private static List<Cell> finishRow(Filter filter, List<Cell> kept) throws IOException {
+        if (filter.hasFilterRow()) {
+            filter.filterRowCells(kept);
+            if (filter.filterRow()) {
+                return null;
+            }
+        }
+        return kept;
+    }
+
+    private static List<Cell> applyFilterUnchecked(Filter filter, List<Cell> cells) {
+        try {
+            return applyFilter(filter, cells);
+        } catch (IOException e) {
+            throw new java.io.UncheckedIOException(e);
+        }
+    }
+
+    private static boolean filterAllRemaining(Filter filter) {
+        try {
+            return filter.filterAllRemaining();
+        } catch (IOException e) {
+            throw new java.io.UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 一行数据。发布到rows之后只读，修改前先copy
+     */
+    private static final class RowData {
+
+        private final NavigableMap<byte[], NavigableMap<byte[], NavigableMap<Long, byte[]>>> families =
+                new TreeMap<>(Bytes.BYTES_COMPARATOR);
+
+        RowData copy() {
+            RowData copy = new RowData();
+            families.forEach((family, columns) -> {
+                NavigableMap<byte[], NavigableMap<Long, byte[]>> columnsCopy = new TreeMap<>(Bytes.BYTES_COMPARATOR);
+                columns.forEach((qualifier, versions) -> columnsCopy.put(qualifier, new TreeMap<>(versions)));
+                copy.families.put(family, columnsCopy);
+            });
+            return copy;
+        }
+
+        boolean isEmpty() {
+            return families.isEmpty();
+        }
+
+        void put(byte[] family, byte[] qualifier, long ts, byte[] value, int maxVersions) {
+            NavigableMap<Long, byte[]> versions = families
+                    .computeIfAbsent(family, f -> new TreeMap<>(Bytes.BYTES_COMPARATOR))
+                    .computeIfAbsent(qualifier, q -> new TreeMap<>(Collections.reverseOrder()));
+            versions.put(ts, value);
+            while (versions.size() > maxVersions) {
+                versions.pollLastEntry();
+            }
+        }
+
+        byte[] latest(byte[] family, byte[] qualifier, TimeRange timeRange) {
+            NavigableMap<byte[], NavigableMap<Long, byte[]>> columns = families.get(family);
+            NavigableMap<Long, byte[]> versions = columns == null ? null : columns.get(qualifier);
+            if (versions == null) {
+                return null;
+            }
+            for (Map.Entry<Long, byte[]> version : versions.entrySet()) {
+                if (timeRange.withinTimeRange(version.getKey())) {
+                    return version.getValue();
+                }
+            }
+            return null;
+        }
+
+        /**
+         * 按列族/列、版本数、时间范围取出单元格，顺序与HBase Result一致（列族、列升序，时间戳降序）
+         */
+        List<Cell> select(byte[] rowKey, Map<byte[], NavigableSet<byte[]>> familyMap, int maxVersions,
+                          TimeRange timeRange) {
+            List<Cell> cells = new ArrayList<>();
+            for (Map.Entry<byte[], NavigableMap<byte[], NavigableMap<Long, byte[]>>> family : families.entrySet()) {
+                NavigableSet<byte[]> qualifiers = null;
+                if (familyMap != null && !familyMap.isEmpty()) {
+                    if (!familyMap.containsKey(family.getKey())) {
+                        continue;
+                    }
+                    qualifiers = familyMap.get(family.getKey());
+                }
+                for (Map.Entry<byte[], NavigableMap<Long, byte[]>> column : family.getValue().entrySet()) {
+                    if (qualifiers != null && !qualifiers.isEmpty() && !qualifiers.contains(column.getKey())) {
+                        continue;
+                    }
+                    int taken = 0;
+                    for (Map.Entry<Long, byte[]> version : column.getValue().entrySet()) {
+                        if (taken >= maxVersions) {
+                            break;
+                        }
+                        if (timeRange.withinTimeRange(version.getKey())) {
+                            cells.add(new KeyValue(rowKey, family.getKey(), column.getKey(), version.getKey(),
+                                    version.getValue()));
+                            taken++;
+                        }
+                    }
+                }
+            }
+            return cells;
+        }
+
+        void deleteRow(long ts) {
+            for (byte[] family : new ArrayList<>(families.keySet())) {
+                deleteFamily(family, ts);
+            }
+        }
+
+        void deleteFamily(byte[] family, long ts) {
+            NavigableMap<byte[], NavigableMap<Long, byte[]>> columns = families.get(family);
+            if (columns == null) {
+                return;
+            }
+            for (byte[] qualifier : new ArrayList<>(columns.keySet())) {
+                deleteColumn(family, qualifier, ts);
+            }
+        }
+
+        void deleteFamilyVersion(byte[] family, long ts) {
+            NavigableMap<byte[], NavigableMap<Long, byte[]>> columns = families.get(family);
+            if (columns == null) {
+                return;
+            }
+            columns.values().forEach(versions -> versions.remove(ts));
+            cleanup(family);
+        }
+
+        /**
+         * 删除一列中时间戳不大于ts的所有版本
+         */
+        void deleteColumn(byte[] family, byte[] qualifier, long ts) {
+            NavigableMap<byte[], NavigableMap<Long, byte[]>> columns = families.get(family);
+            NavigableMap<Long, byte[]> versions = columns == null ? null : columns.get(qualifier);
+            if (versions == null) {
+                return;
+            }
+            // 倒序map中tailMap(ts)即时间戳<=ts的版本
+            versions.tailMap(ts, true).clear();
+            cleanup(family);
+        }
+
+        /**
+         * 删除一列的一个版本，未指定时间戳时删除最新版本
+         */
+        void deleteVersion(byte[] family, byte[] qualifier, long ts) {
+            NavigableMap<byte[], NavigableMap<Long, byte[]>> columns = families.get(family);
+            NavigableMap<Long, byte[]> versions = columns == null ? null : columns.get(qualifier);
+            if (versions == null || versions.isEmpty()) {
+                return;
+            }
+            if (ts == HConstants.LATEST_TIMESTAMP) {
+                versions.pollFirstEntry();
+            } else {
+                versions.remove(ts);
+            }
+            cleanup(family);
+        }
+
+        private void cleanup(byte[] family) {
+            NavigableMap<byte[], NavigableMap<Long, byte[]>> columns = families.get(family);
+            if (columns == null) {
+                return;
+            }
+            columns.values().removeIf(Map::isEmpty);
+            if (columns.isEmpty()) {
+                families.remove(family);
+            }
+        }
+    }
+}
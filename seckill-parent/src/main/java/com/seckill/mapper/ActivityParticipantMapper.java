@@ -0,0 +1,36 @@
+package com.seckill.mapper;
+
+import com.seckill.entity.SeckillOrder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 秒杀活动参与用户索引（HBase实现）
+ * 每个活动一行，每个参与用户一列，用于在Redis参与集合丢失时重建
+ */
+public interface ActivityParticipantMapper {
+
+    /**
+     * 批量记录参与用户（订单落库时调用）
+     * @return 写入的数量，写入失败返回0
+     */
+    int addBatch(List<SeckillOrder> orders);
+
+    /**
+     * 移除参与用户（取消订单时调用）
+     */
+    int remove(Long activityId, Long userId);
+
+    /**
+     * 查询活动的全部参与用户
+     */
+    Set<Long> selectUserIds(Long activityId);
+
+    /**
+     * 查询活动的全部参与记录
+     * @return 用户ID -> 订单ID
+     */
+    Map<Long, Long> selectOrderIds(Long activityId);
+}
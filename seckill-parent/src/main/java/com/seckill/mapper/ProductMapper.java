@@ -2,9 +2,14 @@ package com.seckill.mapper;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.seckill.common.CursorPageResult;
 import com.seckill.entity.Product;
 import org.apache.ibatis.annotations.Param;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * 商品Mapper接口
  * 使用HBase存储，不再继承BaseMapper
@@ -30,9 +35,41 @@ public interface ProductMapper {
      * 根据ID查询商品
      */
     Product selectById(Long id);
+
+    /**
+     * 异步根据ID查询商品，不存在或查询失败时完成值为null
+     */
+    CompletableFuture<Product> selectByIdAsync(Long id);
+
+    /**
+     * 按ID批量查询商品（一次HBase multi-get），不存在的ID直接跳过
+     */
+    List<Product> selectBatchIds(Collection<Long> ids);
+
+    /**
+     * 按ID批量查询商品，只读取fields（Product字段名）对应的列，fields为空时读取整行
+     */
+    List<Product> selectBatchIds(Collection<Long> ids, Collection<String> fields);
     
     /**
      * 分页查询商品（支持商品名称模糊查询）
      */
     IPage<Product> selectProductPage(Page<Product> page, @Param("productName") String productName);
+
+    /**
+     * 分页查询商品，只读取fields（Product字段名）对应的列，fields为空时读取整行
+     */
+    IPage<Product> selectProductPage(Page<Product> page, String productName, Collection<String> fields);
+
+    /**
+     * 游标分页查询商品（按商品ID顺序），cursor为空时查询第一页
+     * @throws IllegalArgumentException 游标无效
+     */
+    CursorPageResult<Product> selectProductPageByCursor(String cursor, int pageSize, String productName,
+                                                        Collection<String> fields);
+
+    /**
+     * 累加商品销量（cf_stat:sale_counter计数列，HBase Increment原子累加）
+     */
+    void addSaleCount(Long id, long quantity);
 }
\ No newline at end of file
@@ -2,9 +2,12 @@ package com.seckill.mapper;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.seckill.common.CursorPageResult;
 import com.seckill.entity.SeckillActivity;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 秒杀活动Mapper（HBase实现）
@@ -19,9 +22,46 @@ public interface SeckillActivityMapper {
 
     SeckillActivity selectById(Long id);
 
+    /**
+     * 异步根据ID查询活动，不存在或查询失败时完成值为null
+     */
+    CompletableFuture<SeckillActivity> selectByIdAsync(Long id);
+
+    /**
+     * 按ID批量查询活动（一次HBase multi-get），不存在的ID直接跳过
+     */
+    List<SeckillActivity> selectBatchIds(Collection<Long> ids);
+
     IPage<SeckillActivity> selectActivityPage(Page<SeckillActivity> page, Integer status);
 
+    /**
+     * 游标分页查询活动（按活动ID顺序），cursor为空时查询第一页
+     * @throws IllegalArgumentException 游标无效
+     */
+    CursorPageResult<SeckillActivity> selectActivityPageByCursor(String cursor, int pageSize, Integer status);
+
     List<SeckillActivity> selectActiveActivities();
 
     List<SeckillActivity> selectAll();
-}
\ No newline at end of file
+
+    /**
+     * 原子累加活动已售数量（HBase Increment计数列，无需加锁读改写）
+     * @return 累加后的已售数量，失败返回null
+     */
+    Long incrementSoldCount(Long id, long delta);
+
+    /**
+     * 异步累加活动已售数量
+     * @return 完成值为累加后的已售数量，失败时为null
+     */
+    CompletableFuture<Long> incrementSoldCountAsync(Long id, long delta);
+
+    /**
+     * 回填计数列上线前的旧活动：seckillStock加回已扣减的已售数量恢复为总库存，写入回填标记并累加已售计数
+     * 以回填标记不存在为条件写入，每个活动只会生效一次
+     * @param activity 尚未回填的活动（legacySold为空）
+     * @param legacySold 旧逻辑支付时已从seckillStock扣减的数量
+     * @return 本次是否回填成功，已被其他节点回填返回false
+     */
+    boolean backfillLegacySold(SeckillActivity activity, int legacySold);
+}
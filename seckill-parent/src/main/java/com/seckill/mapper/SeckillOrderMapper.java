@@ -2,6 +2,7 @@ package com.seckill.mapper;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.seckill.common.CursorPageResult;
 import com.seckill.entity.SeckillOrder;
 
 /**
@@ -11,13 +12,66 @@ public interface SeckillOrderMapper {
 
     int insert(SeckillOrder order);
 
+    /**
+     * 批量插入订单（一次HBase写入）
+     * @return 成功写入的条数，失败返回0
+     */
+    int insertBatch(java.util.List<SeckillOrder> orders);
+
+    /**
+     * 批量插入订单（经HBase写缓冲异步写入）
+     * @return 全部写入成功后完成，值为写入条数；写入失败时以异常完成
+     */
+    java.util.concurrent.CompletableFuture<Integer> insertBatchAsync(java.util.List<SeckillOrder> orders);
+
     int updateById(SeckillOrder order);
 
     int deleteById(Long id);
 
     SeckillOrder selectById(Long id);
 
+    /**
+     * 按ID批量查询订单（一次HBase multi-get），不存在的ID直接跳过
+     */
+    java.util.List<SeckillOrder> selectBatchIds(java.util.Collection<Long> ids);
+
+    /**
+     * 按ID批量查询订单，只读取fields（SeckillOrder字段名）对应的列，fields为空时读取整行
+     */
+    java.util.List<SeckillOrder> selectBatchIds(java.util.Collection<Long> ids, java.util.Collection<String> fields);
+
+    /**
+     * 查询在 [startMillis, endMillis) 时间段内有写入的订单所属的活动ID
+     * 按单元格时间戳过滤，只读取activity_id一列，用于增量对账
+     */
+    java.util.Set<Long> selectActivityIdsModifiedBetween(long startMillis, long endMillis);
+
     IPage<SeckillOrder> selectOrderPage(Page<SeckillOrder> page, Integer status);
 
+    /**
+     * 分页查询订单，只读取fields（SeckillOrder字段名）对应的列，
+     * 列表不需要的收货地址、物流、订单明细列族不会被读取；fields为空时读取整行
+     */
+    IPage<SeckillOrder> selectOrderPage(Page<SeckillOrder> page, Integer status, java.util.Collection<String> fields);
+
+    /**
+     * 游标分页查询订单（按行键顺序），cursor为空时查询第一页
+     * @throws IllegalArgumentException 游标无效
+     */
+    CursorPageResult<SeckillOrder> selectOrderPageByCursor(String cursor, int pageSize, Integer status,
+                                                           java.util.Collection<String> fields);
+
     java.util.List<SeckillOrder> selectListByUser(Long userId, Integer status);
+
+    /**
+     * 查询用户订单，只读取fields对应的列，fields为空时读取整行
+     */
+    java.util.List<SeckillOrder> selectListByUser(Long userId, Integer status, java.util.Collection<String> fields);
+
+    /**
+     * 游标分页查询用户订单，新行键按下单时间倒序，之后是尚未迁移的旧行键订单
+     * @throws IllegalArgumentException 游标无效
+     */
+    CursorPageResult<SeckillOrder> selectListByUserByCursor(Long userId, String cursor, int pageSize, Integer status,
+                                                            java.util.Collection<String> fields);
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.seckill.mapper;
+
+import com.seckill.entity.StockSnapshot;
+
+/**
+ * 秒杀库存对账快照Mapper（HBase实现）
+ */
+public interface StockSnapshotMapper {
+
+    int insert(StockSnapshot snapshot);
+
+    StockSnapshot selectById(Long activityId);
+
+    /**
+     * 读取增量对账检查点（上次扫描到的时间戳）
+     * @return 检查点毫秒时间戳，不存在时返回null
+     */
+    Long selectCheckpoint();
+
+    int updateCheckpoint(long timestampMillis);
+}
@@ -1,6 +1,8 @@
 package com.seckill.mapper;
 
+import com.seckill.common.CursorPageResult;
 import com.seckill.entity.User;
+import java.util.Collection;
 import java.util.List;
 
 
@@ -15,6 +17,10 @@ public interface UserMapper {
      * 根据用户ID查询
      */
     User selectById(Long id);
+    /**
+     * 按ID批量查询用户（一次HBase multi-get），不存在或已删除的ID直接跳过
+     */
+    List<User> selectBatchIds(Collection<Long> ids);
     /**
      * 根据用户名查询 (注意：HBase非RowKey查询效率较低，需走Filter)
      */
@@ -27,6 +33,18 @@ public interface UserMapper {
      */
     List<User> selectUserList(String username, int limit, int offset);
 
+    /**
+     * 分页查询用户列表，只读取fields（User字段名）对应的列（列表不需要密码、账户余额等），fields为空时读取整行
+     */
+    List<User> selectUserList(String username, int limit, int offset, Collection<String> fields);
+
+    /**
+     * 游标分页查询用户列表（按用户ID顺序），cursor为空时查询第一页
+     * @throws IllegalArgumentException 游标无效
+     */
+    CursorPageResult<User> selectUserPageByCursor(String cursor, int pageSize, String username,
+                                                  Collection<String> fields);
+
     /**
      * 获取满足条件的总记录数 (用于分页计算)
      * 注意：HBase 统计总数性能极差，通常建议用 Redis 计数，这里做简易实现
@@ -0,0 +1,110 @@
+package com.seckill.mapper.impl;
+
+import com.seckill.entity.SeckillOrder;
+import com.seckill.mapper.ActivityParticipantMapper;
+import com.seckill.util.HBaseUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+
+/**
+ * ActivityParticipantMapper 的 HBase 实现
+ * 表：activity_participant
+ * RowKey: activityId，列族 cf_user，列名 userId，值 orderId
+ */
+@Slf4j
+@Repository
+public class ActivityParticipantMapperImpl implements ActivityParticipantMapper {
+
+    private static final String TABLE_NAME = "activity_participant";
+    private static final String CF_USER = "cf_user";
+
+    @Autowired
+    private HBaseUtil hBaseUtil;
+
+    private String rowKey(Long activityId) {
+        return String.valueOf(activityId);
+    }
+
+    @Override
+    public int addBatch(List<SeckillOrder> orders) {
+        if (orders == null || orders.isEmpty()) {
+            return 0;
+        }
+        try {
+            List<Put> puts = new ArrayList<>(orders.size());
+            for (SeckillOrder order : orders) {
+                Put put = new Put(Bytes.toBytes(rowKey(order.getActivityId())));
+                put.addColumn(Bytes.toBytes(CF_USER), Bytes.toBytes(String.valueOf(order.getUserId())),
+                        System.currentTimeMillis(), Bytes.toBytes(String.valueOf(order.getId())));
+                puts.add(put);
+            }
+            hBaseUtil.putBatch(TABLE_NAME, puts);
+            return orders.size();
+        } catch (Exception e) {
+            log.error("写入活动参与索引失败, 数量: {}", orders.size(), e);
+            return 0;
+        }
+    }
+
+    @Override
+    public int remove(Long activityId, Long userId) {
+        try {
+            hBaseUtil.deleteColumn(TABLE_NAME, rowKey(activityId), CF_USER, String.valueOf(userId));
+            return 1;
+        } catch (Exception e) {
+            log.error("删除活动参与索引失败, activityId={}, userId={}", activityId, userId, e);
+            return 0;
+        }
+    }
+
+    @Override
+    public Set<Long> selectUserIds(Long activityId) {
+        Set<Long> userIds = new HashSet<>();
+        try {
+            Result result = hBaseUtil.get(TABLE_NAME, rowKey(activityId), CF_USER);
+            if (result == null || result.isEmpty()) {
+                return userIds;
+            }
+            NavigableMap<byte[], byte[]> familyMap = result.getFamilyMap(Bytes.toBytes(CF_USER));
+            for (Map.Entry<byte[], byte[]> entry : familyMap.entrySet()) {
+                userIds.add(Long.parseLong(Bytes.toString(entry.getKey())));
+            }
+        } catch (Exception e) {
+            log.error("查询活动参与索引失败, activityId={}", activityId, e);
+            throw new RuntimeException("查询活动参与索引失败", e);
+        }
+        return userIds;
+    }
+
+    @Override
+    public Map<Long, Long> selectOrderIds(Long activityId) {
+        Map<Long, Long> orderIds = new HashMap<>();
+        try {
+            Result result = hBaseUtil.get(TABLE_NAME, rowKey(activityId), CF_USER);
+            if (result == null || result.isEmpty()) {
+                return orderIds;
+            }
+            NavigableMap<byte[], byte[]> familyMap = result.getFamilyMap(Bytes.toBytes(CF_USER));
+            for (Map.Entry<byte[], byte[]> entry : familyMap.entrySet()) {
+                orderIds.put(Long.parseLong(Bytes.toString(entry.getKey())),
+                        Long.parseLong(Bytes.toString(entry.getValue())));
+            }
+        } catch (Exception e) {
+            log.error("查询活动参与索引失败, activityId={}", activityId, e);
+            throw new RuntimeException("查询活动参与索引失败", e);
+        }
+        return orderIds;
+    }
+}
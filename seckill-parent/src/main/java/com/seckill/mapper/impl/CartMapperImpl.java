@@ -4,18 +4,19 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.seckill.entity.CartData;
 import com.seckill.mapper.CartMapper;
+import com.seckill.util.HBaseEntityMapper;
 import com.seckill.util.HBaseUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.hadoop.hbase.client.Put;
 import org.apache.hadoop.hbase.client.Result;
 import org.apache.hadoop.hbase.util.Bytes;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.stereotype.Repository;
 
 import java.io.IOException;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -27,21 +28,20 @@ public class CartMapperImpl implements CartMapper {
 
 //    购物车对应的Hbase表
     private static final String TABLE_NAME = "cart_data";
-//    cf_base来存储元数据
-    private static final String CF_BASE = "cf_base";
+//    cf_base来存储元数据（update_time、deleted，见CartData上的@HBaseColumn）
+    private static final HBaseEntityMapper<CartData> MAPPER = HBaseEntityMapper.of(CartData.class);
 //    cf_items专门存商品
-    private static final String CF_ITEMS = "cf_items";
-
-    // cf_base的属性
-    private static final String COL_UPDATE_TIME = "update_time";
-    private static final String COL_DELETED = "deleted";
+    private static final byte[] CF_ITEMS = Bytes.toBytes("cf_items");
     private static final String PRODUCT_COL_PREFIX = "product_";
-    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     @Autowired
     private HBaseUtil hBaseUtil;
     @Autowired
     private ObjectMapper objectMapper;
 
+    /** 开启后购物车快照经HBase写缓冲异步写入，失败只记录日志（Redis中仍是完整数据，下次同步会覆盖） */
+    @Value("${seckill.hbase-write.write-behind.cart:false}")
+    private boolean writeBehind;
+
     /**
      * 使用用户ID作为RowKey，转成字符串
      */
@@ -51,7 +51,7 @@ public class CartMapperImpl implements CartMapper {
 
     @Override
     public int saveOrUpdate(CartData cartData) {
-        if(cartData == null|| cartData.getId()==null){
+        if(cartData == null|| cartData.getUserId()==null){
             log.warn("CartData 或 UserId 为空，无法保存到HBase");
             return 0;
         }
@@ -60,11 +60,12 @@ public class CartMapperImpl implements CartMapper {
 //        创建行键
             String rk=rowKey(cartData.getUserId());
 //          todo 使用put记录下你对这个表的所有操作，最后将所有操作提交作用于表
+            long now = System.currentTimeMillis();
             Put put = new Put(Bytes.toBytes(rk));
 //        更新元数据(cf_base)
             LocalDateTime updateTime = cartData.getUpdateTime() != null ? cartData.getUpdateTime() : LocalDateTime.now();
-            putTime(CF_BASE,COL_UPDATE_TIME,updateTime,put);
-            putInt(CF_BASE, COL_DELETED, 0, put);
+            MAPPER.addColumn(put, "updateTime", updateTime, now, hBaseUtil);
+            MAPPER.addColumn(put, "deleted", 0, now, hBaseUtil);
 //        更新商品项
             if(cartData.getCartItems()!=null&&!cartData.getCartItems().isEmpty()){
                 Map<String, Object> itemMap = (Map<String, Object>) objectMapper.readValue(cartData.getCartItems(), new TypeReference<Object>() {});
@@ -73,11 +74,11 @@ public class CartMapperImpl implements CartMapper {
                     String itemJson = objectMapper.writeValueAsString(entry.getValue());
 //                    使用 "product_" 作为前缀，与元数据列区分开
                     String colName = PRODUCT_COL_PREFIX + productId;
-                    putStr(CF_ITEMS,colName,itemJson,put);
+                    put.addColumn(CF_ITEMS, Bytes.toBytes(colName), now, Bytes.toBytes(itemJson));
                 }
             }
 //            todo 将所有的操作提交
-            hBaseUtil.putBatch(TABLE_NAME, List.of(put));
+            write(put, cartData.getUserId());
             return 1;
         } catch (Exception e) {
             log.error("保存或更新购物车到HBase失败, userId={}", cartData.getUserId(), e);
@@ -96,7 +97,7 @@ public class CartMapperImpl implements CartMapper {
                 return null;
             }
             // 检查是否被逻辑删除
-            Integer deleted = getInt(result, CF_BASE, COL_DELETED);
+            Integer deleted = (Integer) MAPPER.getValue(result, "deleted");
             if (deleted != null && deleted == 1) {
                 return null; // 已被删除
             }
@@ -115,9 +116,10 @@ public class CartMapperImpl implements CartMapper {
         try {
 //        逻辑删除，将deleted标记置为1
             Put put = new Put(Bytes.toBytes(rowKey(userId)));
-            putInt(CF_BASE, COL_DELETED, 1, put);
-            putTime(CF_BASE,COL_UPDATE_TIME,LocalDateTime.now(),put);
-            hBaseUtil.putBatch(TABLE_NAME,List.of(put));
+            long now = System.currentTimeMillis();
+            MAPPER.addColumn(put, "deleted", 1, now, hBaseUtil);
+            MAPPER.addColumn(put, "updateTime", LocalDateTime.now(), now, hBaseUtil);
+            write(put, userId);
             return 1;
         } catch (IOException e) {
             log.error("从HBase逻辑删除购物车失败, userId={}", userId, e);
@@ -125,16 +127,26 @@ public class CartMapperImpl implements CartMapper {
         }
     }
 
+    private void write(Put put, Long userId) throws IOException {
+        if (!writeBehind) {
+            hBaseUtil.putBatch(TABLE_NAME, List.of(put));
+            return;
+        }
+        hBaseUtil.putBuffered(TABLE_NAME, List.of(put)).whenComplete((v, e) -> {
+            if (e != null) {
+                log.error("异步写入购物车快照失败, userId={}", userId, e);
+            }
+        });
+    }
+
 //    todo 处理从Hbase获取的字符串数据
     private CartData convertToCartData(Result r, Long userId) {
         try {
-            CartData cartData = new CartData();
+            CartData cartData = MAPPER.fromResult(r);
             cartData.setUserId(userId);
-            cartData.setUpdateTime(getTime(r,CF_BASE,COL_UPDATE_TIME));
-            cartData.setDeleted(getInt(r,CF_BASE, COL_DELETED));
             Map<String, Object> itemsMap = new HashMap<>();
 //        todo 遍历cf_Item列族下的所有列
-            NavigableMap<byte[], byte[]> familyMap = r.getFamilyMap(Bytes.toBytes(CF_ITEMS));
+            NavigableMap<byte[], byte[]> familyMap = r.getFamilyMap(CF_ITEMS);
             if(familyMap!=null){
                 for(Map.Entry<byte[], byte[]> entry : familyMap.entrySet()){
     //               获取列名
@@ -158,31 +170,4 @@ public class CartMapperImpl implements CartMapper {
             return null;
         }
     }
-
-    private void putStr(String cf, String colName, String val, Put put) {
-        if(val==null){return;}
-        put.addColumn(Bytes.toBytes(cf),Bytes.toBytes(colName),System.currentTimeMillis(),Bytes.toBytes(val));
-    }
-
-    private void putTime(String cf, String col, LocalDateTime time, Put put) {
-        if (time == null) return;
-        put.addColumn(Bytes.toBytes(cf), Bytes.toBytes(col), System.currentTimeMillis(), Bytes.toBytes(time.format(DATE_TIME_FORMATTER)));
-    }
-    private void putInt(String cf, String col, Integer val, Put put) {
-        if (val == null) return;
-        put.addColumn(Bytes.toBytes(cf), Bytes.toBytes(col), System.currentTimeMillis(), Bytes.toBytes(String.valueOf(val)));
-    }
-
-
-    private String getStr(Result r, String cf, String col) {
-        return hBaseUtil.getValueFromResult(r, cf, col);
-    }
-    private Integer getInt(Result r, String cf, String col) {
-        String v = getStr(r, cf, col);
-        return v == null ? null : Integer.parseInt(v);
-    }
-    private LocalDateTime getTime(Result r, String cf, String col) {
-        String v = getStr(r, cf, col);
-        return v == null ? null : LocalDateTime.parse(v, DATE_TIME_FORMATTER);
-    }
 }
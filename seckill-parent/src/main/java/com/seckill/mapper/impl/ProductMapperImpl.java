@@ -2,25 +2,35 @@ package com.seckill.mapper.impl;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.seckill.common.CursorPageResult;
 import com.seckill.entity.Product;
 import com.seckill.mapper.ProductMapper;
+import com.seckill.util.HBaseCursor;
+import com.seckill.util.HBaseEntityMapper;
+import com.seckill.util.HBaseFilterBuilder;
 import com.seckill.util.HBaseIdGenerator;
 import com.seckill.util.HBaseUtil;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.hadoop.hbase.client.Get;
 import org.apache.hadoop.hbase.client.Put;
 import org.apache.hadoop.hbase.client.Result;
 import org.apache.hadoop.hbase.client.ResultScanner;
 import org.apache.hadoop.hbase.client.Scan;
 import org.apache.hadoop.hbase.util.Bytes;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Repository;
 
-import java.math.BigDecimal;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
 
 /**
  * ProductMapper的HBase实现类
@@ -31,32 +41,10 @@ import java.util.List;
 public class ProductMapperImpl implements ProductMapper {
 
     private static final String TABLE_NAME = "product_info";
-    private static final String CF_BASE = "cf_base";
-    private static final String CF_DETAIL = "cf_detail";
-    private static final String CF_STOCK = "cf_stock";
+    private static final HBaseEntityMapper<Product> MAPPER = HBaseEntityMapper.of(Product.class);
     private static final String CF_STAT = "cf_stat";
-    
-    // 列名常量
-    private static final String COL_NAME = "name";
-    private static final String COL_CATEGORY = "category";
-    private static final String COL_BRAND = "brand";
-    private static final String COL_PRICE = "price";
-    private static final String COL_COST = "cost";
-    private static final String COL_STATUS = "status";
-    private static final String COL_CREATE_TIME = "create_time";
-    private static final String COL_DESCRIPTION = "description";
-    private static final String COL_SPEC = "spec";
-    private static final String COL_IMAGES = "images";
-    private static final String COL_TAGS = "tags";
-    private static final String COL_TOTAL_STOCK = "total_stock";
-    private static final String COL_WAREHOUSE_STOCK = "warehouse_stock";
-    private static final String COL_SAFE_STOCK = "safe_stock";
-    private static final String COL_LOCK_STOCK = "lock_stock";
-    private static final String COL_VIEW_COUNT = "view_count";
-    private static final String COL_SALE_COUNT = "sale_count";
-    private static final String COL_COLLECT_COUNT = "collect_count";
-    private static final String COL_UPDATE_TIME = "update_time";
-    private static final String COL_DELETED = "deleted";
+    // 销量计数列：之前的销量留在sale_count（字符串或二进制编码，不能Increment），之后只通过Increment累加到该列，读取时两者相加
+    private static final String COL_SALE_COUNTER = "sale_counter";
 
     @Autowired
     private HBaseUtil hBaseUtil;
@@ -64,7 +52,19 @@ public class ProductMapperImpl implements ProductMapper {
     @Autowired
     private HBaseIdGenerator idGenerator;
 
-    private final DateTimeFormatter dateTimeFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    /** 开启后销量增量先在内存中按商品合并，HBase写缓冲刷写前统一累加写入 */
+    @Value("${seckill.hbase-write.write-behind.product-stat:false}")
+    private boolean statWriteBehind;
+
+    /** 待写入的销量增量，key为商品ID */
+    private final ConcurrentMap<Long, Long> pendingSaleCounts = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        if (statWriteBehind) {
+            hBaseUtil.addFlushHook(TABLE_NAME, this::flushPendingSaleCounts);
+        }
+    }
 
     /**
      * 生成RowKey：使用product_id
@@ -84,99 +84,13 @@ public class ProductMapperImpl implements ProductMapper {
                 product.setId(idGenerator.generateProductId());
             }
 //            todo Hbase任何操作钱都需要先确定RowKey，然后将行键转化为字符串，再将行键交给Put
-//            todo put是写入数据的载体
-            String rowKey = getRowKey(product.getId());
-            Put put = new Put(Bytes.toBytes(rowKey));
-
-            // cf_base列族
-            if (product.getProductName() != null) {
-//                todo addColumn是在填充单元格
-                put.addColumn(Bytes.toBytes(CF_BASE), Bytes.toBytes(COL_NAME), 
-                        System.currentTimeMillis(), Bytes.toBytes(product.getProductName()));
-            }
-            if (product.getCategoryId() != null) {
-                put.addColumn(Bytes.toBytes(CF_BASE), Bytes.toBytes(COL_CATEGORY), 
-                        System.currentTimeMillis(), Bytes.toBytes(String.valueOf(product.getCategoryId())));
-            }
-            if (product.getBrand() != null) {
-                put.addColumn(Bytes.toBytes(CF_BASE), Bytes.toBytes(COL_BRAND), 
-                        System.currentTimeMillis(), Bytes.toBytes(product.getBrand()));
-            }
-            if (product.getPrice() != null) {
-                put.addColumn(Bytes.toBytes(CF_BASE), Bytes.toBytes(COL_PRICE), 
-                        System.currentTimeMillis(), Bytes.toBytes(product.getPrice().toString()));
-            }
-            if (product.getCost() != null) {
-                put.addColumn(Bytes.toBytes(CF_BASE), Bytes.toBytes(COL_COST), 
-                        System.currentTimeMillis(), Bytes.toBytes(product.getCost().toString()));
-            }
-            if (product.getStatus() != null) {
-                put.addColumn(Bytes.toBytes(CF_BASE), Bytes.toBytes(COL_STATUS), 
-                        System.currentTimeMillis(), Bytes.toBytes(String.valueOf(product.getStatus())));
-            }
-            if (product.getCreateTime() != null) {
-                put.addColumn(Bytes.toBytes(CF_BASE), Bytes.toBytes(COL_CREATE_TIME), 
-                        System.currentTimeMillis(), Bytes.toBytes(product.getCreateTime().format(dateTimeFormatter)));
-            }
-
-            // cf_detail列族
-            if (product.getProductDesc() != null) {
-                put.addColumn(Bytes.toBytes(CF_DETAIL), Bytes.toBytes(COL_DESCRIPTION), 
-                        System.currentTimeMillis(), Bytes.toBytes(product.getProductDesc()));
-            }
-            if (product.getSpec() != null) {
-                put.addColumn(Bytes.toBytes(CF_DETAIL), Bytes.toBytes(COL_SPEC), 
-                        System.currentTimeMillis(), Bytes.toBytes(product.getSpec()));
-            }
-            if (product.getImages() != null) {
-                put.addColumn(Bytes.toBytes(CF_DETAIL), Bytes.toBytes(COL_IMAGES), 
-                        System.currentTimeMillis(), Bytes.toBytes(product.getImages()));
-            }
-            if (product.getTags() != null) {
-                put.addColumn(Bytes.toBytes(CF_DETAIL), Bytes.toBytes(COL_TAGS), 
-                        System.currentTimeMillis(), Bytes.toBytes(product.getTags()));
-            }
-
-            // cf_stock列族
-            if (product.getStock() != null) {
-                put.addColumn(Bytes.toBytes(CF_STOCK), Bytes.toBytes(COL_TOTAL_STOCK), 
-                        System.currentTimeMillis(), Bytes.toBytes(String.valueOf(product.getStock())));
-            }
-            if (product.getWarehouseStock() != null) {
-                put.addColumn(Bytes.toBytes(CF_STOCK), Bytes.toBytes(COL_WAREHOUSE_STOCK), 
-                        System.currentTimeMillis(), Bytes.toBytes(product.getWarehouseStock()));
-            }
-            if (product.getSafeStock() != null) {
-                put.addColumn(Bytes.toBytes(CF_STOCK), Bytes.toBytes(COL_SAFE_STOCK), 
-                        System.currentTimeMillis(), Bytes.toBytes(String.valueOf(product.getSafeStock())));
-            }
-            if (product.getLockStock() != null) {
-                put.addColumn(Bytes.toBytes(CF_STOCK), Bytes.toBytes(COL_LOCK_STOCK), 
-                        System.currentTimeMillis(), Bytes.toBytes(String.valueOf(product.getLockStock())));
-            }
-
-            // cf_stat列族
-            if (product.getViewCount() != null) {
-                put.addColumn(Bytes.toBytes(CF_STAT), Bytes.toBytes(COL_VIEW_COUNT), 
-                        System.currentTimeMillis(), Bytes.toBytes(String.valueOf(product.getViewCount())));
-            }
-            if (product.getSaleCount() != null) {
-                put.addColumn(Bytes.toBytes(CF_STAT), Bytes.toBytes(COL_SALE_COUNT), 
-                        System.currentTimeMillis(), Bytes.toBytes(String.valueOf(product.getSaleCount())));
-            }
-            if (product.getCollectCount() != null) {
-                put.addColumn(Bytes.toBytes(CF_STAT), Bytes.toBytes(COL_COLLECT_COUNT), 
-                        System.currentTimeMillis(), Bytes.toBytes(String.valueOf(product.getCollectCount())));
-            }
-            if (product.getUpdateTime() != null) {
-                put.addColumn(Bytes.toBytes(CF_STAT), Bytes.toBytes(COL_UPDATE_TIME), 
-                        System.currentTimeMillis(), Bytes.toBytes(product.getUpdateTime().format(dateTimeFormatter)));
-            }
-            
+//            todo put是写入数据的载体，各列族的单元格按Product字段上的@HBaseColumn填充
+            long now = System.currentTimeMillis();
+            Put put = MAPPER.toPut(Bytes.toBytes(getRowKey(product.getId())), product, now, hBaseUtil);
             // 逻辑删除标记（存储在cf_base中）
-            int deleted = product.getDeleted() != null ? product.getDeleted() : 0;
-            put.addColumn(Bytes.toBytes(CF_BASE), Bytes.toBytes(COL_DELETED), 
-                    System.currentTimeMillis(), Bytes.toBytes(String.valueOf(deleted)));
+            if (product.getDeleted() == null) {
+                MAPPER.addColumn(put, "deleted", 0, now, hBaseUtil);
+            }
 
             hBaseUtil.putBatch(TABLE_NAME, List.of(put));
             return 1;
@@ -198,6 +112,8 @@ public class ProductMapperImpl implements ProductMapper {
                 return 0;
             }
 
+            // 销量只由addSaleCount累加，读出的是两列之和，不能写回sale_count
+            product.setSaleCount(null);
             // todo 使用insert方法更新，后续追加一个时间戳即可
             return insert(product);
         } catch (Exception e) {
@@ -206,6 +122,51 @@ public class ProductMapperImpl implements ProductMapper {
         }
     }
 
+    @Override
+    public void addSaleCount(Long id, long quantity) {
+        if (id == null || quantity == 0) {
+            return;
+        }
+        if (statWriteBehind) {
+            pendingSaleCounts.merge(id, quantity, Long::sum);
+            return;
+        }
+        try {
+            // 一次原子Increment，不先读后写，并发支付不会丢失销量；商品只做逻辑删除，行总是存在
+            hBaseUtil.incrementColumn(TABLE_NAME, getRowKey(id), CF_STAT, COL_SALE_COUNTER, quantity);
+        } catch (Exception e) {
+            log.error("更新商品销量失败, productId={}", id, e);
+        }
+    }
+
+    /**
+     * 刷写前回调（在HBase写缓冲的刷写线程上执行），失败的增量放回待写集合，下一个刷写周期重试
+     */
+    private void flushPendingSaleCounts() {
+        for (Long id : pendingSaleCounts.keySet()) {
+            Long quantity = pendingSaleCounts.remove(id);
+            if (quantity == null) {
+                continue;
+            }
+            hBaseUtil.incrementColumnAsync(TABLE_NAME, getRowKey(id), CF_STAT, COL_SALE_COUNTER, quantity)
+                    .whenComplete((v, e) -> {
+                        if (e != null) {
+                            log.warn("异步更新商品销量失败，下次刷写重试, productId={}", id, e);
+                            pendingSaleCounts.merge(id, quantity, Long::sum);
+                        }
+                    });
+        }
+    }
+
+    /**
+     * 列投影包含销量时同时读取销量计数列
+     */
+    private void projectSaleCounter(Collection<String> fields, BiConsumer<byte[], byte[]> addColumn) {
+        if (fields != null && !fields.isEmpty() && fields.contains("saleCount")) {
+            addColumn.accept(Bytes.toBytes(CF_STAT), Bytes.toBytes(COL_SALE_COUNTER));
+        }
+    }
+
     /**
      * 根据ID删除商品
      */
@@ -214,9 +175,8 @@ public class ProductMapperImpl implements ProductMapper {
         try {
             String rowKey = getRowKey(id);
             Put put = new Put(Bytes.toBytes(rowKey));
-            // todo 往cf_base:deleted这一列写入 "1"，表示删除
-            put.addColumn(Bytes.toBytes(CF_BASE), Bytes.toBytes(COL_DELETED), 
-                    System.currentTimeMillis(), Bytes.toBytes("1"));
+            // todo 往cf_base:deleted这一列写入1，表示删除
+            MAPPER.addColumn(put, "deleted", 1, System.currentTimeMillis(), hBaseUtil);
             hBaseUtil.putBatch(TABLE_NAME, List.of(put));
             return 1;
         } catch (Exception e) {
@@ -246,15 +206,70 @@ public class ProductMapperImpl implements ProductMapper {
         }
     }
 
+    @Override
+    public CompletableFuture<Product> selectByIdAsync(Long id) {
+        return hBaseUtil.getAsync(TABLE_NAME, getRowKey(id))
+                .thenApply(result -> result.isEmpty() ? null : convertResultToProduct(result, id))
+                .exceptionally(e -> {
+                    log.error("异步查询商品失败, productId={}", id, e);
+                    return null;
+                });
+    }
+
+    @Override
+    public List<Product> selectBatchIds(Collection<Long> ids) {
+        return selectBatchIds(ids, null);
+    }
+
+    @Override
+    public List<Product> selectBatchIds(Collection<Long> ids, Collection<String> fields) {
+        List<Product> list = new ArrayList<>();
+        if (ids == null || ids.isEmpty()) {
+            return list;
+        }
+        List<Get> gets = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Get get = MAPPER.project(new Get(Bytes.toBytes(getRowKey(id))), fields);
+            projectSaleCounter(fields, get::addColumn);
+            gets.add(get);
+        }
+        try {
+            Result[] results = hBaseUtil.get(TABLE_NAME, gets);
+            for (Result result : results) {
+                if (result == null || result.isEmpty()) continue;
+                Product product = convertResultToProduct(result, Long.parseLong(Bytes.toString(result.getRow())));
+                if (product != null) {
+                    list.add(product);
+                }
+            }
+        } catch (Exception e) {
+            log.error("批量查询商品失败, 数量: {}", ids.size(), e);
+        }
+        return list;
+    }
+
     /**
      * 分页查询商品
      */
     @Override
     public IPage<Product> selectProductPage(Page<Product> page, String productName) {
+        return selectProductPage(page, productName, null);
+    }
+
+    @Override
+    public IPage<Product> selectProductPage(Page<Product> page, String productName, Collection<String> fields) {
         try {
 //            todo Scan是Hbase扫描全表查询多条数据的方式
             Scan scan = new Scan();
             scan.setCaching(1000); // 设置缓存
+            // 列投影：逻辑删除、名称过滤和排序用到的列总是读取
+            MAPPER.project(scan, fields, "deleted", "productName", "createTime");
+            projectSaleCounter(fields, scan::addColumn);
+            // 逻辑删除和名称条件在RegionServer上过滤（服务端匹配不区分大小写，下面仍按contains精确判断）
+            HBaseFilterBuilder.of(MAPPER)
+                    .ne("deleted", 1)
+                    .contains("productName", productName)
+                    .applyTo(scan);
             
             List<Product> allProducts = new ArrayList<>();
             ResultScanner scanner = hBaseUtil.scan(TABLE_NAME, scan);
@@ -306,74 +321,56 @@ public class ProductMapperImpl implements ProductMapper {
         }
     }
 
+    /**
+     * 游标分页查询商品：从上一页最后的行键之后读一页，不做全表扫描和排序
+     */
+    @Override
+    public CursorPageResult<Product> selectProductPageByCursor(String cursor, int pageSize, String productName,
+                                                               Collection<String> fields) {
+        Scan scan = new Scan();
+        MAPPER.project(scan, fields, "deleted", "productName");
+        projectSaleCounter(fields, scan::addColumn);
+        HBaseFilterBuilder.of(MAPPER)
+                .ne("deleted", 1)
+                .contains("productName", productName)
+                .limit(pageSize + 1)
+                .applyTo(scan);
+        String scope = "product:" + (productName == null ? "" : productName);
+        try {
+            return HBaseCursor.scan(hBaseUtil, TABLE_NAME, scan, scope, cursor, pageSize, result -> {
+                Product product = convertResultToProduct(result, Long.parseLong(Bytes.toString(result.getRow())));
+                if (product == null || (product.getDeleted() != null && product.getDeleted() != 0)) {
+                    return null;
+                }
+                boolean nameMatch = (productName == null || productName.isEmpty()) ||
+                        (product.getProductName() != null && product.getProductName().contains(productName));
+                return nameMatch ? product : null;
+            });
+        } catch (IOException e) {
+            log.error("游标分页查询商品失败: {}", e.getMessage(), e);
+            return new CursorPageResult<>(new ArrayList<>(), null, pageSize);
+        }
+    }
+
     /**
      * 将HBase Result转换为Product对象
      */
     private Product convertResultToProduct(Result result, Long id) {
         try {
-            Product product = new Product();
+            // todo 按@HBaseColumn把各列族的单元格填充到Product（数值、金额、时间列兼容二进制编码和旧的字符串格式）
+            Product product = MAPPER.fromResult(result);
             product.setId(id);
-
-            // 从Result中读取各列的值
-//            todo 将指定列族的指定单元格的数据拿出来
-            String name = hBaseUtil.getValueFromResult(result, CF_BASE, COL_NAME);
-            String category = hBaseUtil.getValueFromResult(result, CF_BASE, COL_CATEGORY);
-            String brand = hBaseUtil.getValueFromResult(result, CF_BASE, COL_BRAND);
-            String price = hBaseUtil.getValueFromResult(result, CF_BASE, COL_PRICE);
-            String cost = hBaseUtil.getValueFromResult(result, CF_BASE, COL_COST);
-            String status = hBaseUtil.getValueFromResult(result, CF_BASE, COL_STATUS);
-            String createTime = hBaseUtil.getValueFromResult(result, CF_BASE, COL_CREATE_TIME);
-            String deleted = hBaseUtil.getValueFromResult(result, CF_BASE, COL_DELETED);
-
-            String description = hBaseUtil.getValueFromResult(result, CF_DETAIL, COL_DESCRIPTION);
-            String spec = hBaseUtil.getValueFromResult(result, CF_DETAIL, COL_SPEC);
-            String images = hBaseUtil.getValueFromResult(result, CF_DETAIL, COL_IMAGES);
-            String tags = hBaseUtil.getValueFromResult(result, CF_DETAIL, COL_TAGS);
-
-            String totalStock = hBaseUtil.getValueFromResult(result, CF_STOCK, COL_TOTAL_STOCK);
-            String warehouseStock = hBaseUtil.getValueFromResult(result, CF_STOCK, COL_WAREHOUSE_STOCK);
-            String safeStock = hBaseUtil.getValueFromResult(result, CF_STOCK, COL_SAFE_STOCK);
-            String lockStock = hBaseUtil.getValueFromResult(result, CF_STOCK, COL_LOCK_STOCK);
-
-            String viewCount = hBaseUtil.getValueFromResult(result, CF_STAT, COL_VIEW_COUNT);
-            String saleCount = hBaseUtil.getValueFromResult(result, CF_STAT, COL_SALE_COUNT);
-            String collectCount = hBaseUtil.getValueFromResult(result, CF_STAT, COL_COLLECT_COUNT);
-            String updateTime = hBaseUtil.getValueFromResult(result, CF_STAT, COL_UPDATE_TIME);
-
-            // todo 构造product对象
-            product.setProductName(name);
-            if (category != null) product.setCategoryId(Long.parseLong(category));
-            product.setBrand(brand);
-            if (price != null) product.setPrice(new BigDecimal(price));
-            if (cost != null) product.setCost(new BigDecimal(cost));
-            if (status != null) product.setStatus(Integer.parseInt(status));
-            if (createTime != null) {
-                product.setCreateTime(LocalDateTime.parse(createTime, dateTimeFormatter));
+            byte[] counter = result.getValue(Bytes.toBytes(CF_STAT), Bytes.toBytes(COL_SALE_COUNTER));
+            if (counter != null && counter.length == Bytes.SIZEOF_LONG) {
+                long base = product.getSaleCount() == null ? 0 : product.getSaleCount();
+                product.setSaleCount(base + Bytes.toLong(counter));
             }
-            if (deleted != null) product.setDeleted(Integer.parseInt(deleted));
-
-            product.setProductDesc(description);
-            product.setSpec(spec);
-            product.setImages(images);
+            String images = product.getImages();
             if (images != null && !images.isEmpty()) {
                 // 假设多张图用逗号分隔，取第一张
                 String mainImage = images.split(",")[0];
                 product.setImgUrl(mainImage);
             }
-            product.setTags(tags);
-
-            if (totalStock != null) product.setStock(Integer.parseInt(totalStock));
-            product.setWarehouseStock(warehouseStock);
-            if (safeStock != null) product.setSafeStock(Integer.parseInt(safeStock));
-            if (lockStock != null) product.setLockStock(Integer.parseInt(lockStock));
-
-            if (viewCount != null) product.setViewCount(Long.parseLong(viewCount));
-            if (saleCount != null) product.setSaleCount(Long.parseLong(saleCount));
-            if (collectCount != null) product.setCollectCount(Long.parseLong(collectCount));
-            if (updateTime != null) {
-                product.setUpdateTime(LocalDateTime.parse(updateTime, dateTimeFormatter));
-            }
-
             return product;
         } catch (Exception e) {
             log.error("转换Product对象失败: {}", e.getMessage(), e);
@@ -381,4 +378,3 @@ public class ProductMapperImpl implements ProductMapper {
         }
     }
 }
-
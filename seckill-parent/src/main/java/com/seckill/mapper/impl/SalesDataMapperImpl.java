@@ -3,6 +3,7 @@ package com.seckill.mapper.impl;
 import com.seckill.entity.SalesData;
 import com.seckill.mapper.SalesDataMapper;
 import com.seckill.util.HBaseUtil;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.hadoop.hbase.client.Put;
 import org.apache.hadoop.hbase.client.Result;
@@ -10,15 +11,19 @@ import org.apache.hadoop.hbase.client.ResultScanner;
 import org.apache.hadoop.hbase.client.Scan;
 import org.apache.hadoop.hbase.util.Bytes;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Repository;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * 表：sales_data
@@ -43,6 +48,23 @@ public class SalesDataMapperImpl implements SalesDataMapper {
     @Autowired
     private HBaseUtil hBaseUtil;
 
+    /**
+     * 开启后同一天同一商品的销售先在内存中合并，HBase写缓冲刷写前统一读出原值累加后写入，
+     * 高峰期每行每个刷写周期只有一次读写
+     */
+    @Value("${seckill.hbase-write.write-behind.sales:false}")
+    private boolean writeBehind;
+
+    /** 待写入的销售增量，key为行键 */
+    private final ConcurrentMap<String, SaleDelta> pendingSales = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        if (writeBehind) {
+            hBaseUtil.addFlushHook(TABLE_NAME, this::flushPendingSales);
+        }
+    }
+
     private String rowKey(LocalDate date, Long productId) {
         return date.format(DATE_FMT) + "_" + productId;
     }
@@ -50,40 +72,75 @@ public class SalesDataMapperImpl implements SalesDataMapper {
 //    todo 将成功的交易信息记录到Hbase的销售情况记录表中
     @Override
     public void addDailySale(LocalDate date, Long productId, Long categoryId, long quantity, BigDecimal amount) {
+        SaleDelta delta = new SaleDelta(date, productId, categoryId, quantity, amount);
+        if (writeBehind) {
+            pendingSales.merge(rowKey(date, productId), delta, SaleDelta::plus);
+            return;
+        }
         try {
             String rk = rowKey(date, productId);
-            Result result = hBaseUtil.get(TABLE_NAME, rk);
-            long newCount = quantity;
-            BigDecimal newAmount = amount;
-            if (result != null && !result.isEmpty()) {
-                String countStr = hBaseUtil.getValueFromResult(result, CF_DAILY, COL_SALE_COUNT);
-                String amtStr = hBaseUtil.getValueFromResult(result, CF_DAILY, COL_SALE_AMOUNT);
-                if (countStr != null) {
-                    newCount += Long.parseLong(countStr);
-                }
-                if (amtStr != null) {
-                    newAmount = newAmount.add(new BigDecimal(amtStr));
-                }
+            hBaseUtil.putBatch(TABLE_NAME, List.of(buildSalePut(rk, delta)));
+        } catch (Exception e) {
+            log.error("写入SalesData失败", e);
+        }
+    }
+
+    /**
+     * 刷写前回调（在HBase写缓冲的刷写线程上执行）：把合并后的增量累加到原值上提交写入，
+     * 读取或写入失败的增量放回待写集合，下一个刷写周期重试
+     */
+    private void flushPendingSales() {
+        for (String rk : pendingSales.keySet()) {
+            SaleDelta delta = pendingSales.remove(rk);
+            if (delta == null) {
+                continue;
             }
+            try {
+                hBaseUtil.putBuffered(TABLE_NAME, List.of(buildSalePut(rk, delta))).whenComplete((v, e) -> {
+                    if (e != null) {
+                        log.warn("异步写入SalesData失败，下次刷写重试, rowKey={}", rk, e);
+                        pendingSales.merge(rk, delta, SaleDelta::plus);
+                    }
+                });
+            } catch (Exception e) {
+                log.warn("读取SalesData失败，下次刷写重试, rowKey={}", rk, e);
+                pendingSales.merge(rk, delta, SaleDelta::plus);
+            }
+        }
+    }
 
-            Put put = new Put(Bytes.toBytes(rk));
-            put.addColumn(Bytes.toBytes(CF_DAILY), Bytes.toBytes(COL_DATE),
-                    System.currentTimeMillis(), Bytes.toBytes(date.format(DATE_FMT)));
-            put.addColumn(Bytes.toBytes(CF_DAILY), Bytes.toBytes(COL_PRODUCT_ID),
-                    System.currentTimeMillis(), Bytes.toBytes(String.valueOf(productId)));
-            if (categoryId != null) {
-                put.addColumn(Bytes.toBytes(CF_DAILY), Bytes.toBytes(COL_CATEGORY_ID),
-                        System.currentTimeMillis(), Bytes.toBytes(String.valueOf(categoryId)));
+    /**
+     * 读出当前累计值，加上增量后构建整行写入
+     */
+    private Put buildSalePut(String rk, SaleDelta delta) throws IOException {
+        Result result = hBaseUtil.get(TABLE_NAME, rk);
+        long newCount = delta.quantity();
+        BigDecimal newAmount = delta.amount();
+        if (result != null && !result.isEmpty()) {
+            Long count = hBaseUtil.getLongFromResult(result, CF_DAILY, COL_SALE_COUNT);
+            BigDecimal amount = hBaseUtil.getDecimalFromResult(result, CF_DAILY, COL_SALE_AMOUNT);
+            if (count != null) {
+                newCount += count;
             }
-            put.addColumn(Bytes.toBytes(CF_DAILY), Bytes.toBytes(COL_SALE_COUNT),
-                    System.currentTimeMillis(), Bytes.toBytes(String.valueOf(newCount)));
-            put.addColumn(Bytes.toBytes(CF_DAILY), Bytes.toBytes(COL_SALE_AMOUNT),
-                    System.currentTimeMillis(), Bytes.toBytes(newAmount.toPlainString()));
+            if (amount != null) {
+                newAmount = newAmount.add(amount);
+            }
+        }
 
-            hBaseUtil.putBatch(TABLE_NAME, List.of(put));
-        } catch (Exception e) {
-            log.error("写入SalesData失败", e);
+        Put put = new Put(Bytes.toBytes(rk));
+        put.addColumn(Bytes.toBytes(CF_DAILY), Bytes.toBytes(COL_DATE),
+                System.currentTimeMillis(), Bytes.toBytes(delta.date().format(DATE_FMT)));
+        put.addColumn(Bytes.toBytes(CF_DAILY), Bytes.toBytes(COL_PRODUCT_ID),
+                System.currentTimeMillis(), hBaseUtil.encodeLong(delta.productId()));
+        if (delta.categoryId() != null) {
+            put.addColumn(Bytes.toBytes(CF_DAILY), Bytes.toBytes(COL_CATEGORY_ID),
+                    System.currentTimeMillis(), hBaseUtil.encodeLong(delta.categoryId()));
         }
+        put.addColumn(Bytes.toBytes(CF_DAILY), Bytes.toBytes(COL_SALE_COUNT),
+                System.currentTimeMillis(), hBaseUtil.encodeLong(newCount));
+        put.addColumn(Bytes.toBytes(CF_DAILY), Bytes.toBytes(COL_SALE_AMOUNT),
+                System.currentTimeMillis(), hBaseUtil.encodeDecimal(newAmount));
+        return put;
     }
 
 //    todo 查询每日历史销售记录
@@ -93,22 +150,18 @@ public class SalesDataMapperImpl implements SalesDataMapper {
         try (ResultScanner scanner = hBaseUtil.scan(TABLE_NAME, new Scan())) {
             for (Result r : scanner) {
                 String dateStr = hBaseUtil.getValueFromResult(r, CF_DAILY, COL_DATE);
-                String productIdStr = hBaseUtil.getValueFromResult(r, CF_DAILY, COL_PRODUCT_ID);
-                if (dateStr == null || productIdStr == null) continue;
+                Long pid = hBaseUtil.getLongFromResult(r, CF_DAILY, COL_PRODUCT_ID);
+                if (dateStr == null || pid == null) continue;
                 LocalDate date = LocalDate.parse(dateStr, DATE_FMT);
-                Long pid = Long.parseLong(productIdStr);
                 if (date.isBefore(startDate) || date.isAfter(endDate)) continue;
                 if (productId != null && !productId.equals(pid)) continue;
 
                 SalesData data = new SalesData();
                 data.setDate(date);
                 data.setProductId(pid);
-                String catStr = hBaseUtil.getValueFromResult(r, CF_DAILY, COL_CATEGORY_ID);
-                if (catStr != null) data.setCategoryId(Long.parseLong(catStr));
-                String countStr = hBaseUtil.getValueFromResult(r, CF_DAILY, COL_SALE_COUNT);
-                String amtStr = hBaseUtil.getValueFromResult(r, CF_DAILY, COL_SALE_AMOUNT);
-                if (countStr != null) data.setSaleCount(Long.parseLong(countStr));
-                if (amtStr != null) data.setSaleAmount(new BigDecimal(amtStr));
+                data.setCategoryId(hBaseUtil.getLongFromResult(r, CF_DAILY, COL_CATEGORY_ID));
+                data.setSaleCount(hBaseUtil.getLongFromResult(r, CF_DAILY, COL_SALE_COUNT));
+                data.setSaleAmount(hBaseUtil.getDecimalFromResult(r, CF_DAILY, COL_SALE_AMOUNT));
                 data.setCreateTime(LocalDateTime.now());
                 data.setUpdateTime(LocalDateTime.now());
                 data.setDeleted(0);
@@ -120,6 +173,17 @@ public class SalesDataMapperImpl implements SalesDataMapper {
         list.sort((a, b) -> a.getDate().compareTo(b.getDate()));
         return list;
     }
+
+    /**
+     * 一行（某天某商品）尚未写入的销售增量
+     */
+    private record SaleDelta(LocalDate date, Long productId, Long categoryId, long quantity, BigDecimal amount) {
+
+        SaleDelta plus(SaleDelta other) {
+            Long category = other.categoryId() != null ? other.categoryId() : categoryId;
+            return new SaleDelta(date, productId, category, quantity + other.quantity(), amount.add(other.amount()));
+        }
+    }
 }
 
 
@@ -2,11 +2,16 @@ package com.seckill.mapper.impl;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.seckill.common.CursorPageResult;
 import com.seckill.entity.SeckillActivity;
 import com.seckill.mapper.SeckillActivityMapper;
+import com.seckill.util.HBaseCursor;
+import com.seckill.util.HBaseEntityMapper;
+import com.seckill.util.HBaseFilterBuilder;
 import com.seckill.util.HBaseIdGenerator;
 import com.seckill.util.HBaseUtil;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.hadoop.hbase.client.CheckAndMutate;
 import org.apache.hadoop.hbase.client.Put;
 import org.apache.hadoop.hbase.client.Result;
 import org.apache.hadoop.hbase.client.ResultScanner;
@@ -16,11 +21,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Repository;
 
-import java.math.BigDecimal;
+import java.io.IOException;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 秒杀活动 HBase 实现
@@ -33,18 +39,11 @@ public class SeckillActivityMapperImpl implements SeckillActivityMapper {
 
     private static final String TABLE_NAME = "seckill_activity";
     private static final String CF_BASE = "cf_base";
-    private static final String COL_NAME = "activity_name";
-    private static final String COL_PRODUCT_ID = "product_id";
-    private static final String COL_SECKILL_PRICE = "seckill_price";
-    private static final String COL_SECKILL_STOCK = "seckill_stock";
-    private static final String COL_START_TIME = "start_time";
-    private static final String COL_END_TIME = "end_time";
-    private static final String COL_STATUS = "status";
-    private static final String COL_CREATE_TIME = "create_time";
-    private static final String COL_UPDATE_TIME = "update_time";
-    private static final String COL_DELETED = "deleted";
-
-    private static final DateTimeFormatter FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    // 已售数量计数列，只通过Increment修改，insert/updateById不写该列（@HBaseColumn(counter = true)）
+    private static final String COL_SOLD_COUNT = "sold_count";
+    // 旧活动回填标记列，存在即说明seckill_stock是活动总库存
+    private static final String COL_LEGACY_SOLD = "legacy_sold";
+    private static final HBaseEntityMapper<SeckillActivity> MAPPER = HBaseEntityMapper.of(SeckillActivity.class);
 
     @Autowired
     private HBaseUtil hBaseUtil;
@@ -62,17 +61,15 @@ public class SeckillActivityMapperImpl implements SeckillActivityMapper {
             if (activity.getId() == null) {
                 activity.setId(idGenerator.generateId(TABLE_NAME));
             }
-            Put put = new Put(Bytes.toBytes(rk(activity.getId())));
-            putStr(COL_NAME, activity.getActivityName(), put);
-            putLong(COL_PRODUCT_ID, activity.getProductId(), put);
-            putDec(COL_SECKILL_PRICE, activity.getSeckillPrice(), put);
-            putInt(COL_SECKILL_STOCK, activity.getSeckillStock(), put);
-            putTime(COL_START_TIME, activity.getStartTime(), put);
-            putTime(COL_END_TIME, activity.getEndTime(), put);
-            putInt(COL_STATUS, activity.getStatus(), put);
-            putTime(COL_CREATE_TIME, activity.getCreateTime(), put);
-            putTime(COL_UPDATE_TIME, activity.getUpdateTime(), put);
-            putInt(COL_DELETED, activity.getDeleted() == null ? 0 : activity.getDeleted(), put);
+            long now = System.currentTimeMillis();
+            Put put = MAPPER.toPut(Bytes.toBytes(rk(activity.getId())), activity, now, hBaseUtil);
+            if (activity.getDeleted() == null) {
+                MAPPER.addColumn(put, "deleted", 0, now, hBaseUtil);
+            }
+            if (activity.getLegacySold() == null) {
+                // 新活动的seckillStock就是总库存，无需回填
+                MAPPER.addColumn(put, "legacySold", 0, now, hBaseUtil);
+            }
             hBaseUtil.putBatch(TABLE_NAME, List.of(put));
             return 1;
         } catch (Exception e) {
@@ -85,14 +82,67 @@ public class SeckillActivityMapperImpl implements SeckillActivityMapper {
     public int updateById(SeckillActivity activity) {
         SeckillActivity exist = selectById(activity.getId());
         if (exist == null) return 0;
-        return insert(activity);
+        try {
+            // 回填标记只由backfillLegacySold写入，更新时沿用原值，旧活动不能因编辑被误标为已回填
+            activity.setLegacySold(exist.getLegacySold());
+            Put put = MAPPER.toPut(Bytes.toBytes(rk(activity.getId())), activity, System.currentTimeMillis(), hBaseUtil);
+            hBaseUtil.putBatch(TABLE_NAME, List.of(put));
+            return 1;
+        } catch (Exception e) {
+            log.error("更新活动失败", e);
+            return 0;
+        }
+    }
+
+    @Override
+    public boolean backfillLegacySold(SeckillActivity activity, int legacySold) {
+        try {
+            long now = System.currentTimeMillis();
+            Put put = new Put(Bytes.toBytes(rk(activity.getId())));
+            MAPPER.addColumn(put, "seckillStock", activity.getSeckillStock() + legacySold, now, hBaseUtil);
+            MAPPER.addColumn(put, "legacySold", legacySold, now, hBaseUtil);
+            // 以回填标记不存在为条件，多节点同时启动时只有一个节点生效
+            CheckAndMutate checkAndMutate = CheckAndMutate.newBuilder(put.getRow())
+                    .ifNotExists(Bytes.toBytes(CF_BASE), Bytes.toBytes(COL_LEGACY_SOLD))
+                    .build(put);
+            if (!hBaseUtil.checkAndMutate(TABLE_NAME, List.of(checkAndMutate)).get(0).isSuccess()) {
+                return false;
+            }
+            if (legacySold > 0 && incrementSoldCount(activity.getId(), legacySold) == null) {
+                // 对账按max(已售计数, 已支付订单数量)计算，计数列偏小不会多放库存
+                log.warn("旧活动回填已售计数失败，活动ID: {}, 数量: {}", activity.getId(), legacySold);
+            }
+            return true;
+        } catch (Exception e) {
+            log.error("回填旧活动已售数量失败，活动ID: {}", activity.getId(), e);
+            return false;
+        }
+    }
+
+    @Override
+    public Long incrementSoldCount(Long id, long delta) {
+        try {
+            return hBaseUtil.incrementColumn(TABLE_NAME, rk(id), CF_BASE, COL_SOLD_COUNT, delta);
+        } catch (Exception e) {
+            log.error("累加活动已售数量失败，活动ID: {}, 数量: {}", id, delta, e);
+            return null;
+        }
+    }
+
+    @Override
+    public CompletableFuture<Long> incrementSoldCountAsync(Long id, long delta) {
+        return hBaseUtil.incrementColumnAsync(TABLE_NAME, rk(id), CF_BASE, COL_SOLD_COUNT, delta)
+                .exceptionally(e -> {
+                    log.error("累加活动已售数量失败，活动ID: {}, 数量: {}", id, delta, e);
+                    return null;
+                });
     }
 
     @Override
     public int deleteById(Long id) {
         try {
             Put put = new Put(Bytes.toBytes(rk(id)));
-            putInt(COL_DELETED, 1, put);
+            MAPPER.addColumn(put, "deleted", 1, System.currentTimeMillis(), hBaseUtil);
             hBaseUtil.putBatch(TABLE_NAME, List.of(put));
             return 1;
         } catch (Exception e) {
@@ -113,12 +163,62 @@ public class SeckillActivityMapperImpl implements SeckillActivityMapper {
         }
     }
 
+    @Override
+    public CompletableFuture<SeckillActivity> selectByIdAsync(Long id) {
+        return hBaseUtil.getAsync(TABLE_NAME, rk(id))
+                .thenApply(result -> result == null || result.isEmpty() ? null : convert(result, id))
+                .exceptionally(e -> {
+                    log.error("异步查询活动失败, 活动ID: {}", id, e);
+                    return null;
+                });
+    }
+
+    @Override
+    public List<SeckillActivity> selectBatchIds(Collection<Long> ids) {
+        List<SeckillActivity> list = new ArrayList<>();
+        if (ids == null || ids.isEmpty()) return list;
+        List<String> rowKeys = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            rowKeys.add(rk(id));
+        }
+        try {
+            for (Result r : hBaseUtil.getBatch(TABLE_NAME, rowKeys)) {
+                if (r == null || r.isEmpty()) continue;
+                SeckillActivity a = convert(r, Long.parseLong(Bytes.toString(r.getRow())));
+                if (a != null) list.add(a);
+            }
+        } catch (Exception e) {
+            log.error("批量查询活动失败, 数量: {}", ids.size(), e);
+        }
+        return list;
+    }
+
     @Override
     public IPage<SeckillActivity> selectActivityPage(Page<SeckillActivity> page, Integer status) {
         List<SeckillActivity> all = scan(status, false);
         return page(all, page);
     }
 
+    @Override
+    public CursorPageResult<SeckillActivity> selectActivityPageByCursor(String cursor, int pageSize, Integer status) {
+        Scan scan = HBaseFilterBuilder.of(MAPPER)
+                .ne("deleted", 1)
+                .eq("status", status)
+                .limit(pageSize + 1)
+                .applyTo(new Scan());
+        try {
+            return HBaseCursor.scan(hBaseUtil, TABLE_NAME, scan, "activity:" + status, cursor, pageSize, r -> {
+                SeckillActivity a = convert(r, Long.parseLong(Bytes.toString(r.getRow())));
+                if (a == null || (a.getDeleted() != null && a.getDeleted() == 1)) return null;
+                if (status != null && !status.equals(a.getStatus())) return null;
+                return a;
+            });
+        } catch (IOException e) {
+            log.error("游标分页查询活动失败", e);
+            return new CursorPageResult<>(new ArrayList<>(), null, pageSize);
+        }
+    }
+
     @Override
     public List<SeckillActivity> selectActiveActivities() {
         return scan(null, true);
@@ -132,7 +232,14 @@ public class SeckillActivityMapperImpl implements SeckillActivityMapper {
     private List<SeckillActivity> scan(Integer status, boolean onlyActive) {
         List<SeckillActivity> list = new ArrayList<>();
         LocalDateTime now = LocalDateTime.now();
-        try (ResultScanner scanner = hBaseUtil.scan(TABLE_NAME, new Scan())) {
+        // 逻辑删除和状态条件在RegionServer上过滤；结束时间新旧编码的字节序不一致，仍在客户端判断
+        HBaseFilterBuilder<SeckillActivity> filter = HBaseFilterBuilder.of(MAPPER)
+                .ne("deleted", 1)
+                .eq("status", status);
+        if (onlyActive) {
+            filter.in("status", 0, 1);
+        }
+        try (ResultScanner scanner = hBaseUtil.scan(TABLE_NAME, filter.applyTo(new Scan()))) {
             for (Result r : scanner) {
                 Long id = Long.parseLong(Bytes.toString(r.getRow()));
                 SeckillActivity a = convert(r, id);
@@ -169,72 +276,12 @@ public class SeckillActivityMapperImpl implements SeckillActivityMapper {
 
     private SeckillActivity convert(Result r, Long id) {
         try {
-            SeckillActivity a = new SeckillActivity();
+            SeckillActivity a = MAPPER.fromResult(r);
             a.setId(id);
-            a.setActivityName(getStr(r, COL_NAME));
-            a.setProductId(getLong(r, COL_PRODUCT_ID));
-            a.setSeckillPrice(getDec(r, COL_SECKILL_PRICE));
-            a.setSeckillStock(getInt(r, COL_SECKILL_STOCK));
-            a.setStartTime(getTime(r, COL_START_TIME));
-            a.setEndTime(getTime(r, COL_END_TIME));
-            a.setStatus(getInt(r, COL_STATUS));
-            a.setCreateTime(getTime(r, COL_CREATE_TIME));
-            a.setUpdateTime(getTime(r, COL_UPDATE_TIME));
-            a.setDeleted(getInt(r, COL_DELETED));
             return a;
         } catch (Exception e) {
             log.error("转换活动失败", e);
             return null;
         }
     }
-
-    private void putStr(String col, Object val, Put put) {
-        if (val == null) return;
-        put.addColumn(Bytes.toBytes(CF_BASE), Bytes.toBytes(col), System.currentTimeMillis(), Bytes.toBytes(String.valueOf(val)));
-    }
-
-    private void putLong(String col, Long val, Put put) {
-        if (val == null) return;
-        put.addColumn(Bytes.toBytes(CF_BASE), Bytes.toBytes(col), System.currentTimeMillis(), Bytes.toBytes(String.valueOf(val)));
-    }
-
-    private void putInt(String col, Integer val, Put put) {
-        if (val == null) return;
-        put.addColumn(Bytes.toBytes(CF_BASE), Bytes.toBytes(col), System.currentTimeMillis(), Bytes.toBytes(String.valueOf(val)));
-    }
-
-    private void putDec(String col, BigDecimal val, Put put) {
-        if (val == null) return;
-        put.addColumn(Bytes.toBytes(CF_BASE), Bytes.toBytes(col), System.currentTimeMillis(), Bytes.toBytes(val.toPlainString()));
-    }
-
-    private void putTime(String col, LocalDateTime time, Put put) {
-        if (time == null) return;
-        put.addColumn(Bytes.toBytes(CF_BASE), Bytes.toBytes(col), System.currentTimeMillis(), Bytes.toBytes(time.format(FMT)));
-    }
-
-    private String getStr(Result r, String col) {
-        return hBaseUtil.getValueFromResult(r, CF_BASE, col);
-    }
-
-    private Integer getInt(Result r, String col) {
-        String v = getStr(r, col);
-        return v == null ? null : Integer.parseInt(v);
-    }
-
-    private Long getLong(Result r, String col) {
-        String v = getStr(r, col);
-        return v == null ? null : Long.parseLong(v);
-    }
-
-    private BigDecimal getDec(Result r, String col) {
-        String v = getStr(r, col);
-        return v == null ? null : new BigDecimal(v);
-    }
-
-    private LocalDateTime getTime(Result r, String col) {
-        String v = getStr(r, col);
-        return v == null ? null : LocalDateTime.parse(v, FMT);
-    }
 }
-
@@ -2,29 +2,44 @@ package com.seckill.mapper.impl;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.seckill.common.CursorPageResult;
 import com.seckill.entity.SeckillOrder;
 import com.seckill.mapper.SeckillOrderMapper;
+import com.seckill.util.HBaseCursor;
+import com.seckill.util.HBaseEntityMapper;
+import com.seckill.util.HBaseFilterBuilder;
 import com.seckill.util.HBaseIdGenerator;
 import com.seckill.util.HBaseUtil;
+import com.seckill.util.OrderRowKey;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.hadoop.hbase.client.Get;
 import org.apache.hadoop.hbase.client.Put;
 import org.apache.hadoop.hbase.client.Result;
 import org.apache.hadoop.hbase.client.ResultScanner;
 import org.apache.hadoop.hbase.client.Scan;
 import org.apache.hadoop.hbase.util.Bytes;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Repository;
 
-import java.math.BigDecimal;
+import java.io.IOException;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * SeckillOrderMapper 的 HBase 实现
- * 表：order_history
+ * 表：order_history，行键见OrderRowKey（盐值 + 用户ID + 反转时间戳 + 订单ID）
+ * 表：order_index，订单ID -> order_history行键的指针，按订单ID查询时先查指针再查订单
  */
 @Slf4j
 @Repository
@@ -32,41 +47,13 @@ import java.util.List;
 public class SeckillOrderMapperImpl implements SeckillOrderMapper {
 
     private static final String TABLE_NAME = "order_history";
-    private static final String CF_BASE = "cf_base";
-    private static final String CF_ADDRESS = "cf_address";
-    private static final String CF_ITEMS = "cf_items";
-    private static final String CF_LOGISTICS = "cf_logistics";
-
-    private static final String COL_USER_ID = "user_id";
-    private static final String COL_TOTAL_AMOUNT = "total_amount";
-    private static final String COL_DISCOUNT_AMOUNT = "discount_amount";
-    private static final String COL_ACTUAL_AMOUNT = "actual_amount";
-    private static final String COL_STATUS = "status";
-    private static final String COL_PAY_METHOD = "pay_method";
-    private static final String COL_CREATE_TIME = "create_time";
-    private static final String COL_PAY_TIME = "pay_time";
-    private static final String COL_DELIVER_TIME = "deliver_time";
-    private static final String COL_COMPLETE_TIME = "complete_time";
-
-    private static final String COL_ORDER_NO = "order_no";
-    private static final String COL_ACTIVITY_ID = "activity_id";
-    private static final String COL_PRODUCT_ID = "product_id";
-    private static final String COL_PRODUCT_NAME = "product_name";
-    private static final String COL_SECKILL_PRICE = "seckill_price";
-    private static final String COL_QUANTITY = "quantity";
-
-    private static final String COL_RECEIVER = "receiver";
-    private static final String COL_PHONE = "phone";
-    private static final String COL_ADDRESS = "address";
-    private static final String COL_POSTCODE = "postcode";
-
-    private static final String COL_ORDER_ITEMS = "order_items";
-    private static final String COL_EXPRESS_COMPANY = "express_company";
-    private static final String COL_EXPRESS_NO = "express_no";
-    private static final String COL_LOGISTICS_INFO = "logistics_info";
-
-    private static final String COL_DELETED = "deleted";
-    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final String INDEX_TABLE_NAME = "order_index";
+    private static final byte[] INDEX_CF = Bytes.toBytes("cf_base");
+    private static final byte[] INDEX_COL_ROW_KEY = Bytes.toBytes("row_key");
+    private static final HBaseEntityMapper<SeckillOrder> MAPPER = HBaseEntityMapper.of(SeckillOrder.class);
+    private static final HBaseEntityMapper.Column ACTIVITY_ID = MAPPER.column("activityId");
+    /** 游标指向该位置时从旧行键范围开始读：'/'排在旧行键首字符'0'之前，且不会是新行键 */
+    private static final byte[] LEGACY_CURSOR_START = Bytes.toBytes("/");
 
     @Autowired
     private HBaseUtil hBaseUtil;
@@ -74,55 +61,19 @@ public class SeckillOrderMapperImpl implements SeckillOrderMapper {
     @Autowired
     private HBaseIdGenerator idGenerator;
 
-    private String rowKey(Long id) {
-        return String.valueOf(id);
-    }
+    /**
+     * 行键迁移完成前保持开启：指针不存在时按旧行键（订单ID字符串）读取，按用户查询时同时扫描旧行键范围
+     */
+    @Value("${seckill.order-rowkey.legacy-fallback:true}")
+    private boolean legacyFallback;
 
     @Override
     public int insert(SeckillOrder order) {
         try {
-            if (order.getId() == null) {
-                order.setId(idGenerator.generateId(TABLE_NAME));
-            }
-            String rk = rowKey(order.getId());
-            Put put = new Put(Bytes.toBytes(rk));
-
-            // base
-            putStr(CF_BASE, COL_USER_ID, order.getUserId(), put);
-            putStr(CF_BASE, COL_ORDER_NO, order.getOrderNo(), put);
-            putStr(CF_BASE, COL_ACTIVITY_ID, order.getActivityId(), put);
-            putStr(CF_BASE, COL_PRODUCT_ID, order.getProductId(), put);
-            putStr(CF_BASE, COL_PRODUCT_NAME, order.getProductName(), put);
-            putDec(CF_BASE, COL_SECKILL_PRICE, order.getSeckillPrice(), put);
-            putInt(CF_BASE, COL_QUANTITY, order.getQuantity(), put);
-            putDec(CF_BASE, COL_TOTAL_AMOUNT, order.getTotalAmount(), put);
-            putDec(CF_BASE, COL_DISCOUNT_AMOUNT, order.getDiscountAmount(), put);
-            putDec(CF_BASE, COL_ACTUAL_AMOUNT, order.getActualAmount(), put);
-            putInt(CF_BASE, COL_STATUS, order.getStatus(), put);
-            putStr(CF_BASE, COL_PAY_METHOD, order.getPayMethod(), put);
-            putTime(CF_BASE, COL_CREATE_TIME, order.getCreateTime(), put);
-            putTime(CF_BASE, COL_PAY_TIME, order.getPayTime(), put);
-            putTime(CF_BASE, COL_DELIVER_TIME, order.getDeliverTime(), put);
-            putTime(CF_BASE, COL_COMPLETE_TIME, order.getCompleteTime(), put);
-
-            // address
-            putStr(CF_ADDRESS, COL_RECEIVER, order.getReceiver(), put);
-            putStr(CF_ADDRESS, COL_PHONE, order.getPhone(), put);
-            putStr(CF_ADDRESS, COL_ADDRESS, order.getAddress(), put);
-            putStr(CF_ADDRESS, COL_POSTCODE, order.getPostcode(), put);
-
-            // items
-            putStr(CF_ITEMS, COL_ORDER_ITEMS, order.getOrderItems(), put);
-
-            // logistics
-            putStr(CF_LOGISTICS, COL_EXPRESS_COMPANY, order.getExpressCompany(), put);
-            putStr(CF_LOGISTICS, COL_EXPRESS_NO, order.getExpressNo(), put);
-            putStr(CF_LOGISTICS, COL_LOGISTICS_INFO, order.getLogisticsInfo(), put);
-
-            // deleted
-            putInt(CF_BASE, COL_DELETED, order.getDeleted() == null ? 0 : order.getDeleted(), put);
-
+            Put put = buildPut(order);
             hBaseUtil.putBatch(TABLE_NAME, List.of(put));
+            // 先写订单再写指针：能查到指针时订单一定已经存在
+            hBaseUtil.putBatch(INDEX_TABLE_NAME, List.of(buildIndexPut(order.getId(), put.getRow())));
             return 1;
         } catch (Exception e) {
             log.error("插入订单失败", e);
@@ -130,26 +81,162 @@ public class SeckillOrderMapperImpl implements SeckillOrderMapper {
         }
     }
 
+    @Override
+    public int insertBatch(List<SeckillOrder> orders) {
+        if (orders == null || orders.isEmpty()) {
+            return 0;
+        }
+        try {
+            List<Put> puts = new ArrayList<>(orders.size());
+            for (SeckillOrder order : orders) {
+                puts.add(buildPut(order));
+            }
+            hBaseUtil.putBatch(TABLE_NAME, puts);
+            hBaseUtil.putBatch(INDEX_TABLE_NAME, buildIndexPuts(orders, puts));
+            return orders.size();
+        } catch (Exception e) {
+            log.error("批量插入订单失败, 数量: {}", orders.size(), e);
+            return 0;
+        }
+    }
+
+    @Override
+    public CompletableFuture<Integer> insertBatchAsync(List<SeckillOrder> orders) {
+        if (orders == null || orders.isEmpty()) {
+            return CompletableFuture.completedFuture(0);
+        }
+        List<Put> puts = new ArrayList<>(orders.size());
+        try {
+            for (SeckillOrder order : orders) {
+                puts.add(buildPut(order));
+            }
+        } catch (Exception e) {
+            log.error("批量构建订单写入失败, 数量: {}", orders.size(), e);
+            return CompletableFuture.failedFuture(e);
+        }
+        // 两张表的写缓冲各自刷写，订单写入完成后再写指针
+        return hBaseUtil.putBuffered(TABLE_NAME, puts)
+                .thenCompose(v -> hBaseUtil.putBuffered(INDEX_TABLE_NAME, buildIndexPuts(orders, puts)))
+                .thenApply(v -> orders.size());
+    }
+
+    /**
+     * 行键由用户ID、下单时间和订单ID决定，同一个订单对象重复写入（失败重试）落在同一行
+     */
+    private Put buildPut(SeckillOrder order) {
+        if (order.getId() == null) {
+            order.setId(idGenerator.generateId(TABLE_NAME));
+        }
+        if (order.getCreateTime() == null) {
+            order.setCreateTime(LocalDateTime.now());
+        }
+        long userId = order.getUserId() == null ? 0L : order.getUserId();
+        long now = System.currentTimeMillis();
+        Put put = MAPPER.toPut(OrderRowKey.build(userId, order.getCreateTime(), order.getId()), order, now, hBaseUtil);
+        if (order.getDeleted() == null) {
+            MAPPER.addColumn(put, "deleted", 0, now, hBaseUtil);
+        }
+        return put;
+    }
+
+    private Put buildIndexPut(Long orderId, byte[] rowKey) {
+        Put put = new Put(OrderRowKey.legacy(orderId));
+        put.addColumn(INDEX_CF, INDEX_COL_ROW_KEY, rowKey);
+        return put;
+    }
+
+    private List<Put> buildIndexPuts(List<SeckillOrder> orders, List<Put> puts) {
+        List<Put> indexPuts = new ArrayList<>(orders.size());
+        for (int i = 0; i < orders.size(); i++) {
+            indexPuts.add(buildIndexPut(orders.get(i).getId(), puts.get(i).getRow()));
+        }
+        return indexPuts;
+    }
+
+    /**
+     * 按订单ID查出订单所在的行键：有指针用指针，没有指针且开启旧格式兼容时用旧行键
+     * @return 订单ID -> 行键，无法定位的订单不在结果中
+     */
+    private Map<Long, byte[]> resolveRowKeys(Collection<Long> ids) throws IOException {
+        List<Long> idList = new ArrayList<>(new LinkedHashSet<>(ids));
+        List<Get> gets = new ArrayList<>(idList.size());
+        for (Long id : idList) {
+            gets.add(new Get(OrderRowKey.legacy(id)).addColumn(INDEX_CF, INDEX_COL_ROW_KEY));
+        }
+        Result[] pointers = hBaseUtil.get(INDEX_TABLE_NAME, gets);
+        Map<Long, byte[]> rowKeys = new LinkedHashMap<>();
+        for (int i = 0; i < idList.size(); i++) {
+            byte[] rowKey = pointers[i].getValue(INDEX_CF, INDEX_COL_ROW_KEY);
+            if (rowKey != null) {
+                rowKeys.put(idList.get(i), rowKey);
+            } else if (legacyFallback) {
+                rowKeys.put(idList.get(i), OrderRowKey.legacy(idList.get(i)));
+            }
+        }
+        return rowKeys;
+    }
+
+    private byte[] resolveRowKey(Long id) throws IOException {
+        return resolveRowKeys(List.of(id)).get(id);
+    }
+
     @Override
     public int updateById(SeckillOrder order) {
         try {
-            SeckillOrder exist = selectById(order.getId());
-            if (exist == null) {
+            // 写回订单当前所在的行（迁移前的旧行键由迁移工具搬到新行键）
+            byte[] rowKey = locateRow(order.getId(), order.getUserId(), order.getCreateTime());
+            if (rowKey == null) {
                 return 0;
             }
-            // 用put覆盖
-            return insert(order);
+            long now = System.currentTimeMillis();
+            Put put = MAPPER.toPut(rowKey, order, now, hBaseUtil);
+            if (order.getDeleted() == null) {
+                MAPPER.addColumn(put, "deleted", 0, now, hBaseUtil);
+            }
+            hBaseUtil.putBatch(TABLE_NAME, List.of(put));
+            return 1;
         } catch (Exception e) {
             log.error("更新订单失败", e);
             return 0;
         }
     }
 
+    /**
+     * 定位订单当前所在且存在的行，找不到时返回null，不能向不存在的行写入（会留下只有部分列的残行）
+     * 依次尝试：指针（或旧行键）-> 重新读取的指针（旧行刚被迁移删除）-> 按用户ID和下单时间计算的新行键
+     * （批量异步落库时订单行和指针分两次刷写，指针写入前订单已在新行键上）
+     */
+    private byte[] locateRow(Long id, Long userId, LocalDateTime createTime) throws IOException {
+        byte[] rowKey = resolveRowKey(id);
+        if (rowKey != null && rowExists(rowKey)) {
+            return rowKey;
+        }
+        byte[] moved = resolveRowKey(id);
+        if (moved != null && !Arrays.equals(moved, rowKey) && rowExists(moved)) {
+            return moved;
+        }
+        if (userId != null && createTime != null) {
+            byte[] computed = OrderRowKey.build(userId, createTime, id);
+            if (rowExists(computed)) {
+                return computed;
+            }
+        }
+        return null;
+    }
+
+    private boolean rowExists(byte[] rowKey) throws IOException {
+        return !hBaseUtil.get(TABLE_NAME, new Get(rowKey)).isEmpty();
+    }
+
     @Override
     public int deleteById(Long id) {
         try {
-            Put put = new Put(Bytes.toBytes(rowKey(id)));
-            putInt(CF_BASE, COL_DELETED, 1, put);
+            byte[] rowKey = locateRow(id, null, null);
+            if (rowKey == null) {
+                return 0;
+            }
+            Put put = new Put(rowKey);
+            MAPPER.addColumn(put, "deleted", 1, System.currentTimeMillis(), hBaseUtil);
             hBaseUtil.putBatch(TABLE_NAME, List.of(put));
             return 1;
         } catch (Exception e) {
@@ -161,7 +248,11 @@ public class SeckillOrderMapperImpl implements SeckillOrderMapper {
     @Override
     public SeckillOrder selectById(Long id) {
         try {
-            Result result = hBaseUtil.get(TABLE_NAME, rowKey(id));
+            byte[] rowKey = resolveRowKey(id);
+            if (rowKey == null) {
+                return null;
+            }
+            Result result = hBaseUtil.get(TABLE_NAME, new Get(rowKey));
             if (result == null || result.isEmpty()) {
                 return null;
             }
@@ -172,40 +263,216 @@ public class SeckillOrderMapperImpl implements SeckillOrderMapper {
         }
     }
 
+    @Override
+    public List<SeckillOrder> selectBatchIds(Collection<Long> ids) {
+        return selectBatchIds(ids, null);
+    }
+
+    @Override
+    public List<SeckillOrder> selectBatchIds(Collection<Long> ids, Collection<String> fields) {
+        List<SeckillOrder> list = new ArrayList<>();
+        if (ids == null || ids.isEmpty()) {
+            return list;
+        }
+        try {
+            // 一次multi-get查指针，再一次multi-get查订单
+            Map<Long, byte[]> rowKeys = resolveRowKeys(ids);
+            List<Get> gets = new ArrayList<>(rowKeys.size());
+            for (byte[] rowKey : rowKeys.values()) {
+                gets.add(MAPPER.project(new Get(rowKey), fields));
+            }
+            Result[] results = hBaseUtil.get(TABLE_NAME, gets);
+            for (Result r : results) {
+                if (r == null || r.isEmpty()) continue;
+                SeckillOrder order = convert(r, OrderRowKey.orderId(r.getRow()));
+                if (order != null) {
+                    list.add(order);
+                }
+            }
+        } catch (Exception e) {
+            log.error("批量查询订单失败, 数量: {}", ids.size(), e);
+            throw new RuntimeException("批量查询订单失败", e);
+        }
+        return list;
+    }
+
+    @Override
+    public Set<Long> selectActivityIdsModifiedBetween(long startMillis, long endMillis) {
+        Set<Long> activityIds = new HashSet<>();
+        Scan scan = new Scan();
+        scan.addColumn(ACTIVITY_ID.family(), ACTIVITY_ID.qualifier());
+        scan.setCaching(1000);
+        try {
+            // 时间范围之外的HFile会被直接跳过，不需要读取整张表
+            scan.setTimeRange(startMillis, endMillis);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("时间范围不合法", e);
+        }
+        try (ResultScanner scanner = hBaseUtil.scan(TABLE_NAME, scan)) {
+            for (Result r : scanner) {
+                Long activityId = (Long) MAPPER.getValue(r, "activityId");
+                if (activityId != null) {
+                    activityIds.add(activityId);
+                }
+            }
+        } catch (Exception e) {
+            log.error("增量扫描订单失败, 时间范围: [{}, {})", startMillis, endMillis, e);
+            throw new RuntimeException("增量扫描订单失败", e);
+        }
+        return activityIds;
+    }
+
     @Override
     public IPage<SeckillOrder> selectOrderPage(Page<SeckillOrder> page, Integer status) {
-        List<SeckillOrder> all = scanOrders(status, null);
+        return selectOrderPage(page, status, null);
+    }
+
+    @Override
+    public IPage<SeckillOrder> selectOrderPage(Page<SeckillOrder> page, Integer status, Collection<String> fields) {
+        List<SeckillOrder> all = scanOrders(new Scan(), status, null, fields);
         return buildPage(page, all);
     }
 
+    @Override
+    public CursorPageResult<SeckillOrder> selectOrderPageByCursor(String cursor, int pageSize, Integer status,
+                                                                  Collection<String> fields) {
+        return scanOrdersByCursor(new Scan(), "order:" + status, cursor, pageSize, status, null, fields);
+    }
+
     @Override
     public List<SeckillOrder> selectListByUser(Long userId, Integer status) {
-        return scanOrders(status, userId);
+        return selectListByUser(userId, status, null);
     }
 
-    private List<SeckillOrder> scanOrders(Integer status, Long userId) {
-        List<SeckillOrder> list = new ArrayList<>();
-        try (ResultScanner scanner = hBaseUtil.scan(TABLE_NAME, new Scan())) {
+    /**
+     * 新行键按用户前缀扫描，只读该用户的订单；旧行键没有用户前缀，迁移完成前仍需带用户条件扫描旧行键范围
+     */
+    @Override
+    public List<SeckillOrder> selectListByUser(Long userId, Integer status, Collection<String> fields) {
+        if (userId == null) {
+            return scanOrders(new Scan(), status, null, fields);
+        }
+        Scan scan = new Scan().setStartStopRowForPrefixScan(OrderRowKey.userPrefix(userId));
+        List<SeckillOrder> list = scanOrders(scan, status, null, fields);
+        if (legacyFallback) {
+            Scan legacyScan = new Scan().withStartRow(OrderRowKey.LEGACY_START).withStopRow(OrderRowKey.LEGACY_STOP);
+            List<SeckillOrder> legacy = scanOrders(legacyScan, status, userId, fields);
+            if (!legacy.isEmpty()) {
+                Set<Long> ids = new HashSet<>();
+                list.forEach(order -> ids.add(order.getId()));
+                // 迁移过程中同一订单可能同时存在新旧两行，以新行为准
+                legacy.removeIf(order -> ids.contains(order.getId()));
+                list.addAll(legacy);
+                sortByCreateTimeDesc(list);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * 先按用户前缀读新行键（反转时间戳，新订单在前），读完后再带用户条件读旧行键范围；
+     * 游标指向旧行键时直接从旧行键范围继续
+     */
+    @Override
+    public CursorPageResult<SeckillOrder> selectListByUserByCursor(Long userId, String cursor, int pageSize,
+                                                                   Integer status, Collection<String> fields) {
+        if (userId == null) {
+            return selectOrderPageByCursor(cursor, pageSize, status, fields);
+        }
+        String scope = "order:user:" + userId + ":" + status;
+        byte[] after = HBaseCursor.decode(scope, cursor);
+        if (after != null && OrderRowKey.isLegacy(after)) {
+            return scanLegacyByCursor(userId, scope, cursor, pageSize, status, fields);
+        }
+        Scan scan = new Scan().setStartStopRowForPrefixScan(OrderRowKey.userPrefix(userId));
+        CursorPageResult<SeckillOrder> page = scanOrdersByCursor(scan, scope, cursor, pageSize, status, null, fields);
+        if (page.getNextCursor() != null || !legacyFallback) {
+            return page;
+        }
+        // 新行键已读完，本页剩余的条数从旧行键范围补齐；剩余0条时只探测旧行键是否还有订单
+        int remaining = pageSize - page.getRecords().size();
+        CursorPageResult<SeckillOrder> legacy = scanLegacyByCursor(userId, scope,
+                HBaseCursor.encode(scope, LEGACY_CURSOR_START), remaining, status, fields);
+        page.getRecords().addAll(legacy.getRecords());
+        page.setNextCursor(legacy.getNextCursor());
+        return page;
+    }
+
+    private CursorPageResult<SeckillOrder> scanLegacyByCursor(Long userId, String scope, String cursor, int pageSize,
+                                                              Integer status, Collection<String> fields) {
+        if (!legacyFallback) {
+            return new CursorPageResult<>(new ArrayList<>(), null, pageSize);
+        }
+        Scan scan = new Scan().withStartRow(OrderRowKey.LEGACY_START).withStopRow(OrderRowKey.LEGACY_STOP);
+        return scanOrdersByCursor(scan, scope, cursor, pageSize, status, userId, fields);
+    }
+
+    /**
+     * 游标分页扫描订单，按行键顺序返回，不做排序
+     */
+    private CursorPageResult<SeckillOrder> scanOrdersByCursor(Scan scan, String scope, String cursor, int pageSize,
+                                                              Integer status, Long userId,
+                                                              Collection<String> fields) {
+        MAPPER.project(scan, fields, "deleted", "status", "userId");
+        HBaseFilterBuilder.of(MAPPER)
+                .ne("deleted", 1)
+                .eq("status", status)
+                .eq("userId", userId)
+                .limit(pageSize + 1)
+                .applyTo(scan);
+        try {
+            return HBaseCursor.scan(hBaseUtil, TABLE_NAME, scan, scope, cursor, pageSize, r -> {
+                SeckillOrder order = convert(r, OrderRowKey.orderId(r.getRow()));
+                if (order == null) return null;
+                if (order.getDeleted() != null && order.getDeleted() == 1) return null;
+                if (status != null && !status.equals(order.getStatus())) return null;
+                if (userId != null && !userId.equals(order.getUserId())) return null;
+                return order;
+            });
+        } catch (IOException e) {
+            log.error("游标分页扫描订单失败", e);
+            return new CursorPageResult<>(new ArrayList<>(), null, pageSize);
+        }
+    }
+
+    private List<SeckillOrder> scanOrders(Scan scan, Integer status, Long userId, Collection<String> fields) {
+        // 列投影：逻辑删除、状态/用户过滤和排序用到的列总是读取
+        MAPPER.project(scan, fields, "deleted", "status", "userId", "createTime");
+        // 逻辑删除、状态和用户条件在RegionServer上过滤
+        HBaseFilterBuilder.of(MAPPER)
+                .ne("deleted", 1)
+                .eq("status", status)
+                .eq("userId", userId)
+                .applyTo(scan);
+        Map<Long, SeckillOrder> orders = new LinkedHashMap<>();
+        try (ResultScanner scanner = hBaseUtil.scan(TABLE_NAME, scan)) {
             for (Result r : scanner) {
-                Long id = Long.parseLong(Bytes.toString(r.getRow()));
+                boolean legacy = OrderRowKey.isLegacy(r.getRow());
+                Long id = OrderRowKey.orderId(r.getRow());
+                // 迁移过程中同一订单可能同时存在新旧两行，以新行为准
+                if (legacy && orders.containsKey(id)) continue;
                 SeckillOrder order = convert(r, id);
                 if (order == null) continue;
                 if (order.getDeleted() != null && order.getDeleted() == 1) continue;
                 if (status != null && !status.equals(order.getStatus())) continue;
                 if (userId != null && !userId.equals(order.getUserId())) continue;
-                list.add(order);
+                orders.put(id, order);
             }
         } catch (Exception e) {
             log.error("扫描订单失败", e);
         }
-        // sort createTime desc
+        List<SeckillOrder> list = new ArrayList<>(orders.values());
+        sortByCreateTimeDesc(list);
+        return list;
+    }
+
+    private void sortByCreateTimeDesc(List<SeckillOrder> list) {
         list.sort((a, b) -> {
             if (a.getCreateTime() == null && b.getCreateTime() == null) return 0;
             if (a.getCreateTime() == null) return 1;
             if (b.getCreateTime() == null) return -1;
             return b.getCreateTime().compareTo(a.getCreateTime());
         });
-        return list;
     }
 
     private Page<SeckillOrder> buildPage(Page<SeckillOrder> page, List<SeckillOrder> all) {
@@ -220,86 +487,12 @@ public class SeckillOrderMapperImpl implements SeckillOrderMapper {
 
     private SeckillOrder convert(Result r, Long id) {
         try {
-            SeckillOrder o = new SeckillOrder();
+            SeckillOrder o = MAPPER.fromResult(r);
             o.setId(id);
-            o.setUserId(getLong(r, CF_BASE, COL_USER_ID));
-            o.setOrderNo(getStr(r, CF_BASE, COL_ORDER_NO));
-            o.setActivityId(getLong(r, CF_BASE, COL_ACTIVITY_ID));
-            o.setProductId(getLong(r, CF_BASE, COL_PRODUCT_ID));
-            o.setProductName(getStr(r, CF_BASE, COL_PRODUCT_NAME));
-            o.setSeckillPrice(getDec(r, CF_BASE, COL_SECKILL_PRICE));
-            o.setQuantity(getInt(r, CF_BASE, COL_QUANTITY));
-            o.setTotalAmount(getDec(r, CF_BASE, COL_TOTAL_AMOUNT));
-            o.setDiscountAmount(getDec(r, CF_BASE, COL_DISCOUNT_AMOUNT));
-            o.setActualAmount(getDec(r, CF_BASE, COL_ACTUAL_AMOUNT));
-            o.setStatus(getInt(r, CF_BASE, COL_STATUS));
-            o.setPayMethod(getStr(r, CF_BASE, COL_PAY_METHOD));
-            o.setCreateTime(getTime(r, CF_BASE, COL_CREATE_TIME));
-            o.setPayTime(getTime(r, CF_BASE, COL_PAY_TIME));
-            o.setDeliverTime(getTime(r, CF_BASE, COL_DELIVER_TIME));
-            o.setCompleteTime(getTime(r, CF_BASE, COL_COMPLETE_TIME));
-
-            o.setReceiver(getStr(r, CF_ADDRESS, COL_RECEIVER));
-            o.setPhone(getStr(r, CF_ADDRESS, COL_PHONE));
-            o.setAddress(getStr(r, CF_ADDRESS, COL_ADDRESS));
-            o.setPostcode(getStr(r, CF_ADDRESS, COL_POSTCODE));
-
-            o.setOrderItems(getStr(r, CF_ITEMS, COL_ORDER_ITEMS));
-
-            o.setExpressCompany(getStr(r, CF_LOGISTICS, COL_EXPRESS_COMPANY));
-            o.setExpressNo(getStr(r, CF_LOGISTICS, COL_EXPRESS_NO));
-            o.setLogisticsInfo(getStr(r, CF_LOGISTICS, COL_LOGISTICS_INFO));
-
-            o.setDeleted(getInt(r, CF_BASE, COL_DELETED));
             return o;
         } catch (Exception e) {
             log.error("转换订单失败", e);
             return null;
         }
     }
-
-    private void putStr(String cf, String col, Object val, Put put) {
-        if (val == null) return;
-        put.addColumn(Bytes.toBytes(cf), Bytes.toBytes(col), System.currentTimeMillis(), Bytes.toBytes(String.valueOf(val)));
-    }
-
-    private void putInt(String cf, String col, Integer val, Put put) {
-        if (val == null) return;
-        put.addColumn(Bytes.toBytes(cf), Bytes.toBytes(col), System.currentTimeMillis(), Bytes.toBytes(String.valueOf(val)));
-    }
-
-    private void putDec(String cf, String col, BigDecimal val, Put put) {
-        if (val == null) return;
-        put.addColumn(Bytes.toBytes(cf), Bytes.toBytes(col), System.currentTimeMillis(), Bytes.toBytes(val.toPlainString()));
-    }
-
-    private void putTime(String cf, String col, LocalDateTime time, Put put) {
-        if (time == null) return;
-        put.addColumn(Bytes.toBytes(cf), Bytes.toBytes(col), System.currentTimeMillis(), Bytes.toBytes(time.format(DATE_TIME_FORMATTER)));
-    }
-
-    private String getStr(Result r, String cf, String col) {
-        return hBaseUtil.getValueFromResult(r, cf, col);
-    }
-
-    private Integer getInt(Result r, String cf, String col) {
-        String v = getStr(r, cf, col);
-        return v == null ? null : Integer.parseInt(v);
-    }
-
-    private Long getLong(Result r, String cf, String col) {
-        String v = getStr(r, cf, col);
-        return v == null ? null : Long.parseLong(v);
-    }
-
-    private BigDecimal getDec(Result r, String cf, String col) {
-        String v = getStr(r, cf, col);
-        return v == null ? null : new BigDecimal(v);
-    }
-
-    private LocalDateTime getTime(Result r, String cf, String col) {
-        String v = getStr(r, cf, col);
-        return v == null ? null : LocalDateTime.parse(v, DATE_TIME_FORMATTER);
-    }
 }
-
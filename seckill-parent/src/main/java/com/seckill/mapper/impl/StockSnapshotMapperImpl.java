@@ -0,0 +1,129 @@
+package com.seckill.mapper.impl;
+
+import com.seckill.entity.StockSnapshot;
+import com.seckill.mapper.StockSnapshotMapper;
+import com.seckill.util.HBaseUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * StockSnapshotMapper 的 HBase 实现
+ * 表：stock_snapshot
+ * RowKey: activityId，列族 cf_snap；检查点单独存放在 RowKey 为 _checkpoint 的行
+ */
+@Slf4j
+@Repository
+public class StockSnapshotMapperImpl implements StockSnapshotMapper {
+
+    private static final String TABLE_NAME = "stock_snapshot";
+    private static final String CF_SNAP = "cf_snap";
+    private static final String COL_REDIS_STOCK = "redis_stock";
+    private static final String COL_EXPECTED_STOCK = "expected_stock";
+    private static final String COL_UNPAID_QUANTITY = "unpaid_quantity";
+    private static final String COL_PAID_QUANTITY = "paid_quantity";
+    private static final String COL_SOLD_COUNT = "sold_count";
+    private static final String COL_DIVERGENCE = "divergence";
+    private static final String COL_REPAIRED = "repaired";
+    private static final String COL_SNAPSHOT_TIME = "snapshot_time";
+
+    private static final String CHECKPOINT_ROW = "_checkpoint";
+    private static final String COL_CHECKPOINT = "order_scan_time";
+
+    @Autowired
+    private HBaseUtil hBaseUtil;
+
+    @Override
+    public int insert(StockSnapshot snapshot) {
+        try {
+            Put put = new Put(Bytes.toBytes(String.valueOf(snapshot.getActivityId())));
+            putInt(COL_REDIS_STOCK, snapshot.getRedisStock(), put);
+            putInt(COL_EXPECTED_STOCK, snapshot.getExpectedStock(), put);
+            putInt(COL_UNPAID_QUANTITY, snapshot.getUnpaidQuantity(), put);
+            putInt(COL_PAID_QUANTITY, snapshot.getPaidQuantity(), put);
+            putInt(COL_SOLD_COUNT, snapshot.getSoldCount(), put);
+            putInt(COL_DIVERGENCE, snapshot.getDivergence(), put);
+            putStr(COL_REPAIRED, snapshot.getRepaired(), put);
+            if (snapshot.getSnapshotTime() != null) {
+                put.addColumn(Bytes.toBytes(CF_SNAP), Bytes.toBytes(COL_SNAPSHOT_TIME), System.currentTimeMillis(),
+                        hBaseUtil.encodeTime(snapshot.getSnapshotTime()));
+            }
+            hBaseUtil.putBatch(TABLE_NAME, List.of(put));
+            return 1;
+        } catch (Exception e) {
+            log.error("写入库存快照失败, activityId={}", snapshot.getActivityId(), e);
+            return 0;
+        }
+    }
+
+    @Override
+    public StockSnapshot selectById(Long activityId) {
+        try {
+            Result r = hBaseUtil.get(TABLE_NAME, String.valueOf(activityId));
+            if (r == null || r.isEmpty()) {
+                return null;
+            }
+            StockSnapshot snapshot = new StockSnapshot();
+            snapshot.setActivityId(activityId);
+            snapshot.setRedisStock(getInt(r, COL_REDIS_STOCK));
+            snapshot.setExpectedStock(getInt(r, COL_EXPECTED_STOCK));
+            snapshot.setUnpaidQuantity(getInt(r, COL_UNPAID_QUANTITY));
+            snapshot.setPaidQuantity(getInt(r, COL_PAID_QUANTITY));
+            snapshot.setSoldCount(getInt(r, COL_SOLD_COUNT));
+            snapshot.setDivergence(getInt(r, COL_DIVERGENCE));
+            String repaired = getStr(r, COL_REPAIRED);
+            snapshot.setRepaired(repaired == null ? null : Boolean.valueOf(repaired));
+            snapshot.setSnapshotTime(hBaseUtil.getTimeFromResult(r, CF_SNAP, COL_SNAPSHOT_TIME));
+            return snapshot;
+        } catch (Exception e) {
+            log.error("查询库存快照失败, activityId={}", activityId, e);
+            return null;
+        }
+    }
+
+    @Override
+    public Long selectCheckpoint() {
+        try {
+            String value = hBaseUtil.getValue(TABLE_NAME, CHECKPOINT_ROW, CF_SNAP, COL_CHECKPOINT);
+            return value == null ? null : Long.parseLong(value);
+        } catch (Exception e) {
+            log.error("读取对账检查点失败", e);
+            throw new RuntimeException("读取对账检查点失败", e);
+        }
+    }
+
+    @Override
+    public int updateCheckpoint(long timestampMillis) {
+        try {
+            hBaseUtil.put(TABLE_NAME, CHECKPOINT_ROW, CF_SNAP, COL_CHECKPOINT, String.valueOf(timestampMillis));
+            return 1;
+        } catch (Exception e) {
+            log.error("写入对账检查点失败", e);
+            return 0;
+        }
+    }
+
+    private void putStr(String col, Object val, Put put) {
+        if (val == null) return;
+        put.addColumn(Bytes.toBytes(CF_SNAP), Bytes.toBytes(col), System.currentTimeMillis(),
+                Bytes.toBytes(String.valueOf(val)));
+    }
+
+    private void putInt(String col, Integer val, Put put) {
+        if (val == null) return;
+        put.addColumn(Bytes.toBytes(CF_SNAP), Bytes.toBytes(col), System.currentTimeMillis(), hBaseUtil.encodeInt(val));
+    }
+
+    private String getStr(Result r, String col) {
+        return hBaseUtil.getValueFromResult(r, CF_SNAP, col);
+    }
+
+    private Integer getInt(Result r, String col) {
+        return hBaseUtil.getIntFromResult(r, CF_SNAP, col);
+    }
+}
@@ -1,9 +1,14 @@
 package com.seckill.mapper.impl;
 
+import com.seckill.common.CursorPageResult;
 import com.seckill.entity.User;
 import com.seckill.mapper.UserMapper;
+import com.seckill.util.HBaseCursor;
+import com.seckill.util.HBaseEntityMapper;
+import com.seckill.util.HBaseFilterBuilder;
 import com.seckill.util.HBaseUtil;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.hadoop.hbase.HConstants;
 import org.apache.hadoop.hbase.client.Put;
 import org.apache.hadoop.hbase.client.Result;
 import org.apache.hadoop.hbase.client.ResultScanner;
@@ -18,9 +23,8 @@ import org.springframework.util.StringUtils;
 
 import java.io.IOException;
 import java.math.BigDecimal;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 
@@ -31,28 +35,8 @@ public class UserMapperImpl implements UserMapper {
     // --- 表名与列族常量 ---
     private static final String TABLE_NAME = "user_profile";
 
-    // 列族
-    private static final String CF_BASE = "cf_base";
-    private static final String CF_ACCOUNT = "cf_account";
-
-    // cf_base 列
-    private static final String COL_USERNAME = "username";
-    private static final String COL_PASSWORD = "password";
-    private static final String COL_NICKNAME = "nickname";
-    private static final String COL_PHONE = "phone";
-    private static final String COL_STATUS = "status";
-    private static final String COL_DELETED = "deleted";
-    private static final String COL_CREATE_TIME = "create_time";
-
-    // cf_account 列
-    private static final String COL_ROLE = "role";
-    private static final String COL_LEVEL = "level";
-    private static final String COL_POINTS = "points";
-    private static final String COL_BALANCE = "balance";
-    private static final String COL_LOGIN_COUNT = "login_count";
-    private static final String COL_LAST_LOGIN = "last_login";
-
-    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final HBaseEntityMapper<User> MAPPER = HBaseEntityMapper.of(User.class);
+    private static final HBaseEntityMapper.Column USERNAME = MAPPER.column("username");
 
     @Autowired
     private HBaseUtil hBaseUtil;
@@ -72,26 +56,13 @@ public class UserMapperImpl implements UserMapper {
         }
 
         try {
-            // 构建 Put 对象
-            Put put = new Put(Bytes.toBytes(rowKey(user.getId())));
-
-            // 1. 填充基础信息 (cf_base)
-            putStr(put, CF_BASE, COL_USERNAME, user.getUsername());
-            putStr(put, CF_BASE, COL_PASSWORD, user.getPassword());
-            putStr(put, CF_BASE, COL_NICKNAME, user.getNickname());
-            putStr(put, CF_BASE, COL_PHONE, user.getPhone());
-            putInt(put, CF_BASE, COL_STATUS, user.getStatus());
+            // 构建 Put 对象：cf_base、cf_account按User字段上的@HBaseColumn填充，时间戳由RegionServer赋值
+            long ts = HConstants.LATEST_TIMESTAMP;
+            Put put = MAPPER.toPut(Bytes.toBytes(rowKey(user.getId())), user, ts, hBaseUtil);
             // 默认为0
-            putInt(put, CF_BASE, COL_DELETED, user.getDeleted() != null ? user.getDeleted() : 0);
-            putTime(put, CF_BASE, COL_CREATE_TIME, user.getCreateTime());
-
-            // 2. 填充账户信息 (cf_account)
-            putInt(put, CF_ACCOUNT, COL_ROLE, user.getRole());
-            putInt(put, CF_ACCOUNT, COL_LEVEL, user.getLevel());
-            putLong(put, CF_ACCOUNT, COL_POINTS, user.getPoints());
-            putBg(put, CF_ACCOUNT, COL_BALANCE, user.getBalance());
-            putLong(put, CF_ACCOUNT, COL_LOGIN_COUNT, user.getLoginCount());
-            putTime(put, CF_ACCOUNT, COL_LAST_LOGIN, user.getLastLogin());
+            if (user.getDeleted() == null) {
+                MAPPER.addColumn(put, "deleted", 0, ts, hBaseUtil);
+            }
 
             // 调用 HBaseUtil 的 putBatch
             hBaseUtil.putBatch(TABLE_NAME, Collections.singletonList(put));
@@ -113,8 +84,7 @@ public class UserMapperImpl implements UserMapper {
             }
 
             // 检查逻辑删除
-            Integer deleted = getInt(result, CF_BASE, COL_DELETED);
-            if (deleted != null && deleted == 1) {
+            if (isDeleted(result)) {
                 return null;
             }
             return convertToUser(result, id);
@@ -124,6 +94,26 @@ public class UserMapperImpl implements UserMapper {
         }
     }
 
+    @Override
+    public List<User> selectBatchIds(Collection<Long> ids) {
+        List<User> list = new ArrayList<>();
+        if (ids == null || ids.isEmpty()) return list;
+        List<String> rowKeys = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            rowKeys.add(rowKey(id));
+        }
+        try {
+            for (Result result : hBaseUtil.getBatch(TABLE_NAME, rowKeys)) {
+                if (result == null || result.isEmpty()) continue;
+                if (isDeleted(result)) continue;
+                list.add(convertToUser(result, Long.parseLong(Bytes.toString(result.getRow()))));
+            }
+        } catch (IOException e) {
+            log.error("批量查询用户失败, 数量: {}", ids.size(), e);
+        }
+        return list;
+    }
+
     @Override
     public User selectByUsername(String username) {
         if (!StringUtils.hasText(username)) return null;
@@ -131,8 +121,8 @@ public class UserMapperImpl implements UserMapper {
         // 构造 Filter 扫描器
         Scan scan = new Scan();
         SingleColumnValueFilter filter = new SingleColumnValueFilter(
-                Bytes.toBytes(CF_BASE),
-                Bytes.toBytes(COL_USERNAME),
+                USERNAME.family(),
+                USERNAME.qualifier(),
                 CompareFilter.CompareOp.EQUAL,
                 new SubstringComparator(username)
         );
@@ -143,8 +133,7 @@ public class UserMapperImpl implements UserMapper {
         try (ResultScanner scanner = hBaseUtil.scan(TABLE_NAME, scan)) {
             for (Result result : scanner) {
                 // 检查逻辑删除
-                Integer deleted = getInt(result, CF_BASE, COL_DELETED);
-                if (deleted == null || deleted == 0) {
+                if (!isDeleted(result)) {
                     Long userId = Long.parseLong(Bytes.toString(result.getRow()));
                     return convertToUser(result, userId);
                 }
@@ -157,20 +146,24 @@ public class UserMapperImpl implements UserMapper {
 
     @Override
     public List<User> selectUserList(String username, int limit, int offset) {
+        return selectUserList(username, limit, offset, null);
+    }
+
+    @Override
+    public List<User> selectUserList(String username, int limit, int offset, Collection<String> fields) {
         List<User> userList = new ArrayList<>();
         Scan scan = new Scan();
-
-        // 如果有用户名筛选
-        if (StringUtils.hasText(username)) {
-            SingleColumnValueFilter filter = new SingleColumnValueFilter(
-                    Bytes.toBytes(CF_BASE),
-                    Bytes.toBytes(COL_USERNAME),
-                    CompareFilter.CompareOp.EQUAL,
-                    new SubstringComparator(username)
-            );
-            filter.setFilterIfMissing(true);
-            scan.setFilter(filter);
+        // 列投影：用户名过滤和逻辑删除用到的列总是读取
+        MAPPER.project(scan, fields, "username", "deleted");
+
+        // 用户名筛选和逻辑删除在RegionServer上过滤，每个Region最多返回offset + limit行
+        HBaseFilterBuilder<User> filter = HBaseFilterBuilder.of(MAPPER)
+                .contains("username", username)
+                .ne("deleted", 1);
+        if ((long) offset + limit < Integer.MAX_VALUE) {
+            filter.limit((long) offset + limit);
         }
+        filter.applyTo(scan);
 
         // 使用 HBaseUtil 的 scan 方法
         try (ResultScanner scanner = hBaseUtil.scan(TABLE_NAME, scan)) {
@@ -179,8 +172,7 @@ public class UserMapperImpl implements UserMapper {
 
             for (Result result : scanner) {
                 // 1. 过滤逻辑删除
-                Integer deleted = getInt(result, CF_BASE, COL_DELETED);
-                if (deleted != null && deleted == 1) continue;
+                if (isDeleted(result)) continue;
 
                 // 2. 模拟分页 (Skip)
                 if (currentIdx < offset) {
@@ -202,22 +194,37 @@ public class UserMapperImpl implements UserMapper {
         return userList;
     }
 
+    @Override
+    public CursorPageResult<User> selectUserPageByCursor(String cursor, int pageSize, String username,
+                                                         Collection<String> fields) {
+        Scan scan = new Scan();
+        MAPPER.project(scan, fields, "username", "deleted");
+        HBaseFilterBuilder.of(MAPPER)
+                .contains("username", username)
+                .ne("deleted", 1)
+                .limit(pageSize + 1)
+                .applyTo(scan);
+        String scope = "user:" + (username == null ? "" : username);
+        try {
+            return HBaseCursor.scan(hBaseUtil, TABLE_NAME, scan, scope, cursor, pageSize, result -> {
+                if (isDeleted(result)) return null;
+                return convertToUser(result, Long.parseLong(Bytes.toString(result.getRow())));
+            });
+        } catch (IOException e) {
+            log.error("游标分页扫描用户失败", e);
+            return new CursorPageResult<>(new ArrayList<>(), null, pageSize);
+        }
+    }
+
     @Override
     public long countUser(String username) {
         long total = 0;
         Scan scan = new Scan();
-
-        if (StringUtils.hasText(username)) {
-            SingleColumnValueFilter filter = new SingleColumnValueFilter(
-                    Bytes.toBytes(CF_BASE),
-                    Bytes.toBytes(COL_USERNAME),
-                    CompareFilter.CompareOp.EQUAL,
-                    new SubstringComparator(username)
-            );
-            // 如果该行没有username列，跳过
-            filter.setFilterIfMissing(true);
-            scan.setFilter(filter);
-        }
+        // 与selectUserList相同的条件：用户名包含username且未删除
+        HBaseFilterBuilder.of(MAPPER)
+                .contains("username", username)
+                .ne("deleted", 1)
+                .applyTo(scan);
         try (ResultScanner scanner = hBaseUtil.scan(TABLE_NAME, scan)) {
             for (Result r : scanner) {
                 // 只要能扫到结果，就计数
@@ -235,7 +242,7 @@ public class UserMapperImpl implements UserMapper {
         try {
             // 逻辑删除
             Put put = new Put(Bytes.toBytes(rowKey(id)));
-            putInt(put, CF_BASE, COL_DELETED, 1);
+            MAPPER.addColumn(put, "deleted", 1, HConstants.LATEST_TIMESTAMP, hBaseUtil);
 
             hBaseUtil.putBatch(TABLE_NAME, Collections.singletonList(put));
             return 1;
@@ -247,95 +254,27 @@ public class UserMapperImpl implements UserMapper {
 
     // --- 实体转换 ---
 
-    private User convertToUser(Result r, Long userId) {
-        User user = new User();
-        user.setId(userId);
-        // --- 基础信息 (保持不变) ---
-        user.setUsername(getStr(r, CF_BASE, COL_USERNAME));
-        user.setPassword(getStr(r, CF_BASE, COL_PASSWORD));
-        user.setNickname(getStr(r, CF_BASE, COL_NICKNAME));
-        user.setPhone(getStr(r, CF_BASE, COL_PHONE));
-        user.setStatus(getInt(r, CF_BASE, COL_STATUS));
-        user.setDeleted(getInt(r, CF_BASE, COL_DELETED));
-        user.setCreateTime(getTime(r, CF_BASE, COL_CREATE_TIME));
-        // --- 账户信息 (关键修改部分) ---
-
-        // 1. 分别读取 HBase 中的 role 和 level 列
-        Integer hbaseRole = getInt(r, CF_ACCOUNT, COL_ROLE);
-        Integer hbaseLevel = getInt(r, CF_ACCOUNT, COL_LEVEL);
-        // 2. 【兼容逻辑】：如果 role 列是空的，说明是迁移过来的老数据，
-        if (hbaseRole == null && hbaseLevel != null) {
-            hbaseRole = hbaseLevel;
-        }
-        // 3. 【兜底逻辑】：如果还是 null，默认给 0 (普通用户)，防止 Service 层空指针报错
-        if (hbaseRole == null) {
-            hbaseRole = 0;
-        }
-        user.setRole(hbaseRole);
-        user.setLevel(hbaseLevel); // level 字段照常赋值
-
-        user.setPoints(getLong(r, CF_ACCOUNT, COL_POINTS));
-        user.setBalance(getBg(r, CF_ACCOUNT, COL_BALANCE));
-        user.setLoginCount(getLong(r, CF_ACCOUNT, COL_LOGIN_COUNT));
-        user.setLastLogin(getTime(r, CF_ACCOUNT, COL_LAST_LOGIN));
-        return user;
-    }
-
-    // --- 写入 Helper (操作 Put 对象) ---
-
-    private void putStr(Put put, String cf, String col, String val) {
-        if (val != null) {
-            put.addColumn(Bytes.toBytes(cf), Bytes.toBytes(col), Bytes.toBytes(val));
-        }
-    }
-
-    private void putInt(Put put, String cf, String col, Integer val) {
-        if (val != null) {
-            put.addColumn(Bytes.toBytes(cf), Bytes.toBytes(col), Bytes.toBytes(String.valueOf(val)));
-        }
+    private boolean isDeleted(Result r) {
+        Integer deleted = (Integer) MAPPER.getValue(r, "deleted");
+        return deleted != null && deleted == 1;
     }
 
-    private void putLong(Put put, String cf, String col, Long val) {
-        if (val != null) {
-            put.addColumn(Bytes.toBytes(cf), Bytes.toBytes(col), Bytes.toBytes(String.valueOf(val)));
-        }
-    }
-
-    private void putBg(Put put, String cf, String col, BigDecimal val) {
-        if (val != null) {
-            put.addColumn(Bytes.toBytes(cf), Bytes.toBytes(col), Bytes.toBytes(val.toString()));
-        }
-    }
+    private User convertToUser(Result r, Long userId) {
+        User user = MAPPER.fromResult(r);
+        user.setId(userId);
+        // --- 账户信息 ---
 
-    private void putTime(Put put, String cf, String col, LocalDateTime time) {
-        if (time != null) {
-            put.addColumn(Bytes.toBytes(cf), Bytes.toBytes(col), Bytes.toBytes(time.format(DATE_TIME_FORMATTER)));
+        // 【兼容逻辑】：如果 role 列是空的，说明是迁移过来的老数据，按 level 取值
+        Integer hbaseRole = user.getRole();
+        if (hbaseRole == null && user.getLevel() != null) {
+            hbaseRole = user.getLevel();
         }
-    }
-
-    // --- 读取 Helper (使用 HBaseUtil 解析 Result) ---
+        // 【兜底逻辑】：如果还是 null，默认给 0 (普通用户)，防止 Service 层空指针报错
+        user.setRole(hbaseRole != null ? hbaseRole : 0);
 
-    private String getStr(Result r, String cf, String col) {
-        return hBaseUtil.getValueFromResult(r, cf, col);
-    }
-
-    private Integer getInt(Result r, String cf, String col) {
-        String v = getStr(r, cf, col);
-        return StringUtils.hasText(v) ? Integer.parseInt(v) : null;
-    }
-
-    private Long getLong(Result r, String cf, String col) {
-        String v = getStr(r, cf, col);
-        return StringUtils.hasText(v) ? Long.parseLong(v) : 0L;
-    }
-
-    private BigDecimal getBg(Result r, String cf, String col) {
-        String v = getStr(r, cf, col);
-        return StringUtils.hasText(v) ? new BigDecimal(v) : BigDecimal.ZERO;
-    }
-
-    private LocalDateTime getTime(Result r, String cf, String col) {
-        String v = getStr(r, cf, col);
-        return StringUtils.hasText(v) ? LocalDateTime.parse(v, DATE_TIME_FORMATTER) : null;
+        if (user.getPoints() == null) user.setPoints(0L);
+        if (user.getBalance() == null) user.setBalance(BigDecimal.ZERO);
+        if (user.getLoginCount() == null) user.setLoginCount(0L);
+        return user;
     }
 }
@@ -0,0 +1,87 @@
+package com.seckill.migration;
+
+import com.seckill.util.HBaseCodec;
+import com.seckill.util.OrderRowKey;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.hbase.HBaseConfiguration;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.*;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 活动参与用户索引回填程序：
+ * 扫描 order_history，为未取消、未删除的订单写入 activity_participant 索引。
+ *
+ * 说明：
+ *  - 上线参与索引前产生的历史订单需要执行一次，运行 main 方法即可。
+ *  - 写入是幂等的（同一活动同一用户覆盖同一列），可以重复执行。
+ */
+public class ActivityParticipantIndexMigration {
+
+    // === HBase 配置（与项目 HBaseConfig 保持一致） ===
+    private static final String ZK_QUORUM = "192.168.124.100";
+    private static final String ZK_PORT = "2181";
+
+    private static final byte[] CF_BASE = Bytes.toBytes("cf_base");
+    private static final byte[] COL_USER_ID = Bytes.toBytes("user_id");
+    private static final byte[] COL_ACTIVITY_ID = Bytes.toBytes("activity_id");
+    private static final byte[] COL_STATUS = Bytes.toBytes("status");
+    private static final byte[] COL_DELETED = Bytes.toBytes("deleted");
+    private static final byte[] CF_USER = Bytes.toBytes("cf_user");
+
+    private static final String CANCELLED = "2";
+    private static final int BATCH_SIZE = 500;
+
+    public static void main(String[] args) throws Exception {
+        Configuration conf = HBaseConfiguration.create();
+        conf.set("hbase.zookeeper.quorum", ZK_QUORUM);
+        conf.set("hbase.zookeeper.property.clientPort", ZK_PORT);
+
+        try (Connection conn = ConnectionFactory.createConnection(conf);
+             Table orderTable = conn.getTable(TableName.valueOf("order_history"));
+             Table indexTable = conn.getTable(TableName.valueOf("activity_participant"))) {
+
+            Scan scan = new Scan();
+            scan.addColumn(CF_BASE, COL_USER_ID);
+            scan.addColumn(CF_BASE, COL_ACTIVITY_ID);
+            scan.addColumn(CF_BASE, COL_STATUS);
+            scan.addColumn(CF_BASE, COL_DELETED);
+            scan.setCaching(1000);
+
+            List<Put> puts = new ArrayList<>();
+            int total = 0;
+            try (ResultScanner scanner = orderTable.getScanner(scan)) {
+                for (Result r : scanner) {
+                    String userId = value(r, COL_USER_ID);
+                    String activityId = value(r, COL_ACTIVITY_ID);
+                    if (userId == null || activityId == null) continue;
+                    if (CANCELLED.equals(value(r, COL_STATUS)) || "1".equals(value(r, COL_DELETED))) continue;
+
+                    Put put = new Put(Bytes.toBytes(activityId));
+                    // 索引值是订单ID（行键已改为OrderRowKey格式，不能直接写行键）
+                    put.addColumn(CF_USER, Bytes.toBytes(userId),
+                            Bytes.toBytes(String.valueOf(OrderRowKey.orderId(r.getRow()))));
+                    puts.add(put);
+                    if (puts.size() >= BATCH_SIZE) {
+                        indexTable.put(puts);
+                        total += puts.size();
+                        puts.clear();
+                    }
+                }
+            }
+            if (!puts.isEmpty()) {
+                indexTable.put(puts);
+                total += puts.size();
+            }
+            System.out.println("活动参与索引回填完成，共写入 " + total + " 条。");
+        }
+    }
+
+    private static String value(Result r, byte[] column) {
+        byte[] v = r.getValue(CF_BASE, column);
+        return v == null ? null : HBaseCodec.decodeToString(v);
+    }
+}
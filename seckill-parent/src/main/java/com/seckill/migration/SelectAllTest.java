@@ -1,5 +1,6 @@
 package com.seckill.migration;
 
+import com.seckill.util.HBaseCodec;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hbase.HBaseConfiguration;
 import org.apache.hadoop.hbase.TableName;
@@ -105,6 +106,6 @@ public class SelectAllTest {
     // --- 工具方法 ---
     private static String getValue(Result result, String family, String qualifier) {
         byte[] valBytes = result.getValue(Bytes.toBytes(family), Bytes.toBytes(qualifier));
-        return valBytes == null ? "null" : Bytes.toString(valBytes);
+        return valBytes == null ? "null" : HBaseCodec.decodeToString(valBytes);
     }
 }
@@ -0,0 +1,28 @@
+package com.seckill.service;
+
+import com.seckill.vo.HBaseCodecMigrationReportVO;
+
+/**
+ * HBase单元格编码在线迁移服务
+ * 把数值、金额、时间列的旧字符串单元格重写为二进制格式，业务读写不停机
+ */
+public interface HBaseCodecMigrationService {
+
+    /**
+     * 迁移所有表的类型列，已是二进制格式的单元格跳过，可重复执行
+     * 多节点部署时同一时刻只有一个节点执行
+     * @return 本次迁移结果，其他节点正在执行时返回null
+     */
+    HBaseCodecMigrationReportVO migrate();
+
+    /**
+     * 在后台线程中执行迁移
+     * @return 是否已启动（未开启二进制写入或本节点已有迁移在执行时返回false）
+     */
+    boolean migrateAsync();
+
+    /**
+     * 查询最近一次迁移结果（执行中时为当前进度）
+     */
+    HBaseCodecMigrationReportVO getLastReport();
+}
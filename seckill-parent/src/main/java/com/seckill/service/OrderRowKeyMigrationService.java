@@ -0,0 +1,29 @@
+package com.seckill.service;
+
+import com.seckill.vo.OrderRowKeyMigrationReportVO;
+
+/**
+ * order_history行键在线迁移服务
+ * 把订单ID字符串行键的旧订单搬到OrderRowKey格式（盐值 + 用户ID + 反转时间戳 + 订单ID）并写入order_index指针，
+ * 业务读写不停机
+ */
+public interface OrderRowKeyMigrationService {
+
+    /**
+     * 迁移全部旧行键订单，可重复执行
+     * 多节点部署时同一时刻只有一个节点执行
+     * @return 本次迁移结果，其他节点正在执行时返回null
+     */
+    OrderRowKeyMigrationReportVO migrate();
+
+    /**
+     * 在后台线程中执行迁移
+     * @return 是否已启动（本节点已有迁移在执行时返回false）
+     */
+    boolean migrateAsync();
+
+    /**
+     * 查询最近一次迁移结果（执行中时为当前进度）
+     */
+    OrderRowKeyMigrationReportVO getLastReport();
+}
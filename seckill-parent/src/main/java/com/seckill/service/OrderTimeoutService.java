@@ -0,0 +1,24 @@
+package com.seckill.service;
+
+import com.seckill.entity.SeckillOrder;
+
+import java.util.List;
+
+/**
+ * 未支付订单超时取消服务
+ * 超时任务持久化在Redis有序集合中，各节点用本地时间轮触发，到期后取消订单并回补库存
+ */
+public interface OrderTimeoutService {
+
+    /**
+     * 为已落库的未支付订单登记超时取消任务
+     * @param orders 订单列表（非未支付状态的订单会被忽略）
+     */
+    void schedule(List<SeckillOrder> orders);
+
+    /**
+     * 订单已支付或已取消，撤销超时任务
+     * @param orderId 订单ID
+     */
+    void cancel(Long orderId);
+}
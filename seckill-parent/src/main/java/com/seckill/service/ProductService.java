@@ -1,6 +1,7 @@
 package com.seckill.service;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.seckill.common.CursorPageResult;
 import com.seckill.common.PageQuery;
 import com.seckill.dto.ProductDTO;
 import com.seckill.entity.Product;
@@ -8,7 +9,9 @@ import com.seckill.vo.ProductCategoryVO;
 import com.seckill.vo.ProductVO;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface ProductService {
     
@@ -19,8 +22,27 @@ public interface ProductService {
     void deleteProduct(Long id);
     
     ProductVO getProductById(Long id);
+
+    /**
+     * 批量获取商品详情：先批量读Redis缓存，未命中的商品一次multi-get查HBase并回填缓存
+     * @return 商品ID -> 商品详情，不存在的商品不在结果中
+     */
+    Map<Long, ProductVO> getProductsByIds(Collection<Long> ids);
+    
+    /**
+     * 从HBase重新加载商品详情到Redis缓存（秒杀活动开始前预热）
+     * @param id 商品ID
+     * @return 缓存是否就绪
+     */
+    boolean preloadProduct(Long id);
     
     IPage<ProductVO> getProductList(PageQuery pageQuery, String productName);
+
+    /**
+     * 游标分页查询商品，翻到任意一页的耗时与第一页相同
+     * @param cursor 上一页返回的nextCursor，为空时查询第一页
+     */
+    CursorPageResult<ProductVO> getProductListByCursor(String cursor, Integer pageSize, String productName);
     
     List<ProductCategoryVO> getCategoryList();
     
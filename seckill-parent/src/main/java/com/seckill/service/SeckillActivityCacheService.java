@@ -0,0 +1,36 @@
+package com.seckill.service;
+
+import com.seckill.entity.SeckillActivity;
+
+/**
+ * 秒杀活动快照缓存（本地内存 + Redis）
+ * 下单链路读取活动信息时不再直接访问HBase
+ */
+public interface SeckillActivityCacheService {
+
+    /**
+     * 获取活动快照：本地缓存 -> Redis -> HBase
+     * @param activityId 活动ID
+     * @return 活动信息，不存在时返回null
+     */
+    SeckillActivity getActivity(Long activityId);
+
+    /**
+     * 将活动快照写入Redis和本地缓存
+     * @param activity 秒杀活动
+     */
+    void put(SeckillActivity activity);
+
+    /**
+     * 活动快照是否已加载到Redis
+     * @param activityId 活动ID
+     * @return 是否已加载
+     */
+    boolean isCached(Long activityId);
+
+    /**
+     * 活动修改后清除快照
+     * @param activityId 活动ID
+     */
+    void evict(Long activityId);
+}
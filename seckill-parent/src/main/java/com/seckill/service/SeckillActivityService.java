@@ -1,6 +1,7 @@
 package com.seckill.service;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.seckill.common.CursorPageResult;
 import com.seckill.common.PageQuery;
 import com.seckill.common.Result;
 import com.seckill.dto.SeckillActivityDTO;
@@ -20,6 +21,12 @@ public interface SeckillActivityService {
     SeckillActivityVO getActivityById(Long id);
     
     IPage<SeckillActivityVO> getActivityList(PageQuery pageQuery, Integer status);
+
+    /**
+     * 游标分页查询活动（按活动ID顺序）
+     * @param cursor 上一页返回的nextCursor，为空时查询第一页
+     */
+    CursorPageResult<SeckillActivityVO> getActivityListByCursor(String cursor, Integer pageSize, Integer status);
     
     void updateActivityStatusAutomatically();
     
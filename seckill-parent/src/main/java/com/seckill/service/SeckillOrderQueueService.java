@@ -0,0 +1,17 @@
+package com.seckill.service;
+
+import com.seckill.entity.SeckillOrder;
+
+/**
+ * 秒杀订单异步落库队列（Redis Stream）
+ */
+public interface SeckillOrderQueueService {
+
+    /**
+     * 将已预扣库存的订单写入Stream，由消费者组批量写入HBase。
+     * 抛出异常表示订单确定没有入队，调用方回补库存；写入超时等结果未知的情况正常返回，
+     * 订单保持排队中，确认消息没有写入后由队列回补库存并标记下单失败
+     * @param order 订单（已分配ID）
+     */
+    void enqueue(SeckillOrder order);
+}
@@ -1,9 +1,11 @@
 package com.seckill.service;
 
+import com.seckill.common.CursorPageResult;
 import com.seckill.common.PageQuery;
 import com.seckill.common.PageResult;
 import com.seckill.dto.CartItemAddDTO;
 import com.seckill.dto.SeckillOrderDTO;
+import com.seckill.vo.OrderStatusVO;
 import com.seckill.vo.SeckillOrderVO;
 
 import java.util.List;
@@ -15,9 +17,9 @@ import java.util.Map;
 public interface SeckillOrderService {
     
     /**
-     * 秒杀下单（使用分布式锁）
+     * 秒杀下单（Redis Lua原子预扣库存，订单异步落库）
      * @param orderDTO 订单信息
-     * @return 订单ID
+     * @return 订单ID，可通过订单状态接口轮询落库结果
      */
     Long createSeckillOrder(SeckillOrderDTO orderDTO);
     
@@ -27,6 +29,13 @@ public interface SeckillOrderService {
      */
     void cancelOrder(Long orderId);
     
+    /**
+     * 超时自动取消未支付订单并回补库存
+     * @param orderId 订单ID
+     * @return 是否执行了取消（订单已支付或已取消时返回false）
+     */
+    boolean cancelTimeoutOrder(Long orderId);
+    
     /**
      * 支付订单
      * @param orderId 订单ID
@@ -40,6 +49,14 @@ public interface SeckillOrderService {
      */
     SeckillOrderVO getOrderDetail(Long orderId);
     
+    /**
+     * 查询订单处理状态（异步下单后轮询），只能查询自己的订单
+     * @param orderId 订单ID
+     * @param userId 当前用户ID
+     * @return 订单状态
+     */
+    OrderStatusVO getOrderStatus(Long orderId, Long userId);
+    
     /**
      * 查询用户订单列表
      * @param userId 用户ID
@@ -47,6 +64,12 @@ public interface SeckillOrderService {
      * @return 订单列表
      */
     List<SeckillOrderVO> getUserOrders(Long userId, Integer status);
+
+    /**
+     * 游标分页查询用户订单，按下单时间倒序
+     * @param cursor 上一页返回的nextCursor，为空时查询第一页
+     */
+    CursorPageResult<SeckillOrderVO> getUserOrdersByCursor(Long userId, String cursor, Integer pageSize, Integer status);
     
     /**
      * 分页查询订单列表
@@ -56,6 +79,12 @@ public interface SeckillOrderService {
      */
     PageResult<SeckillOrderVO> getOrderList(PageQuery pageQuery, Integer status);
 
+    /**
+     * 游标分页查询订单列表（按行键顺序）
+     * @param cursor 上一页返回的nextCursor，为空时查询第一页
+     */
+    CursorPageResult<SeckillOrderVO> getOrderListByCursor(String cursor, Integer pageSize, Integer status);
+
 //    Map<String, Object> createOrdersFromCart(Long userId, List<CartItemAddDTO> items);
 
 }
\ No newline at end of file
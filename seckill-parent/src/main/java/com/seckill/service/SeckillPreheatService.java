@@ -0,0 +1,30 @@
+package com.seckill.service;
+
+import com.seckill.vo.ActivityReadinessVO;
+
+import java.util.List;
+
+/**
+ * 秒杀活动预热服务
+ * 活动开始前将库存、活动快照、商品详情加载到Redis和本地缓存，开始后下单链路不再访问HBase
+ */
+public interface SeckillPreheatService {
+
+    /**
+     * 预热即将开始（开始时间在提前量之内）和进行中的活动
+     */
+    void preheatUpcomingActivities();
+
+    /**
+     * 预热指定活动并返回就绪情况
+     * @param activityId 活动ID
+     * @return 就绪情况
+     */
+    ActivityReadinessVO preheat(Long activityId);
+
+    /**
+     * 查询各活动最近一次预热的就绪情况
+     * @return 就绪情况列表
+     */
+    List<ActivityReadinessVO> getReadinessList();
+}
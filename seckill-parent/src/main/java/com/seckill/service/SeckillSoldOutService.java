@@ -0,0 +1,28 @@
+package com.seckill.service;
+
+/**
+ * 秒杀售罄标记服务
+ * 每个节点在本地内存维护活动售罄标记，售罄/回补通过Redis发布订阅广播到所有节点，
+ * 售罄后的重复请求在本地直接拒绝，不再访问HBase和Redis
+ */
+public interface SeckillSoldOutService {
+
+    /**
+     * 本地判断活动是否已售罄（不发起任何远程调用）
+     * @param activityId 活动ID
+     * @return 是否已售罄
+     */
+    boolean isSoldOut(Long activityId);
+
+    /**
+     * 标记活动售罄并广播到所有节点
+     * @param activityId 活动ID
+     */
+    void markSoldOut(Long activityId);
+
+    /**
+     * 清除活动售罄标记并广播到所有节点（取消订单等回补库存后调用），没有售罄标记时不广播
+     * @param activityId 活动ID
+     */
+    void clearSoldOut(Long activityId);
+}
@@ -0,0 +1,67 @@
+package com.seckill.service;
+
+import com.seckill.entity.SeckillActivity;
+
+/**
+ * 秒杀库存服务（Redis Lua 原子预扣）
+ */
+public interface SeckillStockService {
+
+    /**
+     * 预扣秒杀库存，同时完成用户参与校验
+     * @param activity 秒杀活动
+     * @param userId 用户ID
+     * @param quantity 购买数量
+     * @return 扣减后的剩余库存
+     */
+    long reserve(SeckillActivity activity, Long userId, int quantity);
+
+    /**
+     * 释放预扣的库存（取消订单或下单失败补偿）
+     * @param activityId 活动ID
+     * @param productId 商品ID
+     * @param userId 用户ID
+     * @param quantity 回补数量（预扣明细缺失时使用）
+     * @return 实际回补的数量
+     */
+    long release(Long activityId, Long productId, Long userId, int quantity);
+
+    /**
+     * 释放预扣的库存，已持有活动信息时使用，免去一次活动查询
+     * @param activity 秒杀活动
+     * @param userId 用户ID
+     * @param quantity 回补数量（预扣明细缺失时使用）
+     * @return 实际回补的数量
+     */
+    long release(SeckillActivity activity, Long userId, int quantity);
+
+    /**
+     * 查询Redis中的实时剩余库存（分桶时为各分桶之和）
+     * @param activity 秒杀活动
+     * @return 剩余库存，库存尚未加载到Redis时返回null
+     */
+    Integer getRemainingStock(SeckillActivity activity);
+
+    /**
+     * 预热活动库存和参与用户集合到Redis（已存在的key不覆盖）
+     * @param activity 秒杀活动
+     * @return 所有库存分桶和参与用户集合是否均已就绪
+     */
+    boolean preload(SeckillActivity activity);
+
+    /**
+     * 按指定剩余库存重建Redis库存（冷启动、Redis故障切换后使用，已存在的key不覆盖）
+     * @param activity 秒杀活动
+     * @param stock 剩余库存，分桶时均分到各分桶
+     * @return 是否有库存key被重建
+     */
+    boolean restoreStock(SeckillActivity activity, int stock);
+
+    /**
+     * 修正Redis中的剩余库存（对账确认偏差后使用）
+     * @param activity 秒杀活动
+     * @param delta 修正量，正数回补，负数扣减（分桶时从各分桶依次扣减，不会扣成负数）
+     * @return 实际修正的数量
+     */
+    long adjustStock(SeckillActivity activity, long delta);
+}
@@ -0,0 +1,37 @@
+package com.seckill.service;
+
+import com.seckill.entity.SeckillActivity;
+import com.seckill.entity.StockSnapshot;
+import com.seckill.vo.StockReconcileReportVO;
+
+/**
+ * 秒杀库存对账服务（Redis库存与HBase订单记录）
+ */
+public interface StockReconcileService {
+
+    /**
+     * 对账进行中和近期结束的活动：写入库存快照，重建缺失的Redis库存，修正稳定的偏差
+     * 多节点部署时同一时刻只有一个节点执行
+     */
+    void reconcile();
+
+    /**
+     * 对账单个活动（只重建缺失的库存，不修正偏差）
+     * @param activityId 活动ID
+     * @return 本次写入的库存快照
+     */
+    StockSnapshot reconcile(Long activityId);
+
+    /**
+     * 根据订单记录计算活动应有的剩余库存
+     * 活动总库存 - 已支付数量 - 未支付订单占用数量
+     * @param activity 秒杀活动
+     * @return 剩余库存，不小于0
+     */
+    int computeExpectedStock(SeckillActivity activity);
+
+    /**
+     * 查询最近一次对账结果
+     */
+    StockReconcileReportVO getLastReport();
+}
@@ -1,6 +1,7 @@
 package com.seckill.service;
 
 
+import com.seckill.common.CursorPageResult;
 import com.seckill.common.PageQuery;
 import com.seckill.dto.UserLoginDTO;
 import com.seckill.dto.UserRegisterDTO;
@@ -19,6 +20,12 @@ public interface UserService {
     UserVO getCurrentUser(String token);
     
     List<UserVO> getUserList(PageQuery pageQuery, String username);
+
+    /**
+     * 游标分页查询用户列表（按用户ID顺序）
+     * @param cursor 上一页返回的nextCursor，为空时查询第一页
+     */
+    CursorPageResult<UserVO> getUserListByCursor(String cursor, Integer pageSize, String username);
     
     void updateUserStatus(Long id, Integer status);
     
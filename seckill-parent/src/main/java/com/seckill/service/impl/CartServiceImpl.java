@@ -12,6 +12,7 @@ import com.seckill.service.ProductService; // 假设你有一个ProductService
 import com.seckill.vo.ProductVO;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import java.math.BigDecimal;
@@ -32,6 +33,10 @@ public class CartServiceImpl implements CartService {
     // 注入ProductService以获取商品详细信息，这是构建购物车视图所必需的
     @Autowired
     private ProductService productService;
+    // 通过代理调用@Async方法，直接this调用不会异步执行
+    @Lazy
+    @Autowired
+    private CartService self;
     @Override
     public void addItemToCart(Long userId, CartItemAddDTO itemDTO) {
         // 检查商品是否存在、库存是否充足等
@@ -46,7 +51,7 @@ public class CartServiceImpl implements CartService {
         cartRedisDAO.addItem(userId, itemDTO.getProductId(), item);
 
         // 2. 触发异步任务，将购物车数据同步到HBase
-        this.syncCartToHBase(userId);
+        self.syncCartToHBase(userId);
     }
     @Override
     public CartViewDTO getCartView(Long userId) {
@@ -64,12 +69,16 @@ public class CartServiceImpl implements CartService {
             return cartView;
         }
 
-        // 2. 遍历购物车，并聚合商品信息以构建视图
+        // 2. 一次批量取出购物车中所有商品的信息，再遍历购物车构建视图
+        List<Long> productIds = new ArrayList<>(redisCart.size());
+        for (String productId : redisCart.keySet()) {
+            productIds.add(Long.valueOf(productId));
+        }
+        Map<Long, ProductVO> products = productService.getProductsByIds(productIds);
         for (Map.Entry<String, CartItemDTO> entry : redisCart.entrySet()) {
             String productId = entry.getKey();
             CartItemDTO cartItem = entry.getValue();
-            // ！！！这里需要调用商品服务获取商品详细信息！！！
-            ProductVO product = productService.getProductById(Long.valueOf(productId));
+            ProductVO product = products.get(Long.valueOf(productId));
             if (product == null) {
                 log.warn("购物车中商品ID {} 不存在，跳过展示", productId);
                 continue; // 如果商品被下架或删除，不在购物车中显示
@@ -108,7 +117,7 @@ public class CartServiceImpl implements CartService {
         // 1. 实时操作Redis
         cartRedisDAO.updateItemQuantity(userId, itemDTO.getProductId(), itemDTO.getQuantity());
         // 2. 触发异步同步
-        this.syncCartToHBase(userId);
+        self.syncCartToHBase(userId);
     }
     @Override
     public void removeItemFromCart(Long userId, String productId) {
@@ -116,7 +125,7 @@ public class CartServiceImpl implements CartService {
         cartRedisDAO.removeItem(userId, productId);
 
         // 2. 触发异步同步
-        this.syncCartToHBase(userId);
+        self.syncCartToHBase(userId);
     }
     @Override
     public void clearCart(Long userId) {
@@ -0,0 +1,312 @@
+package com.seckill.service.impl;
+
+import com.seckill.entity.CartData;
+import com.seckill.entity.Product;
+import com.seckill.entity.SeckillActivity;
+import com.seckill.entity.SeckillOrder;
+import com.seckill.entity.User;
+import com.seckill.service.HBaseCodecMigrationService;
+import com.seckill.util.HBaseCodec;
+import com.seckill.util.HBaseCodec.ColumnType;
+import com.seckill.util.HBaseEntityMapper;
+import com.seckill.util.HBaseUtil;
+import com.seckill.util.RedisCache;
+import com.seckill.util.RedisUtil;
+import com.seckill.vo.HBaseCodecMigrationReportVO;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.CompareOperator;
+import org.apache.hadoop.hbase.client.CheckAndMutate;
+import org.apache.hadoop.hbase.client.CheckAndMutateResult;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.filter.BinaryComparator;
+import org.apache.hadoop.hbase.filter.FilterList;
+import org.apache.hadoop.hbase.filter.SingleColumnValueFilter;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * HBase单元格编码在线迁移实现类
+ * 只扫描各表的数值、金额、时间列，把旧字符串单元格按列类型重写为二进制格式。
+ * 每行一个CheckAndMutate：条件是被重写的单元格仍是扫描时的旧值，Put沿用原单元格时间戳，
+ * 迁移期间业务写入的新值不会被覆盖（条件不成立时跳过该行，下次迁移再处理），
+ * 也不影响按单元格时间戳做增量扫描的对账任务。
+ * 原子计数器列（sold_count、id_generator）固定是8字节long，不在迁移范围内
+ */
+@Slf4j
+@Service
+@Order(4) // 在HBase表初始化之后执行
+public class HBaseCodecMigrationServiceImpl implements HBaseCodecMigrationService, CommandLineRunner {
+
+    private static final String MIGRATION_LOCK_KEY = "seckill:hbase:codec-migration";
+    private static final String REPORT_KEY = "seckill:hbase:codec-migration:report";
+
+    /** 各表需要迁移的列（列族:列 -> 类型），注解映射的实体直接取@HBaseColumn，其余与各Mapper的写入格式保持一致 */
+    private static final Map<String, Map<String, ColumnType>> SCHEMA = new LinkedHashMap<>();
+
+    static {
+        SCHEMA.put("product_info", HBaseEntityMapper.of(Product.class).typedColumns());
+        SCHEMA.put("seckill_activity", HBaseEntityMapper.of(SeckillActivity.class).typedColumns());
+        SCHEMA.put("order_history", HBaseEntityMapper.of(SeckillOrder.class).typedColumns());
+        SCHEMA.put("user_profile", HBaseEntityMapper.of(User.class).typedColumns());
+        SCHEMA.put("cart_data", HBaseEntityMapper.of(CartData.class).typedColumns());
+
+        Map<String, ColumnType> sales = new LinkedHashMap<>();
+        sales.put("cf_daily:product_id", ColumnType.LONG);
+        sales.put("cf_daily:category_id", ColumnType.LONG);
+        sales.put("cf_daily:sale_count", ColumnType.LONG);
+        sales.put("cf_daily:sale_amount", ColumnType.DECIMAL);
+        SCHEMA.put("sales_data", sales);
+
+        Map<String, ColumnType> snapshot = new LinkedHashMap<>();
+        snapshot.put("cf_snap:redis_stock", ColumnType.INT);
+        snapshot.put("cf_snap:expected_stock", ColumnType.INT);
+        snapshot.put("cf_snap:unpaid_quantity", ColumnType.INT);
+        snapshot.put("cf_snap:paid_quantity", ColumnType.INT);
+        snapshot.put("cf_snap:sold_count", ColumnType.INT);
+        snapshot.put("cf_snap:divergence", ColumnType.INT);
+        snapshot.put("cf_snap:snapshot_time", ColumnType.TIME);
+        SCHEMA.put("stock_snapshot", snapshot);
+    }
+
+    @Value("${seckill.hbase-codec.migration.enabled:false}")
+    private boolean enabled;
+
+    @Value("${seckill.hbase-codec.migration.batch-size:200}")
+    private int batchSize;
+
+    @Value("${seckill.hbase-codec.migration.pause-ms:50}")
+    private long pauseMs;
+
+    @Value("${seckill.hbase-codec.migration.lease-seconds:3600}")
+    private long leaseSeconds;
+
+    @Autowired
+    private HBaseUtil hBaseUtil;
+
+    @Autowired
+    private RedisUtil redisUtil;
+
+    @Autowired
+    private RedisCache redisCache;
+
+    /** 本节点是否有迁移在执行 */
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    /**
+     * 开启迁移时启动后在后台执行，不阻塞应用启动
+     */
+    @Override
+    public void run(String... args) {
+        if (enabled) {
+            migrateAsync();
+        }
+    }
+
+    @Override
+    public boolean migrateAsync() {
+        if (running.get() || !hBaseUtil.isCodecWriteBinary()) {
+            return false;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                migrate();
+            } catch (Exception e) {
+                log.error("HBase单元格编码迁移失败", e);
+            }
+        }, "hbase-codec-migration");
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    @Override
+    public HBaseCodecMigrationReportVO migrate() {
+        if (!hBaseUtil.isCodecWriteBinary()) {
+            // 未开启二进制写入说明还有节点可能读不了二进制，不能提前重写已有数据
+            log.warn("未开启seckill.hbase-codec.write-binary，跳过HBase单元格编码迁移");
+            return null;
+        }
+        if (!running.compareAndSet(false, true)) {
+            log.info("本节点正在执行HBase单元格编码迁移，跳过");
+            return null;
+        }
+        try {
+            if (!redisUtil.tryLock(MIGRATION_LOCK_KEY, 0, leaseSeconds, TimeUnit.SECONDS)) {
+                log.info("其他节点正在执行HBase单元格编码迁移，跳过");
+                return null;
+            }
+            try {
+                return doMigrate();
+            } finally {
+                redisUtil.unlock(MIGRATION_LOCK_KEY);
+            }
+        } finally {
+            running.set(false);
+        }
+    }
+
+    @Override
+    public HBaseCodecMigrationReportVO getLastReport() {
+        return redisCache.getCacheObject(REPORT_KEY);
+    }
+
+    private HBaseCodecMigrationReportVO doMigrate() {
+        HBaseCodecMigrationReportVO report = new HBaseCodecMigrationReportVO();
+        report.setStartTime(LocalDateTime.now());
+        report.setScannedRows(0L);
+        report.setRewrittenRows(0L);
+        report.setRewrittenCells(0L);
+        report.setConflictRows(0L);
+        report.setUnparseableCells(0L);
+        report.setSavedBytes(0L);
+        log.info("开始HBase单元格编码迁移，每批: {}, 批间隔: {}ms", batchSize, pauseMs);
+
+        for (Map.Entry<String, Map<String, ColumnType>> entry : SCHEMA.entrySet()) {
+            String tableName = entry.getKey();
+            report.setCurrentTable(tableName);
+            redisCache.setCacheObject(REPORT_KEY, report);
+            try {
+                migrateTable(tableName, entry.getValue(), report);
+            } catch (IOException e) {
+                log.error("HBase单元格编码迁移失败，表: {}", tableName, e);
+                report.setError(tableName + ": " + e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                report.setError("迁移被中断");
+                break;
+            }
+        }
+
+        report.setCurrentTable(null);
+        report.setEndTime(LocalDateTime.now());
+        redisCache.setCacheObject(REPORT_KEY, report);
+        log.info("HBase单元格编码迁移完成，扫描行: {}, 重写行: {}, 重写单元格: {}, 冲突跳过行: {}, 无法解析单元格: {}, 减少字节: {}",
+                report.getScannedRows(), report.getRewrittenRows(), report.getRewrittenCells(),
+                report.getConflictRows(), report.getUnparseableCells(), report.getSavedBytes());
+        return report;
+    }
+
+    private void migrateTable(String tableName, Map<String, ColumnType> columns,
+                              HBaseCodecMigrationReportVO report) throws IOException, InterruptedException {
+        Scan scan = new Scan();
+        for (String column : columns.keySet()) {
+            String[] cfAndCol = column.split(":", 2);
+            scan.addColumn(Bytes.toBytes(cfAndCol[0]), Bytes.toBytes(cfAndCol[1]));
+        }
+        scan.setCaching(batchSize);
+        scan.setCacheBlocks(false); // 全表扫描不占用BlockCache
+
+        long tableRewritten = 0;
+        List<CheckAndMutate> batch = new ArrayList<>(batchSize);
+        List<Integer> batchCells = new ArrayList<>(batchSize);
+        List<Long> batchSaved = new ArrayList<>(batchSize);
+        try (ResultScanner scanner = hBaseUtil.scan(tableName, scan)) {
+            for (Result r : scanner) {
+                report.setScannedRows(report.getScannedRows() + 1);
+                Put put = new Put(r.getRow());
+                FilterList condition = new FilterList(FilterList.Operator.MUST_PASS_ALL);
+                long saved = 0;
+                for (Cell cell : r.rawCells()) {
+                    String key = Bytes.toString(CellUtil.cloneFamily(cell)) + ":"
+                            + Bytes.toString(CellUtil.cloneQualifier(cell));
+                    ColumnType type = columns.get(key);
+                    byte[] oldValue = CellUtil.cloneValue(cell);
+                    byte[] newValue = type == null ? null : type.reencode(oldValue);
+                    if (newValue == null) {
+                        if (type != null && isUnparseable(type, oldValue)) {
+                            report.setUnparseableCells(report.getUnparseableCells() + 1);
+                            log.warn("无法按{}解析的单元格，表: {}, 行: {}, 列: {}", type, tableName,
+                                    Bytes.toString(r.getRow()), key);
+                        }
+                        continue;
+                    }
+                    byte[] family = CellUtil.cloneFamily(cell);
+                    byte[] qualifier = CellUtil.cloneQualifier(cell);
+                    // 沿用原时间戳：不改变单元格的写入时间，增量扫描不会把迁移当作业务写入
+                    put.addColumn(family, qualifier, cell.getTimestamp(), newValue);
+                    SingleColumnValueFilter filter = new SingleColumnValueFilter(family, qualifier,
+                            CompareOperator.EQUAL, new BinaryComparator(oldValue));
+                    filter.setFilterIfMissing(true);
+                    condition.addFilter(filter);
+                    saved += oldValue.length - newValue.length;
+                }
+                if (put.isEmpty()) {
+                    continue;
+                }
+                batch.add(CheckAndMutate.newBuilder(r.getRow()).ifMatches(condition).build(put));
+                batchCells.add(put.size());
+                batchSaved.add(saved);
+                if (batch.size() >= batchSize) {
+                    tableRewritten += flush(tableName, batch, batchCells, batchSaved, report);
+                    redisCache.setCacheObject(REPORT_KEY, report);
+                    if (pauseMs > 0) {
+                        Thread.sleep(pauseMs); // 限速，避免影响线上读写
+                    }
+                }
+            }
+        }
+        tableRewritten += flush(tableName, batch, batchCells, batchSaved, report);
+        log.info("HBase单元格编码迁移完成表: {}, 重写行: {}", tableName, tableRewritten);
+    }
+
+    private long flush(String tableName, List<CheckAndMutate> batch, List<Integer> batchCells,
+                       List<Long> batchSaved, HBaseCodecMigrationReportVO report) throws IOException {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        List<CheckAndMutateResult> results = hBaseUtil.checkAndMutate(tableName, batch);
+        long rewritten = 0;
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i).isSuccess()) {
+                rewritten++;
+                report.setRewrittenCells(report.getRewrittenCells() + batchCells.get(i));
+                report.setSavedBytes(report.getSavedBytes() + batchSaved.get(i));
+            } else {
+                report.setConflictRows(report.getConflictRows() + 1);
+            }
+        }
+        report.setRewrittenRows(report.getRewrittenRows() + rewritten);
+        batch.clear();
+        batchCells.clear();
+        batchSaved.clear();
+        return rewritten;
+    }
+
+    /**
+     * reencode返回null的原因：已是二进制、空值、超出二进制范围的decimal都是正常情况，其余是无法解析的脏数据
+     */
+    private boolean isUnparseable(ColumnType type, byte[] value) {
+        if (value.length == 0 || HBaseCodec.isBinary(value)) {
+            return false;
+        }
+        try {
+            switch (type) {
+                case LONG -> HBaseCodec.decodeLong(value);
+                case INT -> HBaseCodec.decodeInt(value);
+                case DECIMAL -> HBaseCodec.decodeDecimal(value);
+                case TIME -> HBaseCodec.decodeTime(value);
+            }
+            return false;
+        } catch (RuntimeException e) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package com.seckill.service.impl;
+
+import com.seckill.entity.SeckillOrder;
+import com.seckill.service.OrderRowKeyMigrationService;
+import com.seckill.util.HBaseEntityMapper;
+import com.seckill.util.HBaseUtil;
+import com.seckill.util.OrderRowKey;
+import com.seckill.util.RedisCache;
+import com.seckill.util.RedisUtil;
+import com.seckill.vo.OrderRowKeyMigrationReportVO;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellUtil;
+import org.apache.hadoop.hbase.client.Delete;
+import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.filter.FilterList;
+import org.apache.hadoop.hbase.filter.FirstKeyOnlyFilter;
+import org.apache.hadoop.hbase.filter.KeyOnlyFilter;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * order_history行键在线迁移实现类
+ * 扫描旧行键（订单ID字符串）范围，每行：
+ * <ol>
+ *     <li>按用户ID和下单时间算出新行键，单元格沿用原时间戳复制到新行键；
+ *     业务在迁移期间写入的单元格时间戳更新，复制不会覆盖它们</li>
+ *     <li>写入order_index指针，之后按订单ID的读写都落到新行键</li>
+ *     <li>按读取到的最大时间戳删除旧行：只删除已复制的单元格，写指针前业务又写到旧行的单元格会保留，
+ *     下一轮扫描时按已有指针再复制一次</li>
+ * </ol>
+ * 每行在订单锁内搬移（与支付、取消使用同一把锁），加锁后重新读取该行，避免支付、取消写到即将删除的旧行；
+ * 拿不到锁的行留给下一轮。
+ * 重复执行是幂等的；旧行键全部迁移完成后可以关闭seckill.order-rowkey.legacy-fallback
+ */
+@Slf4j
+@Service
+@Order(5) // 在HBase表初始化之后执行
+public class OrderRowKeyMigrationServiceImpl implements OrderRowKeyMigrationService, CommandLineRunner {
+
+    private static final String TABLE_NAME = "order_history";
+    private static final String INDEX_TABLE_NAME = "order_index";
+    private static final byte[] INDEX_CF = Bytes.toBytes("cf_base");
+    private static final byte[] INDEX_COL_ROW_KEY = Bytes.toBytes("row_key");
+    private static final HBaseEntityMapper<SeckillOrder> MAPPER = HBaseEntityMapper.of(SeckillOrder.class);
+
+    private static final String MIGRATION_LOCK_KEY = "seckill:order:rowkey-migration";
+    private static final String REPORT_KEY = "seckill:order:rowkey-migration:report";
+    /** 与SeckillOrderServiceImpl支付、取消订单使用同一把订单锁 */
+    private static final String ORDER_LOCK_PREFIX = "seckill:order:cancel:";
+    private static final long ORDER_LOCK_LEASE_SECONDS = 30;
+
+    @Value("${seckill.order-rowkey.migration.enabled:false}")
+    private boolean enabled;
+
+    @Value("${seckill.order-rowkey.migration.batch-size:200}")
+    private int batchSize;
+
+    @Value("${seckill.order-rowkey.migration.pause-ms:50}")
+    private long pauseMs;
+
+    @Value("${seckill.order-rowkey.migration.max-passes:3}")
+    private int maxPasses;
+
+    @Value("${seckill.order-rowkey.migration.lease-seconds:3600}")
+    private long leaseSeconds;
+
+    @Autowired
+    private HBaseUtil hBaseUtil;
+
+    @Autowired
+    private RedisUtil redisUtil;
+
+    @Autowired
+    private RedisCache redisCache;
+
+    /** 本节点是否有迁移在执行 */
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    /**
+     * 开启迁移时启动后在后台执行，不阻塞应用启动
+     */
+    @Override
+    public void run(String... args) {
+        if (enabled) {
+            migrateAsync();
+        }
+    }
+
+    @Override
+    public boolean migrateAsync() {
+        if (running.get()) {
+            return false;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                migrate();
+            } catch (Exception e) {
+                log.error("订单行键迁移失败", e);
+            }
+        }, "order-rowkey-migration");
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    @Override
+    public OrderRowKeyMigrationReportVO migrate() {
+        if (!running.compareAndSet(false, true)) {
+            log.info("本节点正在执行订单行键迁移，跳过");
+            return null;
+        }
+        try {
+            if (!redisUtil.tryLock(MIGRATION_LOCK_KEY, 0, leaseSeconds, TimeUnit.SECONDS)) {
+                log.info("其他节点正在执行订单行键迁移，跳过");
+                return null;
+            }
+            try {
+                return doMigrate();
+            } finally {
+                redisUtil.unlock(MIGRATION_LOCK_KEY);
+            }
+        } finally {
+            running.set(false);
+        }
+    }
+
+    @Override
+    public OrderRowKeyMigrationReportVO getLastReport() {
+        return redisCache.getCacheObject(REPORT_KEY);
+    }
+
+    private OrderRowKeyMigrationReportVO doMigrate() {
+        OrderRowKeyMigrationReportVO report = new OrderRowKeyMigrationReportVO();
+        report.setStartTime(LocalDateTime.now());
+        report.setPasses(0);
+        report.setScannedRows(0L);
+        report.setMigratedRows(0L);
+        report.setSkippedRows(0L);
+        log.info("开始订单行键迁移，每批: {}, 批间隔: {}ms, 最多轮数: {}", batchSize, pauseMs, maxPasses);
+
+        try {
+            // 上一轮有迁移的行才可能留下迁移期间写入的单元格，需要再扫一轮
+            long migrated;
+            do {
+                report.setPasses(report.getPasses() + 1);
+                migrated = migratePass(report);
+            } while (migrated > 0 && report.getPasses() < maxPasses);
+            report.setRemainingRows(countLegacyRows());
+        } catch (IOException e) {
+            log.error("订单行键迁移失败", e);
+            report.setError(e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            report.setError("迁移被中断");
+        }
+
+        report.setEndTime(LocalDateTime.now());
+        redisCache.setCacheObject(REPORT_KEY, report);
+        log.info("订单行键迁移完成，轮数: {}, 扫描行: {}, 迁移行: {}, 跳过行: {}, 剩余旧行键: {}",
+                report.getPasses(), report.getScannedRows(), report.getMigratedRows(),
+                report.getSkippedRows(), report.getRemainingRows());
+        return report;
+    }
+
+    private long migratePass(OrderRowKeyMigrationReportVO report) throws IOException, InterruptedException {
+        Scan scan = new Scan().withStartRow(OrderRowKey.LEGACY_START).withStopRow(OrderRowKey.LEGACY_STOP);
+        scan.setCaching(batchSize);
+        scan.setCacheBlocks(false); // 全表扫描不占用BlockCache
+
+        long migrated = 0;
+        List<Result> batch = new ArrayList<>(batchSize);
+        try (ResultScanner scanner = hBaseUtil.scan(TABLE_NAME, scan)) {
+            for (Result r : scanner) {
+                report.setScannedRows(report.getScannedRows() + 1);
+                batch.add(r);
+                if (batch.size() >= batchSize) {
+                    migrated += migrateBatch(batch, report);
+                    redisCache.setCacheObject(REPORT_KEY, report);
+                    if (pauseMs > 0) {
+                        Thread.sleep(pauseMs); // 限速，避免影响线上读写
+                    }
+                }
+            }
+        }
+        migrated += migrateBatch(batch, report);
+        redisCache.setCacheObject(REPORT_KEY, report);
+        log.info("订单行键迁移第{}轮完成，迁移行: {}", report.getPasses(), migrated);
+        return migrated;
+    }
+
+    private long migrateBatch(List<Result> scanned, OrderRowKeyMigrationReportVO report) throws IOException {
+        if (scanned.isEmpty()) {
+            return 0;
+        }
+        // 逐行加订单锁，正在支付、取消的订单留给下一轮
+        List<String> locks = new ArrayList<>(scanned.size());
+        List<Get> rowGets = new ArrayList<>(scanned.size());
+        for (Result r : scanned) {
+            String lockKey = ORDER_LOCK_PREFIX + OrderRowKey.orderId(r.getRow());
+            if (redisUtil.tryLock(lockKey, 0, ORDER_LOCK_LEASE_SECONDS, TimeUnit.SECONDS)) {
+                locks.add(lockKey);
+                rowGets.add(new Get(r.getRow()));
+            }
+        }
+        scanned.clear();
+        try {
+            if (rowGets.isEmpty()) {
+                return 0;
+            }
+            // 扫描结果可能早于加锁前的支付、取消，按加锁后重新读取的行搬移
+            List<Result> batch = new ArrayList<>(rowGets.size());
+            for (Result r : hBaseUtil.get(TABLE_NAME, rowGets)) {
+                if (r != null && !r.isEmpty()) {
+                    batch.add(r);
+                }
+            }
+            return migrateLocked(batch, report);
+        } finally {
+            locks.forEach(redisUtil::unlock);
+        }
+    }
+
+    private long migrateLocked(List<Result> batch, OrderRowKeyMigrationReportVO report) throws IOException {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        // 已有指针的订单（业务已按新行键写过或上一轮已迁移）沿用指针，不重新计算行键
+        List<Get> pointerGets = new ArrayList<>(batch.size());
+        for (Result r : batch) {
+            pointerGets.add(new Get(r.getRow()).addColumn(INDEX_CF, INDEX_COL_ROW_KEY));
+        }
+        Result[] pointers = hBaseUtil.get(INDEX_TABLE_NAME, pointerGets);
+
+        List<Put> puts = new ArrayList<>(batch.size());
+        List<Put> indexPuts = new ArrayList<>();
+        List<Delete> deletes = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            Result r = batch.get(i);
+            byte[] rowKey = pointers[i].getValue(INDEX_CF, INDEX_COL_ROW_KEY);
+            if (rowKey == null) {
+                rowKey = newRowKey(r);
+                if (rowKey == null) {
+                    report.setSkippedRows(report.getSkippedRows() + 1);
+                    log.warn("订单缺少用户ID，无法确定新行键，跳过: {}", Bytes.toString(r.getRow()));
+                    continue;
+                }
+                Put indexPut = new Put(r.getRow());
+                indexPut.addColumn(INDEX_CF, INDEX_COL_ROW_KEY, rowKey);
+                indexPuts.add(indexPut);
+            }
+            Put put = new Put(rowKey);
+            long maxTimestamp = 0;
+            for (Cell cell : r.rawCells()) {
+                // 沿用原时间戳：不覆盖迁移期间业务写入的新值，增量对账也不会把迁移当作业务写入
+                put.addColumn(CellUtil.cloneFamily(cell), CellUtil.cloneQualifier(cell), cell.getTimestamp(),
+                        CellUtil.cloneValue(cell));
+                maxTimestamp = Math.max(maxTimestamp, cell.getTimestamp());
+            }
+            puts.add(put);
+            deletes.add(new Delete(r.getRow(), maxTimestamp));
+        }
+        // 顺序：订单 -> 指针 -> 删除旧行，任一步失败重试时都不会丢数据
+        hBaseUtil.putBatch(TABLE_NAME, puts);
+        hBaseUtil.putBatch(INDEX_TABLE_NAME, indexPuts);
+        hBaseUtil.deleteBatch(TABLE_NAME, deletes);
+        report.setMigratedRows(report.getMigratedRows() + puts.size());
+        return puts.size();
+    }
+
+    /**
+     * 由用户ID和下单时间算出新行键；没有下单时间时用最早的单元格时间戳
+     */
+    private byte[] newRowKey(Result r) {
+        Long userId = (Long) MAPPER.getValue(r, "userId");
+        if (userId == null) {
+            return null;
+        }
+        LocalDateTime createTime = (LocalDateTime) MAPPER.getValue(r, "createTime");
+        if (createTime == null) {
+            long earliest = Long.MAX_VALUE;
+            for (Cell cell : r.rawCells()) {
+                earliest = Math.min(earliest, cell.getTimestamp());
+            }
+            createTime = LocalDateTime.ofInstant(Instant.ofEpochMilli(earliest), ZoneId.systemDefault());
+        }
+        return OrderRowKey.build(userId, createTime, OrderRowKey.orderId(r.getRow()));
+    }
+
+    private long countLegacyRows() throws IOException {
+        Scan scan = new Scan().withStartRow(OrderRowKey.LEGACY_START).withStopRow(OrderRowKey.LEGACY_STOP);
+        scan.setFilter(new FilterList(new FirstKeyOnlyFilter(), new KeyOnlyFilter()));
+        scan.setCacheBlocks(false);
+        long count = 0;
+        try (ResultScanner scanner = hBaseUtil.scan(TABLE_NAME, scan)) {
+            for (Result ignored : scanner) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,185 @@
+package com.seckill.service.impl;
+
+import com.seckill.entity.SeckillOrder;
+import com.seckill.enums.PayStatusEnum;
+import com.seckill.service.OrderTimeoutService;
+import com.seckill.service.SeckillOrderService;
+import com.seckill.util.TimingWheel;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 未支付订单超时取消实现类
+ * Redis有序集合（member=订单ID, score=到期时间）是超时任务的持久化记录，登记/撤销都是O(log n)；
+ * 登记订单的节点同时把任务放入本地时间轮，到期后通过ZREM抢占任务，抢占成功才执行取消，
+ * 保证同一订单只被处理一次。节点重启或宕机后，超过宽限期仍留在有序集合中的任务由各节点兜底扫描处理，
+ * 不需要扫描order_history
+ */
+@Slf4j
+@Service
+public class OrderTimeoutServiceImpl implements OrderTimeoutService {
+
+    @Value("${seckill.order.timeout.key:seckill:order:timeout}")
+    private String timeoutKey;
+
+    @Value("${seckill.order.timeout.minutes:15}")
+    private long timeoutMinutes;
+
+    @Value("${seckill.order.timeout.tick-ms:1000}")
+    private long tickMs;
+
+    @Value("${seckill.order.timeout.wheel-size:60}")
+    private int wheelSize;
+
+    @Value("${seckill.order.timeout.levels:4}")
+    private int levels;
+
+    @Value("${seckill.order.timeout.sweep-interval-ms:10000}")
+    private long sweepIntervalMs;
+
+    @Value("${seckill.order.timeout.grace-ms:30000}")
+    private long graceMs;
+
+    @Value("${seckill.order.timeout.sweep-batch:500}")
+    private int sweepBatch;
+
+    @Value("${seckill.order.timeout.retry-delay-ms:30000}")
+    private long retryDelayMs;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    // 订单服务在支付/取消时会撤销超时任务，这里延迟注入避免循环依赖
+    @Lazy
+    @Autowired
+    private SeckillOrderService seckillOrderService;
+
+    private TimingWheel<Long> timingWheel;
+
+    private ScheduledExecutorService scheduler;
+
+    private ExecutorService cancelExecutor;
+
+    @PostConstruct
+    public void start() {
+        timingWheel = new TimingWheel<>(tickMs, wheelSize, levels, System.currentTimeMillis());
+        scheduler = Executors.newScheduledThreadPool(2, r -> {
+            Thread t = new Thread(r, "order-timeout-scheduler");
+            t.setDaemon(true);
+            return t;
+        });
+        AtomicInteger threadIndex = new AtomicInteger();
+        cancelExecutor = Executors.newFixedThreadPool(2, r -> {
+            Thread t = new Thread(r, "order-timeout-cancel-" + threadIndex.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        // 时间轮只由这一个周期任务推进
+        scheduler.scheduleAtFixedRate(this::advanceWheel, tickMs, tickMs, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::sweepOverdue, sweepIntervalMs, sweepIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("订单超时取消服务启动，超时时间: {}分钟", timeoutMinutes);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        if (cancelExecutor != null) {
+            cancelExecutor.shutdown();
+        }
+    }
+
+    @Override
+    public void schedule(List<SeckillOrder> orders) {
+        Set<ZSetOperations.TypedTuple<String>> tuples = new HashSet<>();
+        for (SeckillOrder order : orders) {
+            if (order.getId() == null || !PayStatusEnum.UNPAID.getCode().equals(order.getStatus())) {
+                continue;
+            }
+            LocalDateTime createTime = order.getCreateTime() == null ? LocalDateTime.now() : order.getCreateTime();
+            long deadline = createTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                    + TimeUnit.MINUTES.toMillis(timeoutMinutes);
+            tuples.add(new DefaultTypedTuple<>(String.valueOf(order.getId()), (double) deadline));
+            // 时间轮最多提前一格触发，推迟一格保证不早于到期时间取消
+            timingWheel.add(deadline + tickMs, order.getId());
+        }
+        if (!tuples.isEmpty()) {
+            stringRedisTemplate.opsForZSet().add(timeoutKey, tuples);
+        }
+    }
+
+    @Override
+    public void cancel(Long orderId) {
+        stringRedisTemplate.opsForZSet().remove(timeoutKey, String.valueOf(orderId));
+    }
+
+    private void advanceWheel() {
+        try {
+            timingWheel.advance(System.currentTimeMillis(),
+                    orderId -> cancelExecutor.execute(() -> expire(orderId)));
+        } catch (Exception e) {
+            log.error("推进订单超时时间轮失败", e);
+        }
+    }
+
+    /**
+     * 兜底扫描：处理超过宽限期仍未被时间轮处理的任务（登记节点已重启或宕机）
+     */
+    private void sweepOverdue() {
+        try {
+            long maxScore = System.currentTimeMillis() - graceMs;
+            Set<String> overdue;
+            do {
+                overdue = stringRedisTemplate.opsForZSet().rangeByScore(timeoutKey, 0, maxScore, 0, sweepBatch);
+                if (overdue == null || overdue.isEmpty()) {
+                    return;
+                }
+                log.info("兜底处理超时订单，数量: {}", overdue.size());
+                for (String member : overdue) {
+                    expire(Long.valueOf(member));
+                }
+            } while (overdue.size() >= sweepBatch);
+        } catch (Exception e) {
+            log.error("扫描超时订单失败", e);
+        }
+    }
+
+    private void expire(Long orderId) {
+        // ZREM成功的节点获得该任务，订单已支付/已取消时任务已被撤销
+        Long claimed = stringRedisTemplate.opsForZSet().remove(timeoutKey, String.valueOf(orderId));
+        if (claimed == null || claimed == 0) {
+            return;
+        }
+        try {
+            if (seckillOrderService.cancelTimeoutOrder(orderId)) {
+                log.info("未支付订单超时取消，订单ID: {}", orderId);
+            }
+        } catch (Exception e) {
+            // 取消失败时重新登记，稍后由时间轮或兜底扫描重试
+            long retryAt = System.currentTimeMillis() + retryDelayMs;
+            stringRedisTemplate.opsForZSet().add(timeoutKey, String.valueOf(orderId), retryAt);
+            timingWheel.add(retryAt + tickMs, orderId);
+            log.warn("超时取消订单失败，{}ms后重试，订单ID: {}, 原因: {}", retryDelayMs, orderId, e.getMessage());
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.seckill.common.BusinessException;
+import com.seckill.common.CursorPageResult;
 import com.seckill.common.PageQuery;
 import com.seckill.dto.ProductCategoryDTO;
 import com.seckill.dto.ProductDTO;
@@ -13,7 +14,9 @@ import com.seckill.enums.ProductStatusEnum;
 import com.seckill.mapper.ProductMapper;
 import com.seckill.mapper.ProductCategoryMapper;
 import com.seckill.service.ProductService;
+import com.seckill.util.HBaseCursor;
 import com.seckill.util.MinioUtil;
+import com.seckill.util.RedisUtil;
 import com.seckill.vo.ProductCategoryVO;
 import com.seckill.vo.ProductVO;
 import lombok.extern.slf4j.Slf4j;
@@ -23,16 +26,31 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 public class ProductServiceImpl implements ProductService {
 
+    private static final String PRODUCT_DETAIL_PREFIX = "product:detail:";
+    private static final long PRODUCT_DETAIL_EXPIRE_SECONDS = 10 * 60;
+    /** 商品列表只读取ProductVO用到的列，不读取规格、标签、仓库库存和统计列族 */
+    private static final List<String> LIST_FIELDS = List.of(
+            "productName", "productDesc", "price", "stock", "categoryId", "images", "status", "createTime");
+
     @Autowired
     private ProductMapper productMapper;
     
+    @Autowired
+    private RedisUtil redisUtil;
+    
 //    @Autowired
 //    private ProductCategoryMapper categoryMapper;
     
@@ -79,6 +97,7 @@ public class ProductServiceImpl implements ProductService {
         if (result <= 0) {
             throw new BusinessException("更新商品失败");
         }
+        redisUtil.delete(PRODUCT_DETAIL_PREFIX + id);
     }
 
     @Override
@@ -92,15 +111,70 @@ public class ProductServiceImpl implements ProductService {
         if (result <= 0) {
             throw new BusinessException("删除商品失败");
         }
+        redisUtil.delete(PRODUCT_DETAIL_PREFIX + id);
     }
 
     @Override
     public ProductVO getProductById(Long id) {
+        Object cached = redisUtil.get(PRODUCT_DETAIL_PREFIX + id);
+        if (cached instanceof ProductVO) {
+            return (ProductVO) cached;
+        }
+        ProductVO productVO = loadProduct(id);
+        redisUtil.set(PRODUCT_DETAIL_PREFIX + id, productVO, PRODUCT_DETAIL_EXPIRE_SECONDS, TimeUnit.SECONDS);
+        return productVO;
+    }
+
+    @Override
+    public Map<Long, ProductVO> getProductsByIds(Collection<Long> ids) {
+        Map<Long, ProductVO> result = new HashMap<>();
+        if (ids == null || ids.isEmpty()) {
+            return result;
+        }
+        List<Long> idList = new ArrayList<>(new LinkedHashSet<>(ids));
+        List<String> keys = idList.stream().map(id -> PRODUCT_DETAIL_PREFIX + id).collect(Collectors.toList());
+        List<Object> cached = redisUtil.multiGet(keys);
+        List<Long> missing = new ArrayList<>();
+        for (int i = 0; i < idList.size(); i++) {
+            Object value = cached == null ? null : cached.get(i);
+            if (value instanceof ProductVO) {
+                result.put(idList.get(i), (ProductVO) value);
+            } else {
+                missing.add(idList.get(i));
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+        for (Product product : productMapper.selectBatchIds(missing)) {
+            ProductVO productVO = toProductVO(product);
+            result.put(product.getId(), productVO);
+            redisUtil.set(PRODUCT_DETAIL_PREFIX + product.getId(), productVO, PRODUCT_DETAIL_EXPIRE_SECONDS, TimeUnit.SECONDS);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean preloadProduct(Long id) {
+        try {
+            ProductVO productVO = loadProduct(id);
+            redisUtil.set(PRODUCT_DETAIL_PREFIX + id, productVO, PRODUCT_DETAIL_EXPIRE_SECONDS, TimeUnit.SECONDS);
+        } catch (BusinessException e) {
+            log.warn("预热商品详情失败，商品ID: {}, 原因: {}", id, e.getMessage());
+            return false;
+        }
+        return Boolean.TRUE.equals(redisUtil.hasKey(PRODUCT_DETAIL_PREFIX + id));
+    }
+
+    private ProductVO loadProduct(Long id) {
         Product product = productMapper.selectById(id);
         if (product == null) {
             throw new BusinessException("商品不存在");
         }
-        
+        return toProductVO(product);
+    }
+
+    private ProductVO toProductVO(Product product) {
         ProductVO productVO = new ProductVO();
         BeanUtils.copyProperties(product, productVO);
         if(product.getStatus()!=null){
@@ -124,22 +198,11 @@ public class ProductServiceImpl implements ProductService {
     @Override
     public IPage<ProductVO> getProductList(PageQuery pageQuery, String productName) {
         Page<Product> page = new Page<>(pageQuery.getPageNum(), pageQuery.getPageSize());
-        IPage<Product> productPage = productMapper.selectProductPage(page, productName);
+        IPage<Product> productPage = productMapper.selectProductPage(page, productName, LIST_FIELDS);
         
         // 转换为VO
         List<ProductVO> productVOList = productPage.getRecords().stream()
-                .map(product -> {
-                    ProductVO productVO = new ProductVO();
-                    BeanUtils.copyProperties(product, productVO);
-                    if(product.getStatus()!=null){
-                        productVO.setStatusDesc(ProductStatusEnum.getByCode(product.getStatus()).getDesc());
-                    }else {
-                        productVO.setStatusDesc(ProductStatusEnum.getByCode(1).getDesc());
-                    }
-                    productVO.setImgUrl(product.getImages());
-                    log.info("这个商品数据如下：{}",product);
-                    return productVO;
-                })
+                .map(this::convertToListVO)
                 .collect(Collectors.toList());
         
         // 转换返回结果
@@ -149,6 +212,34 @@ public class ProductServiceImpl implements ProductService {
         return result;
     }
 
+    @Override
+    public CursorPageResult<ProductVO> getProductListByCursor(String cursor, Integer pageSize, String productName) {
+        CursorPageResult<Product> productPage;
+        try {
+            productPage = productMapper.selectProductPageByCursor(cursor, HBaseCursor.pageSize(pageSize),
+                    productName, LIST_FIELDS);
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException(e.getMessage());
+        }
+        List<ProductVO> productVOList = productPage.getRecords().stream()
+                .map(this::convertToListVO)
+                .collect(Collectors.toList());
+        return new CursorPageResult<>(productVOList, productPage.getNextCursor(), productPage.getPageSize());
+    }
+
+    private ProductVO convertToListVO(Product product) {
+        ProductVO productVO = new ProductVO();
+        BeanUtils.copyProperties(product, productVO);
+        if(product.getStatus()!=null){
+            productVO.setStatusDesc(ProductStatusEnum.getByCode(product.getStatus()).getDesc());
+        }else {
+            productVO.setStatusDesc(ProductStatusEnum.getByCode(1).getDesc());
+        }
+        productVO.setImgUrl(product.getImages());
+        log.info("这个商品数据如下：{}",product);
+        return productVO;
+    }
+
     @Override
     public List<ProductCategoryVO> getCategoryList() {
 //        List<ProductCategory> categories = categoryMapper.selectList(
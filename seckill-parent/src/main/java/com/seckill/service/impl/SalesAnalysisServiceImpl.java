@@ -18,8 +18,12 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @Service
@@ -47,6 +51,8 @@ public class SalesAnalysisServiceImpl implements SalesAnalysisService {
 //            todo key中加日期信息，唯一这一天的数据
             LocalDate today = LocalDate.now();
             String dayStr = today.format(DAY_FMT);
+            // 商品分类只在第3步用到，先发起异步查询，与下面的Redis统计同时进行
+            CompletableFuture<Product> productFuture = productMapper.selectByIdAsync(order.getProductId());
 
             // 1. Redis 实时看板统计
             String ordersKey = STAT_ORDERS_PREFIX + dayStr;
@@ -68,10 +74,13 @@ public class SalesAnalysisServiceImpl implements SalesAnalysisService {
             redisTemplate.opsForZSet().incrementScore(rankKey, member, order.getQuantity());
 
             // 3. HBase记录历史销售数据，加入到记录日销数据的Hbase表中
-            Product product = productMapper.selectById(order.getProductId());
+            Product product = productFuture.join();
             Long categoryId = product != null ? product.getCategoryId() : null;
             salesDataMapper.addDailySale(today, order.getProductId(), categoryId,
                     order.getQuantity(), amount != null ? amount : BigDecimal.ZERO);
+
+            // 4. 商品累计销量
+            productMapper.addSaleCount(order.getProductId(), order.getQuantity());
         } catch (Exception e) {
             log.error("记录销售分析数据失败", e);
         }
@@ -111,25 +120,32 @@ public class SalesAnalysisServiceImpl implements SalesAnalysisService {
             return list;
         }
 //        todo 将数据解析出来
+        Map<Long, Long> ranking = new LinkedHashMap<>();
         for (ZSetOperations.TypedTuple<Object> tuple : set) {
             Object member = tuple.getValue();
             Double score = tuple.getScore();
             if (member == null || score == null) continue;
             String memberStr = member.toString(); // product:ID
             if (!memberStr.startsWith("product:")) continue;
-            Long productId = Long.parseLong(memberStr.substring("product:".length()));
-//            todo 根据已有数据从商品表中将完整数据拿出来补全结果对象
-            Product product = productMapper.selectById(productId);
+            ranking.put(Long.parseLong(memberStr.substring("product:".length())), score.longValue());
+        }
+//        todo 根据已有数据从商品表中将完整数据拿出来补全结果对象（排行榜上的商品一次multi-get查出）
+        Map<Long, Product> products = new HashMap<>();
+        for (Product product : productMapper.selectBatchIds(ranking.keySet(), List.of("productName", "price"))) {
+            products.put(product.getId(), product);
+        }
+        ranking.forEach((productId, quantity) -> {
+            Product product = products.get(productId);
 
             HotProductVO vo = new HotProductVO();
             vo.setProductId(productId);
-            vo.setQuantity(score.longValue());
+            vo.setQuantity(quantity);
             if (product != null) {
                 vo.setProductName(product.getProductName());
                 vo.setPrice(product.getPrice());
             }
             list.add(vo);
-        }
+        });
         return list;
     }
 
@@ -0,0 +1,91 @@
+package com.seckill.service.impl;
+
+import com.seckill.entity.SeckillActivity;
+import com.seckill.mapper.SeckillActivityMapper;
+import com.seckill.service.SeckillActivityCacheService;
+import com.seckill.util.RedisUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 秒杀活动快照缓存实现类
+ * 本地缓存有效期较短，活动修改后其他节点最多在有效期内读到旧快照
+ */
+@Slf4j
+@Service
+public class SeckillActivityCacheServiceImpl implements SeckillActivityCacheService {
+
+    private static final String ACTIVITY_SNAPSHOT_PREFIX = "seckill:activity:snapshot:";
+    private static final long SNAPSHOT_EXPIRE_SECONDS = 24 * 60 * 60;
+
+    @Value("${seckill.preheat.local-ttl-seconds:5}")
+    private long localTtlSeconds;
+
+    @Autowired
+    private RedisUtil redisUtil;
+
+    @Autowired
+    private SeckillActivityMapper activityMapper;
+
+    private final Map<Long, LocalEntry> localCache = new ConcurrentHashMap<>();
+
+    @Override
+    public SeckillActivity getActivity(Long activityId) {
+        LocalEntry entry = localCache.get(activityId);
+        if (entry != null && System.nanoTime() - entry.expireAt < 0) {
+            return entry.activity;
+        }
+
+        Object cached = redisUtil.get(ACTIVITY_SNAPSHOT_PREFIX + activityId);
+        if (cached instanceof SeckillActivity) {
+            SeckillActivity activity = (SeckillActivity) cached;
+            putLocal(activity);
+            return activity;
+        }
+
+        SeckillActivity activity = activityMapper.selectById(activityId);
+        if (activity != null) {
+            log.debug("活动快照未命中，从HBase加载，活动ID: {}", activityId);
+            put(activity);
+        }
+        return activity;
+    }
+
+    @Override
+    public void put(SeckillActivity activity) {
+        redisUtil.set(ACTIVITY_SNAPSHOT_PREFIX + activity.getId(), activity, SNAPSHOT_EXPIRE_SECONDS, TimeUnit.SECONDS);
+        putLocal(activity);
+    }
+
+    @Override
+    public boolean isCached(Long activityId) {
+        return Boolean.TRUE.equals(redisUtil.hasKey(ACTIVITY_SNAPSHOT_PREFIX + activityId));
+    }
+
+    @Override
+    public void evict(Long activityId) {
+        redisUtil.delete(ACTIVITY_SNAPSHOT_PREFIX + activityId);
+        localCache.remove(activityId);
+    }
+
+    private void putLocal(SeckillActivity activity) {
+        localCache.put(activity.getId(),
+                new LocalEntry(activity, System.nanoTime() + TimeUnit.SECONDS.toNanos(localTtlSeconds)));
+    }
+
+    private static class LocalEntry {
+        private final SeckillActivity activity;
+        private final long expireAt;
+
+        private LocalEntry(SeckillActivity activity, long expireAt) {
+            this.activity = activity;
+            this.expireAt = expireAt;
+        }
+    }
+}
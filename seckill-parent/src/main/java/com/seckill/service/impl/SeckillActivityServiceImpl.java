@@ -3,6 +3,7 @@ package com.seckill.service.impl;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.seckill.common.BusinessException;
+import com.seckill.common.CursorPageResult;
 import com.seckill.common.PageQuery;
 import com.seckill.dto.SeckillActivityDTO;
 import com.seckill.entity.Product;
@@ -10,11 +11,15 @@ import com.seckill.entity.SeckillActivity;
 import com.seckill.enums.ActivityStatusEnum;
 import com.seckill.mapper.ProductMapper;
 import com.seckill.mapper.SeckillActivityMapper;
+import com.seckill.service.SeckillActivityCacheService;
 import com.seckill.service.SeckillActivityService;
+import com.seckill.service.SeckillStockService;
+import com.seckill.util.HBaseCursor;
 import com.seckill.vo.SeckillActivityVO;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -22,8 +27,15 @@ import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -31,6 +43,19 @@ import java.util.stream.Stream;
 @Service
 public class SeckillActivityServiceImpl implements SeckillActivityService {
     
+    private static final int MAX_STOCK_BUCKETS = 64;
+    /** 活动展示只需要商品的名称、描述、原价和图片 */
+    private static final List<String> PRODUCT_FIELDS = List.of("productName", "productDesc", "price", "images");
+    
+    @Value("${seckill.preheat.lead-minutes:5}")
+    private long preheatLeadMinutes;
+    
+    @Autowired
+    private SeckillStockService seckillStockService;
+    
+    @Autowired
+    private SeckillActivityCacheService activityCacheService;
+    
     @Autowired
     private SeckillActivityMapper activityMapper;
     
@@ -104,6 +129,17 @@ public class SeckillActivityServiceImpl implements SeckillActivityService {
             }
         }
         
+        // 库存已按分桶加载到Redis后不能再调整分桶数，否则已有的分桶key无法对应；
+        // 预热在开始前lead-minutes加载库存，进入预热窗口或库存key已存在（手动预热）后都不允许修改
+        if (!Objects.equals(normalizeBuckets(activity.getStockBuckets()),
+                normalizeBuckets(activityDTO.getStockBuckets()))) {
+            boolean preheating = activity.getStartTime() != null
+                    && !LocalDateTime.now().isBefore(activity.getStartTime().minusMinutes(preheatLeadMinutes));
+            if (preheating || seckillStockService.getRemainingStock(activity) != null) {
+                throw new BusinessException("活动库存已预热或即将预热，不能修改库存分桶数");
+            }
+        }
+        
         // 更新活动信息
         BeanUtils.copyProperties(activityDTO, activity);
         activity.setId(id);
@@ -119,6 +155,9 @@ public class SeckillActivityServiceImpl implements SeckillActivityService {
         }
         
         activityMapper.updateById(activity);
+        
+        // 清除快照，下次读取时从HBase加载，避免并发修改时较旧的快照覆盖较新的
+        activityCacheService.evict(id);
         log.info("更新秒杀活动成功：{}", id);
     }
     
@@ -139,6 +178,7 @@ public class SeckillActivityServiceImpl implements SeckillActivityService {
         activity.setStatus(status);
         activity.setUpdateTime(LocalDateTime.now());
         activityMapper.updateById(activity);
+        activityCacheService.evict(id);
         log.info("更新秒杀活动状态成功：{}, 新状态：{}", id, status);
     }
     
@@ -150,8 +190,10 @@ public class SeckillActivityServiceImpl implements SeckillActivityService {
             throw new BusinessException("秒杀活动不存在");
         }
         
-        // 查询商品信息
-        Product product = productMapper.selectById(activity.getProductId());
+        // 查询商品信息，与剩余库存（Redis）查询同时进行
+        CompletableFuture<Product> productFuture = productMapper.selectByIdAsync(activity.getProductId());
+        Integer remainingStock = seckillStockService.getRemainingStock(activity);
+        Product product = productFuture.join();
         if (product == null) {
             throw new BusinessException("关联商品不存在");
         }
@@ -164,6 +206,7 @@ public class SeckillActivityServiceImpl implements SeckillActivityService {
         vo.setOriginalPrice(product.getPrice());
         vo.setImgUrl(product.getImgUrl());
         vo.setStatusDesc(ActivityStatusEnum.getByCode(activity.getStatus()).getDesc());
+        vo.setRemainingStock(remainingStock);
         
         return vo;
     }
@@ -176,12 +219,32 @@ public class SeckillActivityServiceImpl implements SeckillActivityService {
 
         Page<SeckillActivityVO> voPage = new Page<>(pageQuery.getPageNum(), pageQuery.getPageSize(), activityPage.getTotal());
 
+        List<SeckillActivityVO> voList = convertToVOList(activityPage.getRecords());
+        Stream<SeckillActivityVO> sorted = voList.stream().sorted(Comparator.comparingInt(vo -> vo.getStatus() == 1 ? 0 : 1));
+        voPage.setRecords(sorted.collect(Collectors.toList()));
+        return voPage;
+    }
+
+    @Override
+    public CursorPageResult<SeckillActivityVO> getActivityListByCursor(String cursor, Integer pageSize, Integer status) {
+        CursorPageResult<SeckillActivity> activityPage;
+        try {
+            activityPage = activityMapper.selectActivityPageByCursor(cursor, HBaseCursor.pageSize(pageSize), status);
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException(e.getMessage());
+        }
+        return new CursorPageResult<>(convertToVOList(activityPage.getRecords()), activityPage.getNextCursor(),
+                activityPage.getPageSize());
+    }
+
+    private List<SeckillActivityVO> convertToVOList(List<SeckillActivity> activities) {
         List<SeckillActivityVO> voList = new ArrayList<>();
-        for (SeckillActivity activity : activityPage.getRecords()) {
+        Map<Long, Product> products = loadProducts(activities);
+        for (SeckillActivity activity : activities) {
             SeckillActivityVO vo = new SeckillActivityVO();
             BeanUtils.copyProperties(activity, vo);
 
-            Product product = productMapper.selectById(activity.getProductId());
+            Product product = products.get(activity.getProductId());
             if (product != null) {
                 vo.setProductName(product.getProductName());
                 vo.setOriginalPrice(product.getPrice());
@@ -191,9 +254,7 @@ public class SeckillActivityServiceImpl implements SeckillActivityService {
             log.info("这个商品的数据如下:{}", product);
                 voList.add(vo);
         }
-        Stream<SeckillActivityVO> sorted = voList.stream().sorted(Comparator.comparingInt(vo -> vo.getStatus() == 1 ? 0 : 1));
-        voPage.setRecords(sorted.collect(Collectors.toList()));
-        return voPage;
+        return voList;
     }
 
 //    根据时间自动更新活动状态
@@ -212,6 +273,8 @@ public class SeckillActivityServiceImpl implements SeckillActivityService {
                     activity.setStatus(ActivityStatusEnum.IN_PROGRESS.getCode());
                     activity.setUpdateTime(now);
                     activityMapper.updateById(activity);
+                    // 开始时刻下单请求最多，直接写入新快照，不清除后让请求同时回源HBase
+                    activityCacheService.put(activity);
                     log.info("自动开始秒杀活动：{}", activity.getId());
                 }
                 if (activity.getStatus().equals(ActivityStatusEnum.IN_PROGRESS.getCode())
@@ -219,6 +282,7 @@ public class SeckillActivityServiceImpl implements SeckillActivityService {
                     activity.setStatus(ActivityStatusEnum.ENDED.getCode());
                     activity.setUpdateTime(now);
                     activityMapper.updateById(activity);
+                    activityCacheService.put(activity);
                     log.info("自动结束秒杀活动：{}", activity.getId());
                 }
             }
@@ -231,12 +295,13 @@ public class SeckillActivityServiceImpl implements SeckillActivityService {
         List<SeckillActivity> activities = activityMapper.selectActiveActivities();
         
         List<SeckillActivityVO> voList = new ArrayList<>();
+        Map<Long, Product> products = loadProducts(activities);
         for (SeckillActivity activity : activities) {
             SeckillActivityVO vo = new SeckillActivityVO();
             BeanUtils.copyProperties(activity, vo);
             
             // 查询商品信息
-            Product product = productMapper.selectById(activity.getProductId());
+            Product product = products.get(activity.getProductId());
             if (product != null) {
                 vo.setProductName(product.getProductName());
                 vo.setProductDesc(product.getProductDesc());
@@ -252,6 +317,28 @@ public class SeckillActivityServiceImpl implements SeckillActivityService {
         return voList;
     }
     
+    /**
+     * 批量查询活动关联的商品：去重后一次multi-get，而不是每个活动一次get
+     * @return 商品ID -> 商品，不存在的商品不在结果中
+     */
+    private Map<Long, Product> loadProducts(Collection<SeckillActivity> activities) {
+        Set<Long> productIds = new HashSet<>();
+        for (SeckillActivity activity : activities) {
+            if (activity.getProductId() != null) {
+                productIds.add(activity.getProductId());
+            }
+        }
+        Map<Long, Product> products = new HashMap<>();
+        for (Product product : productMapper.selectBatchIds(productIds, PRODUCT_FIELDS)) {
+            products.put(product.getId(), product);
+        }
+        return products;
+    }
+
+    private int normalizeBuckets(Integer buckets) {
+        return buckets == null || buckets < 1 ? 1 : buckets;
+    }
+
     /**
      * 校验秒杀活动参数
      */
@@ -276,6 +363,15 @@ public class SeckillActivityServiceImpl implements SeckillActivityService {
             throw new BusinessException("秒杀库存必须大于0");
         }
         
+        if (activityDTO.getStockBuckets() != null
+                && (activityDTO.getStockBuckets() < 1 || activityDTO.getStockBuckets() > MAX_STOCK_BUCKETS)) {
+            throw new BusinessException("库存分桶数必须在1到" + MAX_STOCK_BUCKETS + "之间");
+        }
+        
+        if (activityDTO.getStockBuckets() != null && activityDTO.getStockBuckets() > activityDTO.getSeckillStock()) {
+            throw new BusinessException("库存分桶数不能大于秒杀库存");
+        }
+        
         if (activityDTO.getStartTime() == null) {
             throw new BusinessException("开始时间不能为空");
         }
@@ -0,0 +1,636 @@
+package com.seckill.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.seckill.common.BusinessException;
+import com.seckill.entity.SeckillOrder;
+import com.seckill.enums.PayStatusEnum;
+import com.seckill.mapper.ActivityParticipantMapper;
+import com.seckill.mapper.SeckillOrderMapper;
+import com.seckill.service.OrderTimeoutService;
+import com.seckill.service.SeckillOrderQueueService;
+import com.seckill.service.SeckillStockService;
+import com.seckill.util.RedisUtil;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.stream.*;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 秒杀订单异步落库实现类
+ * 下单请求在Redis预扣库存成功后写入Stream即返回，消费者组批量写入order_history，
+ * 客户端通过 order:status:{id} 轮询下单结果。
+ * 开启 seckill.hbase-write.write-behind.order 后每批订单交给HBase写缓冲异步写入，
+ * 消费者不等待写入完成就继续读取下一批，写入成功后再建立参与索引、更新状态并确认消息
+ */
+@Slf4j
+@Service
+@Order(2) // 在HBase表初始化之后启动消费者
+public class SeckillOrderQueueServiceImpl implements SeckillOrderQueueService, CommandLineRunner {
+
+    private static final String ORDER_STATUS_PREFIX = "order:status:";
+    /** 订单所属用户，订单落库前查询状态时按它校验调用方 */
+    private static final String ORDER_OWNER_PREFIX = "order:owner:";
+    private static final String FIELD_ORDER = "order";
+    private static final String FIELD_SOURCE_ID = "sourceId";
+    private static final String FIELD_ERROR = "error";
+    /** 认领消息时判断订单是否已落库，落库后的处理需要的列 */
+    private static final List<String> RECOVERY_FIELDS = List.of("userId", "activityId", "status", "createTime");
+
+    @Value("${seckill.order.stream.key:seckill:order:stream}")
+    private String streamKey;
+
+    @Value("${seckill.order.stream.group:order-persist-group}")
+    private String groupName;
+
+    /** 无法解析的订单消息转入该Stream，保留原始内容供排查 */
+    @Value("${seckill.order.stream.dead-letter-key:seckill:order:stream:dead}")
+    private String deadLetterKey;
+
+    @Value("${seckill.order.stream.consumers:2}")
+    private int consumerCount;
+
+    @Value("${seckill.order.stream.batch-size:100}")
+    private int batchSize;
+
+    @Value("${seckill.order.stream.block-ms:2000}")
+    private long blockMillis;
+
+    @Value("${seckill.order.stream.max-in-flight:4}")
+    private int maxInFlight;
+
+    /** 其他消费者未确认的消息空闲超过该时长后被认领重新落库（节点宕机或以新主机名重启时遗留的消息） */
+    @Value("${seckill.order.stream.claim-idle-ms:60000}")
+    private long claimIdleMillis;
+
+    /** 没有未确认消息且空闲超过该时长的消费者从消费者组中删除 */
+    @Value("${seckill.order.stream.dead-consumer-idle-ms:3600000}")
+    private long deadConsumerIdleMillis;
+
+    /** 应用与Redis服务器之间允许的时钟偏差，用于按消息ID判断XADD结果未知的订单是否仍未确认 */
+    @Value("${seckill.order.stream.clock-skew-ms:5000}")
+    private long clockSkewMillis;
+
+    @Value("${seckill.hbase-write.write-behind.order:false}")
+    private boolean writeBehind;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private RedisUtil redisUtil;
+
+    @Autowired
+    private SeckillOrderMapper orderMapper;
+
+    @Autowired
+    private ActivityParticipantMapper activityParticipantMapper;
+
+    @Autowired
+    private SeckillStockService seckillStockService;
+
+    @Autowired
+    private OrderTimeoutService orderTimeoutService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private ExecutorService consumerExecutor;
+
+    /** 异步写入完成后的后续处理（参与索引、状态缓存、超时任务、确认消息），不占用HBase刷写线程 */
+    private ExecutorService persistCallbackExecutor;
+
+    private volatile boolean running;
+
+    /** 本节点消费循环使用的消费者名称，认领时跳过（它们的未确认消息由各自的消费循环处理） */
+    private final Set<String> localConsumers = ConcurrentHashMap.newKeySet();
+
+    /** 认领来的消息归到该消费者名下处理 */
+    private String recoveryConsumer;
+
+    /**
+     * XADD结果不确定（超时、连接断开）的订单，由settleUnconfirmed判定消息是否已写入
+     */
+    private final Map<Long, UnconfirmedOrder> unconfirmed = new ConcurrentHashMap<>();
+
+    @Override
+    public void enqueue(SeckillOrder order) {
+        MapRecord<String, String, String> record;
+        try {
+            record = StreamRecords.newRecord()
+                    .in(streamKey)
+                    .ofMap(Collections.singletonMap(FIELD_ORDER, objectMapper.writeValueAsString(order)));
+            redisUtil.set(ORDER_OWNER_PREFIX + order.getId(), order.getUserId(), 24, TimeUnit.HOURS);
+            cacheOrderStatus(order.getId(), PayStatusEnum.QUEUING.getCode());
+        } catch (Exception e) {
+            // 消息尚未发出，可以确定没有入队，由调用方回补库存
+            redisUtil.delete(ORDER_STATUS_PREFIX + order.getId());
+            throw new BusinessException("订单排队失败", e);
+        }
+        long attemptStart = System.currentTimeMillis();
+        try {
+            stringRedisTemplate.opsForStream().add(record);
+        } catch (Exception e) {
+            // 超时的XADD可能已经写入，此时回补库存而消费者仍会落库就会超卖；
+            // 订单保持排队中，确认消息确实没有写入后再回补库存、标记下单失败
+            unconfirmed.put(order.getId(), new UnconfirmedOrder(order, attemptStart, System.currentTimeMillis()));
+            log.error("订单写入Stream结果未知，保持排队中等待确认, 订单ID: {}", order.getId(), e);
+        }
+    }
+
+    @Override
+    public void run(String... args) {
+        try {
+            stringRedisTemplate.opsForStream().createGroup(streamKey, ReadOffset.from("0"), groupName);
+            log.info("创建订单Stream消费者组: {} -> {}", streamKey, groupName);
+        } catch (Exception e) {
+            // BUSYGROUP：消费者组已存在
+            log.debug("订单Stream消费者组已存在: {}", groupName);
+        }
+
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "seckill";
+        }
+        running = true;
+        AtomicInteger threadIndex = new AtomicInteger();
+        consumerExecutor = Executors.newFixedThreadPool(consumerCount, r -> {
+            Thread t = new Thread(r, "order-stream-consumer-" + threadIndex.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        if (writeBehind) {
+            AtomicInteger callbackIndex = new AtomicInteger();
+            persistCallbackExecutor = Executors.newFixedThreadPool(consumerCount, r -> {
+                Thread t = new Thread(r, "order-persist-callback-" + callbackIndex.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        recoveryConsumer = host + "-recovery";
+        for (int i = 0; i < consumerCount; i++) {
+            // 消费者名称在同一台机器上保持稳定，重启后可以继续处理自己未确认的消息
+            String consumerName = host + "-" + i;
+            localConsumers.add(consumerName);
+            consumerExecutor.submit(() -> consumeLoop(consumerName));
+        }
+        log.info("订单Stream消费者启动完成，数量: {}, 异步写入: {}", consumerCount, writeBehind);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (consumerExecutor != null) {
+            consumerExecutor.shutdown();
+            try {
+                consumerExecutor.awaitTermination(blockMillis * 2, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (persistCallbackExecutor != null) {
+            persistCallbackExecutor.shutdown();
+            try {
+                persistCallbackExecutor.awaitTermination(blockMillis * 2, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void consumeLoop(String consumerName) {
+        Consumer consumer = Consumer.from(groupName, consumerName);
+        // 先处理本消费者上次未确认的消息，再读取新消息
+        boolean drainPending = true;
+        // 异步写入时限制未完成的批次数；回调处理失败时置位，重新读取未确认的消息
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        AtomicBoolean redeliver = new AtomicBoolean();
+        while (running) {
+            try {
+                if (redeliver.getAndSet(false)) {
+                    drainPending = true;
+                }
+                if (drainPending && writeBehind) {
+                    // 未确认的消息里包含仍在写缓冲中的批次，等它们处理完再重新读取，避免重复落库
+                    awaitInFlight(inFlight);
+                }
+                ReadOffset offset = drainPending ? ReadOffset.from("0") : ReadOffset.lastConsumed();
+                StreamReadOptions options = StreamReadOptions.empty().count(batchSize);
+                if (!drainPending) {
+                    options = options.block(Duration.ofMillis(blockMillis));
+                }
+                List<MapRecord<String, Object, Object>> records = stringRedisTemplate.opsForStream()
+                        .read(consumer, options, StreamOffset.create(streamKey, offset));
+                if (records == null || records.isEmpty()) {
+                    drainPending = false;
+                    continue;
+                }
+                if (drainPending) {
+                    // 未确认的消息可能已经落库，按已落库的订单处理，不覆盖之后的支付、取消
+                    persistRecovered(records);
+                } else if (writeBehind) {
+                    persistBatchAsync(records, inFlight, redeliver);
+                } else {
+                    persistBatch(records);
+                }
+            } catch (Exception e) {
+                if (!running) break;
+                log.error("消费订单Stream失败, consumer={}", consumerName, e);
+                drainPending = true;
+                sleepQuietly();
+            }
+        }
+        if (writeBehind) {
+            try {
+                awaitInFlight(inFlight);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * 认领其他消费者遗留的未确认消息：节点宕机或以新的主机名重启后，原消费者名下的消息不会再被读取，
+     * 对应订单会一直处于排队中、库存一直被预占。空闲超过claim-idle-ms的消息通过XCLAIM转到本节点处理
+     * （多个节点同时认领时XCLAIM按空闲时长判断，只有一个节点能认领成功），之后删除已失效的消费者
+     */
+    @Scheduled(fixedDelayString = "${seckill.order.stream.recover-interval-ms:30000}",
+            initialDelayString = "${seckill.order.stream.recover-interval-ms:30000}")
+    public void recoverPending() {
+        if (!running) {
+            return;
+        }
+        try {
+            claimIdlePending();
+            removeDeadConsumers();
+        } catch (Exception e) {
+            log.error("认领订单Stream未确认消息失败", e);
+        }
+    }
+
+    private void claimIdlePending() {
+        Range<String> range = Range.unbounded();
+        PendingMessages pending;
+        do {
+            pending = stringRedisTemplate.opsForStream().pending(streamKey, groupName, range, batchSize);
+            if (pending.isEmpty()) {
+                return;
+            }
+            List<RecordId> idle = new ArrayList<>();
+            for (PendingMessage message : pending) {
+                if (!localConsumers.contains(message.getConsumerName())
+                        && message.getElapsedTimeSinceLastDelivery().toMillis() >= claimIdleMillis) {
+                    idle.add(message.getId());
+                }
+            }
+            if (!idle.isEmpty()) {
+                List<MapRecord<String, Object, Object>> records = stringRedisTemplate.opsForStream()
+                        .claim(streamKey, groupName, recoveryConsumer, Duration.ofMillis(claimIdleMillis),
+                                idle.toArray(new RecordId[0]));
+                if (records != null && !records.isEmpty()) {
+                    log.warn("认领订单Stream未确认消息 {} 条，重新落库", records.size());
+                    persistRecovered(records);
+                }
+            }
+            // 下一页从本页最后一条之后开始
+            String lastId = pending.get(pending.size() - 1).getIdAsString();
+            range = Range.of(Range.Bound.exclusive(lastId), Range.Bound.unbounded());
+        } while (pending.size() >= batchSize);
+    }
+
+    /**
+     * 重新处理的消息可能已经落库（写入后、确认前宕机或确认失败），之后订单可能已被支付或取消，
+     * 这些订单不能再用消息中的快照覆盖，只补做落库后的处理并确认消息
+     */
+    private void persistRecovered(List<MapRecord<String, Object, Object>> records) {
+        List<SeckillOrder> orders = new ArrayList<>(records.size());
+        List<RecordId> ids = new ArrayList<>(records.size());
+        parseRecords(records, orders, ids);
+
+        List<Long> orderIds = orders.stream().map(SeckillOrder::getId).toList();
+        List<SeckillOrder> persisted = orderMapper.selectBatchIds(orderIds, RECOVERY_FIELDS);
+        Set<Long> persistedIds = ConcurrentHashMap.newKeySet();
+        persisted.forEach(o -> persistedIds.add(o.getId()));
+        List<SeckillOrder> missing = new ArrayList<>(orders.size());
+        for (SeckillOrder order : orders) {
+            if (persistedIds.contains(order.getId())) continue;
+            if (isFailed(order.getId())) {
+                // 上次逐条重试时落库失败，库存已回补，不能再落库
+                log.info("订单已标记下单失败，跳过重新落库, 订单ID: {}", order.getId());
+                continue;
+            }
+            missing.add(order);
+        }
+
+        // 已取消的订单参与记录已移除，不能再加回去
+        persisted.removeIf(o -> !PayStatusEnum.UNPAID.getCode().equals(o.getStatus())
+                && !PayStatusEnum.PAID.getCode().equals(o.getStatus()));
+        if (!persisted.isEmpty()) {
+            onPersisted(persisted);
+        }
+        if (!missing.isEmpty()) {
+            if (orderMapper.insertBatch(missing) > 0) {
+                onPersisted(missing);
+            } else {
+                persistOneByOne(missing);
+            }
+        }
+        acknowledge(ids, orders.size());
+    }
+
+    private void removeDeadConsumers() {
+        StreamInfo.XInfoConsumers consumers = stringRedisTemplate.opsForStream().consumers(streamKey, groupName);
+        consumers.forEach(consumer -> {
+            String name = consumer.consumerName();
+            if (localConsumers.contains(name) || name.equals(recoveryConsumer)) {
+                return;
+            }
+            // 只删除没有未确认消息的消费者，删除消费者会丢弃它名下的未确认消息
+            if (consumer.pendingCount() == 0 && consumer.idleTimeMs() >= deadConsumerIdleMillis) {
+                stringRedisTemplate.opsForStream().deleteConsumer(streamKey, Consumer.from(groupName, name));
+                log.info("删除失效的订单Stream消费者: {}", name);
+            }
+        });
+    }
+
+    /**
+     * 判定XADD结果未知的订单：消费者组已读到Stream最新的消息（XINFO中last-delivered-id不小于last-generated-id），
+     * 且未确认消息中不可能包含该订单时，写入过的消息必然已被处理完（落库或标记失败）；
+     * 此时订单既未落库也没有状态结果，说明消息没有写入，回补库存并标记下单失败。
+     * 本节点重启后未判定的订单不再处理，预扣的库存由库存对账修复
+     */
+    @Scheduled(fixedDelayString = "${seckill.order.stream.settle-interval-ms:5000}")
+    public void settleUnconfirmed() {
+        if (unconfirmed.isEmpty()) {
+            return;
+        }
+        try {
+            // 先读last-generated-id再读last-delivered-id，之前写入的消息ID都不大于前者
+            String lastGenerated = stringRedisTemplate.opsForStream().info(streamKey).lastGeneratedId();
+            String lastDelivered = null;
+            for (StreamInfo.XInfoGroup group : stringRedisTemplate.opsForStream().groups(streamKey)) {
+                if (groupName.equals(group.groupName())) {
+                    lastDelivered = group.lastDeliveredId();
+                }
+            }
+            if (lastDelivered == null || compareRecordIds(lastDelivered, lastGenerated) < 0) {
+                return; // 还有未投递的消息
+            }
+            PendingMessagesSummary pending = stringRedisTemplate.opsForStream().pending(streamKey, groupName);
+            for (UnconfirmedOrder entry : unconfirmed.values()) {
+                if (mayBePending(pending, entry)) {
+                    continue;
+                }
+                settle(entry.order());
+            }
+        } catch (Exception e) {
+            log.error("确认订单Stream写入结果失败", e);
+        }
+    }
+
+    /**
+     * 消息ID的毫秒部分取自Redis服务器时钟，按允许的时钟偏差放宽写入时间范围后，
+     * 与未确认消息的ID区间有交集时认为消息可能仍未确认
+     */
+    private boolean mayBePending(PendingMessagesSummary pending, UnconfirmedOrder entry) {
+        if (pending.getTotalPendingMessages() == 0) {
+            return false;
+        }
+        long minMillis = recordIdMillis(pending.minMessageId());
+        long maxMillis = recordIdMillis(pending.maxMessageId());
+        return maxMillis >= entry.attemptStart() - clockSkewMillis && minMillis <= entry.attemptEnd() + clockSkewMillis;
+    }
+
+    private void settle(SeckillOrder order) {
+        Object cached = redisUtil.get(ORDER_STATUS_PREFIX + order.getId());
+        boolean queuing = cached == null || PayStatusEnum.QUEUING.getCode().toString().equals(cached.toString());
+        if (queuing && orderMapper.selectById(order.getId()) == null) {
+            // 回补数量按预扣明细，明细已不存在时不再回补
+            seckillStockService.release(order.getActivityId(), order.getProductId(), order.getUserId(), 0);
+            cacheOrderStatus(order.getId(), PayStatusEnum.FAILED.getCode());
+            log.warn("订单未写入Stream，已回补库存并标记下单失败, 订单ID: {}", order.getId());
+        } else {
+            log.info("订单已写入Stream并处理完成, 订单ID: {}", order.getId());
+        }
+        unconfirmed.remove(order.getId());
+    }
+
+    private static int compareRecordIds(String a, String b) {
+        long diff = recordIdMillis(a) - recordIdMillis(b);
+        if (diff != 0) {
+            return diff > 0 ? 1 : -1;
+        }
+        return Long.compare(recordIdSequence(a), recordIdSequence(b));
+    }
+
+    private static long recordIdMillis(String id) {
+        int dash = id.indexOf('-');
+        return Long.parseLong(dash < 0 ? id : id.substring(0, dash));
+    }
+
+    private static long recordIdSequence(String id) {
+        int dash = id.indexOf('-');
+        return dash < 0 ? 0 : Long.parseLong(id.substring(dash + 1));
+    }
+
+    private void awaitInFlight(Semaphore inFlight) throws InterruptedException {
+        inFlight.acquire(maxInFlight);
+        inFlight.release(maxInFlight);
+    }
+
+    private void persistBatch(List<MapRecord<String, Object, Object>> records) {
+        List<SeckillOrder> orders = new ArrayList<>(records.size());
+        List<RecordId> ids = new ArrayList<>(records.size());
+        parseRecords(records, orders, ids);
+
+        if (!orders.isEmpty()) {
+            if (orderMapper.insertBatch(orders) > 0) {
+                onPersisted(orders);
+            } else {
+                persistOneByOne(orders);
+            }
+        }
+        acknowledge(ids, orders.size());
+    }
+
+    /**
+     * 异步落库：交给写缓冲后立即返回，写入完成后在回调线程上完成后续处理并确认消息
+     */
+    private void persistBatchAsync(List<MapRecord<String, Object, Object>> records, Semaphore inFlight,
+                                   AtomicBoolean redeliver) throws InterruptedException {
+        List<SeckillOrder> orders = new ArrayList<>(records.size());
+        List<RecordId> ids = new ArrayList<>(records.size());
+        parseRecords(records, orders, ids);
+
+        inFlight.acquire();
+        orderMapper.insertBatchAsync(orders).whenCompleteAsync((count, e) -> {
+            try {
+                if (e == null) {
+                    onPersisted(orders);
+                } else {
+                    log.warn("订单批量异步落库失败，逐条重试, 数量: {}", orders.size(), e);
+                    persistOneByOne(orders);
+                }
+                acknowledge(ids, orders.size());
+            } catch (Exception ex) {
+                log.error("订单落库后续处理失败，稍后重新读取未确认消息, 数量: {}", orders.size(), ex);
+                redeliver.set(true);
+            } finally {
+                inFlight.release();
+            }
+        }, persistCallbackExecutor);
+    }
+
+    private void parseRecords(List<MapRecord<String, Object, Object>> records, List<SeckillOrder> orders,
+                              List<RecordId> ids) {
+        for (MapRecord<String, Object, Object> record : records) {
+            Object json = record.getValue().get(FIELD_ORDER);
+            try {
+                orders.add(objectMapper.readValue(String.valueOf(json), SeckillOrder.class));
+                ids.add(record.getId());
+            } catch (Exception e) {
+                log.error("解析Stream订单消息失败, id={}, value={}", record.getId(), json, e);
+                // 转入死信后随本批确认；转入失败时不确认，之后重新处理
+                if (deadLetter(record, e)) {
+                    ids.add(record.getId());
+                }
+            }
+        }
+    }
+
+    /**
+     * 无法解析的消息转入死信Stream，再从原始内容中读出订单ID、活动和用户，回补预扣库存并标记下单失败，
+     * 避免库存一直被占用、用户一直轮询到排队中
+     */
+    private boolean deadLetter(MapRecord<String, Object, Object> record, Exception cause) {
+        Map<String, String> fields = new HashMap<>();
+        record.getValue().forEach((k, v) -> fields.put(String.valueOf(k), String.valueOf(v)));
+        fields.put(FIELD_SOURCE_ID, record.getId().getValue());
+        fields.put(FIELD_ERROR, String.valueOf(cause.getMessage()));
+        try {
+            stringRedisTemplate.opsForStream().add(StreamRecords.newRecord().in(deadLetterKey).ofMap(fields));
+        } catch (Exception e) {
+            log.error("订单消息转入死信Stream失败, id={}", record.getId(), e);
+            return false;
+        }
+        String raw = fields.get(FIELD_ORDER);
+        Long orderId = rawLongField(raw, "id");
+        Long activityId = rawLongField(raw, "activityId");
+        Long userId = rawLongField(raw, "userId");
+        if (activityId != null && userId != null) {
+            // 回补数量按预扣明细，明细已不存在（消息被重复处理）时不再回补
+            seckillStockService.release(activityId, rawLongField(raw, "productId"), userId, 0);
+        }
+        if (orderId != null) {
+            cacheOrderStatus(orderId, PayStatusEnum.FAILED.getCode());
+        }
+        log.warn("订单消息已转入死信Stream {}, id={}, 订单ID: {}, 活动ID: {}, 用户ID: {}",
+                deadLetterKey, record.getId(), orderId, activityId, userId);
+        return true;
+    }
+
+    /**
+     * 从原始JSON文本中按字段名读取整数，JSON本身损坏时也尽量读出
+     */
+    private Long rawLongField(String raw, String name) {
+        if (raw == null) {
+            return null;
+        }
+        Matcher matcher = Pattern.compile("\"" + name + "\"\\s*:\\s*\"?(-?\\d+)").matcher(raw);
+        return matcher.find() ? Long.valueOf(matcher.group(1)) : null;
+    }
+
+    /**
+     * 参与索引写入失败时抛出异常，消息不确认，之后按未确认消息重新处理（persistRecovered会补写索引）；
+     * 否则Redis参与集合重建后缺少该用户，同一用户可以再次下单
+     */
+    private void onPersisted(List<SeckillOrder> orders) {
+        if (activityParticipantMapper.addBatch(orders) < orders.size()) {
+            throw new IllegalStateException("写入活动参与索引失败, 数量: " + orders.size());
+        }
+        orders.forEach(o -> cacheOrderStatus(o.getId(), o.getStatus()));
+        orderTimeoutService.schedule(orders);
+    }
+
+    /**
+     * 批量写入失败时逐条重试，仍失败的订单回补库存并标记下单失败
+     */
+    private void persistOneByOne(List<SeckillOrder> orders) {
+        IllegalStateException indexFailure = null;
+        for (SeckillOrder order : orders) {
+            if (orderMapper.insert(order) > 0) {
+                try {
+                    onPersisted(List.of(order));
+                } catch (IllegalStateException e) {
+                    // 其余订单照常处理，最后再抛出，整批消息不确认
+                    indexFailure = e;
+                }
+            } else {
+                seckillStockService.release(order.getActivityId(), order.getProductId(),
+                        order.getUserId(), order.getQuantity());
+                cacheOrderStatus(order.getId(), PayStatusEnum.FAILED.getCode());
+                log.error("订单落库失败，已回补库存，订单ID: {}", order.getId());
+            }
+        }
+        if (indexFailure != null) {
+            throw indexFailure;
+        }
+    }
+
+    private void acknowledge(List<RecordId> ids, int persisted) {
+        RecordId[] recordIds = ids.toArray(new RecordId[0]);
+        stringRedisTemplate.opsForStream().acknowledge(streamKey, groupName, recordIds);
+        stringRedisTemplate.opsForStream().delete(streamKey, recordIds);
+        log.debug("订单Stream批量落库完成, 数量: {}", persisted);
+    }
+
+    private boolean isFailed(Long orderId) {
+        Object cached = redisUtil.get(ORDER_STATUS_PREFIX + orderId);
+        return cached != null && PayStatusEnum.FAILED.getCode().toString().equals(cached.toString());
+    }
+
+    private void cacheOrderStatus(Long orderId, Integer status) {
+        if (orderId == null || status == null) return;
+        redisUtil.set(ORDER_STATUS_PREFIX + orderId, status, 24, TimeUnit.HOURS);
+    }
+
+    /**
+     * XADD结果未知的订单及写入的起止时间
+     */
+    private record UnconfirmedOrder(SeckillOrder order, long attemptStart, long attemptEnd) {
+    }
+
+    private void sleepQuietly() {
+        try {
+            Thread.sleep(blockMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.seckill.common.BusinessException;
+import com.seckill.common.CursorPageResult;
 import com.seckill.common.PageQuery;
 import com.seckill.common.PageResult;
 import com.seckill.dto.CartItemAddDTO;
@@ -13,13 +14,22 @@ import com.seckill.entity.SeckillActivity;
 import com.seckill.entity.SeckillOrder;
 import com.seckill.enums.ActivityStatusEnum;
 import com.seckill.enums.PayStatusEnum; // 【新增】引入枚举
+import com.seckill.mapper.ActivityParticipantMapper;
 import com.seckill.mapper.ProductMapper;
 import com.seckill.mapper.SeckillActivityMapper;
 import com.seckill.mapper.SeckillOrderMapper;
+import com.seckill.service.OrderTimeoutService;
 import com.seckill.service.ProductService;
 import com.seckill.service.SalesAnalysisService;
+import com.seckill.service.SeckillActivityCacheService;
+import com.seckill.service.SeckillOrderQueueService;
 import com.seckill.service.SeckillOrderService;
+import com.seckill.service.SeckillSoldOutService;
+import com.seckill.service.SeckillStockService;
+import com.seckill.util.HBaseCursor;
 import com.seckill.util.RedisUtil;
+import com.seckill.util.SnowflakeIdGenerator;
+import com.seckill.vo.OrderStatusVO;
 import com.seckill.vo.SeckillOrderVO;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
@@ -30,6 +40,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -58,118 +69,113 @@ public class SeckillOrderServiceImpl implements SeckillOrderService {
     @Autowired
     private ProductService productService;
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    @Autowired
+    private SeckillStockService seckillStockService;
 
-    private static final String ACTIVITY_LOCK_PREFIX = "seckill:activity:lock:";
-    private static final String ACTIVITY_STOCK_PREFIX = "seckill:activity:stock:";
-    private static final String PRODUCT_STOCK_PREFIX = "stock:";
-    private static final String ORDER_STATUS_PREFIX = "order:status:";
+    @Autowired
+    private SeckillSoldOutService seckillSoldOutService;
 
-    @Override
-    @Transactional
-    public Long createSeckillOrder(SeckillOrderDTO orderDTO) {
-        Long activityId = orderDTO.getActivityId();
-        Long userId = orderDTO.getUserId();
+    @Autowired
+    private SeckillActivityCacheService activityCacheService;
 
-        String lockKey = ACTIVITY_LOCK_PREFIX + activityId;
+    @Autowired
+    private ActivityParticipantMapper activityParticipantMapper;
 
-        return redisUtil.executeWithLock(lockKey, 10L, TimeUnit.SECONDS, () -> {
-            log.info("用户 {} 开始秒杀活动 {}", userId, activityId);
+    @Autowired
+    private SeckillOrderQueueService seckillOrderQueueService;
 
-            SeckillActivity activity = activityMapper.selectById(activityId);
-            if (activity == null) throw new BusinessException("秒杀活动不存在");
-            if (!activity.getStatus().equals(ActivityStatusEnum.IN_PROGRESS.getCode())) throw new BusinessException("秒杀活动未进行中");
-            if (activity.getEndTime().isBefore(LocalDateTime.now())) throw new BusinessException("秒杀活动已结束");
+    @Autowired
+    private SnowflakeIdGenerator snowflakeIdGenerator;
 
-            String stockKey = ACTIVITY_STOCK_PREFIX + activityId;
-            Integer remainingStock = (Integer) redisUtil.get(stockKey);
-            String productStockKey = PRODUCT_STOCK_PREFIX + orderDTO.getProductId();
+    @Autowired
+    private OrderTimeoutService orderTimeoutService;
 
-            if (remainingStock == null) {
-                remainingStock = activity.getSeckillStock();
-                redisUtil.set(stockKey, remainingStock, 24 * 60 * 60, TimeUnit.SECONDS);
-                redisUtil.set(productStockKey, remainingStock, 24 * 60 * 60, TimeUnit.SECONDS);
-            }
+    private final ObjectMapper objectMapper = new ObjectMapper();
 
-            if (remainingStock <= 0) throw new BusinessException("商品已售罄");
+    private static final String ORDER_STATUS_PREFIX = "order:status:";
+    private static final String ORDER_OWNER_PREFIX = "order:owner:";
+    /** 订单锁：支付、取消、行键迁移搬移订单行时持有 */
+    private static final String ORDER_LOCK_PREFIX = "seckill:order:cancel:";
+    /** 订单列表只读取SeckillOrderVO用到的列，收货地址、物流、订单明细列族不读取 */
+    private static final List<String> ORDER_LIST_FIELDS = List.of(
+            "orderNo", "userId", "activityId", "productId", "productName", "seckillPrice",
+            "quantity", "totalAmount", "status", "createTime");
 
-            // 检查HBase是否有历史订单 (排除已取消的)
-            List<SeckillOrder> userOrders = orderMapper.selectListByUser(userId, null);
-            boolean exists = userOrders.stream()
-                    .anyMatch(o -> o.getActivityId().equals(activityId)
-                            && (o.getStatus() != null && !o.getStatus().equals(PayStatusEnum.CANCELLED.getCode()))); // 【修改】使用枚举
-            if (exists) throw new BusinessException("您已经参与过此秒杀活动");
+    @Override
+    @Transactional
+    public Long createSeckillOrder(SeckillOrderDTO orderDTO) {
+        Long activityId = orderDTO.getActivityId();
+        Long userId = orderDTO.getUserId();
+        log.info("用户 {} 开始秒杀活动 {}", userId, activityId);
 
-            // 预扣库存
-            Long newStock = redisUtil.decrement(stockKey);
-            if (newStock < 0) {
-                redisUtil.increment(stockKey);
-                throw new BusinessException("商品已售罄");
-            }
-            redisUtil.decrement(productStockKey);
+        // 本地售罄标记，售罄后的请求不再访问HBase和Redis
+        if (seckillSoldOutService.isSoldOut(activityId)) {
+            throw new BusinessException("商品已售罄");
+        }
 
-            try {
-                SeckillOrder order = new SeckillOrder();
-                BeanUtils.copyProperties(orderDTO, order);
-                order.setOrderNo(generateOrderNo());
-                order.setProductName(activity.getActivityName());
-                order.setSeckillPrice(activity.getSeckillPrice());
-                order.setTotalAmount(activity.getSeckillPrice().multiply(BigDecimal.valueOf(orderDTO.getQuantity())));
-                order.setDiscountAmount(BigDecimal.ZERO);
-                order.setActualAmount(order.getTotalAmount());
-
-                // 【修改】设置状态为 UNPAID (0)
-                order.setStatus(PayStatusEnum.UNPAID.getCode());
-
-                order.setCreateTime(LocalDateTime.now());
-                order.setUpdateTime(LocalDateTime.now());
-                order.setOrderItems(buildOrderItemsJson(order));
-
-                int result = orderMapper.insert(order);
-                if (result <= 0) {
-                    redisUtil.increment(stockKey);
-                    redisUtil.increment(productStockKey);
-                    throw new BusinessException("创建订单失败");
-                }
+        // 活动快照已在开始前预热到本地和Redis，下单链路不访问HBase
+        SeckillActivity activity = activityCacheService.getActivity(activityId);
+        if (activity == null) throw new BusinessException("秒杀活动不存在");
+        LocalDateTime now = LocalDateTime.now();
+        // 状态由定时任务每分钟更新，开始时间已到但状态尚未切换时按开始时间放行
+        boolean started = activity.getStatus().equals(ActivityStatusEnum.IN_PROGRESS.getCode())
+                || (activity.getStatus().equals(ActivityStatusEnum.NOT_STARTED.getCode())
+                        && !activity.getStartTime().isAfter(now));
+        if (!started) throw new BusinessException("秒杀活动未进行中");
+        if (activity.getEndTime().isBefore(now)) throw new BusinessException("秒杀活动已结束");
+
+        // 预扣库存：库存校验、按购买数量扣减、用户参与校验（活动参与用户集合，O(1)）在Lua脚本中原子完成
+        int quantity = orderDTO.getQuantity();
+        seckillStockService.reserve(activity, userId, quantity);
 
-                cacheOrderStatus(order.getId(), order.getStatus());
-                log.info("用户 {} 秒杀成功，订单ID: {}", userId, order.getId());
-                return order.getId();
+        try {
+            SeckillOrder order = new SeckillOrder();
+            BeanUtils.copyProperties(orderDTO, order);
+            order.setProductId(activity.getProductId());
+            order.setProductName(activity.getActivityName());
+            order.setSeckillPrice(activity.getSeckillPrice());
+            order.setTotalAmount(activity.getSeckillPrice().multiply(BigDecimal.valueOf(quantity)));
+            order.setDiscountAmount(BigDecimal.ZERO);
+            order.setActualAmount(order.getTotalAmount());
+
+            // 【修改】设置状态为 UNPAID (0)
+            order.setStatus(PayStatusEnum.UNPAID.getCode());
+
+            order.setCreateTime(LocalDateTime.now());
+            order.setUpdateTime(LocalDateTime.now());
+            order.setOrderItems(buildOrderItemsJson(order));
+            // 本地生成时间有序、带用户分片的订单ID，订单号由ID派生
+            order.setId(snowflakeIdGenerator.nextOrderId(userId));
+            order.setOrderNo(snowflakeIdGenerator.orderNo(order.getId()));
+
+            // 写入Redis Stream后立即返回，由消费者组批量落库HBase，客户端轮询订单状态
+            seckillOrderQueueService.enqueue(order);
+            log.info("用户 {} 秒杀成功，订单ID: {}，等待落库", userId, order.getId());
+            return order.getId();
 
-            } catch (Exception e) {
-                redisUtil.increment(stockKey);
-                redisUtil.increment(productStockKey);
-                log.error("创建订单异常，回滚库存", e);
-                throw new BusinessException("创建订单失败");
-            }
-        });
+        } catch (Exception e) {
+            seckillStockService.release(activity, userId, quantity);
+            log.error("创建订单异常，回滚库存", e);
+            throw new BusinessException("创建订单失败");
+        }
     }
 
     @Override
     @Transactional
     public void cancelOrder(Long orderId) {
-        String lockKey = "seckill:order:cancel:" + orderId;
+        String lockKey = ORDER_LOCK_PREFIX + orderId;
 
         if (redisUtil.tryLock(lockKey, 5L, TimeUnit.SECONDS)) {
             try {
                 SeckillOrder order = orderMapper.selectById(orderId);
-                if (order == null) throw new BusinessException("订单不存在");
+                if (order == null) throw orderNotFound(orderId);
 
                 // 【修改】只允许取消 UNPAID 状态的订单
                 if (!order.getStatus().equals(PayStatusEnum.UNPAID.getCode())) {
                     throw new BusinessException("只能取消未支付订单");
                 }
 
-                // 【修改】设置状态为 CANCELLED (2)
-                order.setStatus(PayStatusEnum.CANCELLED.getCode());
-                order.setUpdateTime(LocalDateTime.now());
-                orderMapper.updateById(order);
-                cacheOrderStatus(orderId, order.getStatus());
-
-                String stockKey = ACTIVITY_STOCK_PREFIX + order.getActivityId();
-                redisUtil.increment(stockKey);
-                redisUtil.increment(PRODUCT_STOCK_PREFIX + order.getProductId());
-
+                doCancel(order);
                 log.info("取消订单成功，订单ID: {}", orderId);
             } finally {
                 redisUtil.unlock(lockKey);
@@ -180,36 +186,88 @@ public class SeckillOrderServiceImpl implements SeckillOrderService {
     }
 
     @Override
-    @Transactional
-    public void payOrder(Long orderId) {
-        SeckillOrder order = orderMapper.selectById(orderId);
-        if (order == null) throw new BusinessException("订单不存在");
+    public boolean cancelTimeoutOrder(Long orderId) {
+        String lockKey = ORDER_LOCK_PREFIX + orderId;
 
-        // 【修改】检查是否为 UNPAID
-        if (!order.getStatus().equals(PayStatusEnum.UNPAID.getCode())) {
-            throw new BusinessException("订单状态异常或已支付");
+        if (!redisUtil.tryLock(lockKey, 5L, TimeUnit.SECONDS)) {
+            throw new BusinessException("订单正在处理中");
+        }
+        try {
+            SeckillOrder order = orderMapper.selectById(orderId);
+            if (order == null) {
+                throw new BusinessException("订单不存在");
+            }
+            // 已支付或已取消的订单无需处理
+            if (!PayStatusEnum.UNPAID.getCode().equals(order.getStatus())) {
+                return false;
+            }
+            doCancel(order);
+            return true;
+        } finally {
+            redisUtil.unlock(lockKey);
         }
+    }
 
-        // 【修改】设置状态为 PAID (1)
-        order.setStatus(PayStatusEnum.PAID.getCode());
-        order.setPayTime(LocalDateTime.now());
-        order.setPayMethod("online");
+    /**
+     * 取消订单：更新状态、回补Redis库存、移除参与记录、撤销超时任务（调用方需持有订单锁）
+     */
+    private void doCancel(SeckillOrder order) {
+        // 【修改】设置状态为 CANCELLED (2)
+        order.setStatus(PayStatusEnum.CANCELLED.getCode());
         order.setUpdateTime(LocalDateTime.now());
-        orderMapper.updateById(order);
-        cacheOrderStatus(orderId, order.getStatus());
+        // 没有写成功（订单行不存在或HBase异常）时不回补库存，由调用方重试
+        if (orderMapper.updateById(order) == 0) {
+            throw new BusinessException("取消订单失败，请稍后重试");
+        }
+        cacheOrderStatus(order.getId(), order.getStatus());
 
-        String lockKey = "seckill:stock:update:" + order.getActivityId();
-        if (redisUtil.tryLock(lockKey, 5L, TimeUnit.SECONDS)) {
-            try {
-                SeckillActivity activity = activityMapper.selectById(order.getActivityId());
-                activity.setSeckillStock(activity.getSeckillStock() - order.getQuantity());
-                activityMapper.updateById(activity);
-            } finally {
-                redisUtil.unlock(lockKey);
+        seckillStockService.release(order.getActivityId(), order.getProductId(),
+                order.getUserId(), order.getQuantity());
+        activityParticipantMapper.remove(order.getActivityId(), order.getUserId());
+        orderTimeoutService.cancel(order.getId());
+    }
+
+    @Override
+    @Transactional
+    public void payOrder(Long orderId) {
+        // 与取消（含超时自动取消）使用同一把订单锁，避免已支付订单被取消
+        String orderLockKey = ORDER_LOCK_PREFIX + orderId;
+        if (!redisUtil.tryLock(orderLockKey, 5L, TimeUnit.SECONDS)) {
+            throw new BusinessException("系统繁忙，请稍后重试");
+        }
+        SeckillOrder order;
+        try {
+            order = orderMapper.selectById(orderId);
+            if (order == null) throw orderNotFound(orderId);
+
+            // 【修改】检查是否为 UNPAID
+            if (!order.getStatus().equals(PayStatusEnum.UNPAID.getCode())) {
+                throw new BusinessException("订单状态异常或已支付");
             }
+
+            // 【修改】设置状态为 PAID (1)
+            order.setStatus(PayStatusEnum.PAID.getCode());
+            order.setPayTime(LocalDateTime.now());
+            order.setPayMethod("online");
+            order.setUpdateTime(LocalDateTime.now());
+            if (orderMapper.updateById(order) == 0) {
+                throw new BusinessException("支付失败，请稍后重试");
+            }
+            cacheOrderStatus(orderId, order.getStatus());
+            orderTimeoutService.cancel(orderId);
+        } finally {
+            redisUtil.unlock(orderLockKey);
         }
 
+        // 已售数量是HBase计数列，一次Increment完成，不再加锁读改写整行；与销售统计同时进行
+        CompletableFuture<Long> soldCount = activityMapper.incrementSoldCountAsync(order.getActivityId(),
+                order.getQuantity());
         salesAnalysisService.recordPaidOrder(order);
+        if (soldCount.join() == null) {
+            log.error("订单已支付但活动已售数量累加失败，等待对账修复，订单ID: {}, 活动ID: {}",
+                    orderId, order.getActivityId());
+        }
+
         log.info("订单支付成功，订单ID: {}", orderId);
     }
 
@@ -224,26 +282,102 @@ public class SeckillOrderServiceImpl implements SeckillOrderService {
         return vo;
     }
 
+    @Override
+    public OrderStatusVO getOrderStatus(Long orderId, Long userId) {
+        // 订单落库前只有下单时记录的所属用户，落库后所属用户记录过期时按订单校验
+        Object owner = redisUtil.get(ORDER_OWNER_PREFIX + orderId);
+        Object cached = redisUtil.get(ORDER_STATUS_PREFIX + orderId);
+        Integer status;
+        if (owner != null && cached != null) {
+            status = Integer.valueOf(cached.toString());
+        } else {
+            SeckillOrder order = orderMapper.selectById(orderId);
+            if (order == null) throw new BusinessException("订单不存在");
+            owner = order.getUserId();
+            status = cached != null ? Integer.valueOf(cached.toString()) : order.getStatus();
+            if (cached == null) {
+                cacheOrderStatus(orderId, status);
+            }
+        }
+        // 不是自己的订单按不存在处理，不暴露订单ID是否有效
+        if (owner == null || !owner.toString().equals(String.valueOf(userId))) {
+            throw new BusinessException("订单不存在");
+        }
+
+        OrderStatusVO vo = new OrderStatusVO();
+        vo.setOrderId(orderId);
+        vo.setStatus(status);
+        vo.setStatusDesc(getOrderStatusDesc(status));
+        return vo;
+    }
+
     @Override
     public List<SeckillOrderVO> getUserOrders(Long userId, Integer status) {
-        List<SeckillOrder> orders = orderMapper.selectListByUser(userId, status);
-        return orders.stream().map(order -> {
-            SeckillOrderVO vo = new SeckillOrderVO();
-            BeanUtils.copyProperties(order, vo);
-            vo.setStatusDesc(getOrderStatusDesc(order.getStatus()));
-            return vo;
-        }).collect(Collectors.toList());
+        List<SeckillOrder> orders = orderMapper.selectListByUser(userId, status, ORDER_LIST_FIELDS);
+        return orders.stream().map(this::convertToUserOrderVO).collect(Collectors.toList());
+    }
+
+    @Override
+    public CursorPageResult<SeckillOrderVO> getUserOrdersByCursor(Long userId, String cursor, Integer pageSize,
+                                                                  Integer status) {
+        CursorPageResult<SeckillOrder> orderPage;
+        try {
+            orderPage = orderMapper.selectListByUserByCursor(userId, cursor, HBaseCursor.pageSize(pageSize), status,
+                    ORDER_LIST_FIELDS);
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException(e.getMessage());
+        }
+        List<SeckillOrderVO> voList = orderPage.getRecords().stream()
+                .map(this::convertToUserOrderVO)
+                .collect(Collectors.toList());
+        return new CursorPageResult<>(voList, orderPage.getNextCursor(), orderPage.getPageSize());
+    }
+
+    private SeckillOrderVO convertToUserOrderVO(SeckillOrder order) {
+        SeckillOrderVO vo = new SeckillOrderVO();
+        BeanUtils.copyProperties(order, vo);
+        vo.setStatusDesc(getOrderStatusDesc(order.getStatus()));
+        return vo;
     }
 
     @Override
     public PageResult<SeckillOrderVO> getOrderList(PageQuery pageQuery, Integer status) {
         Page<SeckillOrder> page = new Page<>(pageQuery.getPageNum(), pageQuery.getPageSize());
-        IPage<SeckillOrder> orderPage = orderMapper.selectOrderPage(page, status);
+        IPage<SeckillOrder> orderPage = orderMapper.selectOrderPage(page, status, ORDER_LIST_FIELDS);
         List<SeckillOrder> records = orderPage.getRecords();
 
-        List<SeckillOrderVO> voList = new ArrayList<>();
         if (records == null || records.isEmpty()) {
-            return new PageResult<>(voList, 0L, pageQuery.getPageNum(), pageQuery.getPageSize());
+            return new PageResult<>(new ArrayList<>(), 0L, pageQuery.getPageNum(), pageQuery.getPageSize());
+        }
+        List<SeckillOrderVO> voList = convertToListVO(records);
+        return new PageResult<>(voList, orderPage.getTotal(), pageQuery.getPageNum(), pageQuery.getPageSize());
+    }
+
+    @Override
+    public CursorPageResult<SeckillOrderVO> getOrderListByCursor(String cursor, Integer pageSize, Integer status) {
+        CursorPageResult<SeckillOrder> orderPage;
+        try {
+            orderPage = orderMapper.selectOrderPageByCursor(cursor, HBaseCursor.pageSize(pageSize), status,
+                    ORDER_LIST_FIELDS);
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException(e.getMessage());
+        }
+        return new CursorPageResult<>(convertToListVO(orderPage.getRecords()), orderPage.getNextCursor(),
+                orderPage.getPageSize());
+    }
+
+    private List<SeckillOrderVO> convertToListVO(List<SeckillOrder> records) {
+        List<SeckillOrderVO> voList = new ArrayList<>();
+        // 订单快照中缺少商品名称时补全，缺的商品一次multi-get查出
+        Set<Long> missingProductIds = new HashSet<>();
+        for (SeckillOrder order : records) {
+            if (order.getProductName() == null && order.getProductId() != null) {
+                missingProductIds.add(order.getProductId());
+            }
+        }
+        Map<Long, Product> products = new HashMap<>();
+        for (Product product : productMapper.selectBatchIds(missingProductIds, List.of("productName"))) {
+            products.put(product.getId(), product);
         }
 
         for (SeckillOrder order : records) {
@@ -265,7 +399,7 @@ public class SeckillOrderServiceImpl implements SeckillOrderService {
 
             // 补全商品信息
             if (vo.getProductName() == null && order.getProductId() != null) {
-                Product product = productMapper.selectById(order.getProductId());
+                Product product = products.get(order.getProductId());
                 if (product != null) {
                     vo.setProductName(product.getProductName());
                 }
@@ -277,8 +411,7 @@ public class SeckillOrderServiceImpl implements SeckillOrderService {
             vo.setStatusDesc(getOrderStatusDesc(order.getStatus()));
             voList.add(vo);
         }
-
-        return new PageResult<>(voList, orderPage.getTotal(), pageQuery.getPageNum(), pageQuery.getPageSize());
+        return voList;
     }
 
 
@@ -288,6 +421,17 @@ public class SeckillOrderServiceImpl implements SeckillOrderService {
         redisUtil.set(ORDER_STATUS_PREFIX + orderId, status, 24, TimeUnit.HOURS);
     }
 
+    /**
+     * 订单尚未落库时区分"排队中"和"不存在"
+     */
+    private BusinessException orderNotFound(Long orderId) {
+        Object cached = redisUtil.get(ORDER_STATUS_PREFIX + orderId);
+        if (cached != null && PayStatusEnum.QUEUING.getCode().toString().equals(cached.toString())) {
+            return new BusinessException("订单处理中，请稍后重试");
+        }
+        return new BusinessException("订单不存在");
+    }
+
     private String buildOrderItemsJson(SeckillOrder order) {
         try {
             Map<String, Object> item = new HashMap<>();
@@ -314,8 +458,4 @@ public class SeckillOrderServiceImpl implements SeckillOrderService {
         }
         return "未知状态";
     }
-
-    private String generateOrderNo() {
-        return "SK" + System.currentTimeMillis() + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-    }
 }
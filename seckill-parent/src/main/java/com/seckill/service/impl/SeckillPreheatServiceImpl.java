@@ -0,0 +1,128 @@
+package com.seckill.service.impl;
+
+import com.seckill.common.BusinessException;
+import com.seckill.entity.SeckillActivity;
+import com.seckill.enums.ActivityStatusEnum;
+import com.seckill.mapper.SeckillActivityMapper;
+import com.seckill.service.ProductService;
+import com.seckill.service.SeckillActivityCacheService;
+import com.seckill.service.SeckillPreheatService;
+import com.seckill.service.SeckillStockService;
+import com.seckill.util.RedisCache;
+import com.seckill.vo.ActivityReadinessVO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 秒杀活动预热实现类
+ * 就绪情况写入Redis hash，任意节点都可以查询
+ */
+@Slf4j
+@Service
+public class SeckillPreheatServiceImpl implements SeckillPreheatService {
+
+    private static final String READINESS_KEY = "seckill:activity:readiness";
+
+    @Value("${seckill.preheat.lead-minutes:5}")
+    private long leadMinutes;
+
+    @Autowired
+    private SeckillActivityMapper activityMapper;
+
+    @Autowired
+    private SeckillActivityCacheService activityCacheService;
+
+    @Autowired
+    private SeckillStockService seckillStockService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private RedisCache redisCache;
+
+    @Override
+    public void preheatUpcomingActivities() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime horizon = now.plusMinutes(leadMinutes);
+        for (SeckillActivity activity : activityMapper.selectAll()) {
+            if (activity.getDeleted() != null && activity.getDeleted() == 1) continue;
+            if (activity.getStartTime() == null || activity.getEndTime() == null) continue;
+            if (activity.getEndTime().isBefore(now)) {
+                redisCache.delCacheMapValue(READINESS_KEY, String.valueOf(activity.getId()));
+                continue;
+            }
+            if (activity.getStartTime().isAfter(horizon)) continue;
+            if (ActivityStatusEnum.ENDED.getCode().equals(activity.getStatus())) continue;
+            // 进行中的活动也重复检查，Redis key被淘汰时自动补齐
+            ActivityReadinessVO readiness = preheat(activity);
+            if (!readiness.getReady()) {
+                log.warn("秒杀活动预热未就绪，活动ID: {}, 开始时间: {}, 原因: {}",
+                        activity.getId(), activity.getStartTime(), readiness.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public ActivityReadinessVO preheat(Long activityId) {
+        SeckillActivity activity = activityMapper.selectById(activityId);
+        if (activity == null) {
+            throw new BusinessException("秒杀活动不存在");
+        }
+        return preheat(activity);
+    }
+
+    @Override
+    public List<ActivityReadinessVO> getReadinessList() {
+        Map<String, ActivityReadinessVO> readinessMap = redisCache.getCacheMap(READINESS_KEY);
+        List<ActivityReadinessVO> list = new ArrayList<>(readinessMap.values());
+        list.sort(Comparator.comparing(ActivityReadinessVO::getStartTime,
+                Comparator.nullsLast(Comparator.naturalOrder())));
+        return list;
+    }
+
+    private ActivityReadinessVO preheat(SeckillActivity activity) {
+        ActivityReadinessVO readiness = new ActivityReadinessVO();
+        readiness.setActivityId(activity.getId());
+        readiness.setActivityName(activity.getActivityName());
+        readiness.setStartTime(activity.getStartTime());
+        readiness.setPreheatTime(LocalDateTime.now());
+
+        List<String> problems = new ArrayList<>();
+        // HBase读到的最新快照直接覆盖缓存
+        activityCacheService.put(activity);
+        readiness.setActivityReady(activityCacheService.isCached(activity.getId()));
+        if (!readiness.getActivityReady()) {
+            problems.add("活动快照未加载");
+        }
+
+        try {
+            readiness.setStockReady(seckillStockService.preload(activity));
+        } catch (Exception e) {
+            log.error("预热秒杀库存失败，活动ID: {}", activity.getId(), e);
+            readiness.setStockReady(false);
+        }
+        if (!readiness.getStockReady()) {
+            problems.add("库存未加载");
+        }
+
+        readiness.setProductReady(productService.preloadProduct(activity.getProductId()));
+        if (!readiness.getProductReady()) {
+            problems.add("商品详情未加载");
+        }
+
+        readiness.setReady(problems.isEmpty());
+        readiness.setMessage(problems.isEmpty() ? "就绪" : String.join("，", problems));
+        redisCache.setCacheMapValue(READINESS_KEY, String.valueOf(activity.getId()), readiness);
+        log.info("秒杀活动预热完成，活动ID: {}, 就绪: {}", activity.getId(), readiness.getReady());
+        return readiness;
+    }
+}
@@ -0,0 +1,132 @@
+package com.seckill.service.impl;
+
+import com.seckill.service.SeckillSoldOutService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 秒杀售罄标记实现类
+ * 广播消息格式：SOLD_OUT:{activityId} / AVAILABLE:{activityId}
+ * 发布订阅不保证不同节点消息的先后顺序，本地标记设置有效期，
+ * 过期后放行一次请求到Redis重新确认，避免迟到的售罄消息长时间挡住已回补的库存。
+ * 售罄时同时在Redis写入共享标记（与本地标记同有效期），回补库存时只有确实清除了标记才广播，
+ * 没有售罄的活动取消订单不会每次都广播
+ */
+@Slf4j
+@Service
+public class SeckillSoldOutServiceImpl implements SeckillSoldOutService, MessageListener {
+
+    private static final String SOLD_OUT = "SOLD_OUT";
+    private static final String AVAILABLE = "AVAILABLE";
+    private static final String SOLD_OUT_MARK_PREFIX = "seckill:activity:sold-out:mark:";
+
+    @Value("${seckill.sold-out.channel:seckill:activity:sold-out}")
+    private String channel;
+
+    @Value("${seckill.sold-out.local-ttl-seconds:10}")
+    private long localTtlSeconds;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    /** 活动ID -> 售罄标记过期时间（纳秒） */
+    private final Map<Long, Long> soldOutMarks = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void subscribe() {
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(channel));
+    }
+
+    @Override
+    public boolean isSoldOut(Long activityId) {
+        Long expireAt = soldOutMarks.get(activityId);
+        if (expireAt == null) {
+            return false;
+        }
+        if (System.nanoTime() - expireAt > 0) {
+            soldOutMarks.remove(activityId, expireAt);
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void markSoldOut(Long activityId) {
+        // 先设置本地标记，广播失败不影响本节点
+        setLocal(activityId);
+        try {
+            stringRedisTemplate.opsForValue().set(SOLD_OUT_MARK_PREFIX + activityId, SOLD_OUT,
+                    localTtlSeconds, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            log.error("写入售罄标记失败，活动ID: {}", activityId, e);
+        }
+        publish(SOLD_OUT, activityId);
+    }
+
+    @Override
+    public void clearSoldOut(Long activityId) {
+        boolean cleared = soldOutMarks.remove(activityId) != null;
+        try {
+            // 多个节点同时回补时只有删除成功的节点广播
+            cleared |= Boolean.TRUE.equals(stringRedisTemplate.delete(SOLD_OUT_MARK_PREFIX + activityId));
+        } catch (Exception e) {
+            log.error("清除售罄标记失败，活动ID: {}", activityId, e);
+            cleared = true;
+        }
+        if (cleared) {
+            publish(AVAILABLE, activityId);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int idx = body.indexOf(':');
+        if (idx <= 0) {
+            log.warn("无法识别的售罄广播消息: {}", body);
+            return;
+        }
+        Long activityId;
+        try {
+            activityId = Long.valueOf(body.substring(idx + 1));
+        } catch (NumberFormatException e) {
+            log.warn("无法识别的售罄广播消息: {}", body);
+            return;
+        }
+        String type = body.substring(0, idx);
+        if (SOLD_OUT.equals(type)) {
+            setLocal(activityId);
+        } else if (AVAILABLE.equals(type)) {
+            soldOutMarks.remove(activityId);
+        }
+        log.debug("收到售罄广播，活动ID: {}, 类型: {}", activityId, type);
+    }
+
+    private void setLocal(Long activityId) {
+        soldOutMarks.put(activityId, System.nanoTime() + TimeUnit.SECONDS.toNanos(localTtlSeconds));
+    }
+
+    private void publish(String type, Long activityId) {
+        try {
+            stringRedisTemplate.convertAndSend(channel, type + ":" + activityId);
+        } catch (Exception e) {
+            log.error("广播售罄标记失败，活动ID: {}, 类型: {}", activityId, type, e);
+        }
+    }
+}
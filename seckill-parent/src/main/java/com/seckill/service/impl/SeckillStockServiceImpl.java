@@ -0,0 +1,418 @@
+package com.seckill.service.impl;
+
+import com.seckill.common.BusinessException;
+import com.seckill.entity.SeckillActivity;
+import com.seckill.mapper.ActivityParticipantMapper;
+import com.seckill.service.SeckillActivityCacheService;
+import com.seckill.service.SeckillSoldOutService;
+import com.seckill.service.SeckillStockService;
+import com.seckill.service.StockReconcileService;
+import com.seckill.util.RedisUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 秒杀库存服务实现类
+ * 库存校验、扣减、用户参与校验在一个Lua脚本中完成，不再依赖活动级分布式锁
+ * 热点活动可配置库存分桶：库存拆分到多个key，用户按ID固定路由到一个分桶，
+ * 分桶售罄时在所属分桶占用参与资格，直接从兄弟分桶扣减库存并记录来源分桶，释放时库存还回来源分桶，
+ * 避免单个key成为瓶颈
+ */
+@Slf4j
+@Service
+public class SeckillStockServiceImpl implements SeckillStockService {
+
+    private static final String ACTIVITY_STOCK_PREFIX = "seckill:activity:stock:";
+    private static final String PRODUCT_STOCK_PREFIX = "stock:";
+    private static final String ACTIVITY_USERS_PREFIX = "seckill:activity:users:";
+    private static final String ACTIVITY_RESERVED_PREFIX = "seckill:activity:reserved:";
+    private static final long STOCK_EXPIRE_SECONDS = 24 * 60 * 60;
+    private static final String STOCK_INIT_LOCK_PREFIX = "seckill:stock:init:";
+    private static final long STOCK_INIT_WAIT_SECONDS = 3;
+    private static final long STOCK_INIT_LEASE_SECONDS = 30;
+
+    private static final long RESULT_NOT_INITIALIZED = -1;
+    private static final long RESULT_ALREADY_JOINED = -2;
+    private static final long RESULT_SOLD_OUT = -3;
+    private static final long RESULT_USERS_NOT_LOADED = -4;
+    private static final long RESULT_BORROW_CLAIMED = -5;
+    /** 释放脚本返回的来源分桶，-1表示库存已回补到用户所属分桶 */
+    private static final long HOME_BUCKET_SOURCE = -1;
+    /** 参与用户集合占位成员，保证活动无人参与时集合依然存在 */
+    private static final Long USERS_PLACEHOLDER = 0L;
+    private static final int MAX_RESERVE_ATTEMPTS = 3;
+    /** 用户ID散列乘数（黄金分割），避免连续ID集中到同一分桶 */
+    private static final long BUCKET_HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    @Autowired
+    private RedisUtil redisUtil;
+
+    @Autowired
+    private ActivityParticipantMapper activityParticipantMapper;
+
+    @Autowired
+    private SeckillActivityCacheService activityCacheService;
+
+    @Autowired
+    private SeckillSoldOutService seckillSoldOutService;
+
+    // 对账服务依赖库存服务修复Redis库存，这里延迟注入避免循环依赖
+    @Lazy
+    @Autowired
+    private StockReconcileService stockReconcileService;
+
+    @Autowired
+    private RedisScript<Long> seckillReserveScript;
+
+    @Autowired
+    private RedisScript<List<Long>> seckillReleaseScript;
+
+    @Autowired
+    private RedisScript<Long> seckillStockTakeScript;
+
+    @Autowired
+    private RedisScript<Long> seckillBorrowSourceScript;
+
+    @Override
+    public long reserve(SeckillActivity activity, Long userId, int quantity) {
+        int buckets = bucketCount(activity);
+        int home = homeBucket(userId, buckets);
+        List<String> keys = keys(activity, home);
+        // 分桶时所属分桶不足改为占用参与资格，再从兄弟分桶借调
+        int borrowMode = buckets > 1 ? 1 : 0;
+        Long result = null;
+        for (int attempt = 0; attempt < MAX_RESERVE_ATTEMPTS; attempt++) {
+            result = redisUtil.execute(seckillReserveScript, keys, userId, quantity, borrowMode);
+            if (result == null) {
+                break;
+            }
+            if (result == RESULT_NOT_INITIALIZED) {
+                // 库存尚未加载到Redis，使用SETNX初始化，避免并发覆盖已扣减的库存
+                initStock(activity);
+            } else if (result == RESULT_USERS_NOT_LOADED) {
+                loadParticipants(activity, home);
+            } else if (result == RESULT_BORROW_CLAIMED) {
+                result = borrow(activity, home, userId, quantity);
+                break;
+            } else {
+                break;
+            }
+        }
+        if (result == null || result == RESULT_NOT_INITIALIZED || result == RESULT_USERS_NOT_LOADED) {
+            throw new BusinessException("秒杀库存未就绪，请稍后重试");
+        }
+        if (result == RESULT_ALREADY_JOINED) {
+            throw new BusinessException("您已经参与过此秒杀活动");
+        }
+        if (result == RESULT_SOLD_OUT) {
+            // 分桶时此处已尝试过所有兄弟分桶
+            seckillSoldOutService.markSoldOut(activity.getId());
+            throw new BusinessException("商品已售罄");
+        }
+        if (buckets > 1) {
+            // 分桶时商品库存key不在同一slot，脚本外单独维护
+            adjustProductStock(activity.getProductId(), -quantity);
+        } else if (result == 0) {
+            seckillSoldOutService.markSoldOut(activity.getId());
+        }
+        return result;
+    }
+
+    @Override
+    public boolean restoreStock(SeckillActivity activity, int stock) {
+        stock = Math.max(stock, 0);
+        int buckets = bucketCount(activity);
+        boolean restored = false;
+        // 库存均分到各分桶，余数分给前几个分桶
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            int bucketStock = stock / buckets + (bucket < stock % buckets ? 1 : 0);
+            restored |= Boolean.TRUE.equals(redisUtil.setIfAbsent(stockKey(activity.getId(), bucket, buckets),
+                    bucketStock, STOCK_EXPIRE_SECONDS, TimeUnit.SECONDS));
+        }
+        redisUtil.setIfAbsent(PRODUCT_STOCK_PREFIX + activity.getProductId(), stock, STOCK_EXPIRE_SECONDS, TimeUnit.SECONDS);
+        if (restored && stock > 0) {
+            seckillSoldOutService.clearSoldOut(activity.getId());
+        }
+        return restored;
+    }
+
+    @Override
+    public long adjustStock(SeckillActivity activity, long delta) {
+        int buckets = bucketCount(activity);
+        long adjusted = 0;
+        if (delta > 0) {
+            // 补回的库存均分到已加载的分桶，余数分给前几个分桶，不集中到一个分桶
+            List<String> loaded = new ArrayList<>(buckets);
+            for (int bucket = 0; bucket < buckets; bucket++) {
+                String key = stockKey(activity.getId(), bucket, buckets);
+                if (Boolean.TRUE.equals(redisUtil.hasKey(key))) {
+                    loaded.add(key);
+                }
+            }
+            for (int i = 0; i < loaded.size(); i++) {
+                long share = delta / loaded.size() + (i < delta % loaded.size() ? 1 : 0);
+                if (share > 0 && giveBack(loaded.get(i), share)) {
+                    adjusted += share;
+                }
+            }
+        } else {
+            // 用借调脚本扣减，保证分桶库存不会被扣成负数
+            long remaining = -delta;
+            for (int bucket = 0; bucket < buckets && remaining > 0; bucket++) {
+                String key = stockKey(activity.getId(), bucket, buckets);
+                Object value = redisUtil.get(key);
+                long take = value == null ? 0 : Math.min(remaining, Long.parseLong(value.toString()));
+                if (take <= 0) {
+                    continue;
+                }
+                Long taken = redisUtil.execute(seckillStockTakeScript, List.of(key), take);
+                if (taken != null && taken >= 0) {
+                    remaining -= take;
+                }
+            }
+            adjusted = delta + remaining;
+        }
+        if (adjusted != 0) {
+            adjustProductStock(activity.getProductId(), adjusted);
+            if (adjusted > 0) {
+                seckillSoldOutService.clearSoldOut(activity.getId());
+            }
+        }
+        log.info("修正秒杀库存，活动ID: {}, 期望修正: {}, 实际修正: {}", activity.getId(), delta, adjusted);
+        return adjusted;
+    }
+
+    @Override
+    public long release(Long activityId, Long productId, Long userId, int quantity) {
+        SeckillActivity activity = activityCacheService.getActivity(activityId);
+        if (activity == null) {
+            // 活动已删除时按不分桶处理，回补只作用于仍存在的key
+            activity = new SeckillActivity();
+            activity.setId(activityId);
+            activity.setProductId(productId);
+        }
+        return release(activity, userId, quantity);
+    }
+
+    @Override
+    public long release(SeckillActivity activity, Long userId, int quantity) {
+        int buckets = bucketCount(activity);
+        List<Long> released = redisUtil.execute(seckillReleaseScript, keys(activity, homeBucket(userId, buckets)),
+                userId, quantity);
+        long count = released == null || released.isEmpty() ? 0 : released.get(0);
+        long source = released == null || released.size() < 2 ? HOME_BUCKET_SOURCE : released.get(1);
+        if (count > 0 && source != HOME_BUCKET_SOURCE) {
+            // 借调的库存还回来源分桶，来源分桶已过期时不回补
+            if (!giveBack(stockKey(activity.getId(), (int) source, buckets), count)) {
+                count = 0;
+            }
+        }
+        if (buckets > 1) {
+            adjustProductStock(activity.getProductId(), count);
+        }
+        if (count > 0) {
+            seckillSoldOutService.clearSoldOut(activity.getId());
+        }
+        log.info("释放秒杀库存，活动ID: {}, 用户ID: {}, 数量: {}", activity.getId(), userId, count);
+        return count;
+    }
+
+    @Override
+    public Integer getRemainingStock(SeckillActivity activity) {
+        int buckets = bucketCount(activity);
+        List<String> stockKeys = new ArrayList<>(buckets);
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            stockKeys.add(stockKey(activity.getId(), bucket, buckets));
+        }
+        // 各分桶key不在同一slot，逐个读取，集群模式下MGET会报CROSSSLOT
+        Integer remaining = null;
+        for (String stockKey : stockKeys) {
+            Object value = redisUtil.get(stockKey);
+            if (value != null) {
+                remaining = (remaining == null ? 0 : remaining) + Integer.parseInt(value.toString());
+            }
+        }
+        return remaining;
+    }
+
+    @Override
+    public boolean preload(SeckillActivity activity) {
+        int buckets = bucketCount(activity);
+        initStock(activity);
+        // 参与用户只从HBase加载一次，再按分桶分发
+        Set<Long> participants = null;
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            if (!Boolean.TRUE.equals(redisUtil.hasKey(usersKey(activity.getId(), bucket, buckets)))) {
+                if (participants == null) {
+                    participants = selectParticipants(activity.getId());
+                }
+                loadParticipants(activity, bucket, participants);
+            }
+        }
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            if (!Boolean.TRUE.equals(redisUtil.hasKey(stockKey(activity.getId(), bucket, buckets)))
+                    || !Boolean.TRUE.equals(redisUtil.hasKey(usersKey(activity.getId(), bucket, buckets)))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 所属分桶库存不足时，参与资格已在所属分桶占用，依次从兄弟分桶直接扣减库存并记录来源分桶；
+     * 兄弟分桶都不足时释放占用的参与资格
+     * @return 来源分桶扣减后的剩余库存，兄弟分桶都不足时返回库存不足
+     */
+    private long borrow(SeckillActivity activity, int home, Long userId, int quantity) {
+        int buckets = bucketCount(activity);
+        String reservedKey = keys(activity, home).get(2);
+        for (int offset = 1; offset < buckets; offset++) {
+            int sibling = (home + offset) % buckets;
+            String siblingKey = stockKey(activity.getId(), sibling, buckets);
+            Long left = redisUtil.execute(seckillStockTakeScript, List.of(siblingKey), quantity);
+            if (left == null || left < 0) {
+                continue;
+            }
+            Long recorded = redisUtil.execute(seckillBorrowSourceScript, List.of(reservedKey), userId, sibling);
+            if (!Long.valueOf(1L).equals(recorded)) {
+                // 占用的参与资格已被释放，扣减的库存还回去
+                giveBack(siblingKey, quantity);
+                throw new BusinessException("系统繁忙，请稍后重试");
+            }
+            log.debug("分桶库存借调，活动ID: {}, 分桶 {} -> {}, 数量: {}", activity.getId(), sibling, home, quantity);
+            return left;
+        }
+        redisUtil.execute(seckillReleaseScript, keys(activity, home), userId, 0);
+        return RESULT_SOLD_OUT;
+    }
+
+    /**
+     * 向分桶归还库存，分桶库存key已过期时不归还
+     */
+    private boolean giveBack(String stockKey, long quantity) {
+        Long left = redisUtil.execute(seckillStockTakeScript, List.of(stockKey), -quantity);
+        return left != null && left >= 0;
+    }
+
+    private void adjustProductStock(Long productId, long delta) {
+        String productKey = PRODUCT_STOCK_PREFIX + productId;
+        if (Boolean.TRUE.equals(redisUtil.hasKey(productKey))) {
+            redisUtil.increment(productKey, delta);
+        }
+    }
+
+    /**
+     * 库存key不存在时按订单记录计算剩余库存并加载到Redis
+     * 未支付订单同样占用库存，只扣除已售数量会在Redis数据丢失后超卖；
+     * 计算需要读取HBase，加锁避免并发请求同时重建
+     */
+    private void initStock(SeckillActivity activity) {
+        String lockKey = STOCK_INIT_LOCK_PREFIX + activity.getId();
+        if (!redisUtil.tryLock(lockKey, STOCK_INIT_WAIT_SECONDS, STOCK_INIT_LEASE_SECONDS, TimeUnit.SECONDS)) {
+            return;
+        }
+        try {
+            if (Boolean.TRUE.equals(redisUtil.hasKey(stockKey(activity.getId(), 0, bucketCount(activity))))) {
+                return;
+            }
+            int stock = stockReconcileService.computeExpectedStock(activity);
+            if (restoreStock(activity, stock)) {
+                log.info("加载秒杀库存到Redis，活动ID: {}, 剩余库存: {}", activity.getId(), stock);
+            }
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("加载秒杀库存失败，活动ID: {}", activity.getId(), e);
+            throw new BusinessException("系统繁忙，请稍后重试");
+        } finally {
+            redisUtil.unlock(lockKey);
+        }
+    }
+
+    /**
+     * 从HBase参与索引重建Redis参与用户集合，有效期与活动库存一致
+     * 分桶时只加载路由到该分桶的用户
+     */
+    private void loadParticipants(SeckillActivity activity, int bucket) {
+        loadParticipants(activity, bucket, selectParticipants(activity.getId()));
+    }
+
+    private void loadParticipants(SeckillActivity activity, int bucket, Set<Long> userIds) {
+        Long activityId = activity.getId();
+        int buckets = bucketCount(activity);
+        String usersKey = usersKey(activityId, bucket, buckets);
+        List<Object> members = new ArrayList<>(userIds.size() + 1);
+        members.add(USERS_PLACEHOLDER);
+        for (Long userId : userIds) {
+            if (homeBucket(userId, buckets) == bucket) {
+                members.add(userId);
+            }
+        }
+        redisUtil.sAdd(usersKey, members.toArray());
+
+        Long ttl = redisUtil.getExpire(stockKey(activityId, bucket, buckets));
+        redisUtil.expire(usersKey, ttl != null && ttl > 0 ? ttl : STOCK_EXPIRE_SECONDS, TimeUnit.SECONDS);
+        log.info("从HBase重建活动参与用户集合，活动ID: {}, 分桶: {}, 用户数: {}", activityId, bucket, members.size() - 1);
+    }
+
+    private Set<Long> selectParticipants(Long activityId) {
+        try {
+            return activityParticipantMapper.selectUserIds(activityId);
+        } catch (Exception e) {
+            throw new BusinessException("系统繁忙，请稍后重试");
+        }
+    }
+
+    private int bucketCount(SeckillActivity activity) {
+        Integer buckets = activity.getStockBuckets();
+        return buckets == null || buckets < 1 ? 1 : buckets;
+    }
+
+    private int homeBucket(Long userId, int buckets) {
+        if (buckets <= 1) {
+            return 0;
+        }
+        return Math.floorMod(Long.hashCode(userId * BUCKET_HASH_MULTIPLIER), buckets);
+    }
+
+    /**
+     * 不分桶时沿用原有key并在脚本内同步扣减商品库存；
+     * 分桶时同一分桶的key使用相同hash tag，保证集群模式下落在同一slot
+     */
+    private List<String> keys(SeckillActivity activity, int bucket) {
+        int buckets = bucketCount(activity);
+        Long activityId = activity.getId();
+        if (buckets <= 1) {
+            return Arrays.asList(
+                    stockKey(activityId, bucket, buckets),
+                    usersKey(activityId, bucket, buckets),
+                    ACTIVITY_RESERVED_PREFIX + activityId,
+                    PRODUCT_STOCK_PREFIX + activity.getProductId());
+        }
+        return Arrays.asList(
+                stockKey(activityId, bucket, buckets),
+                usersKey(activityId, bucket, buckets),
+                ACTIVITY_RESERVED_PREFIX + bucketTag(activityId, bucket));
+    }
+
+    private String stockKey(Long activityId, int bucket, int buckets) {
+        return ACTIVITY_STOCK_PREFIX + (buckets <= 1 ? activityId : bucketTag(activityId, bucket));
+    }
+
+    private String usersKey(Long activityId, int bucket, int buckets) {
+        return ACTIVITY_USERS_PREFIX + (buckets <= 1 ? activityId : bucketTag(activityId, bucket));
+    }
+
+    private String bucketTag(Long activityId, int bucket) {
+        return "{" + activityId + "-" + bucket + "}";
+    }
+}
@@ -0,0 +1,348 @@
+package com.seckill.service.impl;
+
+import com.seckill.common.BusinessException;
+import com.seckill.entity.SeckillActivity;
+import com.seckill.entity.SeckillOrder;
+import com.seckill.entity.StockSnapshot;
+import com.seckill.enums.ActivityStatusEnum;
+import com.seckill.enums.PayStatusEnum;
+import com.seckill.mapper.ActivityParticipantMapper;
+import com.seckill.mapper.SeckillActivityMapper;
+import com.seckill.mapper.SeckillOrderMapper;
+import com.seckill.mapper.StockSnapshotMapper;
+import com.seckill.service.SeckillStockService;
+import com.seckill.service.StockReconcileService;
+import com.seckill.util.RedisCache;
+import com.seckill.util.RedisUtil;
+import com.seckill.vo.StockReconcileReportVO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 秒杀库存对账实现类
+ * 应有库存不扫描order_history：通过活动参与索引（一行）拿到订单ID，再批量get订单；
+ * 需要对账的活动由按单元格时间戳过滤的增量扫描确定，扫描起点（检查点）保存在stock_snapshot表中。
+ * Redis库存缺失时直接按应有库存重建；Redis库存存在但有偏差时，只有连续两次偏差相同、
+ * 期间活动没有新订单写入、订单Stream没有积压，才认为偏差不是在途订单造成的并修正
+ */
+@Slf4j
+@Service
+@Order(3) // 在HBase表初始化、订单消费者启动之后恢复库存
+public class StockReconcileServiceImpl implements StockReconcileService, CommandLineRunner {
+
+    private static final String RECONCILE_LOCK_KEY = "seckill:stock:reconcile";
+    private static final String REPORT_KEY = "seckill:stock:reconcile:report";
+    /** 对账只需要订单的活动、数量和状态 */
+    private static final List<String> ORDER_FIELDS = List.of("activityId", "quantity", "status");
+
+    @Value("${seckill.reconcile.lease-seconds:300}")
+    private long leaseSeconds;
+
+    @Value("${seckill.reconcile.overlap-ms:60000}")
+    private long overlapMs;
+
+    @Value("${seckill.reconcile.retain-minutes:30}")
+    private long retainMinutes;
+
+    @Value("${seckill.reconcile.batch-size:500}")
+    private int batchSize;
+
+    @Value("${seckill.reconcile.repair-enabled:true}")
+    private boolean repairEnabled;
+
+    @Value("${seckill.preheat.lead-minutes:5}")
+    private long leadMinutes;
+
+    @Value("${seckill.order.stream.key:seckill:order:stream}")
+    private String streamKey;
+
+    @Autowired
+    private SeckillActivityMapper activityMapper;
+
+    @Autowired
+    private SeckillOrderMapper orderMapper;
+
+    @Autowired
+    private ActivityParticipantMapper activityParticipantMapper;
+
+    @Autowired
+    private StockSnapshotMapper stockSnapshotMapper;
+
+    @Autowired
+    private SeckillStockService seckillStockService;
+
+    @Autowired
+    private RedisUtil redisUtil;
+
+    @Autowired
+    private RedisCache redisCache;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    /** 上一次对账发现的偏差，连续两次相同才修正 */
+    private final Map<Long, Integer> lastDivergence = new ConcurrentHashMap<>();
+
+    /**
+     * 启动时重建对账窗口内活动的Redis库存和参与用户集合（Redis重启或故障切换后数据丢失）
+     */
+    @Override
+    public void run(String... args) {
+        backfillLegacyActivities();
+        try {
+            int restored = 0;
+            for (SeckillActivity activity : selectWindowActivities(LocalDateTime.now())) {
+                if (seckillStockService.getRemainingStock(activity) == null) {
+                    seckillStockService.preload(activity);
+                    restored++;
+                }
+            }
+            log.info("启动恢复秒杀库存完成，重建活动数: {}", restored);
+        } catch (Exception e) {
+            log.error("启动恢复秒杀库存失败", e);
+        }
+    }
+
+    /**
+     * 回填已售计数列上线前的旧活动：旧逻辑支付时直接扣减seckillStock，而新逻辑把seckillStock当作总库存、
+     * 已售数量记在计数列，不回填会被重复扣减。旧逻辑扣减的数量 = 已支付订单数量 - 上线后累加的已售计数
+     */
+    private void backfillLegacyActivities() {
+        int backfilled = 0;
+        for (SeckillActivity activity : activityMapper.selectAll()) {
+            if (activity.getLegacySold() != null) continue;
+            try {
+                int paid = computeSnapshot(activity).getPaidQuantity();
+                int sold = activity.getSoldCount() == null ? 0 : activity.getSoldCount();
+                int legacySold = Math.max(paid - sold, 0);
+                if (activityMapper.backfillLegacySold(activity, legacySold)) {
+                    backfilled++;
+                    log.info("旧活动已回填总库存，活动ID: {}, 回补数量: {}", activity.getId(), legacySold);
+                }
+            } catch (Exception e) {
+                log.error("回填旧活动失败，活动ID: {}", activity.getId(), e);
+            }
+        }
+        if (backfilled > 0) {
+            log.warn("旧活动库存回填完成，回填活动数: {}", backfilled);
+        }
+    }
+
+    @Override
+    public void reconcile() {
+        if (!redisUtil.tryLock(RECONCILE_LOCK_KEY, 0, leaseSeconds, TimeUnit.SECONDS)) {
+            log.debug("其他节点正在执行库存对账，跳过");
+            return;
+        }
+        try {
+            doReconcile();
+        } finally {
+            redisUtil.unlock(RECONCILE_LOCK_KEY);
+        }
+    }
+
+    private void doReconcile() {
+        long start = System.currentTimeMillis();
+        LocalDateTime now = LocalDateTime.now();
+
+        // 增量扫描：检查点之后有订单写入的活动，向前多扫一段覆盖节点间时钟偏差
+        Long checkpoint = stockSnapshotMapper.selectCheckpoint();
+        Set<Long> changed = checkpoint == null ? Collections.emptySet()
+                : orderMapper.selectActivityIdsModifiedBetween(Math.max(checkpoint - overlapMs, 0), start);
+
+        Map<Long, SeckillActivity> candidates = new LinkedHashMap<>();
+        for (SeckillActivity activity : selectWindowActivities(now)) {
+            candidates.put(activity.getId(), activity);
+        }
+        for (Long activityId : changed) {
+            if (!candidates.containsKey(activityId)) {
+                SeckillActivity activity = activityMapper.selectById(activityId);
+                if (activity != null && (activity.getDeleted() == null || activity.getDeleted() != 1)) {
+                    candidates.put(activityId, activity);
+                }
+            }
+        }
+        lastDivergence.keySet().retainAll(candidates.keySet());
+
+        Long backlog = stringRedisTemplate.opsForStream().size(streamKey);
+        long streamBacklog = backlog == null ? 0 : backlog;
+
+        StockReconcileReportVO report = new StockReconcileReportVO();
+        List<StockSnapshot> divergences = new ArrayList<>();
+        int restored = 0;
+        int repaired = 0;
+        int failed = 0;
+        for (SeckillActivity activity : candidates.values()) {
+            try {
+                boolean quiet = checkpoint != null && !changed.contains(activity.getId()) && streamBacklog == 0;
+                StockSnapshot snapshot = reconcile(activity, !isEnded(activity, now), quiet);
+                if (snapshot.getRedisStock() == null) {
+                    if (Boolean.TRUE.equals(snapshot.getRepaired())) restored++;
+                } else if (snapshot.getDivergence() != 0) {
+                    divergences.add(snapshot);
+                    if (Boolean.TRUE.equals(snapshot.getRepaired())) repaired++;
+                }
+            } catch (Exception e) {
+                failed++;
+                log.error("秒杀库存对账失败，活动ID: {}", activity.getId(), e);
+            }
+        }
+        // 检查点只在本轮完成后推进，失败的活动下一轮仍会被扫描到
+        if (failed == 0) {
+            stockSnapshotMapper.updateCheckpoint(start);
+        }
+
+        report.setRunTime(now);
+        report.setDurationMs(System.currentTimeMillis() - start);
+        report.setCheckedActivities(candidates.size());
+        report.setChangedActivities(changed.size());
+        report.setDivergentActivities(divergences.size());
+        report.setRestoredActivities(restored);
+        report.setRepairedActivities(repaired);
+        report.setFailedActivities(failed);
+        report.setStreamBacklog(streamBacklog);
+        report.setDivergences(divergences);
+        redisCache.setCacheObject(REPORT_KEY, report);
+
+        if (!divergences.isEmpty() || restored > 0 || failed > 0) {
+            log.warn("秒杀库存对账完成，检查: {}, 偏差: {}, 重建: {}, 修正: {}, 失败: {}, 耗时: {}ms",
+                    candidates.size(), divergences.size(), restored, repaired, failed, report.getDurationMs());
+        } else {
+            log.info("秒杀库存对账完成，检查: {}, 无偏差, 耗时: {}ms", candidates.size(), report.getDurationMs());
+        }
+    }
+
+    @Override
+    public StockSnapshot reconcile(Long activityId) {
+        SeckillActivity activity = activityMapper.selectById(activityId);
+        if (activity == null) {
+            throw new BusinessException("秒杀活动不存在");
+        }
+        return reconcile(activity, !isEnded(activity, LocalDateTime.now()), false);
+    }
+
+    /**
+     * 对账单个活动并写入快照
+     * @param restore Redis库存缺失时是否重建（活动未结束）
+     * @param quiet 活动近期无订单写入且订单Stream无积压，偏差稳定时允许修正
+     */
+    private StockSnapshot reconcile(SeckillActivity activity, boolean restore, boolean quiet) {
+        Long activityId = activity.getId();
+        Integer redisStock = seckillStockService.getRemainingStock(activity);
+        StockSnapshot snapshot = computeSnapshot(activity);
+        snapshot.setRedisStock(redisStock);
+        snapshot.setRepaired(false);
+
+        if (redisStock == null) {
+            if (restore && seckillStockService.restoreStock(activity, snapshot.getExpectedStock())) {
+                snapshot.setRepaired(true);
+                log.warn("Redis秒杀库存缺失，已按订单记录重建，活动ID: {}, 剩余库存: {}",
+                        activityId, snapshot.getExpectedStock());
+            }
+        } else {
+            int divergence = redisStock - snapshot.getExpectedStock();
+            snapshot.setDivergence(divergence);
+            if (divergence == 0) {
+                lastDivergence.remove(activityId);
+            } else {
+                Integer previous = lastDivergence.put(activityId, divergence);
+                log.warn("秒杀库存偏差，活动ID: {}, Redis: {}, 应有: {}, 偏差: {}, 未支付: {}, 已支付: {}, 已售计数: {}",
+                        activityId, redisStock, snapshot.getExpectedStock(), divergence,
+                        snapshot.getUnpaidQuantity(), snapshot.getPaidQuantity(), snapshot.getSoldCount());
+                if (repairEnabled && quiet && previous != null && previous == divergence) {
+                    long adjusted = seckillStockService.adjustStock(activity, -divergence);
+                    snapshot.setRepaired(adjusted != 0);
+                    lastDivergence.remove(activityId);
+                }
+            }
+        }
+        stockSnapshotMapper.insert(snapshot);
+        return snapshot;
+    }
+
+    @Override
+    public int computeExpectedStock(SeckillActivity activity) {
+        return computeSnapshot(activity).getExpectedStock();
+    }
+
+    private StockSnapshot computeSnapshot(SeckillActivity activity) {
+        Map<Long, Long> participants = activityParticipantMapper.selectOrderIds(activity.getId());
+        List<Long> orderIds = new ArrayList<>(new HashSet<>(participants.values()));
+        int unpaid = 0;
+        int paid = 0;
+        for (int from = 0; from < orderIds.size(); from += batchSize) {
+            List<Long> batch = orderIds.subList(from, Math.min(from + batchSize, orderIds.size()));
+            for (SeckillOrder order : orderMapper.selectBatchIds(batch, ORDER_FIELDS)) {
+                if (!activity.getId().equals(order.getActivityId())) continue;
+                int quantity = order.getQuantity() == null ? 0 : order.getQuantity();
+                if (PayStatusEnum.PAID.getCode().equals(order.getStatus())) {
+                    paid += quantity;
+                } else if (PayStatusEnum.UNPAID.getCode().equals(order.getStatus())
+                        || PayStatusEnum.QUEUING.getCode().equals(order.getStatus())) {
+                    unpaid += quantity;
+                }
+            }
+        }
+
+        // 回填标记为空说明是尚未回填的旧活动，seckillStock已扣除计数列上线前的已售数量，只再扣除计数列；
+        // 计数列可能因支付后累加失败而偏小，回填后取与已支付订单数量的较大值，宁可少放库存也不超卖
+        Integer soldCount = activity.getSoldCount();
+        int counted = soldCount == null ? 0 : soldCount;
+        int sold = activity.getLegacySold() == null ? counted : Math.max(counted, paid);
+        int total = activity.getSeckillStock() == null ? 0 : activity.getSeckillStock();
+
+        StockSnapshot snapshot = new StockSnapshot();
+        snapshot.setActivityId(activity.getId());
+        snapshot.setExpectedStock(Math.max(total - sold - unpaid, 0));
+        snapshot.setUnpaidQuantity(unpaid);
+        snapshot.setPaidQuantity(paid);
+        snapshot.setSoldCount(soldCount);
+        snapshot.setSnapshotTime(LocalDateTime.now());
+        return snapshot;
+    }
+
+    @Override
+    public StockReconcileReportVO getLastReport() {
+        return redisCache.getCacheObject(REPORT_KEY);
+    }
+
+    /**
+     * 对账窗口：即将开始（预热提前量内）、进行中、结束不久（未支付订单仍可能取消回补库存）的活动
+     */
+    private List<SeckillActivity> selectWindowActivities(LocalDateTime now) {
+        LocalDateTime horizon = now.plusMinutes(leadMinutes);
+        List<SeckillActivity> list = new ArrayList<>();
+        for (SeckillActivity activity : activityMapper.selectAll()) {
+            if (activity.getDeleted() != null && activity.getDeleted() == 1) continue;
+            if (activity.getStartTime() == null || activity.getEndTime() == null) continue;
+            if (activity.getStartTime().isAfter(horizon)) continue;
+            if (activity.getEndTime().plusMinutes(retainMinutes).isBefore(now)) continue;
+            list.add(activity);
+        }
+        return list;
+    }
+
+    /**
+     * 已结束的活动不再重建库存，只记录快照
+     */
+    private boolean isEnded(SeckillActivity activity, LocalDateTime now) {
+        return ActivityStatusEnum.ENDED.getCode().equals(activity.getStatus())
+                || (activity.getEndTime() != null && activity.getEndTime().isBefore(now));
+    }
+}
@@ -4,6 +4,7 @@ import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.core.toolkit.IdWorker;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.seckill.common.BusinessException;
+import com.seckill.common.CursorPageResult;
 import com.seckill.common.PageQuery;
 import com.seckill.dto.UserLoginDTO;
 import com.seckill.dto.UserRegisterDTO;
@@ -11,6 +12,7 @@ import com.seckill.entity.User;
 import com.seckill.enums.UserRoleEnum;
 import com.seckill.mapper.UserMapper;
 import com.seckill.service.UserService;
+import com.seckill.util.HBaseCursor;
 import com.seckill.util.JwtUtil;
 import com.seckill.util.RedisCache;
 import com.seckill.vo.LoginVO;
@@ -31,6 +33,9 @@ import java.util.stream.Collectors;
 @Service
 public class UserServiceImpl implements UserService {
 
+    /** 用户列表只读取UserVO用到的列，不读取密码和账户列族的积分、余额等 */
+    private static final List<String> LIST_FIELDS = List.of("username", "phone", "role", "createTime");
+
     @Autowired
     private UserMapper userMapper;
     
@@ -133,24 +138,40 @@ public class UserServiceImpl implements UserService {
     @Override
     public List<UserVO> getUserList(PageQuery pageQuery, String username) {
         // 调用 HBase Mapper 的 selectUserList，传入最大值作为 Limit 以获取所有符合条件的数据
-        List<User> userList = userMapper.selectUserList(username, Integer.MAX_VALUE, 0);
+        List<User> userList = userMapper.selectUserList(username, Integer.MAX_VALUE, 0, LIST_FIELDS);
         log.info("用户信息如下：{}", userList);
         // 转换为 VO
         List<UserVO> users = userList.stream()
-                .map(user -> {
-                    UserVO userVO = new UserVO();
-                    BeanUtils.copyProperties(user, userVO);
-                    if (user.getRole() != null) {
-                        userVO.setRoleDesc(UserRoleEnum.getByCode(user.getRole()).getDesc());
-                    } else {
-                        userVO.setRoleDesc(UserRoleEnum.getByCode(0).getDesc());
-                    }
-                    return userVO;
-                })
+                .map(this::convertToListVO)
                 .collect(Collectors.toList());
         return users;
     }
 
+    @Override
+    public CursorPageResult<UserVO> getUserListByCursor(String cursor, Integer pageSize, String username) {
+        CursorPageResult<User> userPage;
+        try {
+            userPage = userMapper.selectUserPageByCursor(cursor, HBaseCursor.pageSize(pageSize), username, LIST_FIELDS);
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException(e.getMessage());
+        }
+        List<UserVO> users = userPage.getRecords().stream()
+                .map(this::convertToListVO)
+                .collect(Collectors.toList());
+        return new CursorPageResult<>(users, userPage.getNextCursor(), userPage.getPageSize());
+    }
+
+    private UserVO convertToListVO(User user) {
+        UserVO userVO = new UserVO();
+        BeanUtils.copyProperties(user, userVO);
+        if (user.getRole() != null) {
+            userVO.setRoleDesc(UserRoleEnum.getByCode(user.getRole()).getDesc());
+        } else {
+            userVO.setRoleDesc(UserRoleEnum.getByCode(0).getDesc());
+        }
+        return userVO;
+    }
+
     @Override
     public void updateUserStatus(Long id, Integer status) {
         User user = userMapper.selectById(id);
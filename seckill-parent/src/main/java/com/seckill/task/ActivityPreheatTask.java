@@ -0,0 +1,30 @@
+package com.seckill.task;
+
+import com.seckill.service.SeckillPreheatService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 秒杀活动预热定时任务
+ */
+@Slf4j
+@Component
+public class ActivityPreheatTask {
+    
+    @Autowired
+    private SeckillPreheatService preheatService;
+    
+    /**
+     * 每30秒执行一次，预热开始时间在提前量（默认5分钟）之内的活动
+     */
+    @Scheduled(fixedDelayString = "${seckill.preheat.interval-ms:30000}")
+    public void preheatActivities() {
+        try {
+            preheatService.preheatUpcomingActivities();
+        } catch (Exception e) {
+            log.error("秒杀活动预热任务执行失败", e);
+        }
+    }
+}
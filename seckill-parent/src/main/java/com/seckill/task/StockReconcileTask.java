@@ -0,0 +1,31 @@
+package com.seckill.task;
+
+import com.seckill.service.StockReconcileService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 秒杀库存对账定时任务
+ */
+@Slf4j
+@Component
+public class StockReconcileTask {
+
+    @Autowired
+    private StockReconcileService stockReconcileService;
+
+    /**
+     * 每分钟执行一次，对账Redis库存与HBase订单记录并写入快照
+     */
+    @Scheduled(fixedDelayString = "${seckill.reconcile.interval-ms:60000}",
+            initialDelayString = "${seckill.reconcile.interval-ms:60000}")
+    public void reconcileStock() {
+        try {
+            stockReconcileService.reconcile();
+        } catch (Exception e) {
+            log.error("秒杀库存对账任务执行失败", e);
+        }
+    }
+}
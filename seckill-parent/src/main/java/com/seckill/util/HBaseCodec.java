@@ -0,0 +1,266 @@
+package com.seckill.util;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * HBase单元格类型编码
+ *
+ * 二进制格式（v1）：第1个字节是类型标记，后面是大端补码的最短字节（1~8字节）
+ * <ul>
+ *     <li>0x01 long、0x02 int：数值本身</li>
+ *     <li>0x03 decimal：1字节scale + unscaledValue</li>
+ *     <li>0x04 时间：epoch毫秒（按系统时区换算LocalDateTime）</li>
+ * </ul>
+ * 旧数据是UTF-8字符串（数字、"yyyy-MM-dd HH:mm:ss"），首字节都是可见字符，
+ * 读取时按首字节区分，两种格式都能解码；新版本格式使用新的标记值，不会与v1冲突
+ *
+ * 不适用于HBase原子计数器列（sold_count、id_generator），那些列固定是8字节long
+ */
+public final class HBaseCodec {
+
+    public static final byte V1_LONG = 0x01;
+    public static final byte V1_INT = 0x02;
+    public static final byte V1_DECIMAL = 0x03;
+    public static final byte V1_TIME = 0x04;
+
+    /** 小于该值的首字节表示二进制编码（旧字符串格式不会以控制字符开头） */
+    private static final int BINARY_MARKER_LIMIT = 0x20;
+
+    public static final DateTimeFormatter LEGACY_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private HBaseCodec() {
+    }
+
+    /**
+     * 列值类型，供迁移等按列处理的场景使用
+     */
+    public enum ColumnType {
+        LONG, INT, DECIMAL, TIME;
+
+        /**
+         * 把单元格重新编码为二进制格式，已经是二进制或无法解析时返回null
+         */
+        public byte[] reencode(byte[] value) {
+            if (value == null || value.length == 0 || isBinary(value)) {
+                return null;
+            }
+            try {
+                return switch (this) {
+                    case LONG -> encodeLong(decodeLong(value));
+                    case INT -> encodeInt(decodeInt(value));
+                    case DECIMAL -> {
+                        byte[] encoded = encodeDecimal(decodeDecimal(value));
+                        // 超出范围的decimal仍是字符串，不需要重写
+                        yield isBinary(encoded) ? encoded : null;
+                    }
+                    case TIME -> encodeTime(decodeTime(value));
+                };
+            } catch (RuntimeException e) {
+                return null;
+            }
+        }
+    }
+
+    public static boolean isBinary(byte[] value) {
+        return value != null && isBinary(value, 0, value.length);
+    }
+
+    public static boolean isBinary(byte[] buf, int offset, int length) {
+        return length > 0 && (buf[offset] & 0xFF) < BINARY_MARKER_LIMIT;
+    }
+
+    // ==================== 编码 ====================
+
+    public static byte[] encodeLong(long value) {
+        return withTag(V1_LONG, null, value);
+    }
+
+    public static byte[] encodeInt(int value) {
+        return withTag(V1_INT, null, value);
+    }
+
+    /**
+     * scale超出1字节或unscaledValue超出long时仍写字符串，读取不受影响
+     */
+    public static byte[] encodeDecimal(BigDecimal value) {
+        int scale = value.scale();
+        if (scale < Byte.MIN_VALUE || scale > Byte.MAX_VALUE || value.unscaledValue().bitLength() > 63) {
+            return legacy(value.toPlainString());
+        }
+        return withTag(V1_DECIMAL, (byte) scale, value.unscaledValue().longValue());
+    }
+
+    public static byte[] encodeTime(LocalDateTime time) {
+        return withTag(V1_TIME, null, time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+
+    /**
+     * 旧格式（UTF-8字符串），关闭二进制写入时使用
+     */
+    public static byte[] encodeLegacy(Object value) {
+        if (value instanceof LocalDateTime time) {
+            return legacy(time.format(LEGACY_TIME_FORMAT));
+        }
+        if (value instanceof BigDecimal decimal) {
+            return legacy(decimal.toPlainString());
+        }
+        return legacy(String.valueOf(value));
+    }
+
+    private static byte[] legacy(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] withTag(byte tag, Byte scale, long value) {
+        int length = minimalLength(value);
+        int offset = scale == null ? 1 : 2;
+        byte[] bytes = new byte[offset + length];
+        bytes[0] = tag;
+        if (scale != null) {
+            bytes[1] = scale;
+        }
+        for (int i = bytes.length - 1; i >= offset; i--) {
+            bytes[i] = (byte) value;
+            value >>= 8;
+        }
+        return bytes;
+    }
+
+    /**
+     * 能按补码无损表示value的最少字节数
+     */
+    private static int minimalLength(long value) {
+        int bits = 64 - Long.numberOfLeadingZeros(value < 0 ? ~value : value) + 1;
+        return Math.max(1, (bits + 7) / 8);
+    }
+
+    // ==================== 解码（兼容旧字符串格式） ====================
+
+    public static Long decodeLong(byte[] value) {
+        return value == null ? null : decodeLong(value, 0, value.length);
+    }
+
+    public static Integer decodeInt(byte[] value) {
+        return value == null ? null : decodeInt(value, 0, value.length);
+    }
+
+    public static BigDecimal decodeDecimal(byte[] value) {
+        return value == null ? null : decodeDecimal(value, 0, value.length);
+    }
+
+    public static LocalDateTime decodeTime(byte[] value) {
+        return value == null ? null : decodeTime(value, 0, value.length);
+    }
+
+    /**
+     * 以下按偏移量解码，可以直接读Cell的底层数组，不需要先复制出单元格值
+     */
+    public static Long decodeLong(byte[] buf, int offset, int length) {
+        if (length == 0) {
+            return null;
+        }
+        if (isBinary(buf, offset, length)) {
+            return switch (buf[offset]) {
+                case V1_LONG, V1_INT -> readLong(buf, offset + 1, offset + length);
+                default -> throw unknownTag(buf[offset], "long");
+            };
+        }
+        String text = legacyText(buf, offset, length);
+        return text == null ? null : Long.parseLong(text);
+    }
+
+    public static Integer decodeInt(byte[] buf, int offset, int length) {
+        if (length == 0) {
+            return null;
+        }
+        if (isBinary(buf, offset, length)) {
+            return switch (buf[offset]) {
+                case V1_LONG, V1_INT -> Math.toIntExact(readLong(buf, offset + 1, offset + length));
+                default -> throw unknownTag(buf[offset], "int");
+            };
+        }
+        String text = legacyText(buf, offset, length);
+        return text == null ? null : Integer.parseInt(text);
+    }
+
+    public static BigDecimal decodeDecimal(byte[] buf, int offset, int length) {
+        if (length == 0) {
+            return null;
+        }
+        if (isBinary(buf, offset, length)) {
+            return switch (buf[offset]) {
+                case V1_DECIMAL -> BigDecimal.valueOf(readLong(buf, offset + 2, offset + length), buf[offset + 1]);
+                case V1_LONG, V1_INT -> BigDecimal.valueOf(readLong(buf, offset + 1, offset + length));
+                default -> throw unknownTag(buf[offset], "decimal");
+            };
+        }
+        String text = legacyText(buf, offset, length);
+        return text == null ? null : new BigDecimal(text);
+    }
+
+    public static LocalDateTime decodeTime(byte[] buf, int offset, int length) {
+        if (length == 0) {
+            return null;
+        }
+        if (isBinary(buf, offset, length)) {
+            if (buf[offset] != V1_TIME) {
+                throw unknownTag(buf[offset], "time");
+            }
+            long millis = readLong(buf, offset + 1, offset + length);
+            return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+        }
+        String text = legacyText(buf, offset, length);
+        return text == null ? null : LocalDateTime.parse(text, LEGACY_TIME_FORMAT);
+    }
+
+    /**
+     * 以字符串形式读取（日志、排查用），二进制单元格按其类型格式化
+     */
+    public static String decodeToString(byte[] value) {
+        if (value == null) {
+            return null;
+        }
+        if (!isBinary(value)) {
+            return new String(value, StandardCharsets.UTF_8);
+        }
+        return switch (value[0]) {
+            case V1_LONG, V1_INT -> String.valueOf(readLong(value, 1, value.length));
+            case V1_DECIMAL -> decodeDecimal(value).toPlainString();
+            case V1_TIME -> decodeTime(value).format(LEGACY_TIME_FORMAT);
+            default -> new String(value, StandardCharsets.UTF_8);
+        };
+    }
+
+    /**
+     * 读取[from, end)之间的大端补码
+     */
+    private static long readLong(byte[] buf, int from, int end) {
+        int length = end - from;
+        if (length < 1 || length > 8) {
+            throw new IllegalArgumentException("二进制单元格长度不合法: " + length);
+        }
+        // 首字节按有符号扩展，其余按无符号拼接
+        long result = buf[from];
+        for (int i = from + 1; i < end; i++) {
+            result = (result << 8) | (buf[i] & 0xFF);
+        }
+        return result;
+    }
+
+    /**
+     * 旧格式的文本，空白视为没有值
+     */
+    private static String legacyText(byte[] buf, int offset, int length) {
+        String text = new String(buf, offset, length, StandardCharsets.UTF_8).trim();
+        return text.isEmpty() ? null : text;
+    }
+
+    private static IllegalArgumentException unknownTag(byte tag, String type) {
+        return new IllegalArgumentException("无法按" + type + "解码的单元格类型标记: 0x" + Integer.toHexString(tag & 0xFF));
+    }
+}
@@ -0,0 +1,126 @@
+package com.seckill.util;
+
+import com.seckill.common.CursorPageResult;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.ResultScanner;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+/**
+ * HBase键集（游标）分页
+ *
+ * 游标是对客户端不透明的Base64字符串：版本 + 校验和（CRC32(范围 + 行键)） + 上一页最后扫描到的行键。
+ * 下一页从该行键之后开始扫描（Scan.withStartRow不含起始行），配合PageFilter和Scan.setLimit只读一页，
+ * 不需要全表扫描、排序和跳过前面的行。列表按行键顺序返回，排序键就是行键本身（如订单行键中的反转时间戳）。
+ * 范围是列表和查询条件的标识（如"order:user:5:1"），游标不能拿到其他列表或其他条件下使用；
+ * 校验和只能发现损坏或随手篡改的游标，扫描时另外把起始行限制在本次Scan的行键范围内，
+ * 伪造的游标也读不到范围以外的行
+ */
+public final class HBaseCursor {
+
+    public static final int DEFAULT_PAGE_SIZE = 10;
+    public static final int MAX_PAGE_SIZE = 100;
+
+    /** 版本1的游标只校验范围哈希，行键被篡改时无法发现，不再接受 */
+    private static final byte VERSION = 2;
+    private static final int HEADER_LENGTH = 1 + Bytes.SIZEOF_INT;
+
+    private HBaseCursor() {
+    }
+
+    public static int pageSize(Integer pageSize) {
+        if (pageSize == null || pageSize < 1) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(pageSize, MAX_PAGE_SIZE);
+    }
+
+    public static String encode(String scope, byte[] row) {
+        byte[] token = new byte[HEADER_LENGTH + row.length];
+        token[0] = VERSION;
+        Bytes.putInt(token, 1, checksum(scope, row, 0, row.length));
+        System.arraycopy(row, 0, token, HEADER_LENGTH, row.length);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token);
+    }
+
+    /**
+     * @return 上一页最后扫描到的行键，cursor为空（第一页）时返回null
+     * @throws IllegalArgumentException 游标格式错误或不属于该范围
+     */
+    public static byte[] decode(String scope, String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        byte[] token;
+        try {
+            token = Base64.getUrlDecoder().decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("分页游标格式错误", e);
+        }
+        if (token.length <= HEADER_LENGTH || token[0] != VERSION) {
+            throw new IllegalArgumentException("分页游标格式错误");
+        }
+        if (Bytes.toInt(token, 1) != checksum(scope, token, HEADER_LENGTH, token.length - HEADER_LENGTH)) {
+            throw new IllegalArgumentException("分页游标与查询条件不匹配");
+        }
+        return Arrays.copyOfRange(token, HEADER_LENGTH, token.length);
+    }
+
+    /**
+     * 从游标之后读取一页
+     * scan上的过滤器应已包含HBaseFilterBuilder.limit(pageSize + 1)，多读的一行只用来判断是否还有下一页
+     * @param convert 行 -> 实体，返回null表示客户端过滤掉该行（仍计入已扫描，游标会越过它）
+     */
+    public static <T> CursorPageResult<T> scan(HBaseUtil hBaseUtil, String tableName, Scan scan, String scope,
+                                               String cursor, int pageSize,
+                                               Function<Result, T> convert) throws IOException {
+        byte[] after = decode(scope, cursor);
+        byte[] stopRow = scan.getStopRow();
+        if (after != null && stopRow.length > 0 && Bytes.compareTo(after, stopRow) >= 0) {
+            return new CursorPageResult<>(new ArrayList<>(), null, pageSize);
+        }
+        // 游标在范围起点之前时仍从起点开始，不能把扫描扩大到范围以外
+        if (after != null && Bytes.compareTo(after, scan.getStartRow()) >= 0) {
+            scan.withStartRow(after, false);
+        }
+        scan.setLimit(pageSize + 1);
+        scan.setCaching(pageSize + 1);
+
+        List<T> records = new ArrayList<>(pageSize);
+        // pageSize为0时只探测后面是否还有行，有则下一页仍从原游标开始
+        byte[] lastRow = after;
+        boolean hasMore = false;
+        try (ResultScanner scanner = hBaseUtil.scan(tableName, scan)) {
+            int scanned = 0;
+            for (Result r : scanner) {
+                if (scanned == pageSize) {
+                    hasMore = true;
+                    break;
+                }
+                scanned++;
+                lastRow = r.getRow();
+                T record = convert.apply(r);
+                if (record != null) {
+                    records.add(record);
+                }
+            }
+        }
+        return new CursorPageResult<>(records, hasMore ? encode(scope, lastRow) : null, pageSize);
+    }
+
+    private static int checksum(String scope, byte[] row, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(scope.getBytes(StandardCharsets.UTF_8));
+        crc.update(row, offset, length);
+        return (int) crc.getValue();
+    }
+}
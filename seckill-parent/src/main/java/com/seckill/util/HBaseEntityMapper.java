@@ -0,0 +1,345 @@
+package com.seckill.util;
+
+import com.seckill.annotation.HBaseColumn;
+import com.seckill.util.HBaseCodec.ColumnType;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 按实体字段上的@HBaseColumn注解完成 实体 <-> Put/Result 的转换
+ * 每个实体类只解析一次：列族、列名的字节数组和字段读写的MethodHandle都预先生成并缓存，
+ * 转换时不再重复Bytes.toBytes，读取时直接按偏移量解码Cell底层数组，不复制单元格值。
+ * 只负责注解列，行键、动态列（如购物车商品列）和兼容旧数据的特殊逻辑仍由各Mapper处理
+ */
+public final class HBaseEntityMapper<T> {
+
+    private static final ClassValue<HBaseEntityMapper<?>> MAPPERS = new ClassValue<>() {
+        @Override
+        protected HBaseEntityMapper<?> computeValue(Class<?> type) {
+            return new HBaseEntityMapper<>(type);
+        }
+    };
+
+    private final Class<T> type;
+    private final MethodHandle constructor;
+    private final Column[] columns;
+    private final Map<String, Column> byField;
+
+    @SuppressWarnings("unchecked")
+    public static <T> HBaseEntityMapper<T> of(Class<T> type) {
+        return (HBaseEntityMapper<T>) MAPPERS.get(type);
+    }
+
+    private HBaseEntityMapper(Class<T> type) {
+        this.type = type;
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+            this.constructor = lookup.findConstructor(type, MethodType.methodType(void.class))
+                    .asType(MethodType.methodType(Object.class));
+            List<Column> list = new ArrayList<>();
+            Map<String, Column> map = new LinkedHashMap<>();
+            for (Field field : type.getDeclaredFields()) {
+                HBaseColumn annotation = field.getAnnotation(HBaseColumn.class);
+                if (annotation == null || Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+                Column column = new Column(field, annotation, lookup);
+                list.add(column);
+                map.put(field.getName(), column);
+            }
+            if (list.isEmpty()) {
+                throw new IllegalStateException(type.getName() + " 没有@HBaseColumn字段");
+            }
+            this.columns = list.toArray(new Column[0]);
+            this.byField = Collections.unmodifiableMap(map);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("解析HBase实体映射失败: " + type.getName(), e);
+        }
+    }
+
+    /**
+     * 把实体的非空字段（计数列除外）加入Put，所有单元格使用同一个时间戳
+     * @param timestamp 单元格时间戳，传HConstants.LATEST_TIMESTAMP时由RegionServer赋值
+     */
+    public Put toPut(byte[] row, T entity, long timestamp, HBaseUtil codec) {
+        Put put = new Put(row, timestamp);
+        for (Column column : columns) {
+            if (column.counter) {
+                continue;
+            }
+            Object value = column.get(entity);
+            if (value != null) {
+                put.addColumn(column.family, column.qualifier, timestamp, column.encode(value, codec));
+            }
+        }
+        return put;
+    }
+
+    /**
+     * 写入单个字段（如逻辑删除标记），值为null时不写
+     */
+    public void addColumn(Put put, String fieldName, Object value, long timestamp, HBaseUtil codec) {
+        Column column = column(fieldName);
+        if (column.counter) {
+            throw new IllegalArgumentException("计数列不能通过Put写入: " + fieldName);
+        }
+        if (value != null) {
+            put.addColumn(column.family, column.qualifier, timestamp, column.encode(value, codec));
+        }
+    }
+
+    /**
+     * 新建实体并填充Result中存在的注解列
+     */
+    public T fromResult(Result result) {
+        T entity = newInstance();
+        fill(result, entity);
+        return entity;
+    }
+
+    public void fill(Result result, T entity) {
+        for (Column column : columns) {
+            Cell cell = result.getColumnLatestCell(column.family, column.qualifier);
+            if (cell == null) {
+                continue;
+            }
+            Object value;
+            try {
+                value = column.decode(cell.getValueArray(), cell.getValueOffset(), cell.getValueLength());
+            } catch (RuntimeException e) {
+                throw new IllegalStateException("解码HBase列失败, 行: " + Bytes.toString(result.getRow())
+                        + ", 列: " + column.name(), e);
+            }
+            if (value != null) {
+                column.set(entity, value);
+            }
+        }
+    }
+
+    /**
+     * 读取单个字段对应的列，列不存在时返回null
+     */
+    public Object getValue(Result result, String fieldName) {
+        Column column = column(fieldName);
+        Cell cell = result.getColumnLatestCell(column.family, column.qualifier);
+        return cell == null ? null : column.decode(cell.getValueArray(), cell.getValueOffset(), cell.getValueLength());
+    }
+
+    /**
+     * 列投影：只读取fields对应的列，其余列族（大字段、地址、物流等）不会从RegionServer返回
+     * fields为空时不做限制，读取整行；required是Mapper自身过滤、排序依赖的字段，只在有投影时追加
+     * 未投影的字段在转换出的实体中为null
+     */
+    public Scan project(Scan scan, Collection<String> fields, String... required) {
+        for (Column column : projection(fields, required)) {
+            scan.addColumn(column.family, column.qualifier);
+        }
+        return scan;
+    }
+
+    public Get project(Get get, Collection<String> fields, String... required) {
+        for (Column column : projection(fields, required)) {
+            get.addColumn(column.family, column.qualifier);
+        }
+        return get;
+    }
+
+    private List<Column> projection(Collection<String> fields, String... required) {
+        if (fields == null || fields.isEmpty()) {
+            return List.of();
+        }
+        Set<String> names = new LinkedHashSet<>(fields);
+        Collections.addAll(names, required);
+        List<Column> list = new ArrayList<>(names.size());
+        for (String name : names) {
+            list.add(column(name));
+        }
+        return list;
+    }
+
+    public Column column(String fieldName) {
+        Column column = byField.get(fieldName);
+        if (column == null) {
+            throw new IllegalArgumentException(type.getSimpleName() + " 没有映射字段 " + fieldName);
+        }
+        return column;
+    }
+
+    public List<Column> columns() {
+        return List.of(columns);
+    }
+
+    /**
+     * 按HBaseCodec编码的列（列族:列 -> 类型），不含字符串列和计数列
+     */
+    public Map<String, ColumnType> typedColumns() {
+        Map<String, ColumnType> map = new LinkedHashMap<>();
+        for (Column column : columns) {
+            if (column.codecType != null) {
+                map.put(column.name(), column.codecType);
+            }
+        }
+        return map;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T newInstance() {
+        try {
+            return (T) (Object) constructor.invokeExact();
+        } catch (Throwable e) {
+            throw new IllegalStateException("创建实体失败: " + type.getName(), e);
+        }
+    }
+
+    /**
+     * 一个注解字段：列族/列名字节、字段读写句柄、值类型
+     */
+    public static final class Column {
+
+        private enum Kind {STRING, LONG, INT, DECIMAL, TIME}
+
+        private final String fieldName;
+        private final byte[] family;
+        private final byte[] qualifier;
+        private final Kind kind;
+        private final ColumnType codecType;
+        private final boolean counter;
+        private final MethodHandle getter;
+        private final MethodHandle setter;
+
+        private Column(Field field, HBaseColumn annotation, MethodHandles.Lookup lookup) throws IllegalAccessException {
+            this.fieldName = field.getName();
+            this.family = Bytes.toBytes(annotation.family());
+            this.qualifier = Bytes.toBytes(annotation.qualifier());
+            this.counter = annotation.counter();
+            this.kind = kindOf(field);
+            if (counter && kind != Kind.LONG && kind != Kind.INT) {
+                throw new IllegalStateException("计数列必须是Long或Integer: " + field);
+            }
+            this.codecType = counter ? null : switch (kind) {
+                case LONG -> ColumnType.LONG;
+                case INT -> ColumnType.INT;
+                case DECIMAL -> ColumnType.DECIMAL;
+                case TIME -> ColumnType.TIME;
+                case STRING -> null;
+            };
+            this.getter = lookup.unreflectGetter(field).asType(MethodType.methodType(Object.class, Object.class));
+            this.setter = lookup.unreflectSetter(field).asType(MethodType.methodType(void.class, Object.class, Object.class));
+        }
+
+        private static Kind kindOf(Field field) {
+            Class<?> t = field.getType();
+            if (t == String.class) return Kind.STRING;
+            if (t == Long.class) return Kind.LONG;
+            if (t == Integer.class) return Kind.INT;
+            if (t == BigDecimal.class) return Kind.DECIMAL;
+            if (t == LocalDateTime.class) return Kind.TIME;
+            throw new IllegalStateException("不支持的HBase列字段类型: " + field);
+        }
+
+        public byte[] family() {
+            return family;
+        }
+
+        public byte[] qualifier() {
+            return qualifier;
+        }
+
+        public String fieldName() {
+            return fieldName;
+        }
+
+        /**
+         * 列族:列
+         */
+        public String name() {
+            return Bytes.toString(family) + ":" + Bytes.toString(qualifier);
+        }
+
+        /**
+         * 按列类型编码（写入格式由seckill.hbase-codec.write-binary决定）
+         */
+        public byte[] encode(Object value, HBaseUtil codec) {
+            return switch (kind) {
+                case STRING -> Bytes.toBytes((String) value);
+                case LONG -> codec.encodeLong((Long) value);
+                case INT -> codec.encodeInt((Integer) value);
+                case DECIMAL -> codec.encodeDecimal((BigDecimal) value);
+                case TIME -> codec.encodeTime((LocalDateTime) value);
+            };
+        }
+
+        /**
+         * 单元格可能出现的全部编码（二进制和旧字符串格式），供服务端过滤器做等值比较
+         * 只支持字符串和整数列：decimal、时间的字符串形式不唯一，计数列不经过HBaseCodec
+         */
+        byte[][] filterValues(Object value) {
+            if (counter || kind == Kind.DECIMAL || kind == Kind.TIME) {
+                throw new IllegalArgumentException("该列不支持服务端等值过滤: " + name());
+            }
+            return switch (kind) {
+                case LONG -> new byte[][]{HBaseCodec.encodeLong(((Number) value).longValue()), HBaseCodec.encodeLegacy(value)};
+                case INT -> new byte[][]{HBaseCodec.encodeInt(((Number) value).intValue()), HBaseCodec.encodeLegacy(value)};
+                default -> new byte[][]{Bytes.toBytes(String.valueOf(value))};
+            };
+        }
+
+        boolean isString() {
+            return kind == Kind.STRING;
+        }
+
+        private Object decode(byte[] buf, int offset, int length) {
+            if (counter) {
+                // 不是8字节的单元格不是计数器写入的，按没有值处理
+                if (length != Bytes.SIZEOF_LONG) {
+                    return null;
+                }
+                long value = Bytes.toLong(buf, offset, length);
+                return kind == Kind.INT ? (Object) (int) value : (Object) value;
+            }
+            return switch (kind) {
+                case STRING -> Bytes.toString(buf, offset, length);
+                case LONG -> HBaseCodec.decodeLong(buf, offset, length);
+                case INT -> HBaseCodec.decodeInt(buf, offset, length);
+                case DECIMAL -> HBaseCodec.decodeDecimal(buf, offset, length);
+                case TIME -> HBaseCodec.decodeTime(buf, offset, length);
+            };
+        }
+
+        private Object get(Object entity) {
+            try {
+                return (Object) getter.invokeExact(entity);
+            } catch (Throwable e) {
+                throw new IllegalStateException("读取字段失败: " + fieldName, e);
+            }
+        }
+
+        private void set(Object entity, Object value) {
+            try {
+                setter.invokeExact(entity, value);
+            } catch (Throwable e) {
+                throw new IllegalStateException("设置字段失败: " + fieldName, e);
+            }
+        }
+    }
+}
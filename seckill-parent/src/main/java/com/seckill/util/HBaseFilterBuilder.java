@@ -0,0 +1,131 @@
+package com.seckill.util;
+
+import org.apache.hadoop.hbase.CompareOperator;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.filter.BinaryComparator;
+import org.apache.hadoop.hbase.filter.ByteArrayComparable;
+import org.apache.hadoop.hbase.filter.Filter;
+import org.apache.hadoop.hbase.filter.FilterList;
+import org.apache.hadoop.hbase.filter.PageFilter;
+import org.apache.hadoop.hbase.filter.SingleColumnValueFilter;
+import org.apache.hadoop.hbase.filter.SubstringComparator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 按实体字段构造HBase服务端过滤条件，条件之间是AND，在RegionServer上执行，不满足的行不再传回客户端
+ *
+ * 数值列可能同时存在二进制和旧字符串两种编码（见HBaseCodec），等值条件会同时匹配两种编码；
+ * 条件值为null或空字符串时忽略该条件，方便直接传入可选的查询参数。
+ * 注意SubstringComparator不区分大小写，需要精确语义的调用方应在客户端再判断一次
+ */
+public final class HBaseFilterBuilder<T> {
+
+    private final HBaseEntityMapper<T> mapper;
+    private final List<Filter> filters = new ArrayList<>();
+    private long pageSize;
+
+    private HBaseFilterBuilder(HBaseEntityMapper<T> mapper) {
+        this.mapper = mapper;
+    }
+
+    public static <T> HBaseFilterBuilder<T> of(HBaseEntityMapper<T> mapper) {
+        return new HBaseFilterBuilder<>(mapper);
+    }
+
+    /**
+     * 字段等于value，该列不存在的行被过滤
+     */
+    public HBaseFilterBuilder<T> eq(String fieldName, Object value) {
+        if (value != null) {
+            in(fieldName, value);
+        }
+        return this;
+    }
+
+    /**
+     * 字段等于values中任意一个，该列不存在的行被过滤
+     */
+    public HBaseFilterBuilder<T> in(String fieldName, Object... values) {
+        HBaseEntityMapper.Column column = mapper.column(fieldName);
+        List<Filter> any = new ArrayList<>();
+        for (Object value : values) {
+            for (byte[] encoded : column.filterValues(value)) {
+                any.add(valueFilter(column, CompareOperator.EQUAL, new BinaryComparator(encoded), true));
+            }
+        }
+        filters.add(any.size() == 1 ? any.get(0) : new FilterList(FilterList.Operator.MUST_PASS_ONE, any));
+        return this;
+    }
+
+    /**
+     * 字段不等于value，该列不存在的行保留（如没有deleted列的旧数据）
+     */
+    public HBaseFilterBuilder<T> ne(String fieldName, Object value) {
+        if (value == null) {
+            return this;
+        }
+        HBaseEntityMapper.Column column = mapper.column(fieldName);
+        for (byte[] encoded : column.filterValues(value)) {
+            filters.add(valueFilter(column, CompareOperator.NOT_EQUAL, new BinaryComparator(encoded), false));
+        }
+        return this;
+    }
+
+    /**
+     * 字符串字段包含text（不区分大小写），该列不存在的行被过滤
+     */
+    public HBaseFilterBuilder<T> contains(String fieldName, String text) {
+        if (text == null || text.isEmpty()) {
+            return this;
+        }
+        HBaseEntityMapper.Column column = mapper.column(fieldName);
+        if (!column.isString()) {
+            throw new IllegalArgumentException("只有字符串列支持包含匹配: " + column.name());
+        }
+        filters.add(valueFilter(column, CompareOperator.EQUAL, new SubstringComparator(text), true));
+        return this;
+    }
+
+    /**
+     * 每个Region最多返回pageSize行（PageFilter按Region生效，客户端仍需在收满后停止读取）
+     * 只能用于按行键顺序分页；需要按其他字段排序后分页的查询不能使用
+     */
+    public HBaseFilterBuilder<T> limit(long pageSize) {
+        this.pageSize = pageSize;
+        return this;
+    }
+
+    /**
+     * @return 没有任何条件时返回null
+     */
+    public Filter build() {
+        List<Filter> all = new ArrayList<>(filters);
+        if (pageSize > 0) {
+            // PageFilter只统计通过前面所有条件的行，必须放在最后
+            all.add(new PageFilter(pageSize));
+        }
+        if (all.isEmpty()) {
+            return null;
+        }
+        return all.size() == 1 ? all.get(0) : new FilterList(FilterList.Operator.MUST_PASS_ALL, all);
+    }
+
+    public Scan applyTo(Scan scan) {
+        Filter filter = build();
+        if (filter != null) {
+            scan.setFilter(filter);
+        }
+        return scan;
+    }
+
+    private static Filter valueFilter(HBaseEntityMapper.Column column, CompareOperator op,
+                                      ByteArrayComparable comparator,
+                                      boolean filterIfMissing) {
+        SingleColumnValueFilter filter = new SingleColumnValueFilter(column.family(), column.qualifier(), op, comparator);
+        filter.setFilterIfMissing(filterIfMissing);
+        filter.setLatestVersionOnly(true);
+        return filter;
+    }
+}
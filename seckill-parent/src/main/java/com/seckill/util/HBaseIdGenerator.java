@@ -1,69 +1,103 @@
 package com.seckill.util;
 
+import com.seckill.config.HBaseConnectionProvider;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.hadoop.hbase.TableName;
 import org.apache.hadoop.hbase.client.*;
 import org.apache.hadoop.hbase.util.Bytes;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
- * HBase ID生成器
- * 使用HBase表存储自增ID
+ * HBase ID生成器（号段模式）
+ * 每张表在id_generator中维护一个计数器，一次Increment预留一段ID，之后在内存中无锁分配；
+ * 当前号段使用到80%时异步预取下一段，号段消耗速度决定下一次预留的大小。
+ * Increment是原子操作，号段不会重复分配；HBase不可用时直接抛出异常，不再降级为时间戳
+ * 切换号段时会等待HBase RPC，使用ReentrantLock而不是synchronized，虚拟线程等待时不会占住载体线程
  */
 @Slf4j
 @Component
 public class HBaseIdGenerator {
 
     private static final String ID_TABLE_NAME = "id_generator";
-    private static final String ID_CF = "cf_id";
-    private static final String ID_COL = "current_id";
+    private static final byte[] ID_CF = Bytes.toBytes("cf_id");
+    private static final byte[] ID_COL = Bytes.toBytes("current_id");
+
+    /** 号段使用比例达到该值时预取下一段 */
+    private static final double PREFETCH_RATIO = 0.8;
+    private static final long SEGMENT_WAIT_SECONDS = 5;
+
+    @Value("${seckill.id.segment.min-step:20}")
+    private long minStep;
+
+    @Value("${seckill.id.segment.max-step:100000}")
+    private long maxStep;
+
+    /** 期望一个号段的使用时长，消耗更快则加倍步长，更慢则减半 */
+    @Value("${seckill.id.segment.target-duration-ms:60000}")
+    private long targetDurationMillis;
 
     @Autowired
-    private org.apache.hadoop.conf.Configuration hbaseConfiguration;
+    private HBaseConnectionProvider connectionProvider;
+
+    private volatile Connection connection;
+
+    private final ReentrantLock connectionLock = new ReentrantLock();
+
+    private final Map<String, SegmentBuffer> buffers = new ConcurrentHashMap<>();
 
-    private Connection connection;
+    private final ExecutorService prefetchExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "id-segment-prefetch");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     /**
      * 获取连接
      */
     private Connection getConnection() throws IOException {
-        if (connection == null || connection.isClosed()) {
-            connection = ConnectionFactory.createConnection(hbaseConfiguration);
+        Connection conn = connection;
+        if (conn == null || conn.isClosed()) {
+            connectionLock.lock();
+            try {
+                conn = connection;
+                if (conn == null || conn.isClosed()) {
+                    conn = connectionProvider.createConnection();
+                    connection = conn;
+                }
+            } finally {
+                connectionLock.unlock();
+            }
         }
-        return connection;
+        return conn;
     }
 
     /**
-     * 生成下一个ID（线程安全）
+     * 生成下一个ID（线程安全，号段内无锁）
      */
-    public synchronized Long generateId(String tableName) {
-        try (Table table = getConnection().getTable(TableName.valueOf(ID_TABLE_NAME))) {
-            String rowKey = tableName;
-            
-            // 使用原子操作获取并递增ID
-            Increment increment = new Increment(Bytes.toBytes(rowKey));
-            increment.addColumn(Bytes.toBytes(ID_CF), Bytes.toBytes(ID_COL), 1);
-            
-            Result result = table.increment(increment);
-            byte[] value = result.getValue(Bytes.toBytes(ID_CF), Bytes.toBytes(ID_COL));
-            
-            if (value != null) {
-                return Bytes.toLong(value);
-            } else {
-                // 如果不存在，初始化为1
-                Put put = new Put(Bytes.toBytes(rowKey));
-                put.addColumn(Bytes.toBytes(ID_CF), Bytes.toBytes(ID_COL), 
-                        System.currentTimeMillis(), Bytes.toBytes(1L));
-                table.put(put);
-                return 1L;
+    public Long generateId(String tableName) {
+        SegmentBuffer buffer = buffers.computeIfAbsent(tableName, SegmentBuffer::new);
+        while (true) {
+            Segment segment = buffer.current;
+            if (segment != null) {
+                long id = segment.cursor.getAndIncrement();
+                if (id <= segment.max) {
+                    if (id >= segment.prefetchAt && buffer.prefetching.compareAndSet(false, true)) {
+                        prefetch(buffer);
+                    }
+                    return id;
+                }
             }
-        } catch (Exception e) {
-            log.error("生成ID失败: {}", e.getMessage(), e);
-            // 如果HBase操作失败，使用时间戳作为ID（降级方案）
-            return System.currentTimeMillis();
+            switchSegment(buffer, segment);
         }
     }
 
@@ -73,5 +107,133 @@ public class HBaseIdGenerator {
     public Long generateProductId() {
         return generateId("product_info");
     }
-}
 
+    /**
+     * 当前号段用完后切换到预取的号段，没有预取成功则同步申请
+     */
+    private void switchSegment(SegmentBuffer buffer, Segment exhausted) {
+        buffer.lock.lock();
+        try {
+            if (buffer.current != exhausted) {
+                // 其他线程已完成切换
+                return;
+            }
+            Segment next = null;
+            Future<Segment> pending = buffer.next;
+            if (pending != null) {
+                try {
+                    next = pending.get(SEGMENT_WAIT_SECONDS, TimeUnit.SECONDS);
+                } catch (Exception e) {
+                    log.warn("预取ID号段失败，改为同步申请，表: {}", buffer.tableName, e);
+                }
+            }
+            if (next == null) {
+                next = allocate(buffer);
+            }
+            buffer.next = null;
+            buffer.current = next;
+            buffer.prefetching.set(false);
+        } finally {
+            buffer.lock.unlock();
+        }
+    }
+
+    private void prefetch(SegmentBuffer buffer) {
+        try {
+            buffer.next = prefetchExecutor.submit(() -> allocate(buffer));
+        } catch (RejectedExecutionException e) {
+            buffer.prefetching.set(false);
+        }
+    }
+
+    /**
+     * 按自适应步长从HBase预留一个号段
+     */
+    private Segment allocate(SegmentBuffer buffer) {
+        long step = nextStep(buffer);
+        try (Table table = getConnection().getTable(TableName.valueOf(ID_TABLE_NAME))) {
+            Increment increment = new Increment(Bytes.toBytes(buffer.tableName));
+            increment.addColumn(ID_CF, ID_COL, step);
+            Result result = table.increment(increment);
+            byte[] value = result.getValue(ID_CF, ID_COL);
+            if (value == null) {
+                throw new IllegalStateException("Increment未返回计数值");
+            }
+            long max = Bytes.toLong(value);
+            Segment segment = new Segment(max - step + 1, max);
+            log.info("申请ID号段，表: {}, 区间: [{}, {}], 步长: {}", buffer.tableName, segment.start, max, step);
+            return segment;
+        } catch (Exception e) {
+            log.error("申请ID号段失败，表: {}", buffer.tableName, e);
+            throw new RuntimeException("生成ID失败: " + buffer.tableName, e);
+        }
+    }
+
+    /**
+     * 根据上一个号段的消耗时长调整步长
+     */
+    private long nextStep(SegmentBuffer buffer) {
+        long now = System.currentTimeMillis();
+        long step = buffer.step;
+        if (buffer.lastAllocateTime > 0) {
+            long elapsed = now - buffer.lastAllocateTime;
+            if (elapsed < targetDurationMillis / 2) {
+                step = Math.min(step * 2, maxStep);
+            } else if (elapsed > targetDurationMillis * 2) {
+                step = Math.max(step / 2, minStep);
+            }
+        } else {
+            step = minStep;
+        }
+        buffer.step = step;
+        buffer.lastAllocateTime = now;
+        return step;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        prefetchExecutor.shutdownNow();
+        try {
+            if (connection != null) {
+                connection.close();
+            }
+        } catch (IOException e) {
+            log.warn("关闭ID生成器HBase连接失败", e);
+        }
+    }
+
+    /**
+     * 已预留的ID区间 [start, max]
+     */
+    private static class Segment {
+        private final long start;
+        private final long max;
+        private final long prefetchAt;
+        private final AtomicLong cursor;
+
+        private Segment(long start, long max) {
+            this.start = start;
+            this.max = max;
+            this.prefetchAt = start + (long) ((max - start + 1) * PREFETCH_RATIO);
+            this.cursor = new AtomicLong(start);
+        }
+    }
+
+    /**
+     * 单表的双号段缓冲：当前号段 + 预取中的下一号段
+     */
+    private static class SegmentBuffer {
+        private final String tableName;
+        private volatile Segment current;
+        private volatile Future<Segment> next;
+        private final AtomicBoolean prefetching = new AtomicBoolean(false);
+        private final ReentrantLock lock = new ReentrantLock();
+        // 只在申请号段时读写，预取与同步申请偶尔并发时步长调整可能丢失一次，不影响ID唯一性
+        private volatile long step;
+        private volatile long lastAllocateTime;
+
+        private SegmentBuffer(String tableName) {
+            this.tableName = tableName;
+        }
+    }
+}
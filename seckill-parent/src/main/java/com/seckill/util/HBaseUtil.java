@@ -1,7 +1,9 @@
 package com.seckill.util;
 
+import com.seckill.config.HBaseConnectionProvider;
+import com.seckill.vo.HBaseWriteStatsVO;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.hbase.Cell;
 import org.apache.hadoop.hbase.CellUtil;
 import org.apache.hadoop.hbase.TableName;
@@ -11,11 +13,25 @@ import org.apache.hadoop.hbase.client.ResultScanner;
 import org.apache.hadoop.hbase.client.Scan;
 import org.apache.hadoop.hbase.util.Bytes;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 /**
  * HBase工具类
@@ -26,18 +42,94 @@ import java.util.List;
 public class HBaseUtil {
 
     @Autowired
-    private Configuration hbaseConfiguration;
+    private HBaseConnectionProvider connectionProvider;
 
-    private Connection connection;
+    private volatile Connection connection;
+
+    private final ReentrantLock connectionLock = new ReentrantLock();
+
+    @Value("${seckill.hbase-write.buffer-bytes:2097152}")
+    private long writeBufferBytes;
+
+    @Value("${seckill.hbase-write.max-pending-bytes:16777216}")
+    private long writeMaxPendingBytes;
+
+    @Value("${seckill.hbase-write.flush-interval-ms:100}")
+    private long writeFlushIntervalMs;
+
+    @Value("${seckill.hbase-write.slow-flush-ms:500}")
+    private long writeSlowFlushMs;
+
+    /**
+     * 数值、金额、时间列按HBaseCodec二进制格式写入；关闭时仍写字符串，读取两种格式都兼容
+     * 默认关闭：滚动升级时旧版本节点读不了二进制，全部节点升级后再显式开启
+     */
+    @Value("${seckill.hbase-codec.write-binary:false}")
+    private boolean codecWriteBinary;
+
+    public boolean isCodecWriteBinary() {
+        return codecWriteBinary;
+    }
+
+    /** 每张表一个写缓冲，首次异步写入时创建 */
+    private final ConcurrentMap<String, HBaseWriteBuffer> writeBuffers = new ConcurrentHashMap<>();
+
+    private final ReentrantLock flushExecutorLock = new ReentrantLock();
+
+    private volatile ScheduledExecutorService flushExecutor;
+
+    private volatile AsyncConnection asyncConnection;
+
+    /** 异步接口的回调线程池：Future在这里完成，调用方的后续处理不会占用HBase客户端的RPC线程 */
+    private volatile ExecutorService asyncCallbackExecutor;
 
     /**
      * 获取HBase连接（单例模式）
+     * 双重检查避免并发请求各自创建连接；用ReentrantLock而不是synchronized，虚拟线程建连时不会占住载体线程
      */
     private Connection getConnection() throws IOException {
-        if (connection == null || connection.isClosed()) {
-            connection = ConnectionFactory.createConnection(hbaseConfiguration);
+        Connection conn = connection;
+        if (conn == null || conn.isClosed()) {
+            connectionLock.lock();
+            try {
+                conn = connection;
+                if (conn == null || conn.isClosed()) {
+                    conn = connectionProvider.createConnection();
+                    connection = conn;
+                }
+            } finally {
+                connectionLock.unlock();
+            }
         }
-        return connection;
+        return conn;
+    }
+
+    /**
+     * 获取HBase异步连接（单例，首次使用时创建）
+     */
+    private AsyncConnection getAsyncConnection() throws IOException {
+        AsyncConnection conn = asyncConnection;
+        if (conn == null || conn.isClosed()) {
+            connectionLock.lock();
+            try {
+                conn = asyncConnection;
+                if (conn == null || conn.isClosed()) {
+                    if (asyncCallbackExecutor == null) {
+                        AtomicInteger threadIndex = new AtomicInteger();
+                        asyncCallbackExecutor = Executors.newCachedThreadPool(r -> {
+                            Thread t = new Thread(r, "hbase-async-" + threadIndex.incrementAndGet());
+                            t.setDaemon(true);
+                            return t;
+                        });
+                    }
+                    conn = connectionProvider.createAsyncConnection();
+                    asyncConnection = conn;
+                }
+            } finally {
+                connectionLock.unlock();
+            }
+        }
+        return conn;
     }
 
     /**
@@ -75,6 +167,249 @@ public class HBaseUtil {
         }
     }
 
+    /**
+     * 异步批量写入（write-behind）
+     * Put先进入该表的写缓冲立即返回，数据量达到 seckill.hbase-write.buffer-bytes 或每隔 flush-interval-ms
+     * 由刷写线程通过BufferedMutator批量写入；这批Put全部写入成功后Future正常完成，否则以异常完成。
+     * Future在刷写线程上完成，后续耗时操作（访问HBase、Redis）应使用 *Async 方法指定线程池，避免拖慢刷写
+     */
+    public CompletableFuture<Void> putBuffered(String tableName, List<Put> puts) {
+        if (puts == null || puts.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return writeBuffer(tableName).submit(puts);
+    }
+
+    /**
+     * 注册刷写前回调：每次刷写该表的写缓冲前在刷写线程上执行，
+     * 调用方可以在内存中合并高频更新（如累加计数），在回调里读出最新值后通过putBuffered提交
+     */
+    public void addFlushHook(String tableName, Runnable hook) {
+        writeBuffer(tableName).addFlushHook(hook);
+    }
+
+    /**
+     * 立即刷写指定表的写缓冲，在调用线程上执行，返回时之前提交的写入都已完成
+     */
+    public void flush(String tableName) {
+        HBaseWriteBuffer buffer = writeBuffers.get(tableName);
+        if (buffer != null) {
+            buffer.flush();
+        }
+    }
+
+    /**
+     * 各表写缓冲的刷写统计
+     */
+    public List<HBaseWriteStatsVO> getWriteStats() {
+        List<HBaseWriteStatsVO> stats = new ArrayList<>(writeBuffers.size());
+        for (HBaseWriteBuffer buffer : writeBuffers.values()) {
+            stats.add(buffer.stats());
+        }
+        stats.sort((a, b) -> a.getTableName().compareTo(b.getTableName()));
+        return stats;
+    }
+
+    BufferedMutator createBufferedMutator(String tableName, long writeBufferSize) throws IOException {
+        BufferedMutatorParams params = new BufferedMutatorParams(TableName.valueOf(tableName))
+                .writeBufferSize(writeBufferSize);
+        return getConnection().getBufferedMutator(params);
+    }
+
+    private HBaseWriteBuffer writeBuffer(String tableName) {
+        HBaseWriteBuffer buffer = writeBuffers.get(tableName);
+        if (buffer != null) {
+            return buffer;
+        }
+        ScheduledExecutorService executor = flushExecutor();
+        return writeBuffers.computeIfAbsent(tableName, t -> new HBaseWriteBuffer(t, this, executor,
+                writeBufferBytes, writeMaxPendingBytes, writeSlowFlushMs));
+    }
+
+    /**
+     * 所有表共用一个刷写线程，同一张表的刷写天然串行；批量写入内部由BufferedMutator按RegionServer并行提交
+     */
+    private ScheduledExecutorService flushExecutor() {
+        ScheduledExecutorService executor = flushExecutor;
+        if (executor == null) {
+            flushExecutorLock.lock();
+            try {
+                executor = flushExecutor;
+                if (executor == null) {
+                    executor = Executors.newSingleThreadScheduledExecutor(r -> {
+                        Thread t = new Thread(r, "hbase-write-flush");
+                        t.setDaemon(true);
+                        return t;
+                    });
+                    executor.scheduleWithFixedDelay(this::flushAll, writeFlushIntervalMs, writeFlushIntervalMs,
+                            TimeUnit.MILLISECONDS);
+                    flushExecutor = executor;
+                }
+            } finally {
+                flushExecutorLock.unlock();
+            }
+        }
+        return executor;
+    }
+
+    private void flushAll() {
+        for (HBaseWriteBuffer buffer : writeBuffers.values()) {
+            try {
+                buffer.flush();
+            } catch (Exception e) {
+                log.error("HBase写缓冲定时刷写失败", e);
+            }
+        }
+    }
+
+    /**
+     * 应用关闭时写完所有缓冲中的数据，关闭异步连接
+     */
+    @PreDestroy
+    public void shutdown() {
+        ScheduledExecutorService executor = flushExecutor;
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(writeFlushIntervalMs * 10, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            for (HBaseWriteBuffer buffer : writeBuffers.values()) {
+                buffer.close();
+            }
+            log.info("HBase写缓冲已全部刷写");
+        }
+        if (asyncConnection != null) {
+            try {
+                asyncConnection.close();
+            } catch (IOException e) {
+                log.warn("关闭HBase异步连接失败", e);
+            }
+        }
+        if (asyncCallbackExecutor != null) {
+            asyncCallbackExecutor.shutdown();
+        }
+    }
+
+    // ===== 异步接口（AsyncConnection）：不阻塞调用线程，多个独立查询可以同时进行 =====
+
+    /**
+     * 异步获取单行数据，行不存在时为空Result
+     */
+    public CompletableFuture<Result> getAsync(String tableName, String rowKey) {
+        return getAsync(tableName, new Get(Bytes.toBytes(rowKey)));
+    }
+
+    /**
+     * 异步获取单行数据（调用方自行指定列族、列、版本等）
+     */
+    public CompletableFuture<Result> getAsync(String tableName, Get get) {
+        return withAsyncTable(tableName, table -> table.get(get));
+    }
+
+    /**
+     * 异步批量获取多行数据（一次multi-get），结果与rowKeys顺序一致，不存在的行为空Result
+     */
+    public CompletableFuture<List<Result>> getBatchAsync(String tableName, List<String> rowKeys) {
+        if (rowKeys == null || rowKeys.isEmpty()) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+        List<Get> gets = new ArrayList<>(rowKeys.size());
+        for (String rowKey : rowKeys) {
+            gets.add(new Get(Bytes.toBytes(rowKey)));
+        }
+        return withAsyncTable(tableName, table -> table.getAll(gets));
+    }
+
+    /**
+     * 异步批量写入，直接发往RegionServer（与putBuffered不同，不经过写缓冲）
+     */
+    public CompletableFuture<Void> putAsync(String tableName, List<Put> puts) {
+        if (puts == null || puts.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return withAsyncTable(tableName, table -> table.putAll(puts));
+    }
+
+    /**
+     * 异步原子累加计数列（列值为8字节long），完成值为累加后的值
+     */
+    public CompletableFuture<Long> incrementColumnAsync(String tableName, String rowKey, String columnFamily,
+                                                       String column, long amount) {
+        return withAsyncTable(tableName, table -> table.incrementColumnValue(Bytes.toBytes(rowKey),
+                Bytes.toBytes(columnFamily), Bytes.toBytes(column), amount));
+    }
+
+    /**
+     * 异步条件更新，完成值为条件是否满足（满足时已执行其中的写操作）
+     */
+    public CompletableFuture<Boolean> checkAndMutateAsync(String tableName, CheckAndMutate checkAndMutate) {
+        return withAsyncTable(tableName, table -> table.checkAndMutate(checkAndMutate))
+                .thenApply(CheckAndMutateResult::isSuccess);
+    }
+
+    /**
+     * 异步流式扫描：结果逐行交给onNext（在回调线程池上执行），onNext返回false时提前结束；
+     * 扫描结束或出错时Future完成，不需要把整个结果集放进内存
+     */
+    public CompletableFuture<Void> scanAsync(String tableName, Scan scan, Predicate<Result> onNext) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        ScanResultConsumer consumer = new ScanResultConsumer() {
+            @Override
+            public boolean onNext(Result result) {
+                try {
+                    return onNext.test(result);
+                } catch (RuntimeException e) {
+                    future.completeExceptionally(e);
+                    return false;
+                }
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                future.completeExceptionally(error);
+            }
+
+            @Override
+            public void onComplete() {
+                future.complete(null);
+            }
+        };
+        try {
+            asyncTable(tableName).scan(scan, consumer);
+        } catch (IOException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private AsyncTable<ScanResultConsumer> asyncTable(String tableName) throws IOException {
+        AsyncConnection conn = getAsyncConnection();
+        return conn.getTable(TableName.valueOf(tableName), asyncCallbackExecutor);
+    }
+
+    private <T> CompletableFuture<T> withAsyncTable(String tableName,
+                                                    Function<AsyncTable<ScanResultConsumer>, CompletableFuture<T>> operation) {
+        try {
+            return operation.apply(asyncTable(tableName));
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * 批量条件更新（一次RPC按RegionServer分组），返回结果与checkAndMutates顺序一致
+     */
+    public List<CheckAndMutateResult> checkAndMutate(String tableName, List<CheckAndMutate> checkAndMutates) throws IOException {
+        if (checkAndMutates == null || checkAndMutates.isEmpty()) {
+            return new ArrayList<>();
+        }
+        try (Table table = getTable(tableName)) {
+            return table.checkAndMutate(checkAndMutates);
+        }
+    }
+
     /**
      * 根据RowKey获取单行数据
      */
@@ -85,6 +420,42 @@ public class HBaseUtil {
         }
     }
 
+    /**
+     * 获取单行数据（调用方自行指定行键、列族、列等）
+     */
+    public Result get(String tableName, Get get) throws IOException {
+        try (Table table = getTable(tableName)) {
+            return table.get(get);
+        }
+    }
+
+    /**
+     * 根据RowKey批量获取多行数据（一次multi-get，按RegionServer分组并行请求）
+     * 返回结果与rowKeys顺序一致，不存在的行为空Result
+     */
+    public Result[] getBatch(String tableName, List<String> rowKeys) throws IOException {
+        if (rowKeys == null || rowKeys.isEmpty()) {
+            return new Result[0];
+        }
+        List<Get> gets = new ArrayList<>(rowKeys.size());
+        for (String rowKey : rowKeys) {
+            gets.add(new Get(Bytes.toBytes(rowKey)));
+        }
+        return get(tableName, gets);
+    }
+
+    /**
+     * 批量获取（调用方自行指定列族、列等），结果与gets顺序一致，不存在的行为空Result
+     */
+    public Result[] get(String tableName, List<Get> gets) throws IOException {
+        if (gets == null || gets.isEmpty()) {
+            return new Result[0];
+        }
+        try (Table table = getTable(tableName)) {
+            return table.get(gets);
+        }
+    }
+
     /**
      * 根据RowKey和列族获取数据
      */
@@ -112,6 +483,16 @@ public class HBaseUtil {
         }
     }
 
+    /**
+     * 原子累加计数列（HBase Increment，列值为8字节long），返回累加后的值
+     */
+    public long incrementColumn(String tableName, String rowKey, String columnFamily, String column, long amount) throws IOException {
+        try (Table table = getTable(tableName)) {
+            return table.incrementColumnValue(Bytes.toBytes(rowKey), Bytes.toBytes(columnFamily),
+                    Bytes.toBytes(column), amount);
+        }
+    }
+
     /**
      * 删除行
      */
@@ -122,6 +503,18 @@ public class HBaseUtil {
         }
     }
 
+    /**
+     * 批量删除（调用方自行指定列、时间戳等）
+     */
+    public void deleteBatch(String tableName, List<Delete> deletes) throws IOException {
+        if (deletes == null || deletes.isEmpty()) {
+            return;
+        }
+        try (Table table = getTable(tableName)) {
+            table.delete(deletes);
+        }
+    }
+
     /**
      * 删除列
      */
@@ -149,6 +542,41 @@ public class HBaseUtil {
         return value != null ? Bytes.toString(value) : null;
     }
 
+    public Long getLongFromResult(Result result, String columnFamily, String column) {
+        return HBaseCodec.decodeLong(result.getValue(Bytes.toBytes(columnFamily), Bytes.toBytes(column)));
+    }
+
+    public Integer getIntFromResult(Result result, String columnFamily, String column) {
+        return HBaseCodec.decodeInt(result.getValue(Bytes.toBytes(columnFamily), Bytes.toBytes(column)));
+    }
+
+    public BigDecimal getDecimalFromResult(Result result, String columnFamily, String column) {
+        return HBaseCodec.decodeDecimal(result.getValue(Bytes.toBytes(columnFamily), Bytes.toBytes(column)));
+    }
+
+    public LocalDateTime getTimeFromResult(Result result, String columnFamily, String column) {
+        return HBaseCodec.decodeTime(result.getValue(Bytes.toBytes(columnFamily), Bytes.toBytes(column)));
+    }
+
+    /**
+     * 数值、金额、时间转单元格值，按seckill.hbase-codec.write-binary选择二进制或字符串格式
+     */
+    public byte[] encodeLong(long value) {
+        return codecWriteBinary ? HBaseCodec.encodeLong(value) : HBaseCodec.encodeLegacy(value);
+    }
+
+    public byte[] encodeInt(int value) {
+        return codecWriteBinary ? HBaseCodec.encodeInt(value) : HBaseCodec.encodeLegacy(value);
+    }
+
+    public byte[] encodeDecimal(BigDecimal value) {
+        return codecWriteBinary ? HBaseCodec.encodeDecimal(value) : HBaseCodec.encodeLegacy(value);
+    }
+
+    public byte[] encodeTime(LocalDateTime time) {
+        return codecWriteBinary ? HBaseCodec.encodeTime(time) : HBaseCodec.encodeLegacy(time);
+    }
+
     /**
      * 从Result中获取所有列的值（转换为Map格式，便于使用）
      */
@@ -156,7 +584,7 @@ public class HBaseUtil {
         for (Cell cell : result.listCells()) {
             String cf = Bytes.toString(CellUtil.cloneFamily(cell));
             String column = Bytes.toString(CellUtil.cloneQualifier(cell));
-            String value = Bytes.toString(CellUtil.cloneValue(cell));
+            String value = HBaseCodec.decodeToString(CellUtil.cloneValue(cell));
             map.put(cf + ":" + column, value);
         }
     }
@@ -0,0 +1,300 @@
+package com.seckill.util;
+
+import com.seckill.vo.HBaseWriteStatsVO;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hadoop.hbase.client.BufferedMutator;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.RetriesExhaustedWithDetailsException;
+import org.apache.hadoop.hbase.client.Row;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 单表写缓冲
+ * 调用方提交的Put先进入待写列表立即返回，数据量达到阈值或定时任务到点时，
+ * 在刷写线程上交给该表的BufferedMutator批量写入，再按每个请求的Put是否全部成功完成对应的Future
+ */
+@Slf4j
+class HBaseWriteBuffer {
+
+    private final String tableName;
+
+    private final HBaseUtil hBaseUtil;
+
+    private final Executor flushExecutor;
+
+    private final long bufferBytes;
+
+    private final long maxPendingBytes;
+
+    private final long slowFlushMillis;
+
+    /** 保护待写列表 */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /** 同一张表的刷写串行执行，保证先提交的先写入 */
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final List<Runnable> flushHooks = new CopyOnWriteArrayList<>();
+
+    private List<PendingWrite> pending = new ArrayList<>();
+
+    private long pendingBytes;
+
+    /** 已因数据量达到阈值提交了刷写任务，避免重复提交 */
+    private boolean flushRequested;
+
+    /** 只在刷写线程（持有flushLock）上访问 */
+    private BufferedMutator mutator;
+
+    private final AtomicLong submittedMutations = new AtomicLong();
+    private final AtomicLong flushedMutations = new AtomicLong();
+    private final AtomicLong failedMutations = new AtomicLong();
+    private final AtomicLong rejectedWrites = new AtomicLong();
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong failedFlushCount = new AtomicLong();
+    private final AtomicLong totalFlushMillis = new AtomicLong();
+    private volatile long lastFlushMillis;
+    private volatile long maxFlushMillis;
+    private volatile long lastFlushTime;
+    private volatile String lastError;
+
+    HBaseWriteBuffer(String tableName, HBaseUtil hBaseUtil, Executor flushExecutor,
+                     long bufferBytes, long maxPendingBytes, long slowFlushMillis) {
+        this.tableName = tableName;
+        this.hBaseUtil = hBaseUtil;
+        this.flushExecutor = flushExecutor;
+        this.bufferBytes = bufferBytes;
+        this.maxPendingBytes = maxPendingBytes;
+        this.slowFlushMillis = slowFlushMillis;
+    }
+
+    /**
+     * 提交一组Put，全部写入成功后Future正常完成；待写数据超过上限时直接以异常完成，由调用方走同步写入或重试
+     */
+    CompletableFuture<Void> submit(List<Put> puts) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        long size = 0;
+        for (Put put : puts) {
+            size += put.heapSize();
+        }
+        boolean requestFlush;
+        lock.lock();
+        try {
+            if (!pending.isEmpty() && pendingBytes + size > maxPendingBytes) {
+                rejectedWrites.incrementAndGet();
+                future.completeExceptionally(new IOException("HBase写缓冲已满, table=" + tableName
+                        + ", pendingBytes=" + pendingBytes));
+                return future;
+            }
+            pending.add(new PendingWrite(puts, future));
+            pendingBytes += size;
+            requestFlush = pendingBytes >= bufferBytes && !flushRequested;
+            if (requestFlush) {
+                flushRequested = true;
+            }
+        } finally {
+            lock.unlock();
+        }
+        submittedMutations.addAndGet(puts.size());
+        if (requestFlush) {
+            try {
+                flushExecutor.execute(this::flush);
+            } catch (RejectedExecutionException e) {
+                // 刷写线程已停止（应用关闭中），在调用线程上直接写
+                flush();
+            }
+        }
+        return future;
+    }
+
+    void addFlushHook(Runnable hook) {
+        flushHooks.add(hook);
+    }
+
+    /**
+     * 先执行刷写前回调（调用方在这里把内存中合并的数据提交进来），再把待写列表一次写入
+     */
+    void flush() {
+        flushLock.lock();
+        try {
+            for (Runnable hook : flushHooks) {
+                try {
+                    hook.run();
+                } catch (Exception e) {
+                    log.error("HBase写缓冲刷写前回调执行失败, table={}", tableName, e);
+                }
+            }
+            List<PendingWrite> batch;
+            long bytes;
+            lock.lock();
+            try {
+                flushRequested = false;
+                if (pending.isEmpty()) {
+                    return;
+                }
+                batch = pending;
+                bytes = pendingBytes;
+                pending = new ArrayList<>();
+                pendingBytes = 0;
+            } finally {
+                lock.unlock();
+            }
+            write(batch, bytes);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void write(List<PendingWrite> batch, long bytes) {
+        List<Put> puts = new ArrayList<>();
+        for (PendingWrite write : batch) {
+            puts.addAll(write.puts());
+        }
+        long start = System.nanoTime();
+        Set<Row> failedRows = Collections.newSetFromMap(new IdentityHashMap<>());
+        Exception error = null;
+        boolean allFailed = false;
+        try {
+            BufferedMutator m = mutator();
+            try {
+                m.mutate(puts);
+            } catch (RetriesExhaustedWithDetailsException e) {
+                // 超过BufferedMutator自身的缓冲大小时mutate内部会先写一部分，失败的行在异常里，剩下的继续flush
+                error = e;
+                collectFailedRows(e, failedRows);
+            }
+            m.flush();
+        } catch (RetriesExhaustedWithDetailsException e) {
+            error = e;
+            collectFailedRows(e, failedRows);
+        } catch (Exception e) {
+            // 连接或mutator本身出错，无法确定哪些写入成功，整批按失败处理，下次刷写重新创建mutator
+            error = e;
+            allFailed = true;
+            closeMutator();
+        }
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        long failed = 0;
+        for (PendingWrite write : batch) {
+            if (allFailed || write.containsAny(failedRows)) {
+                failed += write.puts().size();
+                write.future().completeExceptionally(error);
+            } else {
+                write.future().complete(null);
+            }
+        }
+
+        flushCount.incrementAndGet();
+        totalFlushMillis.addAndGet(elapsed);
+        lastFlushMillis = elapsed;
+        maxFlushMillis = Math.max(maxFlushMillis, elapsed);
+        lastFlushTime = System.currentTimeMillis();
+        flushedMutations.addAndGet(puts.size() - failed);
+        if (failed > 0) {
+            failedMutations.addAndGet(failed);
+            failedFlushCount.incrementAndGet();
+            lastError = String.valueOf(error);
+            log.error("HBase写缓冲刷写失败, table={}, 失败{}/{}条, 耗时{}ms", tableName, failed, puts.size(), elapsed, error);
+        } else if (elapsed >= slowFlushMillis) {
+            log.warn("HBase写缓冲刷写较慢, table={}, 数量: {}, 大小: {}字节, 耗时{}ms", tableName, puts.size(), bytes, elapsed);
+        } else {
+            log.debug("HBase写缓冲刷写完成, table={}, 数量: {}, 耗时{}ms", tableName, puts.size(), elapsed);
+        }
+    }
+
+    private BufferedMutator mutator() throws IOException {
+        if (mutator == null) {
+            mutator = hBaseUtil.createBufferedMutator(tableName, bufferBytes);
+        }
+        return mutator;
+    }
+
+    private void closeMutator() {
+        if (mutator == null) {
+            return;
+        }
+        try {
+            mutator.close();
+        } catch (Exception e) {
+            log.warn("关闭BufferedMutator失败, table={}", tableName, e);
+        }
+        mutator = null;
+    }
+
+    private static void collectFailedRows(RetriesExhaustedWithDetailsException e, Set<Row> failedRows) {
+        for (int i = 0; i < e.getNumExceptions(); i++) {
+            failedRows.add(e.getRow(i));
+        }
+    }
+
+    /**
+     * 写入剩余数据并关闭mutator（应用关闭时调用）
+     */
+    void close() {
+        flush();
+        flushLock.lock();
+        try {
+            closeMutator();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    HBaseWriteStatsVO stats() {
+        HBaseWriteStatsVO vo = new HBaseWriteStatsVO();
+        vo.setTableName(tableName);
+        lock.lock();
+        try {
+            vo.setPendingWrites(pending.size());
+            vo.setPendingBytes(pendingBytes);
+        } finally {
+            lock.unlock();
+        }
+        long flushes = flushCount.get();
+        vo.setSubmittedMutations(submittedMutations.get());
+        vo.setFlushedMutations(flushedMutations.get());
+        vo.setFailedMutations(failedMutations.get());
+        vo.setRejectedWrites(rejectedWrites.get());
+        vo.setFlushCount(flushes);
+        vo.setFailedFlushCount(failedFlushCount.get());
+        vo.setLastFlushMillis(lastFlushMillis);
+        vo.setMaxFlushMillis(maxFlushMillis);
+        vo.setAvgFlushMillis(flushes == 0 ? 0 : (double) totalFlushMillis.get() / flushes);
+        vo.setLastFlushTime(lastFlushTime == 0 ? null
+                : LocalDateTime.ofInstant(Instant.ofEpochMilli(lastFlushTime), ZoneId.systemDefault()));
+        vo.setLastError(lastError);
+        return vo;
+    }
+
+    private record PendingWrite(List<Put> puts, CompletableFuture<Void> future) {
+
+        boolean containsAny(Set<Row> rows) {
+            if (rows.isEmpty()) {
+                return false;
+            }
+            for (Put put : puts) {
+                if (rows.contains(put)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
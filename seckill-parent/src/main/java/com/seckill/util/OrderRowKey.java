@@ -0,0 +1,77 @@
+package com.seckill.util;
+
+import org.apache.hadoop.hbase.util.Bytes;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * order_history行键
+ *
+ * 新格式（25字节）：1字节盐值 + 8字节用户ID + 8字节反转时间戳（Long.MAX_VALUE - 下单毫秒） + 8字节订单ID
+ * <ul>
+ *     <li>盐值由用户ID计算，同一用户的订单在同一个盐值桶内，按用户查询是一次前缀扫描</li>
+ *     <li>反转时间戳使同一用户的订单按下单时间倒序排列，扫描结果不需要再排序</li>
+ *     <li>不同用户分散到SALT_BUCKETS个桶，顺序生成的订单ID不再集中写入同一个Region</li>
+ * </ul>
+ * 旧格式是订单ID的十进制字符串，首字节是'0'~'9'；新格式首字节是盐值（小于SALT_BUCKETS），两种行键不会冲突，
+ * 迁移期间可以共存在同一张表中。按订单ID查询通过order_index指针表定位新行键
+ *
+ * SALT_BUCKETS上线后不能修改，否则已有订单的前缀扫描会落到错误的桶
+ */
+public final class OrderRowKey {
+
+    public static final int SALT_BUCKETS = 16;
+
+    public static final int LENGTH = 1 + Bytes.SIZEOF_LONG * 3;
+
+    private static final int USER_PREFIX_LENGTH = 1 + Bytes.SIZEOF_LONG;
+
+    /** 旧格式行键的扫描范围：十进制数字字符串 */
+    public static final byte[] LEGACY_START = Bytes.toBytes("0");
+    public static final byte[] LEGACY_STOP = Bytes.toBytes(":");
+
+    private OrderRowKey() {
+    }
+
+    public static byte[] build(long userId, LocalDateTime createTime, long orderId) {
+        long millis = createTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        byte[] key = new byte[LENGTH];
+        key[0] = salt(userId);
+        Bytes.putLong(key, 1, userId);
+        Bytes.putLong(key, 1 + Bytes.SIZEOF_LONG, Long.MAX_VALUE - millis);
+        Bytes.putLong(key, 1 + Bytes.SIZEOF_LONG * 2, orderId);
+        return key;
+    }
+
+    /**
+     * 某个用户全部订单的行键前缀
+     */
+    public static byte[] userPrefix(long userId) {
+        byte[] prefix = new byte[USER_PREFIX_LENGTH];
+        prefix[0] = salt(userId);
+        Bytes.putLong(prefix, 1, userId);
+        return prefix;
+    }
+
+    public static byte[] legacy(long orderId) {
+        return Bytes.toBytes(String.valueOf(orderId));
+    }
+
+    public static boolean isLegacy(byte[] row) {
+        return row.length != LENGTH || row[0] >= SALT_BUCKETS;
+    }
+
+    /**
+     * 从行键（新旧格式均可）解析订单ID
+     */
+    public static long orderId(byte[] row) {
+        return isLegacy(row) ? Long.parseLong(Bytes.toString(row)) : Bytes.toLong(row, 1 + Bytes.SIZEOF_LONG * 2);
+    }
+
+    private static byte salt(long userId) {
+        // 乘以黄金分割常数打散连续的用户ID
+        long mixed = userId * 0x9E3779B97F4A7C15L;
+        return (byte) Math.floorMod(mixed ^ (mixed >>> 32), SALT_BUCKETS);
+    }
+}
@@ -2,8 +2,10 @@ package com.seckill.util;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 @Slf4j
@@ -30,6 +32,10 @@ public class RedisUtil {
         return redisTemplate.opsForValue().get(key);
     }
 
+    public List<Object> multiGet(List<String> keys) {
+        return redisTemplate.opsForValue().multiGet(keys);
+    }
+
     public Boolean delete(String key) {
         return redisTemplate.delete(key);
     }
@@ -70,6 +76,21 @@ public class RedisUtil {
         return redisTemplate.opsForValue().setIfAbsent(key, value, timeout, timeUnit);
     }
 
+    public Long sAdd(String key, Object... values) {
+        return redisTemplate.opsForSet().add(key, values);
+    }
+
+    /**
+     * 执行Lua脚本
+     * @param script 脚本
+     * @param keys 脚本使用的key
+     * @param args 脚本参数
+     * @return 脚本返回值
+     */
+    public <T> T execute(RedisScript<T> script, List<String> keys, Object... args) {
+        return redisTemplate.execute(script, keys, args);
+    }
+
     // ========================= Redisson分布式锁方法 =========================
 
     /**
@@ -0,0 +1,270 @@
+package com.seckill.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.net.InetAddress;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 订单ID生成器（雪花算法变体）
+ * 63位ID结构：41位毫秒时间戳 | 10位序列号 | 7位节点ID | 5位用户分片
+ * 本地生成，不访问HBase，ID和订单号按时间有序；低5位取自用户ID，
+ * 可以直接从订单ID路由到用户所在分片
+ * 节点ID：配置了 seckill.id.node-id 时使用配置值；未配置时从Redis租用一个节点号（带过期时间，定时续期），
+ * 节点号的高水位记录该节点号可能分配到的最大时间戳，上一个持有者的时间戳没有过去之前不会被其他节点租用；
+ * 租约失效后停止生成ID，直到租到新的节点号
+ * 注意：ID超过JS安全整数范围(2^53)，返回前端时需要序列化为字符串
+ */
+@Slf4j
+@Component
+public class SnowflakeIdGenerator {
+
+    /** 起始时间 2024-01-01 00:00:00（北京时间），41位时间戳可用约69年 */
+    private static final long EPOCH = 1704038400000L;
+
+    private static final int SHARD_BITS = 5;
+    private static final int NODE_BITS = 7;
+    private static final int SEQUENCE_BITS = 10;
+
+    public static final int SHARD_COUNT = 1 << SHARD_BITS;
+    private static final long SHARD_MASK = SHARD_COUNT - 1;
+    private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+
+    private static final int NODE_SHIFT = SHARD_BITS;
+    private static final int TICK_SHIFT = SHARD_BITS + NODE_BITS;
+
+    private static final String ORDER_NO_PREFIX = "SK";
+    private static final int ORDER_NO_DIGITS = 19;
+
+    private static final String NODE_LEASE_PREFIX = "seckill:id:node:";
+
+    @Value("${seckill.id.node-id:-1}")
+    private volatile long nodeId;
+
+    /** 节点号租约时长，续期间隔需明显小于该值 */
+    @Value("${seckill.id.lease-seconds:60}")
+    private long leaseSeconds;
+
+    /** 借用后续毫秒时最多领先时钟的毫秒数，超过时等待时钟追上 */
+    @Value("${seckill.id.max-lead-ms:1000}")
+    private long maxLeadMillis;
+
+    @Autowired(required = false)
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired(required = false)
+    private RedisScript<Long> snowflakeNodeLeaseScript;
+
+    @Autowired(required = false)
+    private RedisScript<Long> snowflakeNodeReleaseScript;
+
+    /**
+     * 上一次分配的 (时间戳 << 序列号位数 | 序列号)
+     * 同一毫秒序列号用尽或时钟回拨时借用后续毫秒，领先时钟不超过max-lead-ms
+     */
+    private final AtomicLong lastTick = new AtomicLong();
+
+    /** 节点号租约到期时间，到期后停止生成ID；显式配置节点ID时不过期 */
+    private volatile long leaseDeadline = Long.MAX_VALUE;
+
+    /** 节点号是否从Redis租用 */
+    private boolean leased;
+
+    /** 本进程的租约持有者标识 */
+    private String leaseOwner;
+
+    @PostConstruct
+    public void init() {
+        if (nodeId > MAX_NODE_ID) {
+            throw new IllegalStateException("seckill.id.node-id 超出范围(0-" + MAX_NODE_ID + "): " + nodeId);
+        }
+        if (nodeId >= 0) {
+            // 重启前借用的时间戳最多领先时钟max-lead-ms，等过这段时间再分配，快速重启也不会与重启前的ID重复
+            sleepQuietly(maxLeadMillis);
+            log.info("订单ID生成器节点ID: {}", nodeId);
+            return;
+        }
+        if (stringRedisTemplate == null || snowflakeNodeLeaseScript == null) {
+            throw new IllegalStateException("未配置 seckill.id.node-id 且无法从Redis租用节点号");
+        }
+        leaseOwner = hostName() + ":" + UUID.randomUUID();
+        if (acquireNodeId() < 0) {
+            throw new IllegalStateException("没有可租用的订单ID节点号，请显式配置 seckill.id.node-id");
+        }
+        leased = true;
+        log.info("订单ID生成器从Redis租用节点ID: {}", nodeId);
+    }
+
+    /**
+     * 生成订单ID
+     * @param userId 下单用户ID，低位作为分片号写入ID
+     */
+    public long nextOrderId(Long userId) {
+        long maxLeadTicks = maxLeadMillis << SEQUENCE_BITS;
+        long tick;
+        while (true) {
+            long millis = System.currentTimeMillis();
+            if (millis >= leaseDeadline) {
+                throw new IllegalStateException("订单ID节点号租约已失效");
+            }
+            long now = (millis - EPOCH) << SEQUENCE_BITS;
+            long prev = lastTick.get();
+            tick = Math.max(now, prev + 1);
+            if (tick - now > maxLeadTicks) {
+                // 序列号持续用尽或时钟回拨超过max-lead-ms，等待时钟追上
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+                continue;
+            }
+            if (lastTick.compareAndSet(prev, tick)) {
+                break;
+            }
+        }
+        return (tick << TICK_SHIFT) | (nodeId << NODE_SHIFT) | userShard(userId);
+    }
+
+    /**
+     * 续期节点号租约并推进高水位；租约已被其他节点持有（本节点长时间停顿）时重新租用
+     */
+    @Scheduled(fixedDelayString = "${seckill.id.renew-interval-ms:20000}",
+            initialDelayString = "${seckill.id.renew-interval-ms:20000}")
+    public void renewLease() {
+        if (!leased) {
+            return;
+        }
+        try {
+            long now = System.currentTimeMillis();
+            if (lease(nodeId, now)) {
+                leaseDeadline = now + TimeUnit.SECONDS.toMillis(leaseSeconds);
+                return;
+            }
+            leaseDeadline = 0;
+            log.error("订单ID节点号 {} 的租约已失效，暂停生成订单ID并重新租用", nodeId);
+            if (acquireNodeId() >= 0) {
+                log.warn("订单ID生成器重新租用节点ID: {}", nodeId);
+            }
+        } catch (Exception e) {
+            // 续期失败时沿用原到期时间，到期后停止生成ID
+            log.error("订单ID节点号续期失败，节点ID: {}", nodeId, e);
+        }
+    }
+
+    /**
+     * 正常停机时归还节点号，高水位记为实际分配到的时间戳，其他节点可以尽快复用
+     */
+    @PreDestroy
+    public void releaseLease() {
+        if (!leased) {
+            return;
+        }
+        try {
+            long highWater = (lastTick.get() >> SEQUENCE_BITS) + EPOCH + 1;
+            stringRedisTemplate.execute(snowflakeNodeReleaseScript, leaseKeys(nodeId), leaseOwner,
+                    String.valueOf(highWater));
+        } catch (Exception e) {
+            log.warn("归还订单ID节点号失败，等待租约过期，节点ID: {}", nodeId, e);
+        }
+    }
+
+    /**
+     * 从按主机名散列的位置开始依次尝试租用节点号
+     * @return 租到的节点号，没有可用节点号时返回-1
+     */
+    private long acquireNodeId() {
+        int start = hostName().hashCode();
+        for (int i = 0; i <= MAX_NODE_ID; i++) {
+            long candidate = (start + i) & MAX_NODE_ID;
+            long now = System.currentTimeMillis();
+            if (lease(candidate, now)) {
+                nodeId = candidate;
+                leaseDeadline = now + TimeUnit.SECONDS.toMillis(leaseSeconds);
+                return candidate;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 申请或续期节点号，高水位推进到租约到期时可能分配到的最大时间戳
+     */
+    private boolean lease(long candidate, long now) {
+        long leaseMillis = TimeUnit.SECONDS.toMillis(leaseSeconds);
+        Long result = stringRedisTemplate.execute(snowflakeNodeLeaseScript, leaseKeys(candidate), leaseOwner,
+                String.valueOf(leaseMillis), String.valueOf(now), String.valueOf(now + leaseMillis + maxLeadMillis));
+        return Long.valueOf(1L).equals(result);
+    }
+
+    /**
+     * 租约key与高水位key使用相同的hash tag，集群模式下落在同一个槽
+     */
+    private List<String> leaseKeys(long candidate) {
+        String key = NODE_LEASE_PREFIX + "{" + candidate + "}";
+        return List.of(key, key + ":high-water");
+    }
+
+    /**
+     * 由订单ID生成订单号：前缀 + 定长19位十进制ID，字典序与时间顺序一致
+     */
+    public String orderNo(long orderId) {
+        char[] chars = new char[ORDER_NO_PREFIX.length() + ORDER_NO_DIGITS];
+        ORDER_NO_PREFIX.getChars(0, ORDER_NO_PREFIX.length(), chars, 0);
+        long value = orderId;
+        for (int i = chars.length - 1; i >= ORDER_NO_PREFIX.length(); i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return new String(chars);
+    }
+
+    /**
+     * 用户所属分片
+     */
+    public static int userShard(Long userId) {
+        return userId == null ? 0 : (int) (userId & SHARD_MASK);
+    }
+
+    /**
+     * 订单ID中记录的用户分片
+     */
+    public static int shardOf(long orderId) {
+        return (int) (orderId & SHARD_MASK);
+    }
+
+    /**
+     * 订单ID中记录的生成时间
+     */
+    public static LocalDateTime timeOf(long orderId) {
+        long millis = (orderId >>> (TICK_SHIFT + SEQUENCE_BITS)) + EPOCH;
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "seckill-" + ProcessHandle.current().pid();
+        }
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
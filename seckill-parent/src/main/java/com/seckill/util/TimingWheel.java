@@ -0,0 +1,141 @@
+package com.seckill.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 分层时间轮
+ * 每层wheelSize个格子，上一层一格的跨度等于下一层一圈；添加任务O(1)，
+ * 高层格子到期时把其中的任务重新分配到低层，最底层格子到期时任务触发（精度为一格）。
+ * 任意线程都可以添加任务（先进入无锁队列），时间推进只能由单个驱动线程调用
+ *
+ * @param <T> 任务内容
+ */
+public class TimingWheel<T> {
+
+    private final Level[] levels;
+    private final Queue<Entry<T>> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicLong size = new AtomicLong();
+
+    /**
+     * @param tickMs 最底层每格跨度（毫秒）
+     * @param wheelSize 每层格子数
+     * @param levelCount 层数，总跨度为 tickMs * wheelSize^levelCount
+     * @param startMs 起始时间
+     */
+    public TimingWheel(long tickMs, int wheelSize, int levelCount, long startMs) {
+        levels = new Level[levelCount];
+        long levelTick = tickMs;
+        for (int i = 0; i < levelCount; i++) {
+            levels[i] = new Level(levelTick, wheelSize, startMs);
+            levelTick *= wheelSize;
+        }
+    }
+
+    /**
+     * 添加定时任务（线程安全）
+     * @param expirationMs 到期时间（毫秒时间戳）
+     * @param payload 任务内容
+     */
+    public void add(long expirationMs, T payload) {
+        pending.offer(new Entry<>(expirationMs, payload));
+        size.incrementAndGet();
+    }
+
+    /**
+     * 推进时间到nowMs，到期任务交给expiredHandler（仅驱动线程调用）
+     */
+    public void advance(long nowMs, Consumer<T> expiredHandler) {
+        List<Entry<T>> expired = new ArrayList<>();
+        Entry<T> entry;
+        while ((entry = pending.poll()) != null) {
+            place(entry, expired);
+        }
+
+        Level bottom = levels[0];
+        while (bottom.currentTime + bottom.tickMs <= nowMs) {
+            long time = bottom.currentTime + bottom.tickMs;
+            // 先更新各层当前时间，再从高到低把到期格子中的任务降级
+            for (Level level : levels) {
+                level.currentTime = time - time % level.tickMs;
+            }
+            for (int i = levels.length - 1; i >= 0; i--) {
+                Level level = levels[i];
+                if (i > 0 && level.currentTime != time) {
+                    continue;
+                }
+                ArrayDeque<Entry<T>> bucket = level.bucket(level.currentTime);
+                int count = bucket.size();
+                for (int n = 0; n < count; n++) {
+                    place(bucket.poll(), expired);
+                }
+            }
+        }
+
+        for (Entry<T> e : expired) {
+            size.decrementAndGet();
+            expiredHandler.accept(e.payload);
+        }
+    }
+
+    /**
+     * 时间轮中尚未触发的任务数
+     */
+    public long size() {
+        return size.get();
+    }
+
+    private void place(Entry<T> entry, List<Entry<T>> expired) {
+        Level bottom = levels[0];
+        if (entry.expirationMs < bottom.currentTime + bottom.tickMs) {
+            expired.add(entry);
+            return;
+        }
+        for (Level level : levels) {
+            if (entry.expirationMs < level.currentTime + level.intervalMs) {
+                level.bucket(entry.expirationMs).add(entry);
+                return;
+            }
+        }
+        // 超出总跨度的任务暂放在最高层最远的格子，轮转到时再重新分配
+        Level top = levels[levels.length - 1];
+        top.bucket(top.currentTime + top.intervalMs - top.tickMs).add(entry);
+    }
+
+    private static final class Level {
+        private final long tickMs;
+        private final long intervalMs;
+        private final ArrayDeque<?>[] buckets;
+        private long currentTime;
+
+        private Level(long tickMs, int wheelSize, long startMs) {
+            this.tickMs = tickMs;
+            this.intervalMs = tickMs * wheelSize;
+            this.buckets = new ArrayDeque<?>[wheelSize];
+            for (int i = 0; i < wheelSize; i++) {
+                buckets[i] = new ArrayDeque<>();
+            }
+            this.currentTime = startMs - startMs % tickMs;
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T> ArrayDeque<T> bucket(long timeMs) {
+            return (ArrayDeque<T>) buckets[(int) ((timeMs / tickMs) % buckets.length)];
+        }
+    }
+
+    private static final class Entry<T> {
+        private final long expirationMs;
+        private final T payload;
+
+        private Entry(long expirationMs, T payload) {
+            this.expirationMs = expirationMs;
+            this.payload = payload;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.seckill.util;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 虚拟线程工具类
+ * 项目按Java 17编译，虚拟线程API（Java 21）通过反射调用；运行在Java 21以下时isSupported()返回false
+ */
+public final class VirtualThreads {
+
+    private static final Method OF_VIRTUAL;
+    private static final Method BUILDER_NAME;
+    private static final Method BUILDER_FACTORY;
+    private static final Method NEW_THREAD_PER_TASK_EXECUTOR;
+
+    static {
+        Method ofVirtual = null;
+        Method name = null;
+        Method factory = null;
+        Method newExecutor = null;
+        try {
+            // 通过公开接口Thread.Builder取方法，避免反射访问JDK内部实现类
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            name = builderClass.getMethod("name", String.class, long.class);
+            factory = builderClass.getMethod("factory");
+            newExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+        } catch (ClassNotFoundException | NoSuchMethodException e) {
+            ofVirtual = null;
+        }
+        OF_VIRTUAL = ofVirtual;
+        BUILDER_NAME = name;
+        BUILDER_FACTORY = factory;
+        NEW_THREAD_PER_TASK_EXECUTOR = newExecutor;
+    }
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * 当前JVM是否支持虚拟线程
+     */
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * 创建虚拟线程工厂，线程名为 prefix + 序号
+     */
+    public static ThreadFactory threadFactory(String prefix) {
+        checkSupported();
+        try {
+            Object builder = OF_VIRTUAL.invoke(null);
+            builder = BUILDER_NAME.invoke(builder, prefix, 0L);
+            return (ThreadFactory) BUILDER_FACTORY.invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("创建虚拟线程工厂失败", e);
+        }
+    }
+
+    /**
+     * 创建每个任务一个虚拟线程的执行器
+     */
+    public static ExecutorService newExecutor(String prefix) {
+        ThreadFactory factory = threadFactory(prefix);
+        try {
+            return (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, factory);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("创建虚拟线程执行器失败", e);
+        }
+    }
+
+    private static void checkSupported() {
+        if (!isSupported()) {
+            throw new UnsupportedOperationException("虚拟线程需要Java 21及以上版本，当前版本: "
+                    + Runtime.version());
+        }
+    }
+}
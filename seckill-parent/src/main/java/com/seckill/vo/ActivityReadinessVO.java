@@ -0,0 +1,21 @@
+package com.seckill.vo;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 秒杀活动预热就绪情况
+ */
+@Data
+public class ActivityReadinessVO {
+    private Long activityId;
+    private String activityName;
+    private LocalDateTime startTime;
+    private Boolean stockReady;     // 库存分桶和参与用户集合已加载到Redis
+    private Boolean activityReady;  // 活动快照已加载
+    private Boolean productReady;   // 商品详情已加载
+    private Boolean ready;
+    private String message;
+    private LocalDateTime preheatTime;
+}
@@ -0,0 +1,22 @@
+package com.seckill.vo;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * HBase单元格编码迁移结果（旧字符串格式重写为二进制格式）
+ */
+@Data
+public class HBaseCodecMigrationReportVO {
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;       // 为空表示仍在执行
+    private String currentTable;         // 正在迁移的表
+    private Long scannedRows;            // 扫描的行数
+    private Long rewrittenRows;          // 重写成功的行数
+    private Long rewrittenCells;         // 重写成功的单元格数
+    private Long conflictRows;           // 扫描后被业务写入修改、本次跳过的行数（下次迁移再处理）
+    private Long unparseableCells;       // 无法按列类型解析的旧单元格数
+    private Long savedBytes;             // 重写后减少的单元格字节数
+    private String error;                // 迁移中断原因
+}
@@ -0,0 +1,26 @@
+package com.seckill.vo;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * HBase写缓冲（BufferedMutator异步写入）单表统计
+ */
+@Data
+public class HBaseWriteStatsVO {
+    private String tableName;
+    private Integer pendingWrites;        // 等待刷写的写入请求数
+    private Long pendingBytes;            // 等待刷写的数据量
+    private Long submittedMutations;      // 累计提交的Put数
+    private Long flushedMutations;        // 累计写入成功的Put数
+    private Long failedMutations;         // 累计写入失败的Put数
+    private Long rejectedWrites;          // 缓冲已满被拒绝的写入请求数
+    private Long flushCount;              // 刷写次数
+    private Long failedFlushCount;        // 有失败的刷写次数
+    private Long lastFlushMillis;         // 最近一次刷写耗时
+    private Long maxFlushMillis;          // 刷写最大耗时
+    private Double avgFlushMillis;        // 刷写平均耗时
+    private LocalDateTime lastFlushTime;
+    private String lastError;
+}
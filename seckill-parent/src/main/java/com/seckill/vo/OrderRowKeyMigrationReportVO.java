@@ -0,0 +1,20 @@
+package com.seckill.vo;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * order_history行键迁移结果（订单ID字符串行键改写为OrderRowKey格式）
+ */
+@Data
+public class OrderRowKeyMigrationReportVO {
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;       // 为空表示仍在执行
+    private Integer passes;              // 已执行的扫描轮数
+    private Long scannedRows;            // 扫描到的旧行键行数（多轮累计）
+    private Long migratedRows;           // 搬到新行键并删除旧行的行数
+    private Long skippedRows;            // 缺少用户ID且没有指针、无法确定新行键的行数
+    private Long remainingRows;          // 最后一轮结束后仍是旧行键的行数，为0表示迁移完成
+    private String error;                // 迁移中断原因
+}
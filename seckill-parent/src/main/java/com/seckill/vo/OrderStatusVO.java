@@ -0,0 +1,16 @@
+package com.seckill.vo;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import lombok.Data;
+
+/**
+ * 订单处理状态（异步下单轮询使用）
+ */
+@Data
+public class OrderStatusVO {
+    @JsonSerialize(using = ToStringSerializer.class) // 雪花ID超过JS安全整数范围
+    private Long orderId;
+    private Integer status;
+    private String statusDesc;
+}
@@ -16,6 +16,9 @@ public class SeckillActivityVO {
     private BigDecimal originalPrice;
     private BigDecimal seckillPrice;
     private Integer seckillStock;
+    private Integer soldCount;
+    private Integer stockBuckets;
+    private Integer remainingStock;
     private LocalDateTime startTime;
     private LocalDateTime endTime;
     private Integer status;
@@ -1,5 +1,7 @@
 package com.seckill.vo;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
 import lombok.Data;
 
 import java.math.BigDecimal;
@@ -14,6 +16,7 @@ public class SeckillOrderVO {
     /**
      * 订单ID
      */
+    @JsonSerialize(using = ToStringSerializer.class) // 雪花ID超过JS安全整数范围
     private Long id;
     
     /**
@@ -0,0 +1,24 @@
+package com.seckill.vo;
+
+import com.seckill.entity.StockSnapshot;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 秒杀库存对账结果（最近一次执行）
+ */
+@Data
+public class StockReconcileReportVO {
+    private LocalDateTime runTime;
+    private Long durationMs;
+    private Integer checkedActivities;    // 本次对账的活动数
+    private Integer changedActivities;    // 检查点之后有订单写入的活动数
+    private Integer divergentActivities;  // Redis库存与订单记录不一致的活动数
+    private Integer restoredActivities;   // Redis库存缺失并已重建的活动数
+    private Integer repairedActivities;   // 偏差稳定并已修正的活动数
+    private Integer failedActivities;     // 对账失败的活动数
+    private Long streamBacklog;           // 对账时尚未落库的订单消息数
+    private List<StockSnapshot> divergences;
+}
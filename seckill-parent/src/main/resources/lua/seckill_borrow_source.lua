@@ -0,0 +1,11 @@
+-- 记录借调来源分桶，释放时库存还回该分桶
+-- KEYS[1] 用户所属分桶的活动预扣明细
+-- ARGV[1] 用户ID
+-- ARGV[2] 来源分桶
+-- 返回值: 1已记录 0预扣脚本占用的参与资格已被释放
+local field = 'b:' .. ARGV[1]
+if redis.call('HEXISTS', KEYS[1], field) == 0 then
+    return 0
+end
+redis.call('HSET', KEYS[1], field, ARGV[2])
+return 1
@@ -0,0 +1,31 @@
+-- 秒杀释放库存（取消订单 / 下单失败补偿）
+-- KEYS 与 seckill_reserve.lua 相同
+-- ARGV[1] 用户ID
+-- ARGV[2] 回补数量（预扣明细缺失时使用，兼容老订单）
+-- 返回值: {实际回补的数量, 来源分桶}，来源分桶为-1时库存已回补到本分桶；
+--         否则库存是从兄弟分桶借调的，由调用方还回来源分桶
+local borrowField = 'b:' .. ARGV[1]
+local quantity = redis.call('HGET', KEYS[3], ARGV[1])
+local source = redis.call('HGET', KEYS[3], borrowField)
+if quantity then
+    redis.call('HDEL', KEYS[3], ARGV[1], borrowField)
+else
+    quantity = ARGV[2]
+end
+quantity = tonumber(quantity)
+redis.call('SREM', KEYS[2], ARGV[1])
+if source then
+    -- 借调未完成时兄弟分桶库存可能没有扣减，不回补
+    if tonumber(source) < 0 then
+        return {0, -1}
+    end
+    return {quantity, tonumber(source)}
+end
+-- 库存key已过期时不回补，避免凭空创建库存
+if redis.call('EXISTS', KEYS[1]) == 1 then
+    redis.call('INCRBY', KEYS[1], quantity)
+end
+if KEYS[4] and redis.call('EXISTS', KEYS[4]) == 1 then
+    redis.call('INCRBY', KEYS[4], quantity)
+end
+return {quantity, -1}
@@ -0,0 +1,46 @@
+-- 秒杀预扣库存（原子操作，一次往返完成）
+-- KEYS[1] 活动库存      seckill:activity:stock:{activityId}
+-- KEYS[2] 活动参与用户  seckill:activity:users:{activityId}
+-- KEYS[3] 活动预扣明细  seckill:activity:reserved:{activityId}  (hash: userId -> quantity)
+-- KEYS[4] 商品库存      stock:{productId}（可选，分桶库存时由调用方单独维护）
+-- 分桶库存时 KEYS[1..3] 为用户所属分桶的key，使用相同的hash tag保证落在同一个slot
+-- ARGV[1] 用户ID
+-- ARGV[2] 购买数量
+-- ARGV[3] 为1时库存不足改为占用参与资格，由调用方从兄弟分桶扣减库存（分桶借调）
+-- 返回值: >=0 扣减后剩余库存; -1 库存未初始化; -2 已参与过该活动; -3 库存不足; -4 参与用户集合未加载;
+--         -5 已占用参与资格，等待从兄弟分桶借调
+local stock = redis.call('GET', KEYS[1])
+if not stock then
+    return -1
+end
+-- 参与用户集合始终包含占位成员0，集合不存在说明需要从HBase索引重建
+if redis.call('EXISTS', KEYS[2]) == 0 then
+    return -4
+end
+if redis.call('SISMEMBER', KEYS[2], ARGV[1]) == 1 then
+    return -2
+end
+local quantity = tonumber(ARGV[2])
+local left
+if tonumber(stock) < quantity then
+    if ARGV[3] ~= '1' then
+        return -3
+    end
+    -- 借调：来源分桶记为-1（借调未完成），调用方扣减兄弟分桶库存后改为实际来源分桶
+    redis.call('HSET', KEYS[3], 'b:' .. ARGV[1], -1)
+    left = -5
+else
+    left = redis.call('DECRBY', KEYS[1], quantity)
+    if KEYS[4] and redis.call('EXISTS', KEYS[4]) == 1 then
+        redis.call('DECRBY', KEYS[4], quantity)
+    end
+end
+-- 补偿信息：记录参与用户和预扣数量，释放时据此回补
+redis.call('SADD', KEYS[2], ARGV[1])
+redis.call('HSET', KEYS[3], ARGV[1], quantity)
+local ttl = redis.call('PTTL', KEYS[1])
+if ttl > 0 then
+    redis.call('PEXPIRE', KEYS[2], ttl)
+    redis.call('PEXPIRE', KEYS[3], ttl)
+end
+return left
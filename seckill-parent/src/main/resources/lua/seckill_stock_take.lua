@@ -0,0 +1,13 @@
+-- 从兄弟分桶借调库存（用户所属分桶库存不足时使用），数量为负数时向该分桶归还库存
+-- KEYS[1] 兄弟分桶库存
+-- ARGV[1] 借调数量（负数为归还数量）
+-- 返回值: >=0 操作后该分桶剩余库存; -1 库存未初始化; -3 库存不足
+local stock = redis.call('GET', KEYS[1])
+if not stock then
+    return -1
+end
+local quantity = tonumber(ARGV[1])
+if tonumber(stock) < quantity then
+    return -3
+end
+return redis.call('DECRBY', KEYS[1], quantity)
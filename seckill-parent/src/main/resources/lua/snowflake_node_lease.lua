@@ -0,0 +1,23 @@
+-- 订单ID节点号租约：申请或续期
+-- KEYS[1] 节点号租约key
+-- KEYS[2] 节点号高水位key（该节点号已分配或可能分配的最大时间戳，毫秒）
+-- ARGV[1] 持有者标识
+-- ARGV[2] 租约时长（毫秒）
+-- ARGV[3] 当前时间（毫秒）
+-- ARGV[4] 新的高水位（毫秒）
+-- 返回值: 1成功 0节点号被其他节点持有，或上一个持有者分配的时间戳尚未过去
+local holder = redis.call('GET', KEYS[1])
+if holder then
+    if holder ~= ARGV[1] then
+        return 0
+    end
+    redis.call('PEXPIRE', KEYS[1], ARGV[2])
+else
+    local highWater = tonumber(redis.call('GET', KEYS[2]) or '0')
+    if highWater > tonumber(ARGV[3]) then
+        return 0
+    end
+    redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2])
+end
+redis.call('SET', KEYS[2], ARGV[4])
+return 1
@@ -0,0 +1,11 @@
+-- 订单ID节点号租约：正常停机时释放
+-- KEYS 与 snowflake_node_lease.lua 相同
+-- ARGV[1] 持有者标识
+-- ARGV[2] 已分配的最大时间戳（毫秒）
+-- 返回值: 1已释放 0租约已不属于本节点
+if redis.call('GET', KEYS[1]) ~= ARGV[1] then
+    return 0
+end
+redis.call('SET', KEYS[2], ARGV[2])
+redis.call('DEL', KEYS[1])
+return 1
@@ -0,0 +1,124 @@
+package com.seckill.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * HBaseCodec 编解码测试：二进制格式往返、与旧字符串格式的区分
+ */
+class HBaseCodecTest {
+
+    @Test
+    void longRoundTripUsesMinimalBytes() {
+        long[] values = {0, 1, -1, 127, 128, -128, -129, 65535, Integer.MAX_VALUE, Integer.MIN_VALUE,
+                Long.MAX_VALUE, Long.MIN_VALUE};
+        for (long value : values) {
+            byte[] encoded = HBaseCodec.encodeLong(value);
+            assertEquals(HBaseCodec.V1_LONG, encoded[0]);
+            assertTrue(HBaseCodec.isBinary(encoded));
+            assertEquals(value, HBaseCodec.decodeLong(encoded));
+        }
+        assertEquals(2, HBaseCodec.encodeLong(127).length);
+        assertEquals(3, HBaseCodec.encodeLong(128).length);
+        assertEquals(9, HBaseCodec.encodeLong(Long.MIN_VALUE).length);
+    }
+
+    @Test
+    void intRoundTripAndWidening() {
+        for (int value : new int[]{0, -1, 42, Integer.MAX_VALUE, Integer.MIN_VALUE}) {
+            byte[] encoded = HBaseCodec.encodeInt(value);
+            assertEquals(HBaseCodec.V1_INT, encoded[0]);
+            assertEquals(value, HBaseCodec.decodeInt(encoded));
+            assertEquals((long) value, HBaseCodec.decodeLong(encoded));
+        }
+        assertThrows(ArithmeticException.class, () -> HBaseCodec.decodeInt(HBaseCodec.encodeLong(1L << 40)));
+    }
+
+    @Test
+    void decimalRoundTripKeepsScale() {
+        for (String text : new String[]{"0", "0.00", "19.99", "-0.01", "123456789.1234", "1E+3"}) {
+            BigDecimal value = new BigDecimal(text);
+            byte[] encoded = HBaseCodec.encodeDecimal(value);
+            assertEquals(HBaseCodec.V1_DECIMAL, encoded[0]);
+            assertEquals(value, HBaseCodec.decodeDecimal(encoded));
+        }
+        assertEquals(new BigDecimal("7"), HBaseCodec.decodeDecimal(HBaseCodec.encodeLong(7)));
+    }
+
+    @Test
+    void oversizedDecimalFallsBackToLegacyString() {
+        BigDecimal huge = new BigDecimal("123456789012345678901234567890.5");
+        byte[] encoded = HBaseCodec.encodeDecimal(huge);
+        assertFalse(HBaseCodec.isBinary(encoded));
+        assertEquals(huge, HBaseCodec.decodeDecimal(encoded));
+        assertNull(HBaseCodec.ColumnType.DECIMAL.reencode(encoded));
+    }
+
+    @Test
+    void timeRoundTripAtMillisecondPrecision() {
+        LocalDateTime time = LocalDateTime.of(2024, 6, 18, 20, 0, 1, 123_000_000);
+        byte[] encoded = HBaseCodec.encodeTime(time);
+        assertEquals(HBaseCodec.V1_TIME, encoded[0]);
+        assertEquals(time, HBaseCodec.decodeTime(encoded));
+        assertEquals("2024-06-18 20:00:01", HBaseCodec.decodeToString(encoded));
+    }
+
+    @Test
+    void legacyStringsAreNotBinary() {
+        byte[] number = "12345".getBytes(StandardCharsets.UTF_8);
+        byte[] negative = "-8".getBytes(StandardCharsets.UTF_8);
+        byte[] time = "2024-01-02 03:04:05".getBytes(StandardCharsets.UTF_8);
+        assertFalse(HBaseCodec.isBinary(number));
+        assertFalse(HBaseCodec.isBinary(negative));
+        assertFalse(HBaseCodec.isBinary(time));
+
+        assertEquals(12345L, HBaseCodec.decodeLong(number));
+        assertEquals(-8, HBaseCodec.decodeInt(negative));
+        assertEquals(new BigDecimal("12345"), HBaseCodec.decodeDecimal(number));
+        assertEquals(LocalDateTime.of(2024, 1, 2, 3, 4, 5), HBaseCodec.decodeTime(time));
+        assertNull(HBaseCodec.decodeLong(" ".getBytes(StandardCharsets.UTF_8)));
+        assertNull(HBaseCodec.decodeLong(new byte[0]));
+    }
+
+    @Test
+    void legacyEncodingMatchesOldFormat() {
+        assertArrayEquals("42".getBytes(StandardCharsets.UTF_8), HBaseCodec.encodeLegacy(42L));
+        assertArrayEquals("9.90".getBytes(StandardCharsets.UTF_8), HBaseCodec.encodeLegacy(new BigDecimal("9.90")));
+        assertArrayEquals("2024-01-02 03:04:05".getBytes(StandardCharsets.UTF_8),
+                HBaseCodec.encodeLegacy(LocalDateTime.of(2024, 1, 2, 3, 4, 5)));
+    }
+
+    @Test
+    void decodesFromOffsetInsideLargerBuffer() {
+        byte[] encoded = HBaseCodec.encodeLong(-300);
+        byte[] buf = new byte[encoded.length + 4];
+        System.arraycopy(encoded, 0, buf, 2, encoded.length);
+        assertEquals(-300L, HBaseCodec.decodeLong(buf, 2, encoded.length));
+    }
+
+    @Test
+    void mismatchedTagIsRejected() {
+        byte[] time = HBaseCodec.encodeTime(LocalDateTime.of(2024, 1, 1, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> HBaseCodec.decodeLong(time));
+        assertThrows(IllegalArgumentException.class, () -> HBaseCodec.decodeTime(HBaseCodec.encodeLong(1)));
+        assertThrows(IllegalArgumentException.class, () -> HBaseCodec.decodeLong(new byte[]{HBaseCodec.V1_LONG}));
+    }
+
+    @Test
+    void reencodeConvertsOnlyLegacyCells() {
+        byte[] legacy = "2024-01-02 03:04:05".getBytes(StandardCharsets.UTF_8);
+        byte[] reencoded = HBaseCodec.ColumnType.TIME.reencode(legacy);
+        assertNotNull(reencoded);
+        assertTrue(HBaseCodec.isBinary(reencoded));
+        assertEquals(HBaseCodec.decodeTime(legacy), HBaseCodec.decodeTime(reencoded));
+
+        assertNull(HBaseCodec.ColumnType.LONG.reencode(HBaseCodec.encodeLong(5)));
+        assertNull(HBaseCodec.ColumnType.LONG.reencode("not-a-number".getBytes(StandardCharsets.UTF_8)));
+        assertNull(HBaseCodec.ColumnType.INT.reencode(new byte[0]));
+    }
+}
@@ -0,0 +1,141 @@
+package com.seckill.util;
+
+import com.seckill.common.CursorPageResult;
+import com.seckill.hbase.InMemoryHBase;
+import org.apache.hadoop.hbase.HBaseConfiguration;
+import org.apache.hadoop.hbase.TableName;
+import org.apache.hadoop.hbase.client.Admin;
+import org.apache.hadoop.hbase.client.ColumnFamilyDescriptorBuilder;
+import org.apache.hadoop.hbase.client.Connection;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.Scan;
+import org.apache.hadoop.hbase.client.TableDescriptorBuilder;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * HBaseCursor 游标分页测试：编解码、篡改和跨范围使用的游标被拒绝、版本校验、扫描范围限制
+ */
+class HBaseCursorTest {
+
+    private static final String TABLE = "cursor_test";
+    private static final byte[] CF = Bytes.toBytes("cf_base");
+    private static final byte[] COL = Bytes.toBytes("v");
+
+    private HBaseUtil hBaseUtil;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        InMemoryHBase hbase = new InMemoryHBase(HBaseConfiguration.create(), 0, 0);
+        try (Connection connection = hbase.createConnection(); Admin admin = connection.getAdmin()) {
+            admin.createTable(TableDescriptorBuilder.newBuilder(TableName.valueOf(TABLE))
+                    .setColumnFamily(ColumnFamilyDescriptorBuilder.of(CF))
+                    .build());
+        }
+        hBaseUtil = new HBaseUtil();
+        ReflectionTestUtils.setField(hBaseUtil, "connectionProvider", hbase);
+
+        List<Put> puts = new ArrayList<>();
+        for (String prefix : new String[]{"a", "b", "c"}) {
+            for (int i = 0; i < 5; i++) {
+                String row = prefix + i;
+                puts.add(new Put(Bytes.toBytes(row)).addColumn(CF, COL, Bytes.toBytes(row)));
+            }
+        }
+        hBaseUtil.putBatch(TABLE, puts);
+    }
+
+    @Test
+    void encodeDecodeRoundTrip() {
+        byte[] row = {0, 1, 2, (byte) 0xFF, 'x'};
+        String cursor = HBaseCursor.encode("order:user:5:null", row);
+        assertFalse(cursor.contains("+") || cursor.contains("/") || cursor.contains("="), "游标应可直接放在URL中");
+        assertArrayEquals(row, HBaseCursor.decode("order:user:5:null", cursor));
+        assertNull(HBaseCursor.decode("order:user:5:null", null));
+        assertNull(HBaseCursor.decode("order:user:5:null", ""));
+    }
+
+    @Test
+    void cursorFromAnotherScopeIsRejected() {
+        String cursor = HBaseCursor.encode("order:user:5:null", Bytes.toBytes("row"));
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> HBaseCursor.decode("order:user:6:null", cursor));
+        assertEquals("分页游标与查询条件不匹配", e.getMessage());
+    }
+
+    @Test
+    void tamperedRowIsRejected() {
+        byte[] token = Base64.getUrlDecoder().decode(HBaseCursor.encode("product:", Bytes.toBytes("p0001")));
+        token[token.length - 1] ^= 1;
+        String tampered = Base64.getUrlEncoder().withoutPadding().encodeToString(token);
+        assertThrows(IllegalArgumentException.class, () -> HBaseCursor.decode("product:", tampered));
+    }
+
+    @Test
+    void malformedCursorIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> HBaseCursor.decode("product:", "not base64!"));
+        assertThrows(IllegalArgumentException.class, () -> HBaseCursor.decode("product:", "AQID"));
+        String truncated = HBaseCursor.encode("product:", Bytes.toBytes("p")).substring(0, 4);
+        assertThrows(IllegalArgumentException.class, () -> HBaseCursor.decode("product:", truncated));
+    }
+
+    @Test
+    void unknownVersionIsRejected() {
+        byte[] token = Base64.getUrlDecoder().decode(HBaseCursor.encode("product:", Bytes.toBytes("p0001")));
+        token[0] = 1;
+        String oldVersion = Base64.getUrlEncoder().withoutPadding().encodeToString(token);
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> HBaseCursor.decode("product:", oldVersion));
+        assertEquals("分页游标格式错误", e.getMessage());
+    }
+
+    @Test
+    void pageSizeIsClamped() {
+        assertEquals(HBaseCursor.DEFAULT_PAGE_SIZE, HBaseCursor.pageSize(null));
+        assertEquals(HBaseCursor.DEFAULT_PAGE_SIZE, HBaseCursor.pageSize(0));
+        assertEquals(HBaseCursor.DEFAULT_PAGE_SIZE, HBaseCursor.pageSize(-3));
+        assertEquals(25, HBaseCursor.pageSize(25));
+        assertEquals(HBaseCursor.MAX_PAGE_SIZE, HBaseCursor.pageSize(10_000));
+    }
+
+    @Test
+    void pagesThroughRangeWithoutGapsOrDuplicates() throws Exception {
+        List<String> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPageResult<String> page = scanPrefix("b", cursor, 2);
+            seen.addAll(page.getRecords());
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+        assertEquals(List.of("b0", "b1", "b2", "b3", "b4"), seen);
+        assertEquals(3, pages);
+    }
+
+    @Test
+    void forgedCursorCannotLeaveScanRange() throws Exception {
+        // 校验和正确、但行键在范围起点之前的游标：仍从范围起点开始
+        String before = HBaseCursor.encode("test:b", Bytes.toBytes("a0"));
+        assertEquals(List.of("b0", "b1", "b2", "b3", "b4"), scanPrefix("b", before, 10).getRecords());
+
+        // 行键在范围终点之后：返回空页
+        CursorPageResult<String> after = scanPrefix("b", HBaseCursor.encode("test:b", Bytes.toBytes("c0")), 10);
+        assertTrue(after.getRecords().isEmpty());
+        assertNull(after.getNextCursor());
+    }
+
+    private CursorPageResult<String> scanPrefix(String prefix, String cursor, int pageSize) throws Exception {
+        Scan scan = new Scan().setStartStopRowForPrefixScan(Bytes.toBytes(prefix));
+        return HBaseCursor.scan(hBaseUtil, TABLE, scan, "test:" + prefix, cursor, pageSize,
+                r -> Bytes.toString(r.getValue(CF, COL)));
+    }
+}
@@ -0,0 +1,149 @@
+package com.seckill.util;
+
+import com.seckill.entity.SeckillActivity;
+import org.apache.hadoop.hbase.Cell;
+import org.apache.hadoop.hbase.CellComparator;
+import org.apache.hadoop.hbase.client.Get;
+import org.apache.hadoop.hbase.client.Put;
+import org.apache.hadoop.hbase.client.Result;
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * HBaseEntityMapper 测试：各类型列的往返、旧字符串单元格、计数列、列投影和解码失败
+ */
+class HBaseEntityMapperTest {
+
+    private static final HBaseEntityMapper<SeckillActivity> MAPPER = HBaseEntityMapper.of(SeckillActivity.class);
+    private static final byte[] ROW = Bytes.toBytes("1001");
+    private static final byte[] CF_BASE = Bytes.toBytes("cf_base");
+
+    private static HBaseUtil codec(boolean writeBinary) {
+        HBaseUtil hBaseUtil = new HBaseUtil();
+        ReflectionTestUtils.setField(hBaseUtil, "codecWriteBinary", writeBinary);
+        return hBaseUtil;
+    }
+
+    private static SeckillActivity sample() {
+        SeckillActivity activity = new SeckillActivity();
+        activity.setActivityName("秒杀");                          // STRING
+        activity.setProductId(9_000_000_001L);                     // LONG
+        activity.setSeckillStock(500);                             // INT
+        activity.setSeckillPrice(new BigDecimal("19.90"));         // DECIMAL
+        activity.setStartTime(LocalDateTime.of(2026, 10, 1, 10, 0, 0)); // TIME
+        return activity;
+    }
+
+    private static Result toResult(Put put) {
+        List<Cell> cells = new ArrayList<>();
+        put.getFamilyCellMap().values().forEach(cells::addAll);
+        cells.sort(CellComparator.getInstance());
+        return Result.create(cells);
+    }
+
+    private static Result cells(Object... qualifierAndValue) {
+        Put put = new Put(ROW);
+        for (int i = 0; i < qualifierAndValue.length; i += 2) {
+            put.addColumn(CF_BASE, Bytes.toBytes((String) qualifierAndValue[i]), (byte[]) qualifierAndValue[i + 1]);
+        }
+        return toResult(put);
+    }
+
+    private static void assertSample(SeckillActivity actual) {
+        SeckillActivity expected = sample();
+        assertEquals(expected.getActivityName(), actual.getActivityName());
+        assertEquals(expected.getProductId(), actual.getProductId());
+        assertEquals(expected.getSeckillStock(), actual.getSeckillStock());
+        assertEquals(expected.getSeckillPrice(), actual.getSeckillPrice());
+        assertEquals(expected.getStartTime(), actual.getStartTime());
+    }
+
+    @Test
+    void binaryRoundTripForEveryColumnKind() {
+        Put put = MAPPER.toPut(ROW, sample(), 1L, codec(true));
+        Result result = toResult(put);
+
+        assertSample(MAPPER.fromResult(result));
+        assertTrue(HBaseCodec.isBinary(result.getValue(CF_BASE, Bytes.toBytes("product_id"))));
+        assertTrue(HBaseCodec.isBinary(result.getValue(CF_BASE, Bytes.toBytes("seckill_price"))));
+        assertEquals("秒杀", Bytes.toString(result.getValue(CF_BASE, Bytes.toBytes("activity_name"))));
+        // 空字段不写入
+        assertNull(result.getValue(CF_BASE, Bytes.toBytes("end_time")));
+    }
+
+    @Test
+    void legacyWriteModeRoundTripsAsStrings() {
+        Put put = MAPPER.toPut(ROW, sample(), 1L, codec(false));
+        Result result = toResult(put);
+
+        assertSample(MAPPER.fromResult(result));
+        assertEquals("500", Bytes.toString(result.getValue(CF_BASE, Bytes.toBytes("seckill_stock"))));
+        assertEquals("2026-10-01 10:00:00", Bytes.toString(result.getValue(CF_BASE, Bytes.toBytes("start_time"))));
+    }
+
+    @Test
+    void readsLegacyStringCells() {
+        Result result = cells(
+                "activity_name", Bytes.toBytes("秒杀"),
+                "product_id", Bytes.toBytes("9000000001"),
+                "seckill_stock", Bytes.toBytes("500"),
+                "seckill_price", Bytes.toBytes("19.90"),
+                "start_time", Bytes.toBytes("2026-10-01 10:00:00"));
+
+        assertSample(MAPPER.fromResult(result));
+        assertEquals(500, MAPPER.getValue(result, "seckillStock"));
+    }
+
+    @Test
+    void counterColumnIsNeverWrittenByPut() {
+        SeckillActivity activity = sample();
+        activity.setSoldCount(7);
+        Put put = MAPPER.toPut(ROW, activity, 1L, codec(true));
+
+        assertFalse(put.has(CF_BASE, Bytes.toBytes("sold_count")));
+        assertThrows(IllegalArgumentException.class,
+                () -> MAPPER.addColumn(new Put(ROW), "soldCount", 7, 1L, codec(true)));
+        assertTrue(MAPPER.typedColumns().keySet().stream().noneMatch(name -> name.endsWith(":sold_count")));
+    }
+
+    @Test
+    void counterColumnDecodesOnlyEightByteCells() {
+        assertEquals(12, MAPPER.fromResult(cells("sold_count", Bytes.toBytes(12L))).getSoldCount());
+        // 不是Increment写入的单元格按没有值处理
+        assertNull(MAPPER.fromResult(cells("sold_count", Bytes.toBytes("12"))).getSoldCount());
+    }
+
+    @Test
+    void projectionAddsRequiredFields() {
+        Get get = MAPPER.project(new Get(ROW), List.of("activityName", "seckillPrice"), "deleted", "activityName");
+        NavigableSet<byte[]> qualifiers = get.getFamilyMap().get(CF_BASE);
+        Set<String> names = new TreeSet<>();
+        qualifiers.forEach(q -> names.add(Bytes.toString(q)));
+
+        assertEquals(Set.of("activity_name", "seckill_price", "deleted"), names);
+        assertFalse(MAPPER.project(new Get(ROW), List.of(), "deleted").hasFamilies());
+        assertThrows(IllegalArgumentException.class, () -> MAPPER.project(new Get(ROW), List.of("noSuchField")));
+    }
+
+    @Test
+    void fillReportsTheCorruptColumn() {
+        Result result = cells(
+                "activity_name", Bytes.toBytes("秒杀"),
+                "seckill_price", Bytes.toBytes("not-a-number"));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> MAPPER.fromResult(result));
+        assertTrue(e.getMessage().contains("cf_base:seckill_price"), e.getMessage());
+        assertTrue(e.getMessage().contains("1001"), e.getMessage());
+    }
+}
@@ -0,0 +1,90 @@
+package com.seckill.util;
+
+import org.apache.hadoop.hbase.util.Bytes;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * OrderRowKey 行键测试：盐值、按时间倒序、订单ID解析、新旧格式区分
+ */
+class OrderRowKeyTest {
+
+    private static final LocalDateTime TIME = LocalDateTime.of(2024, 6, 18, 20, 0, 0);
+
+    @Test
+    void layoutIsSaltUserReverseTimeOrderId() {
+        long userId = 10086L;
+        long orderId = 7195302394716160001L;
+        byte[] key = OrderRowKey.build(userId, TIME, orderId);
+
+        assertEquals(OrderRowKey.LENGTH, key.length);
+        assertTrue(key[0] >= 0 && key[0] < OrderRowKey.SALT_BUCKETS);
+        assertEquals(userId, Bytes.toLong(key, 1));
+        assertEquals(orderId, Bytes.toLong(key, 1 + Bytes.SIZEOF_LONG * 2));
+        assertTrue(Bytes.startsWith(key, OrderRowKey.userPrefix(userId)));
+    }
+
+    @Test
+    void saltIsStablePerUserAndSpreadsConsecutiveUsers() {
+        Set<Byte> salts = new HashSet<>();
+        for (long userId = 1; userId <= 64; userId++) {
+            byte salt = OrderRowKey.userPrefix(userId)[0];
+            assertEquals(salt, OrderRowKey.build(userId, TIME, 1L)[0]);
+            assertEquals(salt, OrderRowKey.build(userId, TIME.plusDays(30), 2L)[0]);
+            salts.add(salt);
+        }
+        assertEquals(OrderRowKey.SALT_BUCKETS, salts.size());
+    }
+
+    @Test
+    void newerOrdersOfSameUserSortFirst() {
+        long userId = 42L;
+        List<byte[]> keys = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            keys.add(OrderRowKey.build(userId, TIME.plusMinutes(i), 100L + i));
+        }
+        for (int i = 1; i < keys.size(); i++) {
+            assertTrue(Bytes.compareTo(keys.get(i), keys.get(i - 1)) < 0, "新订单的行键应排在前面");
+        }
+        // 同一毫秒内按订单ID排序
+        byte[] a = OrderRowKey.build(userId, TIME, 1L);
+        byte[] b = OrderRowKey.build(userId, TIME, 2L);
+        assertTrue(Bytes.compareTo(a, b) < 0);
+    }
+
+    @Test
+    void orderIdParsesBothFormats() {
+        long orderId = 7195302394716160001L;
+        assertEquals(orderId, OrderRowKey.orderId(OrderRowKey.build(1L, TIME, orderId)));
+        assertEquals(orderId, OrderRowKey.orderId(OrderRowKey.legacy(orderId)));
+        assertEquals(5L, OrderRowKey.orderId(OrderRowKey.legacy(5L)));
+    }
+
+    @Test
+    void legacyDetection() {
+        assertFalse(OrderRowKey.isLegacy(OrderRowKey.build(1L, TIME, 9L)));
+        assertTrue(OrderRowKey.isLegacy(OrderRowKey.legacy(9L)));
+        assertTrue(OrderRowKey.isLegacy(OrderRowKey.legacy(Long.MAX_VALUE)));
+        byte[] wrongSalt = OrderRowKey.build(1L, TIME, 9L);
+        wrongSalt[0] = (byte) OrderRowKey.SALT_BUCKETS;
+        assertTrue(OrderRowKey.isLegacy(wrongSalt));
+    }
+
+    @Test
+    void legacyKeysFallInLegacyScanRangeAndNewKeysDoNot() {
+        for (long orderId : new long[]{0L, 1L, 123456789L, Long.MAX_VALUE}) {
+            byte[] legacy = OrderRowKey.legacy(orderId);
+            assertTrue(Bytes.compareTo(legacy, OrderRowKey.LEGACY_START) >= 0);
+            assertTrue(Bytes.compareTo(legacy, OrderRowKey.LEGACY_STOP) < 0);
+        }
+        byte[] key = OrderRowKey.build(Long.MAX_VALUE, TIME, Long.MAX_VALUE);
+        assertTrue(Bytes.compareTo(key, OrderRowKey.LEGACY_START) < 0);
+    }
+}
@@ -0,0 +1,120 @@
+package com.seckill.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SnowflakeIdGenerator 测试：位段布局、单调递增、并发唯一、节点ID校验
+ */
+class SnowflakeIdGeneratorTest {
+
+    private static final long NODE_ID = 93;
+
+    private SnowflakeIdGenerator generator(long nodeId) {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator();
+        ReflectionTestUtils.setField(generator, "nodeId", nodeId);
+        ReflectionTestUtils.setField(generator, "leaseSeconds", 60L);
+        ReflectionTestUtils.setField(generator, "maxLeadMillis", 5L);
+        generator.init();
+        return generator;
+    }
+
+    @Test
+    void packsTimeNodeAndUserShard() {
+        SnowflakeIdGenerator generator = generator(NODE_ID);
+        LocalDateTime before = LocalDateTime.now().minusSeconds(1);
+        long userId = 1_000_003L;
+        long id = generator.nextOrderId(userId);
+
+        assertTrue(id > 0);
+        assertEquals(SnowflakeIdGenerator.userShard(userId), SnowflakeIdGenerator.shardOf(id));
+        assertEquals(userId % SnowflakeIdGenerator.SHARD_COUNT, SnowflakeIdGenerator.shardOf(id));
+        assertEquals(NODE_ID, (id >>> 5) & 127);
+        LocalDateTime time = SnowflakeIdGenerator.timeOf(id);
+        assertFalse(time.isBefore(before));
+        assertTrue(Duration.between(before, time).toSeconds() < 10);
+    }
+
+    @Test
+    void nullUserGoesToShardZero() {
+        assertEquals(0, SnowflakeIdGenerator.userShard(null));
+        assertEquals(0, SnowflakeIdGenerator.shardOf(generator(NODE_ID).nextOrderId(null)));
+    }
+
+    @Test
+    void idsIncreaseAcrossUsers() {
+        SnowflakeIdGenerator generator = generator(NODE_ID);
+        long previous = 0;
+        // 超过单毫秒序列号容量，覆盖借用后续毫秒的路径
+        for (int i = 0; i < 20_000; i++) {
+            long id = generator.nextOrderId((long) (i * 7));
+            assertTrue(id > previous, "订单ID应单调递增");
+            previous = id;
+        }
+    }
+
+    @Test
+    void idsAreUniqueUnderConcurrency() throws Exception {
+        SnowflakeIdGenerator generator = generator(NODE_ID);
+        int threads = 8;
+        int perThread = 20_000;
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                long userId = t;
+                tasks.add(() -> {
+                    long previous = 0;
+                    for (int i = 0; i < perThread; i++) {
+                        long id = generator.nextOrderId(userId);
+                        assertTrue(id > previous);
+                        previous = id;
+                        ids.add(id);
+                    }
+                    return null;
+                });
+            }
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(threads * perThread, ids.size());
+    }
+
+    @Test
+    void orderNoIsFixedWidthAndOrdered() {
+        SnowflakeIdGenerator generator = generator(NODE_ID);
+        long first = generator.nextOrderId(1L);
+        long second = generator.nextOrderId(1L);
+        String a = generator.orderNo(first);
+        String b = generator.orderNo(second);
+        assertEquals(21, a.length());
+        assertTrue(a.startsWith("SK"));
+        assertEquals(first, Long.parseLong(a.substring(2)));
+        assertTrue(a.compareTo(b) < 0);
+        assertEquals("SK0000000000000000042", generator.orderNo(42));
+    }
+
+    @Test
+    void invalidNodeIdFailsFast() {
+        assertThrows(IllegalStateException.class, () -> generator(128));
+        // 未配置节点ID且没有Redis可租用时不再按主机地址推导
+        assertThrows(IllegalStateException.class, () -> generator(-1));
+    }
+}
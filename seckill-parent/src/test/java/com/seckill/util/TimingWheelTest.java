@@ -0,0 +1,125 @@
+package com.seckill.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * TimingWheel 测试：到期精度、跨层降级、超出总跨度、过期任务、并发添加
+ */
+class TimingWheelTest {
+
+    private static final long TICK = 10;
+    private static final int WHEEL_SIZE = 8;
+    private static final int LEVELS = 3;
+    private static final long START = 1_000;
+    /** 总跨度 tick * wheelSize^levels */
+    private static final long SPAN = TICK * WHEEL_SIZE * WHEEL_SIZE * WHEEL_SIZE;
+
+    @Test
+    void tasksFireInTheTickContainingTheirExpiration() {
+        TimingWheel<Long> wheel = new TimingWheel<>(TICK, WHEEL_SIZE, LEVELS, START);
+        Random random = new Random(42);
+        List<Long> expirations = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            // 覆盖各层以及超出总跨度的任务
+            long expiration = START + TICK + random.nextInt((int) (SPAN * 3));
+            expirations.add(expiration);
+            wheel.add(expiration, expiration);
+        }
+        assertEquals(expirations.size(), wheel.size());
+
+        Map<Long, Integer> fired = new HashMap<>();
+        long end = START + SPAN * 3 + TICK * 2;
+        for (long now = START; now <= end; now += TICK) {
+            long current = now;
+            wheel.advance(now, expiration -> {
+                assertEquals(expiration - expiration % TICK, current, "任务应在到期时间所在的格子触发");
+                fired.merge(expiration, 1, Integer::sum);
+            });
+        }
+
+        assertEquals(0, wheel.size());
+        Map<Long, Integer> expected = new HashMap<>();
+        expirations.forEach(e -> expected.merge(e, 1, Integer::sum));
+        assertEquals(expected, fired, "每个任务恰好触发一次");
+    }
+
+    @Test
+    void largeJumpFiresEverythingDue() {
+        TimingWheel<Integer> wheel = new TimingWheel<>(TICK, WHEEL_SIZE, LEVELS, START);
+        for (int i = 0; i < 100; i++) {
+            wheel.add(START + TICK + i * 97L, i);
+        }
+        List<Integer> fired = new ArrayList<>();
+        long now = START + 50 * 97L;
+        wheel.advance(now, fired::add);
+        for (int i = 0; i < 100; i++) {
+            long expiration = START + TICK + i * 97L;
+            assertEquals(expiration - expiration % TICK <= now, fired.contains(i), "任务 " + i);
+        }
+        assertEquals(100 - fired.size(), wheel.size());
+    }
+
+    @Test
+    void expiredTaskFiresOnNextAdvance() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, WHEEL_SIZE, LEVELS, START);
+        wheel.advance(START + 500, t -> fail("没有任务"));
+        wheel.add(START, "late");
+        List<String> fired = new ArrayList<>();
+        wheel.advance(START + 500, fired::add);
+        assertEquals(List.of("late"), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void taskDoesNotFireBeforeItsTick() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, WHEEL_SIZE, LEVELS, START);
+        long expiration = START + TICK * WHEEL_SIZE * 3 + 5;
+        wheel.add(expiration, "task");
+        List<String> fired = new ArrayList<>();
+        wheel.advance(expiration - expiration % TICK - 1, fired::add);
+        assertTrue(fired.isEmpty());
+        wheel.advance(expiration - expiration % TICK, fired::add);
+        assertEquals(List.of("task"), fired);
+    }
+
+    @Test
+    void concurrentAddsAreAllDelivered() throws Exception {
+        TimingWheel<Integer> wheel = new TimingWheel<>(TICK, WHEEL_SIZE, LEVELS, START);
+        int threads = 4;
+        int perThread = 5_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            int base = t * perThread;
+            executor.submit(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    wheel.add(START + TICK + (base + i) % SPAN, base + i);
+                }
+                done.countDown();
+            });
+        }
+        // 添加的同时由驱动线程推进时间
+        List<Integer> fired = new ArrayList<>();
+        while (!done.await(1, TimeUnit.MILLISECONDS)) {
+            wheel.advance(START, fired::add);
+        }
+        executor.shutdown();
+        wheel.advance(START + SPAN + TICK, fired::add);
+
+        assertEquals(threads * perThread, fired.size());
+        assertEquals(threads * perThread, fired.stream().distinct().count());
+        assertEquals(0, wheel.size());
+    }
+}